@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.mmnaseri.dragonfly.annotations;
+
+import com.mmnaseri.dragonfly.metadata.CacheEvictionPolicy;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation enables the second-level cache for the annotated entity. Cached entities are
+ * looked up by their primary key before going to the database, both when they are requested
+ * directly and when they are loaded as the target of a relation. The cache only holds the values
+ * read from the database, so each lookup still yields a fresh instance.
+ *
+ * <pre>
+ *     &#064;Entity
+ *     &#064;Cached(capacity = 500, timeToLive = 60000)
+ *     public class Country {
+ *         ...
+ *     }
+ * </pre>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:05)
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Cached {
+
+    /**
+     * The maximum number of entities kept in the cache
+     */
+    int capacity() default 1000;
+
+    /**
+     * The number of milliseconds an entity is kept after it was read. A value of {@code 0}
+     * keeps entities until they are evicted or invalidated.
+     */
+    long timeToLive() default 0;
+
+    /**
+     * The policy used for choosing the entity to evict when the cache is full
+     */
+    CacheEvictionPolicy eviction() default CacheEvictionPolicy.LEAST_RECENTLY_USED;
+
+    /**
+     * Whether the results of {@code findAll} and {@code find(sample)} should be cached as well. Only
+     * the keys of the matching entities are kept for each query, and they are dropped as soon as any
+     * entity of this type is modified through the data access.
+     */
+    boolean queries() default false;
+
+}
@@ -31,31 +31,85 @@ import org.objectweb.asm.commons.EmptyVisitor;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
 
 /**
  * This class will hold utility methods for resolving metadata related to classes
  * enhanced throughout the framework.
  *
+ * <p>Resolved call sites are cached per class, but the cache never keeps a class, or its class loader,
+ * from being unloaded: classes are only referenced weakly, and the call sites of each class, which refer
+ * back to the class through its methods, are only referenced softly.</p>
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/9/9, 16:32)
  */
 public abstract class EnhancementUtils {
 
+    private static final String ENHANCED_MARKER = "$$$ENHANCED$$$";
+    private static final Pattern ENHANCED_CLASS_NAME = Pattern.compile(".*?\\$\\$\\$ENHANCED\\$\\$\\$[^\\$]+");
+    private static final ConcurrentMap<String, WeakReference<Class<?>>> classes = new ConcurrentHashMap<String, WeakReference<Class<?>>>();
+    private static final Map<Class<?>, SoftReference<CallSites>> callSites = Collections.synchronizedMap(new WeakHashMap<Class<?>, SoftReference<CallSites>>());
+    private static final ThreadLocal<Stack<Method>> actors = new ThreadLocal<Stack<Method>>() {
+        @Override
+        protected Stack<Method> initialValue() {
+            return new Stack<Method>();
+        }
+    };
+
     /**
      * @return the last method call right before the first proxied method
-     * was called
+     * was called. If an actor has been explicitly declared for the current thread
+     * through {@link #pushActor(Method)}, that actor is returned without inspecting
+     * the call stack.
      */
     public static Method getCallerMethod() {
+        final Method actor = getDeclaredActor();
+        if (actor != null) {
+            return actor;
+        }
         return getMethod(getCaller());
     }
 
+    /**
+     * Explicitly declares the method acting on behalf of the current thread, for cases
+     * where the actor is already known (e.g. the repository method being intercepted).
+     * Each call must be matched by a call to {@link #popActor()}.
+     * @param actor    the acting method
+     */
+    public static void pushActor(Method actor) {
+        actors.get().push(actor);
+    }
+
+    /**
+     * Removes the last actor declared for the current thread
+     */
+    public static void popActor() {
+        final Stack<Method> stack = actors.get();
+        if (!stack.isEmpty()) {
+            stack.pop();
+        }
+    }
+
+    /**
+     * @return the actor explicitly declared for the current thread, or {@code null}
+     */
+    public static Method getDeclaredActor() {
+        final Stack<Method> stack = actors.get();
+        return stack.isEmpty() ? null : stack.peek();
+    }
+
     /**
      * @return the calling stack trace element
      */
     public static StackTraceElement getCaller() {
-        return getCaller(Thread.currentThread().getStackTrace());
+        return getCaller(new Throwable().getStackTrace());
     }
 
     /**
@@ -66,7 +120,7 @@ public abstract class EnhancementUtils {
     public static StackTraceElement getCaller(StackTraceElement[] stackTraceElements) {
         StackTraceElement last = null;
         for (int i = stackTraceElements.length - 1; i >= 0; i--) {
-            if (stackTraceElements[i].getClassName().matches(".*?\\$\\$\\$ENHANCED\\$\\$\\$[^\\$]+")) {
+            if (isEnhanced(stackTraceElements[i].getClassName())) {
                 return last;
             }
             last = stackTraceElements[i];
@@ -74,25 +128,88 @@ public abstract class EnhancementUtils {
         return last;
     }
 
+    /**
+     * @param className    the name of the class
+     * @return {@code true} if the name denotes a class generated by the enhancer
+     */
+    public static boolean isEnhanced(String className) {
+        return className.contains(ENHANCED_MARKER) && ENHANCED_CLASS_NAME.matcher(className).matches();
+    }
+
     /**
      * This method uses ASM to determine a method metadata from a stack trace
-     * element
+     * element. Resolved methods are memoized per call site, and the line number
+     * table of each class is only read once.
      * @param stackTraceElement    the stack trace element
      * @return the method for the element
      */
     public static Method getMethod(final StackTraceElement stackTraceElement) {
-        final String stackTraceClassName = stackTraceElement.getClassName();
-        final String stackTraceMethodName = stackTraceElement.getMethodName();
-        final int stackTraceLineNumber = stackTraceElement.getLineNumber();
-        Class<?> stackTraceClass;
+        final Class<?> stackTraceClass = getClass(stackTraceElement.getClassName());
+        final CallSites sites = getCallSites(stackTraceClass);
+        final String site = stackTraceElement.getMethodName() + ":" + stackTraceElement.getLineNumber();
+        final Method cached = sites.methods.get(site);
+        if (cached != null) {
+            return cached;
+        }
+        final Method method = resolveMethod(stackTraceClass, sites.lineTable, stackTraceElement);
+        sites.methods.putIfAbsent(site, method);
+        return method;
+    }
+
+    private static Class<?> getClass(String className) {
+        final WeakReference<Class<?>> reference = classes.get(className);
+        Class<?> type = reference == null ? null : reference.get();
+        if (type != null) {
+            return type;
+        }
         try {
-            stackTraceClass = Class.forName(stackTraceClassName);
+            type = Class.forName(className);
         } catch (ClassNotFoundException e) {
-            throw new Error("No such class: " + stackTraceClassName);
+            throw new Error("No such class: " + className);
+        }
+        classes.put(className, new WeakReference<Class<?>>(type));
+        return type;
+    }
+
+    private static CallSites getCallSites(Class<?> type) {
+        final SoftReference<CallSites> reference = callSites.get(type);
+        CallSites sites = reference == null ? null : reference.get();
+        if (sites != null) {
+            return sites;
         }
-        final AtomicReference<String> methodDescriptorReference = new AtomicReference<String>();
-        String classFileResourceName = "/" + stackTraceClassName.replaceAll("\\.", "/") + ".class";
-        InputStream classFileStream = stackTraceClass.getResourceAsStream(classFileResourceName);
+        sites = new CallSites(readLineTable(type));
+        callSites.put(type, new SoftReference<CallSites>(sites));
+        return sites;
+    }
+
+    private static Method resolveMethod(Class<?> stackTraceClass, Map<String, String> lineTable, StackTraceElement stackTraceElement) {
+        final String stackTraceMethodName = stackTraceElement.getMethodName();
+        final int stackTraceLineNumber = stackTraceElement.getLineNumber();
+        final String methodDescriptor = lineTable.get(stackTraceMethodName + ":" + stackTraceLineNumber);
+
+        if (methodDescriptor == null) {
+            throw new Error("Could not find line " + stackTraceLineNumber);
+        }
+
+        for (Method method : stackTraceClass.getMethods()) {
+            if (stackTraceMethodName.equals(method.getName()) && methodDescriptor.equals(Type.getMethodDescriptor(method))) {
+                return method;
+            }
+        }
+
+        throw new Error("Could not find the calling method");
+    }
+
+    /**
+     * Reads the line number table of the class, mapping each {@code method:line} pair to the descriptor
+     * of the method the line belongs to
+     * @param type    the class
+     * @return the line number table
+     */
+    private static Map<String, String> readLineTable(Class<?> type) {
+        final Map<String, String> lineTable = new HashMap<String, String>();
+        String classFileResourceName = "/" + type.getName().replace('.', '/') + ".class";
+        InputStream classFileStream = type.getResourceAsStream(classFileResourceName);
 
         if (classFileStream == null) {
             throw new Error("Could not acquire the class file containing for the calling class");
@@ -109,16 +226,10 @@ public abstract class EnhancementUtils {
                     new EmptyVisitor() {
                         @Override
                         public MethodVisitor visitMethod(int access, final String name, final String desc, String signature, String[] exceptions) {
-                            if (!name.equals(stackTraceMethodName)) {
-                                return null;
-                            }
-
                             return new EmptyVisitor() {
                                 @Override
                                 public void visitLineNumber(int line, Label start) {
-                                    if (line == stackTraceLineNumber) {
-                                        methodDescriptorReference.set(desc);
-                                    }
+                                    lineTable.put(name + ":" + line, desc);
                                 }
                             };
                         }
@@ -131,19 +242,21 @@ public abstract class EnhancementUtils {
             } catch (IOException ignored) {
             }
         }
+        return lineTable;
+    }
 
-        String methodDescriptor = methodDescriptorReference.get();
+    /**
+     * The line number table of a class, along with the methods already resolved from it
+     */
+    private static class CallSites {
 
-        if (methodDescriptor == null) {
-            throw new Error("Could not find line " + stackTraceLineNumber);
-        }
+        private final Map<String, String> lineTable;
+        private final ConcurrentMap<String, Method> methods = new ConcurrentHashMap<String, Method>();
 
-        for (Method method : stackTraceClass.getMethods()) {
-            if (stackTraceMethodName.equals(method.getName()) && methodDescriptor.equals(Type.getMethodDescriptor(method))) {
-                return method;
-            }
+        private CallSites(Map<String, String> lineTable) {
+            this.lineTable = lineTable;
         }
 
-        throw new Error("Could not find the calling method");
     }
+
 }
@@ -0,0 +1,151 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.mmnaseri.dragonfly.cg;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This is the base class for the property accessors generated for entities by {@link PropertyAccessorGenerator}.
+ * Each generated accessor reads and writes the properties of one entity type through direct calls to its
+ * getters and setters, with the properties identified by their index in the accessor, so that no reflection
+ * is involved once the accessor has been generated.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:24)
+ */
+public abstract class PropertyAccessor {
+
+    private Class<?> entityType;
+    private String[] properties;
+    private boolean[] readable;
+    private boolean[] writable;
+    private Type[] genericTypes;
+    private Method[] writers;
+    private Map<String, Integer> indices;
+
+    void initialize(Class<?> entityType, String[] properties, boolean[] readable, boolean[] writable, Type[] genericTypes, Method[] writers) {
+        this.entityType = entityType;
+        this.properties = properties;
+        this.readable = readable;
+        this.writable = writable;
+        this.genericTypes = genericTypes;
+        this.writers = writers;
+        this.indices = new HashMap<String, Integer>();
+        for (int i = 0; i < properties.length; i++) {
+            indices.put(properties[i], i);
+        }
+    }
+
+    /**
+     * @return the entity type for which this accessor was generated
+     */
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * @return the number of properties known to this accessor
+     */
+    public int getPropertyCount() {
+        return properties.length;
+    }
+
+    /**
+     * @param propertyName    the name of the property
+     * @return the index of the property, or {@code -1} if the entity has no accessible getter or setter for it
+     */
+    public int getIndex(String propertyName) {
+        final Integer index = indices.get(propertyName);
+        return index == null ? -1 : index;
+    }
+
+    public String getPropertyName(int index) {
+        return properties[index];
+    }
+
+    public boolean isReadable(int index) {
+        return readable[index];
+    }
+
+    public boolean isWritable(int index) {
+        return writable[index];
+    }
+
+    /**
+     * @param index    the index of the property
+     * @return the generic type of the setter's parameter, or {@code null} if the property is not writable
+     */
+    public Type getGenericType(int index) {
+        return genericTypes[index];
+    }
+
+    /**
+     * Reads the value of the property through its getter
+     * @param entity    the entity
+     * @param index     the index of the property
+     * @return the value of the property, with primitive values boxed, or {@code null} if the property is
+     * not readable
+     */
+    public abstract Object get(Object entity, int index);
+
+    /**
+     * Writes the value of the property through its setter. Values for primitive properties are converted the
+     * way reflection converts them: they are widened to the type of the property where possible, and rejected
+     * where they would have to be narrowed.
+     * @param entity    the entity
+     * @param index     the index of the property
+     * @param value     the new value of the property
+     * @throws IllegalArgumentException if the value cannot be passed to the setter without narrowing it
+     */
+    public abstract void set(Object entity, int index, Object value);
+
+    /**
+     * Writes the value of the property through the setter using reflection. Generated accessors call this
+     * for primitive properties whose value is not of the exact wrapper type of the property.
+     * @param entity    the entity
+     * @param index     the index of the property
+     * @param value     the new value of the property
+     */
+    protected void setReflectively(Object entity, int index, Object value) {
+        try {
+            writers[index].invoke(entity, value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Failed to access the setter for property " + properties[index], e);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException("Failed to set property " + properties[index], e.getCause());
+        }
+    }
+
+}
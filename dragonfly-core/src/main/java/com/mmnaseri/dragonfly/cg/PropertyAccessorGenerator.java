@@ -0,0 +1,315 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.mmnaseri.dragonfly.cg;
+
+import com.mmnaseri.couteau.reflection.util.ReflectionUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * This class uses ASM to generate a {@link PropertyAccessor} for each entity type, with one branch per property
+ * calling the property's getter or setter directly. Accessors are generated the first time they are asked for,
+ * and are then shared by all threads.
+ *
+ * <p>Only public, concrete classes that are visible through their own class loader can have accessors generated
+ * for them, since the generated class lives in a class loader of its own. For any other type no accessor is
+ * available, and callers are expected to fall back to reflection. For classes generated by the enhancer, the
+ * accessor for the enhanced superclass is used, as the calls it makes are dispatched to the enhanced overrides
+ * all the same.</p>
+ *
+ * <p>Accessors are held weakly by their entity type and softly themselves, so that neither the cache nor the
+ * generated class loaders keep the class loaders of the entities from being collected.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:24)
+ */
+public abstract class PropertyAccessorGenerator {
+
+    private static final Log log = LogFactory.getLog(PropertyAccessorGenerator.class);
+    private static final String ACCESSOR_MARKER = "$$$ACCESSOR$$$";
+    private static final String SUPER_NAME = Type.getInternalName(PropertyAccessor.class);
+    private static final Map<Class<?>, Class<?>> WRAPPERS = new HashMap<Class<?>, Class<?>>();
+    private static final Map<Class<?>, SoftReference<PropertyAccessor>> accessors = Collections.synchronizedMap(new WeakHashMap<Class<?>, SoftReference<PropertyAccessor>>());
+    private static final Set<Class<?>> unsupported = Collections.newSetFromMap(Collections.synchronizedMap(new WeakHashMap<Class<?>, Boolean>()));
+
+    static {
+        WRAPPERS.put(boolean.class, Boolean.class);
+        WRAPPERS.put(char.class, Character.class);
+        WRAPPERS.put(byte.class, Byte.class);
+        WRAPPERS.put(short.class, Short.class);
+        WRAPPERS.put(int.class, Integer.class);
+        WRAPPERS.put(long.class, Long.class);
+        WRAPPERS.put(float.class, Float.class);
+        WRAPPERS.put(double.class, Double.class);
+    }
+
+    /**
+     * Returns the accessor for the given type, generating it if need be
+     * @param type    the type of the entity
+     * @return the accessor, or {@code null} if no accessor can be generated for the type
+     */
+    public static PropertyAccessor getAccessor(Class<?> type) {
+        final SoftReference<PropertyAccessor> reference = accessors.get(type);
+        final PropertyAccessor cached = reference == null ? null : reference.get();
+        if (cached != null) {
+            return cached;
+        }
+        if (unsupported.contains(type)) {
+            return null;
+        }
+        final PropertyAccessor accessor;
+        if (EnhancementUtils.isEnhanced(type.getName()) && type.getSuperclass() != null) {
+            accessor = getAccessor(type.getSuperclass());
+        } else {
+            accessor = generate(type);
+        }
+        if (accessor == null) {
+            unsupported.add(type);
+            return null;
+        }
+        accessors.put(type, new SoftReference<PropertyAccessor>(accessor));
+        return accessor;
+    }
+
+    private static PropertyAccessor generate(Class<?> type) {
+        if (type.isInterface() || type.isArray() || type.isPrimitive() || !Modifier.isPublic(type.getModifiers()) || type.getClassLoader() == null) {
+            return null;
+        }
+        final Map<String, Method> getters = new HashMap<String, Method>();
+        final Map<String, List<Method>> setters = new HashMap<String, List<Method>>();
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.isBridge() || method.isSynthetic()) {
+                continue;
+            }
+            final String propertyName = ReflectionUtils.getPropertyName(method.getName());
+            if (isGetter(method)) {
+                getters.put(propertyName, method);
+            } else if (isSetter(method)) {
+                if (!setters.containsKey(propertyName)) {
+                    setters.put(propertyName, new ArrayList<Method>());
+                }
+                setters.get(propertyName).add(method);
+            }
+        }
+        final SortedSet<String> names = new TreeSet<String>(getters.keySet());
+        names.addAll(setters.keySet());
+        final String[] properties = names.toArray(new String[names.size()]);
+        final Method[] readers = new Method[properties.length];
+        final Method[] writers = new Method[properties.length];
+        final boolean[] readable = new boolean[properties.length];
+        final boolean[] writable = new boolean[properties.length];
+        final java.lang.reflect.Type[] genericTypes = new java.lang.reflect.Type[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            readers[i] = getters.get(properties[i]);
+            if (setters.containsKey(properties[i])) {
+                //of all overloads, we prefer the setter that takes in the type the getter returns
+                for (Method method : setters.get(properties[i])) {
+                    if (writers[i] == null || readers[i] != null && readers[i].getReturnType().equals(method.getParameterTypes()[0])) {
+                        writers[i] = method;
+                    }
+                }
+            }
+            readable[i] = readers[i] != null;
+            writable[i] = writers[i] != null;
+            genericTypes[i] = writable[i] ? writers[i].getGenericParameterTypes()[0] : null;
+        }
+        final String className = type.getName() + ACCESSOR_MARKER;
+        try {
+            final byte[] bytes = generate(className.replace('.', '/'), Type.getInternalName(type), readers, writers);
+            final Class<?> accessorType = new AccessorClassLoader(type.getClassLoader()).define(className, bytes);
+            final PropertyAccessor accessor = (PropertyAccessor) accessorType.newInstance();
+            accessor.initialize(type, properties, readable, writable, genericTypes, writers);
+            log.info("Generated property accessor for " + type.getCanonicalName());
+            return accessor;
+        } catch (Exception e) {
+            log.warn("Failed to generate property accessor for " + type.getCanonicalName(), e);
+        } catch (LinkageError e) {
+            log.warn("Failed to generate property accessor for " + type.getCanonicalName(), e);
+        }
+        return null;
+    }
+
+    private static boolean isGetter(Method method) {
+        if (method.getParameterTypes().length != 0 || method.getReturnType().equals(void.class)) {
+            return false;
+        }
+        final String name = method.getName();
+        if (name.startsWith("get")) {
+            return name.length() > 3 && !name.equals("getClass");
+        }
+        return name.startsWith("is") && name.length() > 2 && (method.getReturnType().equals(boolean.class) || method.getReturnType().equals(Boolean.class));
+    }
+
+    private static boolean isSetter(Method method) {
+        return method.getParameterTypes().length == 1 && method.getName().startsWith("set") && method.getName().length() > 3;
+    }
+
+    private static byte[] generate(String className, String owner, Method[] readers, Method[] writers) {
+        final ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, className, null, SUPER_NAME, null);
+        final MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, SUPER_NAME, "<init>", "()V");
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+        final MethodVisitor getter = writer.visitMethod(Opcodes.ACC_PUBLIC, "get", "(Ljava/lang/Object;I)Ljava/lang/Object;", null, null);
+        getter.visitCode();
+        final Label[] getterLabels = visitSwitch(getter, readers.length);
+        for (int i = 0; i < readers.length; i++) {
+            getter.visitLabel(getterLabels[i]);
+            if (readers[i] == null) {
+                getter.visitInsn(Opcodes.ACONST_NULL);
+                getter.visitInsn(Opcodes.ARETURN);
+                continue;
+            }
+            getter.visitVarInsn(Opcodes.ALOAD, 1);
+            getter.visitTypeInsn(Opcodes.CHECKCAST, owner);
+            getter.visitMethodInsn(Opcodes.INVOKEVIRTUAL, owner, readers[i].getName(), Type.getMethodDescriptor(readers[i]));
+            box(getter, readers[i].getReturnType());
+            getter.visitInsn(Opcodes.ARETURN);
+        }
+        getter.visitLabel(getterLabels[readers.length]);
+        getter.visitInsn(Opcodes.ACONST_NULL);
+        getter.visitInsn(Opcodes.ARETURN);
+        getter.visitMaxs(0, 0);
+        getter.visitEnd();
+        final MethodVisitor setter = writer.visitMethod(Opcodes.ACC_PUBLIC, "set", "(Ljava/lang/Object;ILjava/lang/Object;)V", null, null);
+        setter.visitCode();
+        final Label[] setterLabels = visitSwitch(setter, writers.length);
+        for (int i = 0; i < writers.length; i++) {
+            setter.visitLabel(setterLabels[i]);
+            if (writers[i] == null) {
+                setter.visitInsn(Opcodes.RETURN);
+                continue;
+            }
+            final Class<?> parameterType = writers[i].getParameterTypes()[0];
+            final Label reflective = new Label();
+            if (parameterType.isPrimitive()) {
+                //only values of the exact wrapper type are unboxed here; the rest are widened or rejected by reflection
+                setter.visitVarInsn(Opcodes.ALOAD, 3);
+                setter.visitTypeInsn(Opcodes.INSTANCEOF, Type.getInternalName(WRAPPERS.get(parameterType)));
+                setter.visitJumpInsn(Opcodes.IFEQ, reflective);
+            }
+            setter.visitVarInsn(Opcodes.ALOAD, 1);
+            setter.visitTypeInsn(Opcodes.CHECKCAST, owner);
+            setter.visitVarInsn(Opcodes.ALOAD, 3);
+            unbox(setter, parameterType);
+            setter.visitMethodInsn(Opcodes.INVOKEVIRTUAL, owner, writers[i].getName(), Type.getMethodDescriptor(writers[i]));
+            final int returnSize = Type.getReturnType(writers[i]).getSize();
+            if (returnSize == 1) {
+                setter.visitInsn(Opcodes.POP);
+            } else if (returnSize == 2) {
+                setter.visitInsn(Opcodes.POP2);
+            }
+            setter.visitInsn(Opcodes.RETURN);
+            if (parameterType.isPrimitive()) {
+                setter.visitLabel(reflective);
+                setter.visitVarInsn(Opcodes.ALOAD, 0);
+                setter.visitVarInsn(Opcodes.ALOAD, 1);
+                setter.visitVarInsn(Opcodes.ILOAD, 2);
+                setter.visitVarInsn(Opcodes.ALOAD, 3);
+                setter.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SUPER_NAME, "setReflectively", "(Ljava/lang/Object;ILjava/lang/Object;)V");
+                setter.visitInsn(Opcodes.RETURN);
+            }
+        }
+        setter.visitLabel(setterLabels[writers.length]);
+        setter.visitInsn(Opcodes.RETURN);
+        setter.visitMaxs(0, 0);
+        setter.visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * Switches on the property index. The returned array holds one label per property, followed by the
+     * label for the default branch, which the caller must visit last.
+     */
+    private static Label[] visitSwitch(MethodVisitor visitor, int count) {
+        final Label[] labels = new Label[count + 1];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = new Label();
+        }
+        if (count > 0) {
+            visitor.visitVarInsn(Opcodes.ILOAD, 2);
+            visitor.visitTableSwitchInsn(0, count - 1, labels[count], Arrays.copyOf(labels, count));
+        }
+        return labels;
+    }
+
+    private static void box(MethodVisitor visitor, Class<?> type) {
+        if (!type.isPrimitive()) {
+            return;
+        }
+        final Type wrapper = Type.getType(WRAPPERS.get(type));
+        visitor.visitMethodInsn(Opcodes.INVOKESTATIC, wrapper.getInternalName(), "valueOf", "(" + Type.getDescriptor(type) + ")" + wrapper.getDescriptor());
+    }
+
+    private static void unbox(MethodVisitor visitor, Class<?> type) {
+        if (!type.isPrimitive()) {
+            visitor.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(type));
+            return;
+        }
+        final String owner = Type.getInternalName(WRAPPERS.get(type));
+        visitor.visitTypeInsn(Opcodes.CHECKCAST, owner);
+        visitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, owner, type.getName() + "Value", "()" + Type.getDescriptor(type));
+    }
+
+    /**
+     * The class loader for generated accessors, which sees the classes visible to the entity and the
+     * accessor base class
+     */
+    private static class AccessorClassLoader extends ClassLoader {
+
+        private AccessorClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (PropertyAccessor.class.getName().equals(name)) {
+                return PropertyAccessor.class;
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        private Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data;
+
+/**
+ * This interface allows for being told whenever a batch of operations has ended and all of its operations
+ * have been committed to the database. Listeners are registered with the session, and are told about the
+ * batches of all data access instances working through that session.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:17)
+ * @see com.mmnaseri.dragonfly.data.impl.DefaultDataAccessSession#addBatchCommitListener(BatchCommitListener)
+ */
+public interface BatchCommitListener {
+
+    /**
+     * Called on the thread that ended the batch, once the batch has been committed
+     */
+    void afterBatchCommit();
+
+}
@@ -0,0 +1,54 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data;
+
+import java.util.Iterator;
+
+/**
+ * <p>This is a forward-only cursor over the results of a query. Entities are read and prepared one
+ * row at a time, as they are requested, so that only the entity being processed needs to be held in
+ * memory.</p>
+ *
+ * <p>A cursor holds on to a database connection for as long as it is open. It will be closed
+ * automatically once all its results have been read, but it must be closed explicitly through
+ * {@link #close()} if it is abandoned before that.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 10:46)
+ */
+public interface EntityCursor<E> extends Iterator<E> {
+
+    /**
+     * Closes the cursor, releasing the underlying result set, statement and connection.
+     * Closing a cursor that is already closed has no effect.
+     */
+    void close();
+
+    /**
+     * @return {@code true} if the cursor has been closed, either explicitly or by reading past its
+     * last result
+     */
+    boolean isClosed();
+
+}
@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data;
+
+import com.mmnaseri.dragonfly.data.impl.OrderExpressionParser;
+import com.mmnaseri.dragonfly.entity.EntityContext;
+import com.mmnaseri.dragonfly.metadata.TableMetadata;
+
+/**
+ * <p>This interface extends the functionalities provided by {@link DataAccess} to enable keyset (seek)
+ * pagination as an alternative to the page number based lookups.</p>
+ *
+ * <p>Rather than skipping the rows of all the previous pages, each page is read starting right after the
+ * last row of the previous page, as marked by a {@link PageToken}. This keeps the cost of reading a page
+ * the same no matter how deep into the results it is, at the price of only being able to move forward
+ * one page at a time.</p>
+ *
+ * <p>To be able to tell where a page ends, the primary key columns of the entity are appended to the
+ * requested ordering, unless they are already part of it. Ordering columns may be nullable: {@code NULL}
+ * values are taken to come before all other values, as they do in the database, and are sought through
+ * {@code IS NULL} checks. Tokens issued for a different entity or ordering are rejected with an
+ * {@link com.mmnaseri.dragonfly.error.InvalidPageTokenError}.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:12)
+ */
+public interface KeysetDataAccess extends DataAccess {
+
+    /**
+     * Reads a page of the items matching the given sample
+     * @param sample       the entity to be used as a sample. This entity must belong to the data access
+     *                     interface's defining context, i.e., it must be initialized through
+     *                     {@link EntityContext#getInstance(Class)} or {@link EntityContext#getInstance(TableMetadata)}
+     * @param order        the order expression for the results, or {@code null} to order them by their keys
+     * @param pageSize     the maximum number of items on the page
+     * @param pageToken    the token of the page to be read, or {@code null} for the first page
+     * @param <E>          the type of the entity
+     * @return the page
+     * @see OrderExpressionParser
+     */
+    <E> Page<E> findPage(E sample, String order, int pageSize, PageToken pageToken);
+
+    /**
+     * Reads a page of all items of the given type
+     * @param entityType    the type of the entity to be enlisted
+     * @param order         the order expression for the results, or {@code null} to order them by their keys
+     * @param pageSize      the maximum number of items on the page
+     * @param pageToken     the token of the page to be read, or {@code null} for the first page
+     * @param <E>           the type of the entity
+     * @return the page
+     * @see OrderExpressionParser
+     */
+    <E> Page<E> findAllPage(Class<E> entityType, String order, int pageSize, PageToken pageToken);
+
+}
@@ -0,0 +1,67 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class holds a single page of a keyset paginated lookup, along with the token through which
+ * the next page can be requested.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:12)
+ */
+public class Page<E> {
+
+    private final List<E> items;
+    private final PageToken nextPageToken;
+
+    public Page(List<E> items, PageToken nextPageToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextPageToken = nextPageToken;
+    }
+
+    /**
+     * @return the items on this page
+     */
+    public List<E> getItems() {
+        return items;
+    }
+
+    /**
+     * @return the token for the next page, or {@code null} if this is the last page
+     */
+    public PageToken getNextPageToken() {
+        return nextPageToken;
+    }
+
+    /**
+     * @return {@code true} if there are more items after this page
+     */
+    public boolean hasNext() {
+        return nextPageToken != null;
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * This class marks the position of a page in a keyset paginated lookup. It holds the values of the
+ * ordering columns on the last row of the page, so that the next page can start right after that row
+ * without the database having to skip over all the rows that came before it.
+ *
+ * <p>Page tokens are immutable and serializable, so that they can be handed over to clients and
+ * brought back with the request for the next page. A token is only valid for the same entity and
+ * ordering it was issued for.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:12)
+ */
+public class PageToken implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private final String entityType;
+    private final String ordering;
+    private final Object[] values;
+
+    public PageToken(Class<?> entityType, String ordering, Object[] values) {
+        this.entityType = entityType.getCanonicalName();
+        this.ordering = ordering;
+        this.values = Arrays.copyOf(values, values.length);
+    }
+
+    /**
+     * @return the canonical name of the entity type this token was issued for
+     */
+    public String getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * @return the complete ordering this token was issued for
+     */
+    public String getOrdering() {
+        return ordering;
+    }
+
+    /**
+     * @return the values of the ordering columns on the last row of the page, in the order of the columns
+     */
+    public Object[] getValues() {
+        return Arrays.copyOf(values, values.length);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PageToken)) {
+            return false;
+        }
+        final PageToken that = (PageToken) o;
+        return entityType.equals(that.entityType) && ordering.equals(that.ordering) && Arrays.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * entityType.hashCode() + ordering.hashCode()) + Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return entityType + "[" + ordering + "] after " + Arrays.toString(values);
+    }
+
+}
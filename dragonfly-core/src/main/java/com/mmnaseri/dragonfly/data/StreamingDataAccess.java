@@ -0,0 +1,124 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data;
+
+import com.mmnaseri.couteau.basics.api.Processor;
+import com.mmnaseri.dragonfly.data.impl.OrderExpressionParser;
+import com.mmnaseri.dragonfly.entity.EntityContext;
+import com.mmnaseri.dragonfly.metadata.TableMetadata;
+
+import java.util.Map;
+
+/**
+ * <p>This interface extends the functionalities provided by {@link DataAccess} to enable reading
+ * large result sets without loading all of them into memory at once.</p>
+ *
+ * <p>Instead of lists, the methods in this interface return {@link EntityCursor cursors} or feed
+ * the results to a callback, converting the rows into entities lazily. Since the results are never
+ * collected, the {@code after*} events of the data access event handlers are not raised for these
+ * operations.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 10:46)
+ */
+public interface StreamingDataAccess extends DataAccess {
+
+    /**
+     * Opens a cursor over all items matching the given sample
+     * @param sample    the entity to be used as a sample. This entity must belong to the data access
+     *                  interface's defining context, i.e., it must be initialized through
+     *                  {@link EntityContext#getInstance(Class)} or {@link EntityContext#getInstance(TableMetadata)}
+     * @param <E>       the type of the entity.
+     * @return the cursor over the matching items
+     */
+    <E> EntityCursor<E> iterate(E sample);
+
+    /**
+     * Opens a cursor over all items matching the given sample
+     * @param sample    the entity to be used as a sample
+     * @param order     the order expression for the results
+     * @param <E>       the type of the entity.
+     * @return the cursor over the matching items
+     * @see OrderExpressionParser
+     */
+    <E> EntityCursor<E> iterate(E sample, String order);
+
+    /**
+     * Opens a cursor over all items of the given type
+     * @param entityType    the type of the entity to be enlisted
+     * @param <E>           the type of the entity
+     * @return the cursor over all available items
+     */
+    <E> EntityCursor<E> iterateAll(Class<E> entityType);
+
+    /**
+     * Opens a cursor over all items of the given type
+     * @param entityType    the type of the entity to be enlisted
+     * @param order         the order expression for the results
+     * @param <E>           the type of the entity
+     * @return the cursor over all available items
+     * @see OrderExpressionParser
+     */
+    <E> EntityCursor<E> iterateAll(Class<E> entityType, String order);
+
+    /**
+     * Opens a cursor over the results of the named query
+     * @param entityType    the type of the entity. This must be an entity for which
+     *                      table metadata has been previously decided, or can be
+     *                      readily determined.
+     * @param queryName     the name of the query to be executed. This query has to be
+     *                      of a value-returning (query) type.
+     * @param values        the map of values to be used for value injection
+     * @param <E>           the type of the items
+     * @return the cursor over the results of the query
+     */
+    <E> EntityCursor<E> iterateQuery(Class<E> entityType, String queryName, Map<String, Object> values);
+
+    /**
+     * Hands all items matching the given sample to the processor, one at a time
+     * @param sample       the entity to be used as a sample
+     * @param processor    the processor for the items
+     * @param <E>          the type of the entity
+     */
+    <E> void forEach(E sample, Processor<? super E> processor);
+
+    /**
+     * Hands all items of the given type to the processor, one at a time
+     * @param entityType    the type of the entity to be enlisted
+     * @param processor     the processor for the items
+     * @param <E>           the type of the entity
+     */
+    <E> void forEachAll(Class<E> entityType, Processor<? super E> processor);
+
+    /**
+     * Hands the results of the named query to the processor, one at a time
+     * @param entityType    the type of the entity
+     * @param queryName     the name of the query to be executed
+     * @param values        the map of values to be used for value injection
+     * @param processor     the processor for the items
+     * @param <E>           the type of the items
+     */
+    <E> void forEach(Class<E> entityType, String queryName, Map<String, Object> values, Processor<? super E> processor);
+
+}
@@ -23,32 +23,136 @@
 
 package com.mmnaseri.dragonfly.data.impl;
 
+import com.mmnaseri.dragonfly.metadata.TableMetadata;
+import com.mmnaseri.dragonfly.statement.StatementType;
+
+import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * This class holds information about a certain batch operation. The SQL field
  * ensures that the equality of batch operations is based on the SQL statement
  * being changed.
  *
+ * <p>Operations that are to be sent to the database as multi-row inserts keep the
+ * values of each row, rather than adding them to the batch of a prepared statement,
+ * and only hold on to the connection they will be executed against. Inserts also keep
+ * track of the entities waiting on their generated keys, aligned with their rows.</p>
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/9/25, 22:06)
  */
 class BatchOperationDescriptor {
 
     private final PreparedStatement preparedStatement;
+    private final Connection connection;
+    private final boolean connectionOwner;
     private final String sql;
+    private final TableMetadata<?> tableMetadata;
+    private final StatementType statementType;
+    private final boolean multiRow;
+    private final List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+    private final List<Object> entities = new ArrayList<Object>();
+    private int size;
+    private boolean deferred;
 
     BatchOperationDescriptor(PreparedStatement preparedStatement, String sql) {
+        this(preparedStatement, sql, null, false);
+    }
+
+    BatchOperationDescriptor(PreparedStatement preparedStatement, String sql, TableMetadata<?> tableMetadata, boolean multiRow) {
+        this(preparedStatement, null, false, sql, tableMetadata, multiRow);
+    }
+
+    /**
+     * Creates a multi-row insert operation, which is only prepared once it is executed
+     * @param connection         the connection the rows will be inserted through
+     * @param connectionOwner    whether the connection was opened for this operation, and should thus be closed with it
+     * @param sql                the single-row SQL of the insert
+     * @param tableMetadata      the table being inserted into
+     */
+    BatchOperationDescriptor(Connection connection, boolean connectionOwner, String sql, TableMetadata<?> tableMetadata) {
+        this(null, connection, connectionOwner, sql, tableMetadata, true);
+    }
+
+    private BatchOperationDescriptor(PreparedStatement preparedStatement, Connection connection, boolean connectionOwner, String sql, TableMetadata<?> tableMetadata, boolean multiRow) {
         this.preparedStatement = preparedStatement;
+        this.connection = connection;
+        this.connectionOwner = connectionOwner;
         this.sql = sql;
+        this.tableMetadata = tableMetadata;
+        this.statementType = StatementType.getStatementType(sql);
+        this.multiRow = multiRow;
     }
 
     PreparedStatement getPreparedStatement() {
         return preparedStatement;
     }
 
+    /**
+     * @return the connection of a multi-row operation
+     */
+    Connection getConnection() {
+        return connection;
+    }
+
+    boolean isConnectionOwner() {
+        return connectionOwner;
+    }
+
     String getSql() {
         return sql;
     }
 
+    TableMetadata<?> getTableMetadata() {
+        return tableMetadata;
+    }
+
+    StatementType getStatementType() {
+        return statementType;
+    }
+
+    boolean isMultiRow() {
+        return multiRow;
+    }
+
+    void addRow(Map<String, Object> values) {
+        if (multiRow) {
+            rows.add(values);
+        }
+        entities.add(null);
+        size ++;
+    }
+
+    List<Map<String, Object>> getRows() {
+        return rows;
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * Marks the entity of the last row added as waiting on the key generated for that row
+     * @param entity    the entity
+     */
+    void defer(Object entity) {
+        entities.set(size - 1, entity);
+        deferred = true;
+    }
+
+    boolean hasDeferredEntities() {
+        return deferred;
+    }
+
+    /**
+     * @return the entities waiting on generated keys, one per row, with {@code null} for rows no entity is waiting on
+     */
+    List<Object> getDeferredEntities() {
+        return entities;
+    }
+
 }
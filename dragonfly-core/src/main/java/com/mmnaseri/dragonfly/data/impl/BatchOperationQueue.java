@@ -0,0 +1,142 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.metadata.ColumnMetadata;
+import com.mmnaseri.dragonfly.metadata.TableMetadata;
+import com.mmnaseri.dragonfly.statement.StatementType;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>This class holds the operations pending in a batch, grouped by the SQL statement they execute
+ * so that each statement is sent to the database once per flush.</p>
+ *
+ * <p>An operation is only added to an existing group if doing so does not move it ahead of anything
+ * it might depend on. Inserts and updates may join an earlier group of the same statement as long as
+ * none of the groups started after it touch the same table or any of the tables it references through
+ * foreign keys. All other operations may only join the last group, which preserves their order
+ * exactly.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 10:53)
+ */
+class BatchOperationQueue {
+
+    private static final Map<TableMetadata<?>, Set<TableMetadata<?>>> referencedTables = new ConcurrentHashMap<TableMetadata<?>, Set<TableMetadata<?>>>();
+    private final List<BatchOperationDescriptor> descriptors = new ArrayList<BatchOperationDescriptor>();
+    private final List<Integer> results = new ArrayList<Integer>();
+    private int pending;
+    private BatchOperationDescriptor current;
+
+    /**
+     * Finds the group the given operation can be added to
+     * @param sql              the final SQL of the operation
+     * @param tableMetadata    the table being manipulated
+     * @return the group, or {@code null} if a new group must be started
+     */
+    BatchOperationDescriptor find(String sql, TableMetadata<?> tableMetadata) {
+        if (descriptors.isEmpty()) {
+            return null;
+        }
+        final BatchOperationDescriptor last = descriptors.get(descriptors.size() - 1);
+        if (last.getSql().equals(sql)) {
+            return last;
+        }
+        final StatementType statementType = StatementType.getStatementType(sql);
+        if (tableMetadata == null || (!StatementType.INSERT.equals(statementType) && !StatementType.UPDATE.equals(statementType))) {
+            return null;
+        }
+        final Set<TableMetadata<?>> dependencies = getReferencedTables(tableMetadata);
+        for (int i = descriptors.size() - 1; i >= 0; i --) {
+            final BatchOperationDescriptor descriptor = descriptors.get(i);
+            if (descriptor.getSql().equals(sql)) {
+                return descriptor;
+            }
+            final StatementType type = descriptor.getStatementType();
+            if (descriptor.getTableMetadata() == null || descriptor.getTableMetadata().equals(tableMetadata)
+                    || dependencies.contains(descriptor.getTableMetadata())
+                    || (!StatementType.INSERT.equals(type) && !StatementType.UPDATE.equals(type))) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    void add(BatchOperationDescriptor descriptor) {
+        descriptors.add(descriptor);
+    }
+
+    /**
+     * Records an operation as having been added to the given group
+     * @param descriptor    the group
+     */
+    void operationAdded(BatchOperationDescriptor descriptor) {
+        current = descriptor;
+        pending ++;
+    }
+
+    /**
+     * @return the group the last operation was added to
+     */
+    BatchOperationDescriptor getCurrent() {
+        return current;
+    }
+
+    int getPendingCount() {
+        return pending;
+    }
+
+    /**
+     * Removes all pending groups from the queue, in the order they must be executed
+     * @return the pending groups
+     */
+    List<BatchOperationDescriptor> drain() {
+        final List<BatchOperationDescriptor> drained = new ArrayList<BatchOperationDescriptor>(descriptors);
+        descriptors.clear();
+        pending = 0;
+        current = null;
+        return drained;
+    }
+
+    List<Integer> getResults() {
+        return results;
+    }
+
+    private static Set<TableMetadata<?>> getReferencedTables(TableMetadata<?> tableMetadata) {
+        Set<TableMetadata<?>> tables = referencedTables.get(tableMetadata);
+        if (tables == null) {
+            tables = new HashSet<TableMetadata<?>>();
+            for (ColumnMetadata column : tableMetadata.getColumns()) {
+                if (column.getForeignReference() != null && column.getForeignReference().getTable() != null) {
+                    tables.add(column.getForeignReference().getTable());
+                }
+            }
+            referencedTables.put(tableMetadata, tables);
+        }
+        return tables;
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.entity.EntityHandler;
+import com.mmnaseri.dragonfly.entity.EntityHandlerContext;
+import com.mmnaseri.dragonfly.events.impl.AbstractDataAccessEventHandler;
+import com.mmnaseri.dragonfly.metadata.RelationMetadata;
+import com.mmnaseri.dragonfly.metadata.TableMetadataRegistry;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This event handler keeps the second-level cache and the query result cache in line with the
+ * modifications made through the data access. Single entities are dropped from the second-level cache
+ * once they are inserted, updated or deleted, while bulk modifications empty the regions of all the
+ * entity types they might have touched. Any modification drops the cached query results for the
+ * entity type being modified.
+ *
+ * <p>While a batch is pending, the invalidations are also recorded, and are carried out once more as soon
+ * as the batch has been committed, since other threads might have cached the old state in the meantime.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:08)
+ */
+class CacheInvalidator extends AbstractDataAccessEventHandler {
+
+    private final SecondLevelCache cache;
+    private final QueryResultCache queryResultCache;
+    private final EntityHandlerContext entityHandlerContext;
+    private final TableMetadataRegistry tableMetadataRegistry;
+    /**
+     * The keys invalidated for each entity type during the pending batch; a {@code null} set stands for the
+     * whole entity type
+     */
+    private final ThreadLocal<Map<Class<?>, Set<Object>>> batchInvalidations = new ThreadLocal<Map<Class<?>, Set<Object>>>();
+
+    CacheInvalidator(SecondLevelCache cache, QueryResultCache queryResultCache, EntityHandlerContext entityHandlerContext, TableMetadataRegistry tableMetadataRegistry) {
+        this.cache = cache;
+        this.queryResultCache = queryResultCache;
+        this.entityHandlerContext = entityHandlerContext;
+        this.tableMetadataRegistry = tableMetadataRegistry;
+    }
+
+    /**
+     * Starts recording the invalidations made by the current thread
+     */
+    void startBatch() {
+        batchInvalidations.set(new HashMap<Class<?>, Set<Object>>());
+    }
+
+    /**
+     * Repeats the invalidations recorded since the batch was started, now that its changes are visible
+     * to everyone
+     */
+    void endBatch() {
+        final Map<Class<?>, Set<Object>> invalidations = batchInvalidations.get();
+        batchInvalidations.remove();
+        if (invalidations == null) {
+            return;
+        }
+        for (Map.Entry<Class<?>, Set<Object>> entry : invalidations.entrySet()) {
+            if (entry.getValue() == null) {
+                invalidate(entry.getKey());
+            } else {
+                for (Object key : entry.getValue()) {
+                    invalidate(entry.getKey(), key);
+                }
+            }
+        }
+    }
+
+    private void record(Class<?> entityType, Object key) {
+        final Map<Class<?>, Set<Object>> invalidations = batchInvalidations.get();
+        if (invalidations == null) {
+            return;
+        }
+        if (key == null) {
+            invalidations.put(entityType, null);
+        } else if (!invalidations.containsKey(entityType)) {
+            invalidations.put(entityType, new HashSet<Object>(Collections.singleton(key)));
+        } else if (invalidations.get(entityType) != null) {
+            invalidations.get(entityType).add(key);
+        }
+    }
+
+    private <E> void invalidate(E entity) {
+        final EntityHandler<E> entityHandler = entityHandlerContext.getHandler(entity);
+        if (!entityHandler.hasKey()) {
+            queryResultCache.invalidate(entityHandler.getEntityType());
+            return;
+        }
+        final Serializable key = entityHandler.getKey(entity);
+        if (key == null) {
+            //a sample without a key might have matched any number of entities
+            invalidate(entityHandler.getEntityType());
+        } else {
+            invalidate(entityHandler.getEntityType(), DefaultDataAccess.normalizeKey(key));
+        }
+    }
+
+    private void invalidate(Class<?> entityType, Object key) {
+        record(entityType, key);
+        cache.invalidate(entityType, key);
+        queryResultCache.invalidate(entityType);
+    }
+
+    private <E> void invalidate(Class<E> entityType) {
+        record(entityType, null);
+        cache.invalidate(entityType);
+        queryResultCache.invalidate(entityType);
+        for (RelationMetadata<E, ?> reference : tableMetadataRegistry.getTableMetadata(entityType).getForeignReferences()) {
+            cache.invalidate(reference.getForeignTable().getEntityType());
+            queryResultCache.invalidate(reference.getForeignTable().getEntityType());
+        }
+    }
+
+    @Override
+    public <E> void afterInsert(E entity) {
+        invalidate(entity);
+    }
+
+    @Override
+    public <E> void afterUpdate(E entity, boolean updated) {
+        if (updated) {
+            invalidate(entity);
+        }
+    }
+
+    @Override
+    public <E> void afterDelete(E entity) {
+        invalidate(entity);
+    }
+
+    @Override
+    public <E, K extends Serializable> void afterDelete(Class<E> entityType, K key) {
+        if (key == null) {
+            invalidate(entityType);
+        } else {
+            invalidate(entityType, DefaultDataAccess.normalizeKey(key));
+        }
+    }
+
+    @Override
+    public <E> void afterDeleteAll(Class<E> entityType) {
+        invalidate(entityType);
+    }
+
+    @Override
+    public <E> void afterTruncate(Class<E> entityType) {
+        invalidate(entityType);
+    }
+
+    @Override
+    public <E> void afterExecuteUpdate(Class<E> entityType, String queryName, Map<String, Object> values, int affectedRows) {
+        invalidate(entityType);
+    }
+
+    @Override
+    public <E> void afterExecuteUpdate(E sample, String queryName, int affectedRows) {
+        invalidate(entityHandlerContext.getHandler(sample).getEntityType());
+    }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.metadata.CacheEvictionPolicy;
+import com.mmnaseri.dragonfly.metadata.CacheMetadata;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class is a single region of the caches kept by the data access, e.g. the entities of one type in the
+ * {@link SecondLevelCache second-level cache} or the results of one query in the {@link QueryResultCache}.
+ * Values are stored as given, so callers are expected to hand in and take out copies of anything mutable.
+ *
+ * <p>The region is bounded by the capacity given by its {@link CacheMetadata} and evicts entries according
+ * to its {@link CacheEvictionPolicy}. Entries older than the configured time to live are discarded on access.</p>
+ *
+ * <p>To keep a value read before a concurrent modification from being cached after that modification
+ * has invalidated the region, each write must present the {@link #getStamp() stamp} of the region taken
+ * before the value was read from the database. Writes carrying an outdated stamp are ignored.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:08)
+ */
+public class CacheRegion<K, V> {
+
+    private final String name;
+    private final CacheMetadata cacheMetadata;
+    private final Map<K, Entry<V>> entries;
+    private final TreeMap<Integer, LinkedHashSet<K>> frequencies = new TreeMap<Integer, LinkedHashSet<K>>();
+    private long stamp = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long expirations = 0;
+
+    public CacheRegion(String name, CacheMetadata cacheMetadata) {
+        if (cacheMetadata.getCapacity() < 1) {
+            throw new IllegalArgumentException("Cache capacity must be a positive number: " + cacheMetadata.getCapacity());
+        }
+        this.name = name;
+        this.cacheMetadata = cacheMetadata;
+        final boolean accessOrder = CacheEvictionPolicy.LEAST_RECENTLY_USED.equals(cacheMetadata.getEvictionPolicy());
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, accessOrder);
+    }
+
+    /**
+     * @return the name of the region, which describes what is being cached in it
+     */
+    public String getName() {
+        return name;
+    }
+
+    public CacheMetadata getCacheMetadata() {
+        return cacheMetadata;
+    }
+
+    /**
+     * Looks up the value cached for the given key
+     * @param key    the key
+     * @return the cached value, or {@code null} if nothing is cached or the cached value has expired
+     */
+    public synchronized V get(K key) {
+        final Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses ++;
+            return null;
+        }
+        if (entry.expiresAt > 0 && entry.expiresAt < System.currentTimeMillis()) {
+            discard(key);
+            expirations ++;
+            misses ++;
+            return null;
+        }
+        if (CacheEvictionPolicy.LEAST_FREQUENTLY_USED.equals(cacheMetadata.getEvictionPolicy())) {
+            unlink(key, entry.frequency);
+            entry.frequency ++;
+            link(key, entry.frequency);
+        }
+        hits ++;
+        return entry.value;
+    }
+
+    /**
+     * @return {@code true} if a value is held for the key. This does not count as an access.
+     */
+    public synchronized boolean contains(K key) {
+        final Entry<V> entry = entries.get(key);
+        return entry != null && (entry.expiresAt <= 0 || entry.expiresAt >= System.currentTimeMillis());
+    }
+
+    /**
+     * Caches the value read for the given key
+     * @param key      the key
+     * @param value    the value
+     * @param stamp    the stamp of the region as taken before the value was read
+     */
+    public synchronized void put(K key, V value, long stamp) {
+        if (stamp != this.stamp) {
+            return;
+        }
+        if (entries.containsKey(key)) {
+            discard(key);
+        }
+        while (entries.size() >= cacheMetadata.getCapacity()) {
+            evict();
+        }
+        final long timeToLive = cacheMetadata.getTimeToLive();
+        entries.put(key, new Entry<V>(value, timeToLive > 0 ? System.currentTimeMillis() + timeToLive : 0));
+        if (CacheEvictionPolicy.LEAST_FREQUENTLY_USED.equals(cacheMetadata.getEvictionPolicy())) {
+            link(key, 1);
+        }
+    }
+
+    /**
+     * Removes any value held for the given key
+     * @param key    the key
+     */
+    public synchronized void invalidate(K key) {
+        stamp ++;
+        if (entries.containsKey(key)) {
+            discard(key);
+        }
+    }
+
+    /**
+     * Removes all values held in this region
+     */
+    public synchronized void invalidate() {
+        stamp ++;
+        entries.clear();
+        frequencies.clear();
+    }
+
+    /**
+     * @return the current stamp of the region, which changes whenever an entry is invalidated
+     */
+    public synchronized long getStamp() {
+        return stamp;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+
+    private void evict() {
+        final K key;
+        if (CacheEvictionPolicy.LEAST_FREQUENTLY_USED.equals(cacheMetadata.getEvictionPolicy())) {
+            key = frequencies.firstEntry().getValue().iterator().next();
+        } else {
+            final Iterator<K> iterator = entries.keySet().iterator();
+            key = iterator.next();
+        }
+        discard(key);
+        evictions ++;
+    }
+
+    private void discard(K key) {
+        final Entry<V> entry = entries.remove(key);
+        if (entry != null && CacheEvictionPolicy.LEAST_FREQUENTLY_USED.equals(cacheMetadata.getEvictionPolicy())) {
+            unlink(key, entry.frequency);
+        }
+    }
+
+    private void link(K key, int frequency) {
+        LinkedHashSet<K> keys = frequencies.get(frequency);
+        if (keys == null) {
+            keys = new LinkedHashSet<K>();
+            frequencies.put(frequency, keys);
+        }
+        keys.add(key);
+    }
+
+    private void unlink(K key, int frequency) {
+        final LinkedHashSet<K> keys = frequencies.get(frequency);
+        if (keys == null) {
+            return;
+        }
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            frequencies.remove(frequency);
+        }
+    }
+
+    private static class Entry<V> {
+
+        private final V value;
+        private final long expiresAt;
+        private int frequency = 1;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+    }
+
+}
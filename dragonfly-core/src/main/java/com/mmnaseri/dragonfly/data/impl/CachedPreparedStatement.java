@@ -0,0 +1,67 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.statement.impl.DelegatingPreparedStatement;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * This is a prepared statement handed out by a {@link DelegatingConnection} with statement caching
+ * enabled. Closing it returns the underlying statement to the connection's cache instead of closing
+ * it.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 10:39)
+ */
+class CachedPreparedStatement extends DelegatingPreparedStatement {
+
+    private final PreparedStatement preparedStatement;
+    private final DelegatingConnection connection;
+    private final PreparedStatementCache.Key key;
+    private boolean closed = false;
+
+    CachedPreparedStatement(PreparedStatement preparedStatement, DelegatingConnection connection, PreparedStatementCache.Key key) {
+        super(preparedStatement, connection);
+        this.preparedStatement = preparedStatement;
+        this.connection = connection;
+        this.key = key;
+    }
+
+    @Override
+    public synchronized void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        connection.release(key, preparedStatement);
+    }
+
+    @Override
+    public synchronized boolean isClosed() throws SQLException {
+        return closed || preparedStatement.isClosed();
+    }
+
+}
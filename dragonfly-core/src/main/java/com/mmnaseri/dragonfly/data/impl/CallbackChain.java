@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.data.DataCallback;
+import com.mmnaseri.dragonfly.data.DataOperation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This is an immutable chain of the callbacks that might apply to a certain kind of operation, in the order
+ * in which they must be called. Callbacks that can be ruled out based on the type of the operation and the
+ * entity type alone are left out of the chain, and those whose acceptance of the operation is decided in
+ * advance are not asked again while the operation is being carried out.
+ *
+ * <p>The chain holds no state for any single operation, so that it can be shared by all operations of the
+ * same kind; the operation itself keeps track of how far down the chain it has gone.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:26)
+ * @see com.mmnaseri.dragonfly.data.impl.op.AbstractDataOperation#execute(CallbackChain)
+ */
+public class CallbackChain {
+
+    private final DataCallback<DataOperation>[] callbacks;
+    private final boolean[] conditional;
+
+    private CallbackChain(DataCallback<DataOperation>[] callbacks, boolean[] conditional) {
+        this.callbacks = callbacks;
+        this.conditional = conditional;
+    }
+
+    /**
+     * Compiles the chain of callbacks for operations of the given type
+     * @param callbacks        all registered callbacks, in order
+     * @param operationType    the type of the operation
+     * @param entityType       the entity type the operation works with, or {@code null} if it is not known
+     * @return the chain
+     */
+    public static CallbackChain compile(List<SmartDataCallback<DataOperation>> callbacks, Class<? extends DataOperation> operationType, Class<?> entityType) {
+        final List<DataCallback<DataOperation>> applicable = new ArrayList<DataCallback<DataOperation>>();
+        final List<Boolean> undecided = new ArrayList<Boolean>();
+        for (SmartDataCallback<DataOperation> callback : callbacks) {
+            if (!callback.supports(operationType)) {
+                continue;
+            }
+            final DataCallback<DataOperation> target = callback.getCallback();
+            boolean conditional = true;
+            if (target instanceof AbstractDefaultDataCallback && !overridesAccepts(target, AbstractDefaultDataCallback.class)) {
+                conditional = false;
+            } else if (entityType != null && target instanceof TypedDataCallback && !overridesAccepts(target, TypedDataCallback.class)) {
+                if (!((TypedDataCallback) target).getEntityType().isAssignableFrom(entityType)) {
+                    continue;
+                }
+                conditional = false;
+            }
+            applicable.add(target);
+            undecided.add(conditional);
+        }
+        //noinspection unchecked
+        final DataCallback<DataOperation>[] chain = applicable.toArray(new DataCallback[applicable.size()]);
+        final boolean[] conditional = new boolean[chain.length];
+        for (int i = 0; i < conditional.length; i++) {
+            conditional[i] = undecided.get(i);
+        }
+        return new CallbackChain(chain, conditional);
+    }
+
+    private static boolean overridesAccepts(DataCallback<?> callback, Class<?> base) {
+        try {
+            return !callback.getClass().getMethod("accepts", DataOperation.class).getDeclaringClass().equals(base);
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    /**
+     * @return the number of callbacks in the chain
+     */
+    public int size() {
+        return callbacks.length;
+    }
+
+    public DataCallback<DataOperation> get(int index) {
+        return callbacks[index];
+    }
+
+    /**
+     * @param index        the index of the callback
+     * @param operation    the operation
+     * @return {@code true} if the callback at the given index should be applied to the operation
+     */
+    public boolean accepts(int index, DataOperation operation) {
+        return !conditional[index] || callbacks[index].accepts(operation);
+    }
+
+}
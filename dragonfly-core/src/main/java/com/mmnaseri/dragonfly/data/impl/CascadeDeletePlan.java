@@ -0,0 +1,169 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.dialect.DatabaseDialect;
+import com.mmnaseri.dragonfly.metadata.RelationMetadata;
+import com.mmnaseri.dragonfly.metadata.RelationType;
+import com.mmnaseri.dragonfly.metadata.TableMetadata;
+import com.mmnaseri.dragonfly.metadata.impl.ImmutableRelationPathMetadata;
+import com.mmnaseri.dragonfly.statement.Statement;
+import com.mmnaseri.dragonfly.statement.Statements;
+
+import java.util.*;
+
+/**
+ * This class describes how the entities depending on a single entity (through cascading one-to-many
+ * and one-to-one relations owned by the other side) can be removed with a handful of set-based
+ * statements, one per table, instead of being deleted one at a time. The statements are ordered
+ * so that the deepest tables are visited first.
+ *
+ * <p>A plan is only set-based if every table reached this way cascades removals to nothing but its
+ * own dependents. Otherwise, the entities have to be deleted through the data access so that their
+ * other cascades are honored. Rows linking the dependents to other entities through many-to-many
+ * relations are removed from the middle tables right before the dependents themselves.</p>
+ *
+ * <p>The plan only covers the dependents. The other cascades of the entity being deleted are carried
+ * out by the data access, and cost:</p>
+ * <ul>
+ *     <li>one {@code DELETE} per relation for entities the deleted entity refers to (owner-side
+ *     many-to-one and one-to-one relations), plus whatever those entities cascade to;</li>
+ *     <li>one {@code DELETE} per relation for the middle table rows of cascading many-to-many
+ *     relations, after which each linked entity is deleted on its own, since their keys have to be
+ *     read before the rows linking them are gone.</li>
+ * </ul>
+ *
+ * <p>Dependents of plans that are not set-based, and dependents whose deletion is observed by an
+ * event handler, are deleted by sample through the data access, entity type by entity type.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 10:57)
+ */
+class CascadeDeletePlan {
+
+    private final boolean setBased;
+    private final List<Statement> statements;
+    private final Set<Class<?>> entityTypes;
+
+    private CascadeDeletePlan(boolean setBased, List<Statement> statements, Set<Class<?>> entityTypes) {
+        this.setBased = setBased;
+        this.statements = statements;
+        this.entityTypes = entityTypes;
+    }
+
+    /**
+     * @return {@code true} if the dependents can be removed using the statements of this plan
+     */
+    public boolean isSetBased() {
+        return setBased;
+    }
+
+    /**
+     * @return the statements to be executed, in order. Each statement expects the key of the
+     * entity being deleted to be provided through its {@code value} namespace.
+     */
+    public List<Statement> getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return the types of all entities removed by this plan
+     */
+    public Set<Class<?>> getEntityTypes() {
+        return entityTypes;
+    }
+
+    /**
+     * Creates the plan for deleting the dependents of entities of the given table
+     * @param tableMetadata    the table metadata
+     * @param dialect          the database dialect
+     * @return the plan
+     */
+    public static CascadeDeletePlan create(TableMetadata<?> tableMetadata, DatabaseDialect dialect) {
+        final List<List<RelationMetadata<?, ?>>> paths = new ArrayList<List<RelationMetadata<?, ?>>>();
+        final Set<Class<?>> visited = new HashSet<Class<?>>();
+        visited.add(tableMetadata.getEntityType());
+        if (!hasSimpleKey(tableMetadata) || !collect(tableMetadata, new ArrayList<RelationMetadata<?, ?>>(), visited, paths)) {
+            return new CascadeDeletePlan(false, Collections.<Statement>emptyList(), Collections.<Class<?>>emptySet());
+        }
+        final List<Statement> statements = new ArrayList<Statement>();
+        final Set<Class<?>> entityTypes = new HashSet<Class<?>>();
+        for (List<RelationMetadata<?, ?>> path : paths) {
+            statements.add(dialect.getStatementBuilderContext().getManipulationStatementBuilder(Statements.Manipulation.DELETE_CASCADE).getStatement(tableMetadata, new ImmutableRelationPathMetadata(path)));
+            final RelationMetadata<?, ?> last = path.get(path.size() - 1);
+            if (!RelationType.MANY_TO_MANY.equals(last.getType())) {
+                entityTypes.add(last.getForeignTable().getEntityType());
+            }
+        }
+        return new CascadeDeletePlan(true, Collections.unmodifiableList(statements), Collections.unmodifiableSet(entityTypes));
+    }
+
+    private static boolean hasSimpleKey(TableMetadata<?> tableMetadata) {
+        return tableMetadata.hasPrimaryKey() && tableMetadata.getPrimaryKey().getColumns().size() == 1;
+    }
+
+    /**
+     * Collects the paths to all dependents of the given table, deepest ones first
+     * @return {@code false} if the dependents cannot be removed in a set-based fashion
+     */
+    private static boolean collect(TableMetadata<?> tableMetadata, List<RelationMetadata<?, ?>> path, Set<Class<?>> visited, List<List<RelationMetadata<?, ?>>> paths) {
+        final Class<?> parent = path.isEmpty() ? null : path.get(path.size() - 1).getLocalTable().getEntityType();
+        for (RelationMetadata<?, ?> relation : tableMetadata.getForeignReferences()) {
+            if (!relation.getCascadeMetadata().cascadeRemove()) {
+                continue;
+            }
+            final boolean dependent = !relation.isOwner() && relation.getType().getLocalCardinality() == 1;
+            if (!dependent) {
+                if (path.isEmpty() || (relation.isOwner() && relation.getForeignTable().getEntityType().equals(parent))) {
+                    //the root's other cascades are carried out by the data access itself, and a
+                    //dependent's cascade back to its parent has no effect since the parent is being deleted
+                    continue;
+                }
+                return false;
+            }
+            final TableMetadata<?> foreignTable = relation.getForeignTable();
+            if (visited.contains(foreignTable.getEntityType()) || !hasSimpleKey(foreignTable)) {
+                return false;
+            }
+            final List<RelationMetadata<?, ?>> extended = new ArrayList<RelationMetadata<?, ?>>(path);
+            extended.add(relation);
+            visited.add(foreignTable.getEntityType());
+            if (!collect(foreignTable, extended, visited, paths)) {
+                return false;
+            }
+            visited.remove(foreignTable.getEntityType());
+            for (RelationMetadata<?, ?> link : foreignTable.getForeignReferences()) {
+                if (RelationType.MANY_TO_MANY.equals(link.getType())) {
+                    final List<RelationMetadata<?, ?>> middle = new ArrayList<RelationMetadata<?, ?>>(extended);
+                    middle.add(link);
+                    paths.add(middle);
+                }
+            }
+            paths.add(extended);
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,400 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.couteau.basics.api.Processor;
+import com.mmnaseri.dragonfly.error.ConnectionPoolExhaustedError;
+import com.mmnaseri.dragonfly.error.DatabaseConnectionError;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>This is a fixed-size pool of physical connections obtained from a data source. Connections are
+ * handed out as {@link DelegatingConnection}s, whose close callback returns them to the pool instead
+ * of closing them, which also means that the statements cached by each connection survive across
+ * borrowings.</p>
+ *
+ * <p>The pool offers:</p>
+ *
+ * <ul>
+ *     <li>Fair acquisition with a hard timeout, after which a {@link ConnectionPoolExhaustedError}
+ *     is raised.</li>
+ *     <li>Validation of idle connections before they are handed out.</li>
+ *     <li>Eviction of connections which have been idle for longer than the configured time.</li>
+ *     <li>Leak detection, which reports the stack trace of the borrower of any connection held for
+ *     longer than the configured threshold.</li>
+ * </ul>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 10:41)
+ */
+public class ConnectionPool {
+
+    private static final Log log = LogFactory.getLog(ConnectionPool.class);
+    public static final long DEFAULT_MAX_IDLE_TIME = 600000L;
+    public static final int DEFAULT_VALIDATION_TIMEOUT = 5;
+    private static final long HOUSEKEEPING_INTERVAL = 5000L;
+    private final DataSource dataSource;
+    private final String username;
+    private final String password;
+    private final Processor<Connection> releaseCallback;
+    private final ResizableSemaphore permits;
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<PooledConnection>();
+    private final Map<Connection, PooledConnection> active = new ConcurrentHashMap<Connection, PooledConnection>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile int maxConnections;
+    private volatile long borrowTimeout;
+    private volatile long maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+    private volatile long leakDetectionThreshold = 0L;
+    private volatile int validationTimeout = DEFAULT_VALIDATION_TIMEOUT;
+    private volatile boolean closed = false;
+
+    /**
+     * Creates the pool
+     * @param dataSource         the data source from which physical connections are obtained
+     * @param username           the username, or {@code null} if the data source needs no credentials
+     * @param password           the password, or {@code null} if the data source needs no credentials
+     * @param maxConnections     the maximum number of physical connections
+     * @param borrowTimeout      the time (in milliseconds) a caller is willing to wait for a connection
+     * @param releaseCallback    the callback invoked whenever a connection is released to the pool
+     */
+    public ConnectionPool(DataSource dataSource, String username, String password, int maxConnections, long borrowTimeout, Processor<Connection> releaseCallback) {
+        this.dataSource = dataSource;
+        this.username = username;
+        this.password = password;
+        this.maxConnections = maxConnections;
+        this.borrowTimeout = borrowTimeout;
+        this.releaseCallback = releaseCallback;
+        this.permits = new ResizableSemaphore(maxConnections);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                final Thread thread = new Thread(runnable, "dragonfly-connection-pool");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.housekeeper.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                evictIdleConnections();
+                detectLeaks();
+            }
+        }, HOUSEKEEPING_INTERVAL, HOUSEKEEPING_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, waiting for one to be released if all connections are in use
+     * @return the connection
+     */
+    public DelegatingConnection borrow() {
+        if (closed) {
+            throw new IllegalStateException("Connection pool has been closed");
+        }
+        final boolean acquired;
+        waiting.incrementAndGet();
+        try {
+            acquired = permits.tryAcquire(borrowTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionPoolExhaustedError("Interrupted while waiting for a pooled connection", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        if (!acquired) {
+            throw new ConnectionPoolExhaustedError(maxConnections, borrowTimeout);
+        }
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (validate(pooled)) {
+                    break;
+                }
+                discard(pooled);
+            }
+            if (pooled == null) {
+                pooled = new PooledConnection(createConnection());
+            }
+            pooled.borrowed(leakDetectionThreshold > 0 ? new Throwable("Connection borrowed by thread " + Thread.currentThread().getName()) : null);
+            active.put(pooled.getConnection(), pooled);
+            return pooled.getConnection();
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private DelegatingConnection createConnection() {
+        final Connection connection;
+        try {
+            if (username != null && password != null && !username.isEmpty()) {
+                connection = dataSource.getConnection(username, password);
+            } else {
+                connection = dataSource.getConnection();
+            }
+        } catch (SQLException e) {
+            throw new DatabaseConnectionError(e);
+        }
+        log.info("Opened a new physical connection; " + (active.size() + idle.size() + 1) + " connection(s) now in the pool");
+        return new DelegatingConnection(connection, new Processor<Connection>() {
+            @Override
+            public void process(Connection input) {
+                if (releaseCallback != null) {
+                    releaseCallback.process(input);
+                }
+                release(input);
+            }
+        }, DelegatingConnection.DEFAULT_STATEMENT_CACHE_SIZE, true);
+    }
+
+    private boolean validate(PooledConnection pooled) {
+        try {
+            return pooled.getConnection().isValid(validationTimeout);
+        } catch (SQLException e) {
+            return false;
+        } catch (AbstractMethodError e) {
+            //the driver predates JDBC 4, so we will just have to trust the connection
+            return true;
+        }
+    }
+
+    private void release(Connection connection) {
+        final PooledConnection pooled = active.remove(connection);
+        if (pooled == null) {
+            return;
+        }
+        try {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            pooled.returned();
+            if (closed) {
+                discard(pooled);
+            } else {
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            log.warn("Failed to reset connection before returning it to the pool", e);
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        try {
+            pooled.getConnection().discard();
+        } catch (SQLException e) {
+            log.warn("Failed to close pooled connection", e);
+        }
+    }
+
+    private void evictIdleConnections() {
+        final long threshold = System.currentTimeMillis() - maxIdleTime;
+        final Iterator<PooledConnection> iterator = idle.descendingIterator();
+        while (iterator.hasNext()) {
+            final PooledConnection pooled = iterator.next();
+            if (pooled.getLastUsed() < threshold && idle.remove(pooled)) {
+                log.info("Evicting connection that has been idle since " + pooled.getLastUsed());
+                discard(pooled);
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        final long threshold = leakDetectionThreshold;
+        if (threshold <= 0) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        for (PooledConnection pooled : active.values()) {
+            final Throwable borrower = pooled.getBorrower();
+            if (borrower != null && now - pooled.getBorrowedAt() > threshold && pooled.markLeakReported()) {
+                log.warn("Possible connection leak: connection has been held for " + (now - pooled.getBorrowedAt()) + "ms", borrower);
+            }
+        }
+    }
+
+    /**
+     * Closes all idle connections and stops accepting new borrowers. Connections that are currently in
+     * use will be closed as soon as they are released.
+     */
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        final List<PooledConnection> connections = new ArrayList<PooledConnection>();
+        idle.drainTo(connections);
+        for (PooledConnection pooled : connections) {
+            discard(pooled);
+        }
+    }
+
+    /**
+     * @return the number of connections currently borrowed
+     */
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    /**
+     * @return the number of open connections waiting to be borrowed
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * @return the number of threads waiting for a connection
+     */
+    public int getWaitingCount() {
+        return waiting.get();
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Changes the maximum number of physical connections. Shrinking the pool does not close connections
+     * that are in use; it only keeps new borrowers waiting until enough connections have been released.
+     * @param maxConnections    the new maximum
+     */
+    public synchronized void setMaxConnections(int maxConnections) {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("Maximum number of connections must be a positive number: " + maxConnections);
+        }
+        final int delta = maxConnections - this.maxConnections;
+        if (delta > 0) {
+            permits.release(delta);
+        } else if (delta < 0) {
+            permits.reducePermits(-delta);
+        }
+        this.maxConnections = maxConnections;
+    }
+
+    public long getBorrowTimeout() {
+        return borrowTimeout;
+    }
+
+    /**
+     * @param borrowTimeout    the time (in milliseconds) a caller is willing to wait for a connection
+     */
+    public void setBorrowTimeout(long borrowTimeout) {
+        this.borrowTimeout = borrowTimeout;
+    }
+
+    public void setMaxIdleTime(long maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+    }
+
+    /**
+     * @param leakDetectionThreshold    the time (in milliseconds) after which a connection that has not
+     *                                  been returned is reported as leaked. Zero disables leak detection.
+     */
+    public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+        this.leakDetectionThreshold = leakDetectionThreshold;
+    }
+
+    /**
+     * @param validationTimeout    the time (in seconds) to wait for a connection to be validated
+     */
+    public void setValidationTimeout(int validationTimeout) {
+        this.validationTimeout = validationTimeout;
+    }
+
+    /**
+     * A fair semaphore whose number of permits can be reduced, so that the pool can be resized
+     */
+    private static class ResizableSemaphore extends Semaphore {
+
+        private ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+
+    }
+
+    private static class PooledConnection {
+
+        private final DelegatingConnection connection;
+        private volatile long lastUsed;
+        private volatile long borrowedAt;
+        private volatile Throwable borrower;
+        private final AtomicInteger leakReported = new AtomicInteger();
+
+        private PooledConnection(DelegatingConnection connection) {
+            this.connection = connection;
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        private DelegatingConnection getConnection() {
+            return connection;
+        }
+
+        private void borrowed(Throwable borrower) {
+            this.borrower = borrower;
+            this.borrowedAt = System.currentTimeMillis();
+            this.leakReported.set(0);
+        }
+
+        private void returned() {
+            this.borrower = null;
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        private long getLastUsed() {
+            return lastUsed;
+        }
+
+        private long getBorrowedAt() {
+            return borrowedAt;
+        }
+
+        private Throwable getBorrower() {
+            return borrower;
+        }
+
+        private boolean markLeakReported() {
+            return leakReported.compareAndSet(0, 1);
+        }
+
+    }
+
+}
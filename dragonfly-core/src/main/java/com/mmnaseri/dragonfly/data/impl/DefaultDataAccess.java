@@ -29,6 +29,7 @@ import com.mmnaseri.couteau.basics.api.Filter;
 import com.mmnaseri.couteau.basics.api.Processor;
 import com.mmnaseri.couteau.basics.api.Transformer;
 import com.mmnaseri.couteau.basics.api.impl.EqualityFilter;
+import com.mmnaseri.couteau.basics.api.impl.NegatingFilter;
 import com.mmnaseri.couteau.basics.api.impl.SimpleDataDispenser;
 import com.mmnaseri.couteau.context.error.RegistryException;
 import com.mmnaseri.couteau.reflection.beans.BeanInitializer;
@@ -37,6 +38,7 @@ import com.mmnaseri.couteau.reflection.beans.impl.ConstructorBeanInitializer;
 import com.mmnaseri.couteau.reflection.beans.impl.MethodBeanWrapper;
 import com.mmnaseri.couteau.reflection.error.BeanInstantiationException;
 import com.mmnaseri.couteau.reflection.util.ReflectionUtils;
+import com.mmnaseri.dragonfly.annotations.Ordering;
 import com.mmnaseri.dragonfly.annotations.ParameterMode;
 import com.mmnaseri.dragonfly.annotations.Partial;
 import com.mmnaseri.dragonfly.entity.*;
@@ -50,13 +52,20 @@ import com.mmnaseri.dragonfly.fluent.impl.DefaultSelectQueryInitiator;
 import com.mmnaseri.dragonfly.metadata.*;
 import com.mmnaseri.dragonfly.metadata.impl.ColumnMappingMetadataCollector;
 import com.mmnaseri.dragonfly.metadata.impl.DefaultPagedResultOrderMetadata;
+import com.mmnaseri.dragonfly.metadata.impl.DefaultResultOrderMetadata;
+import com.mmnaseri.dragonfly.metadata.impl.ImmutableColumnValueSetMetadata;
+import com.mmnaseri.dragonfly.metadata.impl.ImmutableKeysetMetadata;
+import com.mmnaseri.dragonfly.metadata.impl.ImmutableOrderMetadata;
 import com.mmnaseri.dragonfly.statement.*;
 import com.mmnaseri.dragonfly.statement.Statement;
 import com.mmnaseri.dragonfly.statement.impl.DefaultStatementPreparator;
 import com.mmnaseri.dragonfly.statement.impl.DelegatingPreparedStatement;
 import com.mmnaseri.dragonfly.statement.impl.FreemarkerSecondPassStatementBuilder;
+import com.mmnaseri.dragonfly.statement.impl.ParameterBindingPlan;
 import com.mmnaseri.dragonfly.statement.impl.ProcedureCallStatement;
+import com.mmnaseri.dragonfly.tools.BoundedCache;
 import com.mmnaseri.dragonfly.tools.ColumnNameFilter;
+import com.mmnaseri.dragonfly.tools.ColumnPropertyFilter;
 import com.mmnaseri.dragonfly.tools.MapTools;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -65,6 +74,7 @@ import java.io.Serializable;
 import java.sql.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
 
@@ -85,6 +95,7 @@ import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
  *     <li>Caching of initialized entities, until their persistent properties are modified
  *     externally.</li>
  *     <li>Support for operations on partial entities.</li>
+ *     <li>Keyset pagination, with the statement for each ordering only generated once.</li>
  * </ul>
  *
  * <p><strong>NB</strong> This implementation of the data access interface does not provide
@@ -94,10 +105,24 @@ import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/9/20, 23:29)
  */
-public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext, FluentDataAccess {
+public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext, FluentDataAccess, StreamingDataAccess, KeysetDataAccess {
 
     private static final Log log = LogFactory.getLog(DataAccess.class);
-    private static final Map<Statements.Manipulation, String> STATEMENTS = new ConcurrentHashMap<Statements.Manipulation, String>();
+    /**
+     * The number of operations a batch holds before they are flushed to the database
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    /**
+     * The number of related entities loaded by a single query when resolving the relations of a query's results
+     */
+    public static final int DEFAULT_BATCH_FETCH_SIZE = 50;
+    private static final int PARTIAL_UPDATE_CACHE_SIZE = 256;
+    private static final int BATCH_FETCH_STATEMENT_CACHE_SIZE = 512;
+    private static final int KEYSET_STATEMENT_CACHE_SIZE = 256;
+    private static final int ORDERED_STATEMENT_CACHE_SIZE = 512;
+    private static final Set<Statements.Manipulation> SAMPLE_MANIPULATIONS = EnumSet.of(Statements.Manipulation.FIND_LIKE, Statements.Manipulation.COUNT_LIKE, Statements.Manipulation.DELETE_LIKE);
+    static final Map<Statements.Manipulation, String> STATEMENTS = new ConcurrentHashMap<Statements.Manipulation, String>();
+    private static final Map<String, Statements.Manipulation> MANIPULATIONS = new ConcurrentHashMap<String, Statements.Manipulation>();
     private static final long SESSION_INITIALIZATION_TIMEOUT = 5000L;
 
     static {
@@ -116,6 +141,9 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         STATEMENTS.put(Statements.Manipulation.INSERT, "insert");
         STATEMENTS.put(Statements.Manipulation.TRUNCATE, "truncate");
         STATEMENTS.put(Statements.Manipulation.UPDATE, "updateBySample");
+        for (Map.Entry<Statements.Manipulation, String> entry : STATEMENTS.entrySet()) {
+            MANIPULATIONS.put(entry.getValue(), entry.getKey());
+        }
     }
 
     private final DataAccessSession session;
@@ -124,8 +152,9 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
     private final BeanInitializer beanInitializer;
     private final ColumnMappingMetadataCollector metadataCollector;
     private final CompositeDataAccessEventHandler eventHandler;
+    private final CacheInvalidator cacheInvalidator;
     private final EntityInitializationContext initializationContext;
-    private final RowHandler rowHandler;
+    private final DefaultRowHandler rowHandler;
     private final ThreadLocal<Map<Object, Object>> saveQueue;
     private final ThreadLocal<Set<Object>> deferredSaveQueue;
     private final ThreadLocal<Long> saveQueueLock;
@@ -134,12 +163,23 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
     private final MapEntityCreator entityCreator;
     private final Map<Class<?>, Collection<ColumnMetadata>> partialEntityColumns = new ConcurrentHashMap<Class<?>, Collection<ColumnMetadata>>();
     private final ThreadLocal<Map<Class<?>, Map<Statements.Manipulation, Set<Statement>>>> deleteAllStatements;
-    private final StatementPreparator statementPreparator;
-    private final ThreadLocal<List<BatchOperationDescriptor>> batchOperation;
-    private final ThreadLocal<List<Object>> deferredKeys;
+    private final DefaultStatementPreparator statementPreparator;
+    private final ThreadLocal<BatchOperationQueue> batchOperation;
     private final ThreadLocal<Boolean> batch;
     private final ThreadLocal<Set<LocalOperationResult>> localCounts;
     private final ThreadLocal<Stack<PreparedStatement>> localStatements;
+    private Integer fetchSize = null;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private boolean dirtyChecking = false;
+    private int batchFetchSize = DEFAULT_BATCH_FETCH_SIZE;
+    private final BoundedCache<String, Statement> batchFetchStatements = new BoundedCache<String, Statement>(BATCH_FETCH_STATEMENT_CACHE_SIZE);
+    private final BoundedCache<String, Statement> partialUpdates = new BoundedCache<String, Statement>(PARTIAL_UPDATE_CACHE_SIZE);
+    private final BoundedCache<String, Statement> keysetStatements = new BoundedCache<String, Statement>(KEYSET_STATEMENT_CACHE_SIZE);
+    private final BoundedCache<String, Statement> orderedStatements = new BoundedCache<String, Statement>(ORDERED_STATEMENT_CACHE_SIZE);
+    private final ConcurrentMap<Class<?>, CascadeDeletePlan> cascadeDeletes = new ConcurrentHashMap<Class<?>, CascadeDeletePlan>();
+    private final SecondLevelCache secondLevelCache;
+    private final QueryResultCache queryResultCache;
+    private final SampleStatementCache sampleStatements;
 
     public DefaultDataAccess(DataAccessSession session, EntityContext entityContext, EntityHandlerContext entityHandlerContext, boolean autoInitialize) {
         this.session = session;
@@ -150,9 +190,9 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         this.eventHandler = new CompositeDataAccessEventHandler();
         this.initializationContext = new ThreadLocalEntityInitializationContext(this);
         this.rowHandler = new DefaultRowHandler();
-        this.mapCreator = new DefaultEntityMapCreator();
+        this.mapCreator = new AccessorEntityMapCreator();
         try {
-            this.entityCreator = new DefaultMapEntityCreator();
+            this.entityCreator = new AccessorMapEntityCreator();
         } catch (RegistryException e) {
             throw new DataAccessSessionInitializationError("Failed to initialize the map-to-entity converter", e);
         }
@@ -174,7 +214,7 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
                 return new HashMap<Class<?>, Map<Statements.Manipulation, Set<Statement>>>();
             }
         };
-        this.batchOperation = new ThreadLocal<List<BatchOperationDescriptor>>();
+        this.batchOperation = new ThreadLocal<BatchOperationQueue>();
         this.batch = new ThreadLocal<Boolean>() {
             @Override
             protected Boolean initialValue() {
@@ -182,13 +222,12 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
             }
         };
         this.entityContext.initialize(this);
+        this.secondLevelCache = session instanceof DefaultDataAccessSession ? ((DefaultDataAccessSession) session).getSecondLevelCache() : new SecondLevelCache();
+        this.queryResultCache = session instanceof DefaultDataAccessSession ? ((DefaultDataAccessSession) session).getQueryResultCache() : new QueryResultCache();
+        this.sampleStatements = session instanceof DefaultDataAccessSession ? ((DefaultDataAccessSession) session).getSampleStatementCache() : new SampleStatementCache(SampleStatementCache.DEFAULT_CAPACITY);
+        this.cacheInvalidator = new CacheInvalidator(secondLevelCache, queryResultCache, entityHandlerContext, session.getTableMetadataRegistry());
+        this.eventHandler.addHandler(cacheInvalidator);
         this.statementPreparator = new DefaultStatementPreparator(false);
-        this.deferredKeys = new ThreadLocal<List<Object>>() {
-            @Override
-            protected List<Object> initialValue() {
-                return new ArrayList<Object>();
-            }
-        };
         this.deferredSaveQueue = new ThreadLocal<Set<Object>>() {
             @Override
             protected Set<Object> initialValue() {
@@ -263,6 +302,10 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
      */
 
     private int getUpdateCount(PreparedStatement preparedStatement) {
+        if (preparedStatement == null) {
+            //the operation is waiting in a multi-row batch, so just like other batched operations its count is not known yet
+            return -1;
+        }
         try {
             return preparedStatement.getUpdateCount();
         } catch (SQLException e) {
@@ -275,7 +318,7 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
     }
 
     private PreparedStatement internalExecuteUpdate(Class<?> entityType, Statements.Manipulation statement, Map<String, Object> values) {
-        return internalExecuteUpdate(getStatement(entityType, statement, null, StatementType.INSERT, StatementType.DELETE, StatementType.UPDATE, StatementType.TRUNCATE), values);
+        return internalExecuteUpdate(getSampleStatement(statement, getStatement(entityType, statement, null, StatementType.INSERT, StatementType.DELETE, StatementType.UPDATE, StatementType.TRUNCATE), values), values);
     }
 
     private PreparedStatement internalExecuteUpdate(Class<?> entityType, String statement, Map<String, Object> values) {
@@ -286,34 +329,33 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         waitForSessionInitialization();
         if (isInBatchMode()) {
             if (batchOperation.get() == null) {
-                batchOperation.set(new Stack<BatchOperationDescriptor>());
-            }
-            final List<BatchOperationDescriptor> operationDescriptors = batchOperation.get();
-            boolean firstStep = operationDescriptors.isEmpty();
-            if (!firstStep) {
-                String sql = statement.getSql();
-                if (statement.isDynamic()) {
-                    sql = new FreemarkerSecondPassStatementBuilder(statement, session.getDatabaseDialect(), values).getStatement(statement.getTableMetadata()).getSql();
-                }
-                firstStep = !sql.equals(operationDescriptors.get(operationDescriptors.size() - 1).getSql());
+                batchOperation.set(new BatchOperationQueue());
             }
-            final PreparedStatement preparedStatement;
-            if (!firstStep) {
-                preparedStatement = operationDescriptors.get(operationDescriptors.size() - 1).getPreparedStatement();
-                statementPreparator.prepare(preparedStatement, statement.getTableMetadata(), values, operationDescriptors.get(operationDescriptors.size() - 1).getSql());
-            } else {
-                final BatchOperationDescriptor operationDescriptor = getPreparedStatement(statement, values);
-                operationDescriptors.add(operationDescriptor);
-                preparedStatement = operationDescriptor.getPreparedStatement();
+            final BatchOperationQueue queue = batchOperation.get();
+            if (queue.getPendingCount() >= batchSize) {
+                flushBatch(queue);
             }
-            try {
-                preparedStatement.addBatch();
-            } catch (SQLException e) {
-                throw new BatchOperationExecutionError("Failed to add batch operation", e);
+            final Statement finalStatement = getFinalStatement(statement, values);
+            BatchOperationDescriptor descriptor = queue.find(finalStatement.getSql(), statement.getTableMetadata());
+            if (descriptor == null) {
+                descriptor = isMultiRowInsert(finalStatement) ? getMultiRowDescriptor(finalStatement) : getPreparedStatement(finalStatement, values);
+                queue.add(descriptor);
+            } else if (!descriptor.isMultiRow()) {
+                statementPreparator.prepare(descriptor.getPreparedStatement(), statement.getTableMetadata(), values, descriptor.getSql());
             }
-            return preparedStatement;
+            descriptor.addRow(values);
+            queue.operationAdded(descriptor);
+            if (!descriptor.isMultiRow()) {
+                try {
+                    descriptor.getPreparedStatement().addBatch();
+                } catch (SQLException e) {
+                    throw new BatchOperationExecutionError("Failed to add batch operation", e);
+                }
+            }
+            //rows of multi-row inserts are only prepared once the batch is flushed
+            return descriptor.getPreparedStatement();
         } else {
-            final PreparedStatement preparedStatement = getPreparedStatement(statement, values).getPreparedStatement();
+            final PreparedStatement preparedStatement = getPreparedStatement(getFinalStatement(statement, values), values).getPreparedStatement();
             try {
                 preparedStatement.executeUpdate();
             } catch (SQLException e) {
@@ -337,23 +379,47 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         }
     }
 
-    private synchronized BatchOperationDescriptor getPreparedStatement(Statement statement, Map<String, Object> values) {
+    /**
+     * Renders the second pass of the statement if it is dynamic, so that it is only done once per operation
+     */
+    private Statement getFinalStatement(Statement statement, Map<String, Object> values) {
+        if (statement.isDynamic()) {
+            return new FreemarkerSecondPassStatementBuilder(statement, session.getDatabaseDialect(), values).getStatement(statement.getTableMetadata());
+        }
+        return statement;
+    }
+
+    private synchronized BatchOperationDescriptor getPreparedStatement(Statement finalStatement, Map<String, Object> values) {
         final Connection connection = openConnection();
         if (isInBatchMode()) {
-            try {
-                connection.setAutoCommit(false);
-            } catch (SQLException e) {
-                throw new BatchOperationExecutionError("Failed to disable auto-commit mode for the current connection", e);
-            }
-        }
-        final Statement finalStatement;
-        if (statement.isDynamic()) {
-            finalStatement = new FreemarkerSecondPassStatementBuilder(statement, session.getDatabaseDialect(), values).getStatement(statement.getTableMetadata());
-        } else {
-            finalStatement = statement;
+            disableAutoCommit(connection);
         }
         final PreparedStatement preparedStatement = openStatement(new DelegatingPreparedStatement(finalStatement.prepare(connection, null, values), connection));
-        return new BatchOperationDescriptor(preparedStatement, finalStatement.getSql());
+        return new BatchOperationDescriptor(preparedStatement, finalStatement.getSql(), finalStatement.getTableMetadata(), false);
+    }
+
+    private boolean isMultiRowInsert(Statement finalStatement) {
+        return finalStatement.hasParameters() && session.getDatabaseDialect().isMultiRowInsertSupported()
+                && StatementType.INSERT.equals(StatementType.getStatementType(finalStatement.getSql()));
+    }
+
+    /**
+     * Multi-row inserts are prepared with their final row count when the batch is flushed, so all
+     * we hold on to until then is the connection
+     */
+    private synchronized BatchOperationDescriptor getMultiRowDescriptor(Statement finalStatement) {
+        final boolean connectionOwner = localStatements.get().isEmpty();
+        final Connection connection = openConnection();
+        disableAutoCommit(connection);
+        return new BatchOperationDescriptor(connection, connectionOwner, finalStatement.getSql(), finalStatement.getTableMetadata());
+    }
+
+    private static void disableAutoCommit(Connection connection) {
+        try {
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            throw new BatchOperationExecutionError("Failed to disable auto-commit mode for the current connection", e);
+        }
     }
 
     /**
@@ -370,6 +436,9 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
 
     private <E> List<E> internalExecuteQuery(Class<E> entityType, String statementName, Map<String, Object> values, ResultOrderMetadata ordering) {
         final EntityHandler<E> entityHandler = entityHandlerContext.getHandler(entityType);
+        if (entityHandler instanceof GenericEntityHandler) {
+            return internalMaterializeQuery((GenericEntityHandler<E>) entityHandler, statementName, values, ordering);
+        }
         final List<Map<String, Object>> maps = internalExecuteUntypedQuery(entityType, statementName, values, ordering);
         final ArrayList<E> result = new ArrayList<E>();
         for (Map<String, Object> entityMap : maps) {
@@ -388,6 +457,620 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         return result;
     }
 
+    /**
+     * Reads the entities straight off of the result set using the row materialization plan of the entity
+     * handler, keeping only the values needed for loading the relations of each entity
+     */
+    private <E> List<E> internalMaterializeQuery(GenericEntityHandler<E> entityHandler, String statementName, Map<String, Object> values, ResultOrderMetadata ordering) {
+        final Class<E> entityType = entityHandler.getEntityType();
+        if (isInBatchMode() && !statementName.startsWith("count")) {
+            throw new BatchOperationInterruptedByReadError();
+        }
+        waitForSessionInitialization();
+        return internalMaterializeQuery(entityHandler, getSampleStatement(statementName, getStatement(entityType, statementName, ordering, StatementType.QUERY), values), values, null, Collections.<RelationMetadata<E, ?>>emptySet());
+    }
+
+    /**
+     * Materializes the results of the query, and then resolves the eager relations of all of them together,
+     * so that each relation only costs a handful of queries for the whole result
+     * @param rows        if not {@code null}, the relation values read for each of the results will be added to it
+     * @param excluded    relations that will be set on the results by the caller, and should not be loaded here
+     */
+    private <E> List<E> internalMaterializeQuery(GenericEntityHandler<E> entityHandler, Statement statement, Map<String, Object> values, List<Map<String, Object>> rows, Collection<RelationMetadata<E, ?>> excluded) {
+        final Class<E> entityType = entityHandler.getEntityType();
+        final Connection connection = openConnection();
+        final PreparedStatement preparedStatement = openStatement(statement.prepare(connection, null, values));
+        final ArrayList<E> instances = new ArrayList<E>();
+        final ArrayList<Map<String, Object>> relationValues = new ArrayList<Map<String, Object>>();
+        final TableMetadata<E> tableMetadata = session.getTableMetadataRegistry().getTableMetadata(entityType);
+        CacheRegion<Object, Map<String, Object>> region = secondLevelCache.getRegion(tableMetadata);
+        final long stamp = region == null ? 0 : region.getStamp();
+        final ArrayList<Map<String, Object>> cachedValues = new ArrayList<Map<String, Object>>();
+        try {
+            final ResultSet resultSet = preparedStatement.executeQuery();
+            final RowMaterializationPlan<E> plan = entityHandler.getRowMaterializationPlan(statement.getSql(), resultSet.getMetaData());
+            if (region != null && !plan.isComplete()) {
+                region = null;
+            }
+            while (resultSet.next()) {
+                final E instance = entityContext.getInstance(entityType);
+                if (region != null) {
+                    final Map<String, Object> columnValues = new HashMap<String, Object>();
+                    relationValues.add(plan.materialize(resultSet, instance, columnValues));
+                    cachedValues.add(columnValues);
+                } else {
+                    relationValues.add(plan.materialize(resultSet, instance));
+                }
+                instances.add(instance);
+            }
+            resultSet.close();
+            closeStatement(preparedStatement);
+            closeConnection(connection);
+        } catch (SQLException e) {
+            throw new UnsuccessfulOperationError("Failed to retrieve result set from the database", e);
+        }
+        if (region != null) {
+            for (int i = 0; i < instances.size(); i++) {
+                final Serializable key = entityHandler.getKey(instances.get(i));
+                if (key != null) {
+                    region.put(normalizeKey(key), cachedValues.get(i), stamp);
+                }
+            }
+        }
+        if (instances.size() > 1) {
+            fetchReferences(tableMetadata, relationValues, excluded);
+        }
+        final Set<RelationMetadata<E, ?>> batched = instances.size() > 1 ? getBatchFetchedCollections(entityHandler, tableMetadata) : Collections.<RelationMetadata<E, ?>>emptySet();
+        final Set<RelationMetadata<E, ?>> skipped;
+        if (excluded.isEmpty()) {
+            skipped = batched;
+        } else {
+            skipped = new HashSet<RelationMetadata<E, ?>>(batched);
+            skipped.addAll(excluded);
+        }
+        final ArrayList<E> result = new ArrayList<E>(instances.size());
+        final ArrayList<E> pending = new ArrayList<E>();
+        final ArrayList<Map<String, Object>> pendingValues = new ArrayList<Map<String, Object>>();
+        final Map<Object, E> pendingKeys = new HashMap<Object, E>();
+        for (int i = 0; i < instances.size(); i++) {
+            final E instance = instances.get(i);
+            if (rows != null) {
+                rows.add(relationValues.get(i));
+            }
+            if (entityHandler.hasKey()) {
+                final Serializable key = entityHandler.getKey(instance);
+                if (initializationContext.contains(entityType, key)) {
+                    result.add(initializationContext.get(entityType, key));
+                    continue;
+                }
+                if (key != null) {
+                    if (pendingKeys.containsKey(normalizeKey(key))) {
+                        result.add(pendingKeys.get(normalizeKey(key)));
+                        continue;
+                    }
+                    pendingKeys.put(normalizeKey(key), instance);
+                }
+            }
+            result.add(instance);
+            pending.add(instance);
+            pendingValues.add(relationValues.get(i));
+        }
+        //the batched relations are put in place before the entities are registered with the initialization context
+        //and before their original copies are taken, so that no one ever gets to see them half-loaded
+        for (RelationMetadata<E, ?> reference : batched) {
+            if (RelationType.MANY_TO_MANY.equals(reference.getType())) {
+                fetchManyToMany(entityHandler, tableMetadata, reference, pending);
+            } else {
+                fetchCollection(entityHandler, reference, pending);
+            }
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            prepareEntity(pending.get(i), pendingValues.get(i), skipped);
+        }
+        return result;
+    }
+
+    /**
+     * Batch fetching methods
+     */
+
+    private int getBatchFetchSize(RelationMetadata<?, ?> reference) {
+        return reference.getBatchSize() > 0 ? reference.getBatchSize() : batchFetchSize;
+    }
+
+    private static boolean hasSimpleKey(TableMetadata<?> tableMetadata) {
+        return tableMetadata.hasPrimaryKey() && tableMetadata.getPrimaryKey().getColumns().size() == 1;
+    }
+
+    /**
+     * Loads the entities referenced by the given rows through eager to-one relations in batches, so that they are already
+     * registered with the initialization context by the time each entity's relations are resolved
+     */
+    private <E> void fetchReferences(TableMetadata<E> tableMetadata, List<Map<String, Object>> rows, Collection<RelationMetadata<E, ?>> excluded) {
+        for (RelationMetadata<E, ?> reference : tableMetadata.getForeignReferences()) {
+            if (reference.isLazy() || excluded.contains(reference) || !reference.isOwner() || reference.getType().getForeignCardinality() != 1 || getBatchFetchSize(reference) < 2
+                    || !hasSimpleKey(reference.getForeignTable()) || !(entityHandlerContext.getHandler(reference.getForeignTable().getEntityType()) instanceof GenericEntityHandler)) {
+                continue;
+            }
+            final ColumnMetadata column = with(reference.getLocalTable().getColumns()).find(new ColumnPropertyFilter(reference.getPropertyName()));
+            if (column == null) {
+                continue;
+            }
+            final ColumnMetadata keyColumn = reference.getForeignTable().getPrimaryKey().getColumns().iterator().next();
+            final CacheRegion<Object, Map<String, Object>> region = secondLevelCache.getRegion(reference.getForeignTable());
+            final Map<Object, Object> keys = new LinkedHashMap<Object, Object>();
+            for (Map<String, Object> row : rows) {
+                final Object key = getColumnValue(row, column.getName());
+                if (key == null || keys.containsKey(normalizeKey(key))) {
+                    continue;
+                }
+                if (!initializationContext.contains(reference.getForeignTable().getEntityType(), toEntityKey(key, keyColumn.getPropertyType()))
+                        && (region == null || !region.contains(normalizeKey(key)))) {
+                    keys.put(normalizeKey(key), key);
+                }
+            }
+            if (keys.size() > 1) {
+                fetchIn(reference.getForeignTable(), keyColumn, null, keys.values(), getBatchFetchSize(reference), null, null);
+            }
+        }
+    }
+
+    /**
+     * @return the eager collection (and inverse one-to-one) relations of the entity that will be loaded in batches
+     */
+    private <E> Set<RelationMetadata<E, ?>> getBatchFetchedCollections(EntityHandler<E> entityHandler, TableMetadata<E> tableMetadata) {
+        if (!entityHandler.hasKey()) {
+            return Collections.emptySet();
+        }
+        final Set<RelationMetadata<E, ?>> relations = new HashSet<RelationMetadata<E, ?>>();
+        for (RelationMetadata<E, ?> reference : tableMetadata.getForeignReferences()) {
+            if (reference.isLazy() || getBatchFetchSize(reference) < 2) {
+                continue;
+            }
+            if (RelationType.MANY_TO_MANY.equals(reference.getType())) {
+                if (isManyToManyBatchFetchable(tableMetadata, reference)) {
+                    relations.add(reference);
+                }
+            } else if (!reference.isOwner() && reference.getType().getLocalCardinality() == 1 && reference.getForeignColumn() != null
+                    && entityHandlerContext.getHandler(reference.getForeignTable().getEntityType()) instanceof GenericEntityHandler) {
+                relations.add(reference);
+            }
+        }
+        return relations;
+    }
+
+    /**
+     * Many-to-many relations are only loaded in batches when the entities on the other side have a simple key and are
+     * ordered by their own columns, and when they do not eagerly point back at this entity through the same middle table,
+     * since that would have them look for entities that are not yet registered with the initialization context
+     */
+    private <E> boolean isManyToManyBatchFetchable(TableMetadata<E> tableMetadata, RelationMetadata<E, ?> reference) {
+        final ColumnMetadata localColumn = getManyToManyLocalColumn(tableMetadata, reference);
+        final ColumnMetadata foreignColumn = getManyToManyForeignColumn(tableMetadata, reference);
+        if (localColumn == null || foreignColumn == null || foreignColumn.getForeignReference() == null) {
+            return false;
+        }
+        final TableMetadata<?> foreignTable = foreignColumn.getForeignReference().getTable();
+        if (!hasSimpleKey(foreignTable) || !(entityHandlerContext.getHandler(foreignTable.getEntityType()) instanceof GenericEntityHandler)) {
+            return false;
+        }
+        if (reference.getOrdering() != null) {
+            for (OrderMetadata ordering : reference.getOrdering()) {
+                if (!foreignTable.getName().equalsIgnoreCase(ordering.getColumn().getTable().getName())) {
+                    return false;
+                }
+            }
+        }
+        for (RelationMetadata<?, ?> relation : foreignTable.getForeignReferences()) {
+            if (!relation.isLazy() && RelationType.MANY_TO_MANY.equals(relation.getType()) && relation.getForeignTable().getName().equalsIgnoreCase(reference.getForeignTable().getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the column of the middle table of the many-to-many relation that points to the given table
+     */
+    static ColumnMetadata getManyToManyLocalColumn(TableMetadata<?> tableMetadata, RelationMetadata<?, ?> reference) {
+        return with(reference.getForeignTable().getColumns()).find(new ColumnNameFilter(tableMetadata.getName()));
+    }
+
+    /**
+     * @return the column of the middle table of the many-to-many relation that points to the other side of the relation
+     */
+    static ColumnMetadata getManyToManyForeignColumn(TableMetadata<?> tableMetadata, RelationMetadata<?, ?> reference) {
+        return with(reference.getForeignTable().getColumns()).find(new NegatingFilter<ColumnMetadata>(new ColumnNameFilter(tableMetadata.getName())));
+    }
+
+    /**
+     * Loads the entities on the foreign side of the relation for all the given entities with as few queries as
+     * the batch size of the relation allows, and then hands each entity its share
+     */
+    private <E, F> void fetchCollection(EntityHandler<E> entityHandler, RelationMetadata<E, F> reference, List<E> entities) {
+        //the entities being loaded are not registered yet, so the loaded ones are handed their owner here instead of looking it up
+        final RelationMetadata<F, ?> backReference = getBackReference(reference);
+        final Collection<RelationMetadata<F, ?>> excluded = backReference == null ? Collections.<RelationMetadata<F, ?>>emptySet() : Collections.<RelationMetadata<F, ?>>singleton(backReference);
+        final List<Object> keys = new ArrayList<Object>();
+        for (E entity : entities) {
+            final Serializable key = entityHandler.getKey(entity);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+        final List<F> found = new ArrayList<F>();
+        final List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+        if (!keys.isEmpty()) {
+            fetchIn(reference.getForeignTable(), reference.getForeignColumn(), reference.getOrdering(), keys, getBatchFetchSize(reference), found, rows, excluded);
+        }
+        final Map<Object, List<Object>> grouped = new HashMap<Object, List<Object>>();
+        for (int i = 0; i < found.size(); i++) {
+            final Object key = getColumnValue(rows.get(i), reference.getForeignColumn().getName());
+            if (key == null) {
+                continue;
+            }
+            final Object normalized = normalizeKey(key);
+            if (!grouped.containsKey(normalized)) {
+                grouped.put(normalized, new ArrayList<Object>());
+            }
+            grouped.get(normalized).add(found.get(i));
+        }
+        for (E entity : entities) {
+            final Serializable key = entityHandler.getKey(entity);
+            final List<Object> objects = key != null && grouped.containsKey(normalizeKey(key)) ? grouped.get(normalizeKey(key)) : Collections.emptyList();
+            if (backReference != null) {
+                for (Object object : objects) {
+                    setBackReference(object, backReference, entity);
+                }
+            }
+            final BeanWrapper<E> wrapper = new MethodBeanWrapper<E>(entity);
+            final Object propertyValue;
+            if (reference.getType().getForeignCardinality() == 1) {
+                if (objects.isEmpty()) {
+                    continue;
+                } else if (objects.size() > 1) {
+                    throw new RelationDefinitionError("More than one item corresponds to one-to-one relationship");
+                }
+                propertyValue = objects.get(0);
+            } else {
+                try {
+                    final Collection<Object> collection = ReflectionUtils.getCollection(wrapper.getPropertyType(reference.getPropertyName()));
+                    collection.addAll(objects);
+                    propertyValue = collection;
+                } catch (Exception e) {
+                    throw new RelationDefinitionError("Failed to get property type " + reference.getLocalTable().getEntityType().getCanonicalName() + "." + reference.getPropertyName());
+                }
+            }
+            try {
+                wrapper.setPropertyValue(reference.getPropertyName(), propertyValue);
+            } catch (Exception e) {
+                throw new EntityPreparationError("Could not set relation property " + reference.getLocalTable().getEntityType().getCanonicalName() + "." + reference.getPropertyName(), e);
+            }
+        }
+    }
+
+    /**
+     * @return the eager relation through which the entities on the foreign side of the given relation point back to
+     * the entity owning it, if any
+     */
+    static <E, F> RelationMetadata<F, ?> getBackReference(RelationMetadata<E, F> reference) {
+        for (RelationMetadata<F, ?> relation : reference.getForeignTable().getForeignReferences()) {
+            if (!relation.isLazy() && relation.isOwner() && relation.getType().getForeignCardinality() == 1
+                    && relation.getForeignTable().getEntityType().equals(reference.getLocalTable().getEntityType())
+                    && relation.getPropertyName().equals(reference.getForeignColumn().getPropertyName())) {
+                return relation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Points the loaded entity at its owner without it being taken for a change to the entity
+     */
+    private void setBackReference(Object entity, RelationMetadata<?, ?> backReference, Object owner) {
+        final InitializedEntity<Object> initializedEntity = getInitializedEntity(entity);
+        initializedEntity.freeze();
+        try {
+            new MethodBeanWrapper<Object>(entity).setPropertyValue(backReference.getPropertyName(), owner);
+        } catch (Exception e) {
+            throw new EntityPreparationError("Could not set relation property " + backReference.getLocalTable().getEntityType().getCanonicalName() + "." + backReference.getPropertyName(), e);
+        } finally {
+            initializedEntity.unfreeze();
+        }
+    }
+
+    /**
+     * Loads the entities on the other side of the eager many-to-many relation for all the given entities, by reading
+     * the rows of the middle table for all of them in batches, and then loading the entities those rows point to
+     * in batches as well
+     */
+    private <E> void fetchManyToMany(EntityHandler<E> entityHandler, TableMetadata<E> tableMetadata, RelationMetadata<E, ?> reference, List<E> entities) {
+        final TableMetadata<?> middleTable = reference.getForeignTable();
+        final ColumnMetadata localColumn = getManyToManyLocalColumn(tableMetadata, reference);
+        final ColumnMetadata foreignColumn = getManyToManyForeignColumn(tableMetadata, reference);
+        //noinspection unchecked
+        final TableMetadata<Object> foreignTable = (TableMetadata<Object>) foreignColumn.getForeignReference().getTable();
+        final EntityHandler<Object> foreignHandler = entityHandlerContext.getHandler(foreignTable.getEntityType());
+        final int batchSize = getBatchFetchSize(reference);
+        final List<Object> keys = new ArrayList<Object>();
+        for (E entity : entities) {
+            final Serializable key = entityHandler.getKey(entity);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+        final Map<Object, List<Object>> links = new HashMap<Object, List<Object>>();
+        final Map<Object, Object> foreignKeys = new LinkedHashMap<Object, Object>();
+        for (int offset = 0; offset < keys.size(); offset += batchSize) {
+            final int count = Math.min(batchSize, keys.size() - offset);
+            final int size = getFetchInSize(count, batchSize);
+            final Statement statement = getFetchInStatement(middleTable, localColumn, null, size);
+            final Connection connection = openConnection();
+            final PreparedStatement preparedStatement = openStatement(statement.prepare(connection, null, getFetchInParameters(keys, offset, count, size)));
+            try {
+                final ResultSet resultSet = preparedStatement.executeQuery();
+                while (resultSet.next()) {
+                    final Object localKey = resultSet.getObject(localColumn.getName());
+                    final Object foreignKey = resultSet.getObject(foreignColumn.getName());
+                    if (localKey == null || foreignKey == null) {
+                        continue;
+                    }
+                    if (!links.containsKey(normalizeKey(localKey))) {
+                        links.put(normalizeKey(localKey), new ArrayList<Object>());
+                    }
+                    links.get(normalizeKey(localKey)).add(normalizeKey(foreignKey));
+                    if (!foreignKeys.containsKey(normalizeKey(foreignKey))) {
+                        foreignKeys.put(normalizeKey(foreignKey), foreignKey);
+                    }
+                }
+                resultSet.close();
+                closeStatement(preparedStatement);
+                closeConnection(connection);
+            } catch (SQLException e) {
+                throw new UnsuccessfulOperationError("Failed to load relations", e);
+            }
+        }
+        final List<Object> found = new ArrayList<Object>();
+        if (!foreignKeys.isEmpty()) {
+            fetchIn(foreignTable, foreignTable.getPrimaryKey().getColumns().iterator().next(), reference.getOrdering(), foreignKeys.values(), batchSize, found, null);
+        }
+        //the position of each loaded entity is kept, so that every entity gets its share in the order asked for by the relation
+        final Map<Object, Integer> positions = new HashMap<Object, Integer>();
+        for (int i = 0; i < found.size(); i++) {
+            final Object key = normalizeKey(foreignHandler.getKey(found.get(i)));
+            if (!positions.containsKey(key)) {
+                positions.put(key, i);
+            }
+        }
+        for (E entity : entities) {
+            final Serializable key = entityHandler.getKey(entity);
+            final List<Object> linked = key != null && links.containsKey(normalizeKey(key)) ? links.get(normalizeKey(key)) : Collections.emptyList();
+            final List<Integer> indices = new ArrayList<Integer>();
+            for (Object foreignKey : linked) {
+                if (positions.containsKey(foreignKey)) {
+                    indices.add(positions.get(foreignKey));
+                }
+            }
+            Collections.sort(indices);
+            final BeanWrapper<E> wrapper = new MethodBeanWrapper<E>(entity);
+            try {
+                final Collection<Object> collection = ReflectionUtils.getCollection(wrapper.getPropertyType(reference.getPropertyName()));
+                for (Integer index : indices) {
+                    collection.add(found.get(index));
+                }
+                wrapper.setPropertyValue(reference.getPropertyName(), collection);
+            } catch (Exception e) {
+                throw new EntityInitializationError(entityHandler.getEntityType(), e);
+            }
+        }
+    }
+
+    /**
+     * Loads all entities whose given column takes any of the given values, issuing one query per batch of values
+     * @param found    if not {@code null}, the loaded entities will be added to it
+     * @param rows     if not {@code null}, the relation values of the loaded entities will be added to it
+     */
+    private <F> void fetchIn(TableMetadata<F> tableMetadata, ColumnMetadata column, List<OrderMetadata> ordering, Collection<Object> values, int batchSize, List<F> found, List<Map<String, Object>> rows) {
+        fetchIn(tableMetadata, column, ordering, values, batchSize, found, rows, Collections.<RelationMetadata<F, ?>>emptySet());
+    }
+
+    /**
+     * @param excluded    relations of the loaded entities that will be set by the caller
+     */
+    private <F> void fetchIn(TableMetadata<F> tableMetadata, ColumnMetadata column, List<OrderMetadata> ordering, Collection<Object> values, int batchSize, List<F> found, List<Map<String, Object>> rows, Collection<RelationMetadata<F, ?>> excluded) {
+        final GenericEntityHandler<F> entityHandler = (GenericEntityHandler<F>) entityHandlerContext.getHandler(tableMetadata.getEntityType());
+        final List<Object> pending = new ArrayList<Object>(values);
+        for (int offset = 0; offset < pending.size(); offset += batchSize) {
+            final int count = Math.min(batchSize, pending.size() - offset);
+            final int size = getFetchInSize(count, batchSize);
+            final List<F> page = internalMaterializeQuery(entityHandler, getFetchInStatement(tableMetadata, column, ordering, size), getFetchInParameters(pending, offset, count, size), rows, excluded);
+            if (found != null) {
+                found.addAll(page);
+            }
+        }
+    }
+
+    /**
+     * The number of placeholders is rounded up to a power of two, so that only a few variants of the statement are ever needed
+     */
+    static int getFetchInSize(int count, int batchSize) {
+        int size = 1;
+        while (size < count) {
+            size <<= 1;
+        }
+        return Math.min(size, batchSize);
+    }
+
+    /**
+     * @return the parameters for a batch of values, with the extra placeholders repeating the last value of the batch
+     */
+    static Map<String, Object> getFetchInParameters(List<Object> values, int offset, int count, int size) {
+        final Map<String, Object> parameters = new HashMap<String, Object>();
+        for (int i = 0; i < size; i++) {
+            parameters.put("value.key" + i, values.get(offset + Math.min(i, count - 1)));
+        }
+        return parameters;
+    }
+
+    private Statement getFetchInStatement(TableMetadata<?> tableMetadata, ColumnMetadata column, List<OrderMetadata> ordering, int size) {
+        //middle tables of many-to-many relations all share the same entity type, so the table name is part of the key
+        final String key = tableMetadata.getEntityType().getCanonicalName() + "@" + tableMetadata.getSchema() + "." + tableMetadata.getName() + "." + column.getName() + "#" + size + (ordering == null ? "" : " " + ordering);
+        final Statement cached = batchFetchStatements.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final Statement statement = session.getDatabaseDialect().getStatementBuilderContext().getManipulationStatementBuilder(Statements.Manipulation.FIND_IN).getStatement(tableMetadata, new ImmutableColumnValueSetMetadata(column, size, ordering));
+        return batchFetchStatements.putIfAbsent(key, statement);
+    }
+
+    private static Object getColumnValue(Map<String, Object> row, String columnName) {
+        if (row.containsKey(columnName)) {
+            return row.get(columnName);
+        }
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(columnName)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Keys read from foreign key columns may have a different numeric type than the key property of the
+     * entity they refer to, so they are compared by their value
+     */
+    static Object normalizeKey(Object key) {
+        return key instanceof Number ? ((Number) key).longValue() : key;
+    }
+
+    /**
+     * Converts a value read from a foreign key column to the type of the key property of the entity it refers to,
+     * so that it can be used for looking that entity up
+     */
+    static Serializable toEntityKey(Object foreignKey, Class<?> keyType) {
+        final Object normalized = normalizeKey(foreignKey);
+        if (!(normalized instanceof Long)) {
+            return (Serializable) foreignKey;
+        }
+        final long value = (Long) normalized;
+        if (Long.class.equals(keyType) || long.class.equals(keyType)) {
+            return value;
+        } else if (Integer.class.equals(keyType) || int.class.equals(keyType)) {
+            return (int) value;
+        } else if (Short.class.equals(keyType) || short.class.equals(keyType)) {
+            return (short) value;
+        } else if (Byte.class.equals(keyType) || byte.class.equals(keyType)) {
+            return (byte) value;
+        }
+        return (Serializable) foreignKey;
+    }
+
+    /**
+     * Sets the number of related entities loaded by a single query when the eager relations of several entities are
+     * resolved together. Relations may override this through {@link com.mmnaseri.dragonfly.annotations.BatchFetch}.
+     * A size of {@code 1} disables batch fetching.
+     * @param batchFetchSize    the batch fetch size
+     */
+    public void setBatchFetchSize(int batchFetchSize) {
+        if (batchFetchSize < 1) {
+            throw new IllegalArgumentException("Batch fetch size must be a positive number: " + batchFetchSize);
+        }
+        this.batchFetchSize = batchFetchSize;
+    }
+
+    public int getBatchFetchSize() {
+        return batchFetchSize;
+    }
+
+    /**
+     * Opens a forward-only, read-only cursor over the results of the query. Unlike the list-based query methods, the statement
+     * is not put on the local statement stack, since the cursor may outlive the current operation;
+     * rather, the cursor holds on to a connection of its own until it is closed. The connection is not the one shared by
+     * the nested operations of the current thread, since relations of the streamed entities are loaded while the result
+     * set is still being read, and most drivers do not allow another statement to be executed on a connection that is
+     * streaming a result set. This means that a cursor needs one pooled connection on top of the one used for loading
+     * relations.
+     */
+    private <E> EntityCursor<E> openCursor(Class<E> entityType, String statementName, Map<String, Object> values, ResultOrderMetadata ordering) {
+        if (isInBatchMode()) {
+            throw new BatchOperationInterruptedByReadError();
+        }
+        waitForSessionInitialization();
+        final Statement statement = getSampleStatement(statementName, getStatement(entityType, statementName, ordering, StatementType.QUERY), values);
+        final EntityHandler<E> entityHandler = entityHandlerContext.getHandler(entityType);
+        final Connection connection = session instanceof DefaultDataAccessSession ? ((DefaultDataAccessSession) session).getDedicatedConnection() : session.getConnection();
+        PreparedStatement preparedStatement = null;
+        boolean opened = false;
+        try {
+            preparedStatement = statement.prepare(connection, null, values);
+            preparedStatement.setFetchSize(getFetchSize());
+            final ResultSet resultSet = preparedStatement.executeQuery();
+            final Transformer<ResultSet, E> rowReader;
+            if (entityHandler instanceof GenericEntityHandler) {
+                final RowMaterializationPlan<E> plan = ((GenericEntityHandler<E>) entityHandler).getRowMaterializationPlan(statement.getSql(), resultSet.getMetaData());
+                rowReader = new Transformer<ResultSet, E>() {
+                    @Override
+                    public E map(ResultSet input) {
+                        final E instance = entityContext.getInstance(entityHandler.getEntityType());
+                        return prepareStreamedEntity(entityHandler, instance, plan.materialize(input, instance));
+                    }
+                };
+            } else {
+                final String[] columnNames = rowHandler.getColumnNames(resultSet);
+                rowReader = new Transformer<ResultSet, E>() {
+                    @Override
+                    public E map(ResultSet input) {
+                        final Map<String, Object> map = rowHandler.handleRow(input, columnNames);
+                        final E instance = entityContext.getInstance(entityHandler.getEntityType());
+                        entityHandler.fromMap(instance, map);
+                        return prepareStreamedEntity(entityHandler, instance, map);
+                    }
+                };
+            }
+            final ResultSetEntityCursor<E> cursor = new ResultSetEntityCursor<E>(connection, preparedStatement, resultSet, rowReader);
+            opened = true;
+            return cursor;
+        } catch (SQLException e) {
+            throw new UnsuccessfulOperationError("Failed to open a cursor over the result set", e);
+        } finally {
+            if (!opened) {
+                try {
+                    if (preparedStatement != null) {
+                        ResultSetEntityCursor.closeStatement(preparedStatement);
+                    }
+                } catch (SQLException e) {
+                    log.error("Failed to close the statement after the cursor failed to open", e);
+                }
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.error("Failed to release the connection after the cursor failed to open", e);
+                }
+            }
+        }
+    }
+
+    private <E> E prepareStreamedEntity(EntityHandler<E> entityHandler, E instance, Map<String, Object> values) {
+        if (entityHandler.hasKey()) {
+            final Serializable key = entityHandler.getKey(instance);
+            if (initializationContext.contains(entityHandler.getEntityType(), key)) {
+                return initializationContext.get(entityHandler.getEntityType(), key);
+            }
+        }
+        prepareEntity(instance, values);
+        return instance;
+    }
+
+    private static <E> void process(EntityCursor<E> cursor, Processor<? super E> processor) {
+        try {
+            while (cursor.hasNext()) {
+                processor.process(cursor.next());
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
     private <E> List<Map<String, Object>> internalExecuteUntypedQuery(Class<E> entityType, Statements.Manipulation statement, Map<String, Object> values, ResultOrderMetadata ordering) {
         return internalExecuteUntypedQuery(entityType, STATEMENTS.get(statement), values, ordering);
     }
@@ -397,14 +1080,15 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
             throw new BatchOperationInterruptedByReadError();
         }
         waitForSessionInitialization();
-        final Statement statement = getStatement(entityType, statementName, ordering, StatementType.QUERY);
+        final Statement statement = getSampleStatement(statementName, getStatement(entityType, statementName, ordering, StatementType.QUERY), values);
         final Connection connection = openConnection();
         final PreparedStatement preparedStatement = openStatement(statement.prepare(connection, null, values));
         final ArrayList<Map<String, Object>> result = new ArrayList<Map<String, Object>>();
         try {
             final ResultSet resultSet = preparedStatement.executeQuery();
+            final String[] columnNames = rowHandler.getColumnNames(resultSet);
             while (resultSet.next()) {
-                result.add(rowHandler.handleRow(resultSet));
+                result.add(rowHandler.handleRow(resultSet, columnNames));
             }
             resultSet.close();
             closeStatement(preparedStatement);
@@ -442,27 +1126,35 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
      */
 
     private Statement getStatement(Class<?> entityType, Statements.Manipulation statement, ResultOrderMetadata ordering, StatementType... expected) {
+        if (ordering == null && session instanceof DefaultDataAccessSession) {
+            final Statement registered = ((DefaultDataAccessSession) session).getStatementTable(entityType).get(statement);
+            if (registered != null) {
+                return checkStatementType(registered, expected);
+            }
+        }
         return getStatement(entityType, STATEMENTS.get(statement), ordering, expected);
     }
 
-    private Statement getStatement(Class<?> entityType, final String statementName, ResultOrderMetadata ordering, StatementType... expected) {
+    private Statement getStatement(Class<?> entityType, String statementName, ResultOrderMetadata ordering, StatementType... expected) {
         Statement result;
         try {
-            if (ordering == null) {
-                result = session.getStatementRegistry(entityType).get(statementName);
+            if (ordering != null) {
+                result = getOrderedStatement(entityType, statementName, ordering);
+            } else if (session instanceof DefaultDataAccessSession) {
+                result = ((DefaultDataAccessSession) session).getStatementTable(entityType).get(statementName);
+                if (result == null) {
+                    throw new NoSuchQueryError(entityType, statementName);
+                }
             } else {
-                final StatementBuilder statementBuilder = session.getDatabaseDialect().getStatementBuilderContext().getManipulationStatementBuilder(with(STATEMENTS.keySet()).find(new Filter<Statements.Manipulation>() {
-                    @Override
-                    public boolean accepts(Statements.Manipulation item) {
-                        return STATEMENTS.get(item).equals(statementName);
-                    }
-                }));
-                ordering = new DefaultPagedResultOrderMetadata(ordering);
-                result = statementBuilder.getStatement(session.getTableMetadataRegistry().getTableMetadata(entityType), ordering);
+                result = session.getStatementRegistry(entityType).get(statementName);
             }
         } catch (RegistryException e) {
             throw new NoSuchQueryError(entityType, statementName);
         }
+        return checkStatementType(result, expected);
+    }
+
+    private static Statement checkStatementType(Statement result, StatementType... expected) {
         if (expected.length > 0) {
             boolean found = false;
             for (StatementType statementType : expected) {
@@ -478,6 +1170,67 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         return result;
     }
 
+    /**
+     * Returns the variant of the manipulation statement for the given ordering. Since paging is bound through the
+     * {@code pageOffset} and {@code pageLimit} parameters rather than rendered into the statement, a single variant
+     * is rendered and cached per ordering and serves all pages.
+     * @see #getPagingValues(Map, ResultOrderMetadata)
+     */
+    private Statement getOrderedStatement(Class<?> entityType, String statementName, ResultOrderMetadata ordering) {
+        final Statements.Manipulation manipulation = MANIPULATIONS.get(statementName);
+        if (manipulation == null) {
+            throw new NoSuchQueryError(entityType, statementName);
+        }
+        final boolean paged = isPaged(ordering);
+        final String key = entityType.getCanonicalName() + "." + statementName + "#" + new DefaultResultOrderMetadata(ordering) + (paged ? " paged" : "");
+        final Statement cached = orderedStatements.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final StatementBuilder statementBuilder = session.getDatabaseDialect().getStatementBuilderContext().getManipulationStatementBuilder(manipulation);
+        final Statement statement = statementBuilder.getStatement(session.getTableMetadataRegistry().getTableMetadata(entityType), new DefaultPagedResultOrderMetadata(ordering));
+        return orderedStatements.putIfAbsent(key, statement);
+    }
+
+    private Statement getSampleStatement(String statementName, Statement statement, Map<String, Object> values) {
+        final Statements.Manipulation manipulation = MANIPULATIONS.get(statementName);
+        return manipulation == null ? statement : getSampleStatement(manipulation, statement, values);
+    }
+
+    /**
+     * Returns the statement rendered for the columns populated in the values if the manipulation is a query by
+     * example, so that samples populating the same columns skip the second pass and share the same SQL
+     * @see SampleStatementCache
+     */
+    private Statement getSampleStatement(Statements.Manipulation manipulation, Statement statement, Map<String, Object> values) {
+        if (!SAMPLE_MANIPULATIONS.contains(manipulation)) {
+            return statement;
+        }
+        return sampleStatements.getStatement(statement, session.getDatabaseDialect(), values);
+    }
+
+    static boolean isPaged(ResultOrderMetadata ordering) {
+        if (!(ordering instanceof PagedResultOrderMetadata)) {
+            return false;
+        }
+        final PagedResultOrderMetadata paged = (PagedResultOrderMetadata) ordering;
+        return paged.getPageSize() > 0 && paged.getPageNumber() > 0;
+    }
+
+    /**
+     * Adds the paging parameters expected by the paged variants of the statements to the given values
+     */
+    static Map<String, Object> getPagingValues(Map<String, Object> values, ResultOrderMetadata ordering) {
+        if (!isPaged(ordering)) {
+            return values;
+        }
+        final PagedResultOrderMetadata paged = (PagedResultOrderMetadata) ordering;
+        final Map<String, Object> result = new HashMap<String, Object>(values);
+        result.put("value.pageOffset", (paged.getPageNumber() - 1) * paged.getPageSize());
+        result.put("value.pageLimit", paged.getPageSize());
+        return result;
+    }
+
     private <E> InitializedEntity<E> getInitializedEntity(E entity) {
         //noinspection unchecked
         return (InitializedEntity<E>) getEnhancedEntity(entity);
@@ -503,9 +1256,12 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
     }
 
     private <E> void prepareEntity(final E entity, Map<String, Object> values) {
+        prepareEntity(entity, values, Collections.<RelationMetadata<E, ?>>emptySet());
+    }
+
+    private <E> void prepareEntity(final E entity, Map<String, Object> values, final Collection<RelationMetadata<E, ?>> batched) {
         final E enhancedEntity = getEnhancedEntity(entity);
         final InitializedEntity<E> initializedEntity = getInitializedEntity(enhancedEntity);
-        initializedEntity.setOriginalCopy(enhancedEntity);
         final EntityHandler<E> entityHandler = entityHandlerContext.getHandler(entity);
         final EntityInitializationContext initializationContext;
         if (initializedEntity.getInitializationContext() != null) {
@@ -521,7 +1277,7 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         initializationContext.lock();
         initializedEntity.setMap(values);
         entityHandler.incrementVersion(enhancedEntity);
-        entityHandler.loadEagerRelations(enhancedEntity, values, initializationContext);
+        entityHandler.loadEagerRelations(enhancedEntity, values, initializationContext, batched);
         final TableMetadata<E> tableMetadata = session.getTableMetadataRegistry().getTableMetadata(entityHandler.getEntityType());
         final BeanWrapper<E> wrapper = new MethodBeanWrapper<E>(enhancedEntity);
         with(tableMetadata.getForeignReferences())
@@ -529,7 +1285,7 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
                         new Filter<RelationMetadata<E, ?>>() {
                             @Override
                             public boolean accepts(RelationMetadata<E, ?> item) {
-                                return !item.isLazy() && item.getType().equals(RelationType.MANY_TO_MANY);
+                                return !item.isLazy() && item.getType().equals(RelationType.MANY_TO_MANY) && !batched.contains(item);
                             }
                         },
                         new Processor<RelationMetadata<E, ?>>() {
@@ -576,6 +1332,8 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
                             }
                         }
                 );
+        //the original copy is only taken once the relations are in place, so that loading them is not taken for a change
+        initializedEntity.setOriginalCopy(enhancedEntity, dirtyChecking);
         initializationContext.unlock();
     }
 
@@ -604,6 +1362,7 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
             throw new BatchOperationAlreadyStartedError();
         }
         batch.set(true);
+        cacheInvalidator.startBatch();
     }
 
     private synchronized List<Integer> endBatch() {
@@ -611,50 +1370,129 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
             throw new NoBatchOperationError();
         }
         localCounts.get().clear();
-        final List<BatchOperationDescriptor> descriptors = batchOperation.get();
+        final BatchOperationQueue queue = batchOperation.get();
         batchOperation.remove();
         batch.set(false);
-        final ArrayList<Integer> result = new ArrayList<Integer>();
-        if (descriptors == null) {
-            return result;
+        if (queue == null) {
+            cacheInvalidator.endBatch();
+            notifyBatchCommitted();
+            return new ArrayList<Integer>();
         }
+        try {
+            flushBatch(queue);
+        } finally {
+            //whatever was committed might have been cached again by others while the batch was pending
+            cacheInvalidator.endBatch();
+        }
+        notifyBatchCommitted();
+        return queue.getResults();
+    }
+
+    /**
+     * Tells the listeners registered with the session that a batch has been committed
+     */
+    private void notifyBatchCommitted() {
+        if (!(session instanceof DefaultDataAccessSession)) {
+            return;
+        }
+        for (BatchCommitListener listener : ((DefaultDataAccessSession) session).getBatchCommitListeners()) {
+            listener.afterBatchCommit();
+        }
+    }
+
+    /**
+     * Executes all operations pending in the batch, in the order of their groups, and hands the
+     * generated keys back to the entities waiting on them
+     */
+    private void flushBatch(BatchOperationQueue queue) {
+        final List<BatchOperationDescriptor> descriptors = queue.drain();
         log.info("There are " + descriptors.size() + " operation stack(s) to perform");
-        while (!descriptors.isEmpty()) {
-            final BatchOperationDescriptor descriptor = descriptors.get(0);
-            descriptors.remove(0);
-            final int[] batchResult;
+        for (BatchOperationDescriptor descriptor : descriptors) {
             log.info("Executing batch operation for statement: " + descriptor.getSql());
             final PreparedStatement preparedStatement = descriptor.getPreparedStatement();
-            final Connection connection;
             try {
-                connection = preparedStatement.getConnection();
+                final Connection connection = descriptor.isMultiRow() ? descriptor.getConnection() : preparedStatement.getConnection();
                 long time = System.nanoTime();
-                batchResult = preparedStatement.executeBatch();
+                if (descriptor.isMultiRow()) {
+                    executeMultiRowInsert(descriptor, connection, queue.getResults());
+                } else {
+                    final int[] batchResult = preparedStatement.executeBatch();
+                    if (StatementType.INSERT.equals(descriptor.getStatementType()) && descriptor.hasDeferredEntities()) {
+                        assignGeneratedKeys(preparedStatement.getGeneratedKeys(), descriptor.getDeferredEntities());
+                    }
+                    for (int i : batchResult) {
+                        queue.getResults().add(i);
+                    }
+                }
                 connection.commit();
-                log.info(batchResult.length + " operation(s) completed successfully in " + (System.nanoTime() - time) + "ns");
+                log.info(descriptor.getSize() + " operation(s) completed successfully in " + (System.nanoTime() - time) + "ns");
             } catch (SQLException e) {
                 throw new BatchOperationExecutionError("Failed to execute operation batch", e);
             }
-            if (StatementType.getStatementType(descriptor.getSql()).equals(StatementType.INSERT)) {
+            if (!descriptor.isMultiRow()) {
+                cleanUpStatement(preparedStatement);
+            } else if (descriptor.isConnectionOwner()) {
                 try {
-                    final List<Object> deferredEntities = deferredKeys.get();
-                    final ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
-                    while (generatedKeys.next()) {
-                        final Object entity = deferredEntities.get(0);
-                        deferredEntities.remove(0);
-                        final EntityHandler<Object> entityHandler = entityHandlerContext.getHandler(entity);
-                        entityHandler.setKey(entity, session.getDatabaseDialect().retrieveKey(generatedKeys));
-                    }
+                    descriptor.getConnection().close();
                 } catch (SQLException e) {
-                    throw new BatchOperationExecutionError("Failed to retrieve generated keys", e);
+                    throw new UnsuccessfulOperationError("Failed to clean up", e);
                 }
             }
-            for (int i : batchResult) {
-                result.add(i);
+        }
+    }
+
+    /**
+     * Sends the rows of the descriptor to the database as multi-row inserts, and hands the key generated
+     * for each row to the entity waiting on it
+     */
+    private void executeMultiRowInsert(BatchOperationDescriptor descriptor, Connection connection, List<Integer> results) throws SQLException {
+        final ParameterBindingPlan plan = statementPreparator.getBindingPlan(descriptor.getTableMetadata(), descriptor.getSql());
+        final List<Serializable> keys = descriptor.hasDeferredEntities() ? new ArrayList<Serializable>(descriptor.getSize()) : null;
+        new MultiRowInsert(plan, session.getDatabaseDialect()).execute(connection, descriptor.getRows(), results, keys);
+        if (keys == null) {
+            return;
+        }
+        final List<Object> entities = descriptor.getDeferredEntities();
+        for (int i = 0; i < entities.size(); i ++) {
+            final Object entity = entities.get(i);
+            if (entity != null) {
+                entityHandlerContext.getHandler(entity).setKey(entity, keys.get(i));
             }
-            cleanUpStatement(preparedStatement);
         }
-        return result;
+    }
+
+    /**
+     * Hands the keys generated for a JDBC batch to the entities waiting on them. The keys are expected
+     * in the order of the rows of the batch.
+     */
+    private void assignGeneratedKeys(ResultSet generatedKeys, List<Object> entities) throws SQLException {
+        int index = 0;
+        try {
+            while (index < entities.size() && generatedKeys.next()) {
+                final Object entity = entities.get(index ++);
+                if (entity != null) {
+                    final EntityHandler<Object> entityHandler = entityHandlerContext.getHandler(entity);
+                    entityHandler.setKey(entity, session.getDatabaseDialect().retrieveKey(generatedKeys));
+                }
+            }
+        } finally {
+            generatedKeys.close();
+        }
+    }
+
+    /**
+     * Sets the number of operations a batch may hold before they are sent to the database
+     * @param batchSize    the batch size
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be a positive number: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
     }
 
     /**
@@ -695,6 +1533,32 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
 
     @Override
     public <E> List<Map<String, Object>> executeUntypedQuery(Class<E> entityType, String queryName, Map<String, Object> values) {
+        final CacheMetadata cacheMetadata = isInBatchMode() ? null : getQueryCacheMetadata(entityType, queryName);
+        if (cacheMetadata == null) {
+            return readUntypedQuery(entityType, queryName, values);
+        }
+        final CacheRegion<QueryResultKey, List<Object>> region = queryResultCache.getRegion(entityType, queryName, cacheMetadata, getStatement(entityType, queryName, null, StatementType.QUERY).getSql(), session.getTableMetadataRegistry().getTables());
+        final QueryResultKey key = new QueryResultKey(values, null, false);
+        final List<Object> cached = region.get(key);
+        final ArrayList<Map<String, Object>> result = new ArrayList<Map<String, Object>>();
+        if (cached != null) {
+            for (Object row : cached) {
+                //noinspection unchecked
+                result.add(new HashMap<String, Object>((Map<String, Object>) row));
+            }
+            return result;
+        }
+        final long stamp = region.getStamp();
+        final List<Map<String, Object>> rows = readUntypedQuery(entityType, queryName, values);
+        final List<Object> copies = new ArrayList<Object>(rows.size());
+        for (Map<String, Object> row : rows) {
+            copies.add(new HashMap<String, Object>(row));
+        }
+        region.put(key, copies, stamp);
+        return rows;
+    }
+
+    private <E> List<Map<String, Object>> readUntypedQuery(Class<E> entityType, String queryName, Map<String, Object> values) {
         final ArrayList<Map<String, Object>> result = new ArrayList<Map<String, Object>>();
         final Statement statement = getStatement(entityType, queryName, null, StatementType.QUERY);
         final Connection connection = openConnection();
@@ -706,8 +1570,9 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
             throw new UnsuccessfulOperationError("Failed to execute query " + entityType.getCanonicalName() + "." + queryName, e);
         }
         try {
+            final String[] columnNames = rowHandler.getColumnNames(resultSet);
             while (resultSet.next()) {
-                result.add(rowHandler.handleRow(resultSet));
+                result.add(rowHandler.handleRow(resultSet, columnNames));
             }
             resultSet.close();
             closeStatement(preparedStatement);
@@ -823,7 +1688,18 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         final PreparedStatement preparedStatement = internalExecuteUpdate(entityHandler.getEntityType(), Statements.Manipulation.INSERT, MapTools.prefixKeys(entityHandler.toMap(enhancedEntity), "value."));
         if (entityHandler.hasKey() && entityHandler.isKeyAutoGenerated()) {
             if (isInBatchMode()) {
-                deferredKeys.get().add(enhancedEntity);
+                final BatchOperationQueue queue = batchOperation.get();
+                queue.getCurrent().defer(enhancedEntity);
+                if (hasDependents(entityHandler, enhancedEntity)) {
+                    //the dependents of the entity will need its key, so the batch has to be sent
+                    //to the database before we can go on
+                    flushBatch(queue);
+                    if (initializedEntity.getInitializationContext() == null && entityHandler.getKey(enhancedEntity) != null) {
+                        final DefaultEntityInitializationContext entityInitializationContext = new DefaultEntityInitializationContext(this, initializationContext);
+                        entityInitializationContext.register(entityHandler.getEntityType(), entityHandler.getKey(enhancedEntity), enhancedEntity);
+                        initializedEntity.setInitializationContext(entityInitializationContext);
+                    }
+                }
             } else {
                 try {
                     final ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
@@ -844,7 +1720,7 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         if (!isInBatchMode()) {
             cleanUpStatement(preparedStatement);
         }
-        initializedEntity.setOriginalCopy(enhancedEntity);
+        initializedEntity.setOriginalCopy(enhancedEntity, dirtyChecking);
         eventHandler.afterInsert(enhancedEntity);
         saveDependents(entityHandler, enhancedEntity);
         saveQueueLock.set(saveQueueLock.get() - 1);
@@ -862,6 +1738,38 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         return enhancedEntity;
     }
 
+    /**
+     * Determines whether saving the given entity cascades into saving entities that refer to it, and
+     * thus need its key. Only relations actually holding something to save count, except for one-to-one
+     * relations, whose cascade always looks up the current counterpart by the key of the entity.
+     */
+    private <E> boolean hasDependents(EntityHandler<E> entityHandler, E entity) {
+        final TableMetadata<?> tableMetadata = session.getTableMetadataRegistry().getTableMetadata(entityHandler.getEntityType());
+        BeanWrapper<E> wrapper = null;
+        for (RelationMetadata<?, ?> relation : tableMetadata.getForeignReferences()) {
+            final boolean manyToMany = RelationType.MANY_TO_MANY.equals(relation.getType());
+            if (!manyToMany && (relation.isOwner() || !relation.getCascadeMetadata().cascadePersist())) {
+                continue;
+            }
+            if (!manyToMany && relation.getType().getForeignCardinality() == 1) {
+                return true;
+            }
+            if (wrapper == null) {
+                wrapper = new MethodBeanWrapper<E>(entity);
+            }
+            final Object value;
+            try {
+                value = wrapper.getPropertyValue(relation.getPropertyName());
+            } catch (Exception e) {
+                throw new EntityDefinitionError("Failed to access property " + entityHandler.getEntityType().getCanonicalName() + "." + relation.getPropertyName(), e);
+            }
+            if (value instanceof Collection ? !((Collection<?>) value).isEmpty() : value != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private <E> void saveDependents(final EntityHandler<E> entityHandler, E entity) {
         entityHandler.saveDependentRelations(entity, this, entityContext);
         final Map<TableMetadata<?>, Set<ManyToManyMiddleEntity>> relatedObjects = entityHandler.getManyToManyRelatedObjects(entity);
@@ -923,12 +1831,14 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         final InitializedEntity<E> initializedEntity = getInitializedEntity(enhancedEntity);
         entityHandler.saveDependencyRelations(enhancedEntity, this);
         eventHandler.beforeUpdate(enhancedEntity);
+        final TableMetadata<E> tableMetadata = session.getTableMetadataRegistry().getTableMetadata(entityHandler.getEntityType());
+        final Set<String> dirtyProperties = dirtyChecking && tableMetadata.hasPrimaryKey() ? initializedEntity.getDirtyProperties() : null;
         final Map<String, Object> current = entityHandler.toMap(enhancedEntity);
         final Map<String, Object> values = new HashMap<String, Object>();
         values.putAll(MapTools.prefixKeys(current, "value."));
         values.putAll(MapTools.prefixKeys(current, "new."));
         if (initializedEntity.getOriginalCopy() == null) {
-            initializedEntity.setOriginalCopy(enhancedEntity);
+            initializedEntity.setOriginalCopy(enhancedEntity, dirtyChecking);
         }
         final E originalCopy = initializedEntity.getOriginalCopy();
         initializedEntity.freeze();
@@ -939,18 +1849,32 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
                 values.put("value." + key, original.get(key));
             }
         }
-        final PreparedStatement preparedStatement = internalExecuteUpdate(entityHandler.getEntityType(), Statements.Manipulation.UPDATE, values);
-        try {
-            final boolean updated = preparedStatement.getUpdateCount() > 0;
-            if (entityHandler.isLockable() && !updated) {
-                throw new OptimisticLockingFailureError(entityHandler.getEntityType());
+        if (dirtyProperties != null && dirtyProperties.isEmpty() && !entityHandler.isLockable()) {
+            //nothing has changed since the entity was last synchronized with the database
+            eventHandler.afterUpdate(enhancedEntity, false);
+        } else {
+            //for lockable entities with nothing changed, this only sets the version, which still has the
+            //database tell us whether someone else has updated the entity in the meantime
+            final Statement partialUpdate = dirtyProperties == null ? null : getPartialUpdate(tableMetadata, dirtyProperties);
+            final PreparedStatement preparedStatement;
+            if (partialUpdate != null) {
+                preparedStatement = internalExecuteUpdate(partialUpdate, values);
+            } else {
+                preparedStatement = internalExecuteUpdate(entityHandler.getEntityType(), Statements.Manipulation.UPDATE, values);
             }
-            entityHandler.incrementVersion(enhancedEntity);
-            eventHandler.afterUpdate(enhancedEntity, updated);
-        } catch (SQLException e) {
-            throw new UnsuccessfulOperationError("Failed to count the number of updated elements", e);
+            try {
+                final boolean updated = preparedStatement.getUpdateCount() > 0;
+                if (entityHandler.isLockable() && !updated) {
+                    throw new OptimisticLockingFailureError(entityHandler.getEntityType());
+                }
+                entityHandler.incrementVersion(enhancedEntity);
+                eventHandler.afterUpdate(enhancedEntity, updated);
+            } catch (SQLException e) {
+                throw new UnsuccessfulOperationError("Failed to count the number of updated elements", e);
+            }
+            cleanUpStatement(preparedStatement);
         }
-        cleanUpStatement(preparedStatement);
+        initializedEntity.setOriginalCopy(enhancedEntity, dirtyChecking);
         saveDependents(entityHandler, enhancedEntity);
         saveQueueLock.set(saveQueueLock.get() - 1);
         if (saveQueueLock.get() == 0) {
@@ -970,6 +1894,55 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         return enhancedEntity;
     }
 
+    /**
+     * Returns an update statement that only sets the given properties of the entity, rendering it once
+     * per distinct set of properties
+     * @param tableMetadata    the table metadata for the entity
+     * @param properties       the properties to be updated
+     * @return the partial update statement, or {@code null} if the update statement of the entity cannot
+     * be narrowed down to a set of properties
+     */
+    private Statement getPartialUpdate(TableMetadata<?> tableMetadata, Set<String> properties) {
+        final Set<String> columns = new TreeSet<String>(properties);
+        if (tableMetadata.getVersionColumn() != null) {
+            columns.add(tableMetadata.getVersionColumn().getPropertyName());
+        }
+        final String key = tableMetadata.getEntityType().getCanonicalName() + columns;
+        final Statement cached = partialUpdates.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final Statement statement = getStatement(tableMetadata.getEntityType(), Statements.Manipulation.UPDATE, null, StatementType.UPDATE);
+        if (!statement.isDynamic()) {
+            return null;
+        }
+        //the second pass only looks at which values have been provided, not at the values themselves
+        final Map<String, Object> provided = new HashMap<String, Object>();
+        for (String column : columns) {
+            provided.put("value." + column, null);
+        }
+        final Statement partialUpdate = new FreemarkerSecondPassStatementBuilder(statement, session.getDatabaseDialect(), provided).getStatement(tableMetadata);
+        if (partialUpdate == null) {
+            return null;
+        }
+        return partialUpdates.putIfAbsent(key, partialUpdate);
+    }
+
+    /**
+     * Enables or disables dirty checking for updates. When enabled, updating an entity that was read from or
+     * written to the database through this data access only sets the columns changed through its setters
+     * since then, and no statement is issued at all if nothing has changed. Changes made to an entity's
+     * fields without going through its setters will go unnoticed in this mode.
+     * @param dirtyChecking    whether or not dirty checking should be done
+     */
+    public void setDirtyChecking(boolean dirtyChecking) {
+        this.dirtyChecking = dirtyChecking;
+    }
+
+    public boolean isDirtyChecking() {
+        return dirtyChecking;
+    }
+
     @Override
     public <E> void delete(E entity) {
         final Set<Object> deleteQueue = this.deleteQueue.get();
@@ -983,15 +1956,16 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         initializedEntity.freeze();
         eventHandler.beforeDelete(enhancedEntity);
         final Map<String, Object> map = MapTools.prefixKeys(entityHandler.toMap(enhancedEntity), "value.");
-        if ((entityHandler.hasKey() && entityHandler.getKey(enhancedEntity) != null && exists(entityHandler.getEntityType(), entityHandler.getKey(enhancedEntity))) || exists(entityHandler.getEntityType(), map)) {
-            deleteDependencies(entityHandler, enhancedEntity);
-            final Statements.Manipulation statement;
-            if (entityHandler.hasKey() && entityHandler.getKey(enhancedEntity) != null) {
-                statement = Statements.Manipulation.DELETE_ONE;
-            } else {
-                statement = Statements.Manipulation.DELETE_LIKE;
-            }
-            cleanUpStatement(internalExecuteUpdate(entityHandler.getEntityType(), statement, map));
+        final boolean keyed = entityHandler.hasKey() && entityHandler.getKey(enhancedEntity) != null;
+        //if the entity is not there, neither are its dependencies, so there is no need to check for it first
+        deleteDependencies(entityHandler, enhancedEntity, keyed ? map : null);
+        final PreparedStatement preparedStatement = internalExecuteUpdate(entityHandler.getEntityType(), keyed ? Statements.Manipulation.DELETE_ONE : Statements.Manipulation.DELETE_LIKE, map);
+        //we trust the delete statement itself to tell us whether or not the entity existed
+        final boolean deleted = isInBatchMode() || getUpdateCount(preparedStatement) > 0;
+        if (!isInBatchMode()) {
+            cleanUpStatement(preparedStatement);
+        }
+        if (deleted) {
             entityHandler.deleteDependentRelations(enhancedEntity, this);
         }
         eventHandler.afterDelete(enhancedEntity);
@@ -999,8 +1973,30 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         deleteQueue.remove(entity);
     }
 
-    private <E> void deleteDependencies(final EntityHandler<E> entityHandler, final E enhancedEntity) {
-        entityHandler.deleteDependencyRelations(enhancedEntity, this);
+    /**
+     * Deletes the entities depending on the given entity. If the key of the entity is known, the
+     * dependents do not cascade their removal anywhere else, and nobody but this data access listens
+     * to their individual deletion, they are deleted with one statement per table; otherwise, they are
+     * deleted through this data access.
+     * @param values    the values of the entity, if it can be identified by its key
+     */
+    private <E> void deleteDependencies(final EntityHandler<E> entityHandler, final E enhancedEntity, Map<String, Object> values) {
+        final CascadeDeletePlan plan = values == null ? null : getCascadeDeletePlan(entityHandler.getEntityType());
+        if (plan != null && plan.isSetBased() && !isDeletionObserved(plan.getEntityTypes())) {
+            for (Statement statement : plan.getStatements()) {
+                final PreparedStatement preparedStatement = internalExecuteUpdate(statement, values);
+                if (!isInBatchMode()) {
+                    cleanUpStatement(preparedStatement);
+                }
+            }
+            for (Class<?> entityType : plan.getEntityTypes()) {
+                initializationContext.delete(entityType);
+                secondLevelCache.invalidate(entityType);
+                queryResultCache.invalidate(entityType);
+            }
+        } else {
+            entityHandler.deleteDependencyRelations(enhancedEntity, this);
+        }
         final TableMetadata<E> tableMetadata = session.getTableMetadataRegistry().getTableMetadata(entityHandler.getEntityType());
         final Connection connection = openConnection();
         with(tableMetadata.getForeignReferences())
@@ -1039,6 +2035,25 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         }
     }
 
+    private boolean isDeletionObserved(Collection<Class<?>> entityTypes) {
+        for (Class<?> entityType : entityTypes) {
+            //cache invalidation is taken care of for the whole plan at once
+            if (eventHandler.isDeletionObserved(entityType, cacheInvalidator)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private CascadeDeletePlan getCascadeDeletePlan(Class<?> entityType) {
+        final CascadeDeletePlan cached = cascadeDeletes.get(entityType);
+        if (cached != null) {
+            return cached;
+        }
+        cascadeDeletes.putIfAbsent(entityType, CascadeDeletePlan.create(session.getTableMetadataRegistry().getTableMetadata(entityType), session.getDatabaseDialect()));
+        return cascadeDeletes.get(entityType);
+    }
+
     @Override
     public <E, K extends Serializable> void delete(Class<E> entityType, K key) {
         final EntityHandler<E> entityHandler = entityHandlerContext.getHandler(entityType);
@@ -1148,7 +2163,7 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
             }
         }
         eventHandler.beforeFind(enhancedEntity);
-        final List<E> found = internalExecuteQuery(entityHandler.getEntityType(), Statements.Manipulation.FIND_LIKE, MapTools.prefixKeys(entityHandler.toMap(enhancedEntity), "value."), ordering);
+        final List<E> found = internalExecuteCachedQuery(entityHandler.getEntityType(), STATEMENTS.get(Statements.Manipulation.FIND_LIKE), getFinderCacheMetadata(entityHandler.getEntityType()), getPagingValues(MapTools.prefixKeys(entityHandler.toMap(enhancedEntity), "value."), ordering), ordering);
         eventHandler.afterFind(enhancedEntity, found);
         initializedEntity.unfreeze();
         return found;
@@ -1159,6 +2174,10 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         if (initializationContext.contains(entityType, key)) {
             return initializationContext.get(entityType, key);
         }
+        final E cached = getCachedEntity(entityType, key);
+        if (cached != null) {
+            return eventHandler.afterFind(entityType, key, cached);
+        }
         final E instance = entityContext.getInstance(entityType);
         final EntityHandler<E> entityHandler = entityHandlerContext.getHandler(entityType);
         entityHandler.setKey(instance, key);
@@ -1175,6 +2194,150 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         return eventHandler.afterFind(entityType, key, result);
     }
 
+    /**
+     * Looks the entity up in the second-level cache
+     * @return the values cached for the entity, or {@code null} if the entity is not cached
+     */
+    private <E> Map<String, Object> getCachedValues(Class<E> entityType, Serializable key) {
+        if (key == null || isInBatchMode()) {
+            return null;
+        }
+        final CacheRegion<Object, Map<String, Object>> region = secondLevelCache.getRegion(session.getTableMetadataRegistry().getTableMetadata(entityType));
+        final Map<String, Object> values = region == null ? null : region.get(normalizeKey(key));
+        return values == null ? null : new HashMap<String, Object>(values);
+    }
+
+    /**
+     * Looks the entity up in the current initialization context or the second-level cache, without going
+     * to the database
+     * @return the entity, or {@code null} if it is not readily available
+     */
+    private <E> E getCachedEntity(Class<E> entityType, Serializable key) {
+        if (initializationContext.contains(entityType, key)) {
+            return initializationContext.get(entityType, key);
+        }
+        final Map<String, Object> cached = getCachedValues(entityType, key);
+        if (cached == null) {
+            return null;
+        }
+        final E instance = entityContext.getInstance(entityType);
+        entityHandlerContext.getHandler(entityType).fromMap(instance, cached);
+        prepareEntity(instance, cached);
+        return instance;
+    }
+
+    /**
+     * Query result caching
+     */
+
+    private <E> CacheMetadata getQueryCacheMetadata(Class<E> entityType, String queryName) {
+        for (NamedQueryMetadata query : session.getTableMetadataRegistry().getTableMetadata(entityType).getNamedQueries()) {
+            if (query.getName().equals(queryName)) {
+                return query.getCacheMetadata();
+            }
+        }
+        return null;
+    }
+
+    private <E> CacheMetadata getFinderCacheMetadata(Class<E> entityType) {
+        final CacheMetadata cacheMetadata = session.getTableMetadataRegistry().getTableMetadata(entityType).getCacheMetadata();
+        return cacheMetadata != null && cacheMetadata.isQueryCacheEnabled() ? cacheMetadata : null;
+    }
+
+    /**
+     * Executes the query, unless the keys of the entities it returned for the same values have been cached,
+     * in which case the entities are restored from those keys
+     * @param cacheMetadata    the cache settings for the query, or {@code null} if its results are not cached
+     */
+    private <E> List<E> internalExecuteCachedQuery(Class<E> entityType, String statementName, CacheMetadata cacheMetadata, Map<String, Object> values, ResultOrderMetadata ordering) {
+        final EntityHandler<E> entityHandler = entityHandlerContext.getHandler(entityType);
+        if (cacheMetadata == null || isInBatchMode() || !entityHandler.hasKey()) {
+            return internalExecuteQuery(entityType, statementName, values, ordering);
+        }
+        final CacheRegion<QueryResultKey, List<Object>> region = queryResultCache.getRegion(entityType, statementName, cacheMetadata, getStatement(entityType, statementName, ordering, StatementType.QUERY).getSql(), session.getTableMetadataRegistry().getTables());
+        final QueryResultKey key = new QueryResultKey(values, ordering, true);
+        final List<Object> keys = region.get(key);
+        if (keys != null) {
+            final List<E> restored = restoreEntities(entityHandler, keys);
+            if (restored != null) {
+                return restored;
+            }
+        }
+        final long stamp = region.getStamp();
+        final List<E> result = internalExecuteQuery(entityType, statementName, values, ordering);
+        final List<Object> resultKeys = new ArrayList<Object>(result.size());
+        for (E entity : result) {
+            final Serializable entityKey = entityHandler.getKey(entity);
+            if (entityKey == null) {
+                return result;
+            }
+            resultKeys.add(entityKey);
+        }
+        region.put(key, Collections.unmodifiableList(resultKeys), stamp);
+        return result;
+    }
+
+    /**
+     * Restores the entities with the given keys, in order. Entities that are not readily available are loaded
+     * together through a single lookup by key.
+     * @return the entities, or {@code null} if they could not all be restored
+     */
+    private <E> List<E> restoreEntities(EntityHandler<E> entityHandler, List<Object> keys) {
+        final Class<E> entityType = entityHandler.getEntityType();
+        final Map<Object, E> entities = new HashMap<Object, E>();
+        final List<Object> missing = new ArrayList<Object>();
+        for (Object key : keys) {
+            final E entity = getCachedEntity(entityType, (Serializable) key);
+            if (entity == null) {
+                missing.add(key);
+            } else {
+                entities.put(normalizeKey(key), entity);
+            }
+        }
+        if (!missing.isEmpty()) {
+            final TableMetadata<E> tableMetadata = session.getTableMetadataRegistry().getTableMetadata(entityType);
+            if (!(entityHandler instanceof GenericEntityHandler) || !hasSimpleKey(tableMetadata)) {
+                return null;
+            }
+            final List<E> found = new ArrayList<E>();
+            fetchIn(tableMetadata, tableMetadata.getPrimaryKey().getColumns().iterator().next(), null, missing, batchFetchSize, found, null);
+            for (E entity : found) {
+                entities.put(normalizeKey(entityHandler.getKey(entity)), entity);
+            }
+        }
+        final List<E> result = new ArrayList<E>(keys.size());
+        for (Object key : keys) {
+            final E entity = entities.get(normalizeKey(key));
+            if (entity == null) {
+                return null;
+            }
+            result.add(entity);
+        }
+        return result;
+    }
+
+    /**
+     * @return the query result cache used by this data access, through which cache statistics can be inspected
+     */
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+
+    /**
+     * @return the cache of rendered query-by-example statements, through which cache statistics can be inspected
+     */
+    public SampleStatementCache getSampleStatementCache() {
+        return sampleStatements;
+    }
+
+    /**
+     * @return the second-level entity cache used by this data access, through which cache statistics
+     * can be inspected
+     */
+    public SecondLevelCache getSecondLevelCache() {
+        return secondLevelCache;
+    }
+
     @Override
     public <E> List<E> findAll(Class<E> entityType) {
         return findAll(entityType, null);
@@ -1202,7 +2365,7 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
             }
         }
         eventHandler.beforeFindAll(entityType);
-        final List<E> found = internalExecuteQuery(entityHandler.getEntityType(), Statements.Manipulation.FIND_ALL, ordering);
+        final List<E> found = internalExecuteCachedQuery(entityHandler.getEntityType(), STATEMENTS.get(Statements.Manipulation.FIND_ALL), getFinderCacheMetadata(entityHandler.getEntityType()), getPagingValues(Collections.<String, Object>emptyMap(), ordering), ordering);
         eventHandler.afterFindAll(entityType, found);
         return found;
     }
@@ -1212,6 +2375,113 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         return findAll(entityType, null, pageSize, pageNumber);
     }
 
+    @Override
+    public <E> Page<E> findPage(E sample, String order, int pageSize, PageToken pageToken) {
+        final E enhancedEntity = getEnhancedEntity(sample);
+        final InitializedEntity<E> initializedEntity = getInitializedEntity(enhancedEntity);
+        initializedEntity.freeze();
+        final EntityHandler<E> entityHandler = entityHandlerContext.getHandler(sample);
+        eventHandler.beforeFind(enhancedEntity);
+        final Page<E> page = internalFindPage(entityHandler, MapTools.prefixKeys(entityHandler.toMap(enhancedEntity), "value."), order, pageSize, pageToken);
+        eventHandler.afterFind(enhancedEntity, page.getItems());
+        initializedEntity.unfreeze();
+        return page;
+    }
+
+    @Override
+    public <E> Page<E> findAllPage(Class<E> entityType, String order, int pageSize, PageToken pageToken) {
+        final EntityHandler<E> entityHandler = entityHandlerContext.getHandler(entityType);
+        eventHandler.beforeFindAll(entityType);
+        final Page<E> page = internalFindPage(entityHandler, Collections.<String, Object>emptyMap(), order, pageSize, pageToken);
+        eventHandler.afterFindAll(entityType, page.getItems());
+        return page;
+    }
+
+    /**
+     * Keyset pagination
+     */
+
+    /**
+     * Reads the page starting right after the row marked by the token. One more item than requested is read, so that
+     * we can tell whether or not there is a next page without having to count the rows.
+     */
+    private <E> Page<E> internalFindPage(EntityHandler<E> entityHandler, Map<String, Object> values, String order, int pageSize, PageToken pageToken) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be a positive number: " + pageSize);
+        }
+        if (isInBatchMode()) {
+            throw new BatchOperationInterruptedByReadError();
+        }
+        waitForSessionInitialization();
+        final Class<E> entityType = entityHandler.getEntityType();
+        final TableMetadata<E> tableMetadata = session.getTableMetadataRegistry().getTableMetadata(entityType);
+        final List<OrderMetadata> ordering = getKeysetOrdering(tableMetadata, order);
+        final String signature = new DefaultResultOrderMetadata(ordering).toString();
+        final Map<String, Object> parameters = new HashMap<String, Object>(values);
+        final List<Boolean> nullValues = new ArrayList<Boolean>();
+        if (pageToken != null) {
+            final Object[] keyset = pageToken.getValues();
+            if (!entityType.getCanonicalName().equals(pageToken.getEntityType()) || !signature.equals(pageToken.getOrdering()) || keyset.length != ordering.size()) {
+                throw new InvalidPageTokenError("Page token " + pageToken + " was not issued for " + entityType.getCanonicalName() + " ordered by " + signature);
+            }
+            //null values are sought through IS NULL checks, which is why each combination of them needs a statement of its own
+            for (int i = 0; i < keyset.length; i++) {
+                nullValues.add(keyset[i] == null);
+                if (keyset[i] != null) {
+                    parameters.put("value.keyset" + i, keyset[i]);
+                }
+            }
+        }
+        parameters.put("value.keysetLimit", pageSize + 1);
+        final Statement statement = getKeysetStatement(tableMetadata, ordering, signature, pageToken != null, nullValues);
+        final List<E> items = internalMaterializeQuery((GenericEntityHandler<E>) entityHandler, statement, parameters, null, Collections.<RelationMetadata<E, ?>>emptySet());
+        if (items.size() <= pageSize) {
+            return new Page<E>(items, null);
+        }
+        final List<E> page = new ArrayList<E>(items.subList(0, pageSize));
+        final Map<String, Object> last = entityHandler.toMap(page.get(pageSize - 1));
+        final Object[] keyset = new Object[ordering.size()];
+        for (int i = 0; i < keyset.length; i++) {
+            keyset[i] = last.get(ordering.get(i).getColumn().getPropertyName());
+        }
+        return new Page<E>(page, new PageToken(entityType, signature, keyset));
+    }
+
+    /**
+     * Determines the complete ordering for keyset pagination, which is the requested ordering followed by whichever
+     * primary key columns are not already a part of it, so that each row is identified uniquely
+     */
+    private static <E> List<OrderMetadata> getKeysetOrdering(TableMetadata<E> tableMetadata, String order) {
+        if (!tableMetadata.hasPrimaryKey()) {
+            throw new NoPrimaryKeyDefinedError(tableMetadata.getEntityType());
+        }
+        final List<OrderMetadata> ordering = new ArrayList<OrderMetadata>();
+        final Set<String> columns = new HashSet<String>();
+        if (order != null) {
+            for (OrderMetadata orderMetadata : new OrderExpressionParser(tableMetadata).map(order)) {
+                if (columns.add(orderMetadata.getColumn().getName())) {
+                    ordering.add(orderMetadata);
+                }
+            }
+        }
+        for (ColumnMetadata column : tableMetadata.getPrimaryKey().getColumns()) {
+            if (columns.add(column.getName())) {
+                ordering.add(new ImmutableOrderMetadata(column, Ordering.ASCENDING));
+            }
+        }
+        return ordering;
+    }
+
+    private Statement getKeysetStatement(TableMetadata<?> tableMetadata, List<OrderMetadata> ordering, String signature, boolean seeking, List<Boolean> nullValues) {
+        final String key = tableMetadata.getEntityType().getCanonicalName() + "#" + signature + (seeking ? " after " + nullValues : "");
+        final Statement cached = keysetStatements.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final Statement statement = session.getDatabaseDialect().getStatementBuilderContext().getManipulationStatementBuilder(Statements.Manipulation.FIND_PAGE).getStatement(tableMetadata, new ImmutableKeysetMetadata(ordering, seeking, nullValues));
+        return keysetStatements.putIfAbsent(key, statement);
+    }
+
     @Override
     public <E> int executeUpdate(Class<E> entityType, String queryName, Map<String, Object> values) {
         eventHandler.beforeExecuteUpdate(entityType, queryName, values);
@@ -1233,7 +2503,7 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
     @Override
     public <E> List<E> executeQuery(Class<E> entityType, String queryName, Map<String, Object> values) {
         eventHandler.beforeExecuteQuery(entityType, queryName, values);
-        final List<E> list = internalExecuteQuery(entityType, queryName, MapTools.prefixKeys(values, "value."), null);
+        final List<E> list = internalExecuteCachedQuery(entityType, queryName, getQueryCacheMetadata(entityType, queryName), MapTools.prefixKeys(values, "value."), null);
         eventHandler.afterExecuteQuery(entityType, queryName, values, list);
         return list;
     }
@@ -1243,11 +2513,104 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
         final E enhancedEntity = getEnhancedEntity(sample);
         final EntityHandler<E> entityHandler = entityHandlerContext.getHandler(enhancedEntity);
         eventHandler.beforeExecuteQuery(enhancedEntity, queryName);
-        final List<E> list = internalExecuteQuery(entityHandler.getEntityType(), queryName, MapTools.prefixKeys(entityHandler.toMap(enhancedEntity), "value."), null);
+        final List<E> list = internalExecuteCachedQuery(entityHandler.getEntityType(), queryName, getQueryCacheMetadata(entityHandler.getEntityType(), queryName), MapTools.prefixKeys(entityHandler.toMap(enhancedEntity), "value."), null);
         eventHandler.afterExecuteQuery(enhancedEntity, queryName, list);
         return list;
     }
 
+    @Override
+    public <E> EntityCursor<E> iterate(E sample) {
+        return openSampleCursor(sample, null);
+    }
+
+    @Override
+    public <E> EntityCursor<E> iterate(E sample, String order) {
+        return openSampleCursor(sample, order);
+    }
+
+    private <E> EntityCursor<E> openSampleCursor(E sample, String order) {
+        final E enhancedEntity = getEnhancedEntity(sample);
+        final InitializedEntity<E> initializedEntity = getInitializedEntity(enhancedEntity);
+        initializedEntity.freeze();
+        try {
+            final EntityHandler<E> entityHandler = entityHandlerContext.getHandler(sample);
+            final ResultOrderMetadata ordering;
+            if (order != null) {
+                ordering = new OrderExpressionParser(session.getTableMetadataRegistry().getTableMetadata(entityHandler.getEntityType())).map(order);
+            } else {
+                ordering = null;
+            }
+            eventHandler.beforeFind(enhancedEntity);
+            return openCursor(entityHandler.getEntityType(), STATEMENTS.get(Statements.Manipulation.FIND_LIKE), MapTools.prefixKeys(entityHandler.toMap(enhancedEntity), "value."), ordering);
+        } finally {
+            initializedEntity.unfreeze();
+        }
+    }
+
+    @Override
+    public <E> EntityCursor<E> iterateAll(Class<E> entityType) {
+        return openTableCursor(entityType, null);
+    }
+
+    @Override
+    public <E> EntityCursor<E> iterateAll(Class<E> entityType, String order) {
+        return openTableCursor(entityType, order);
+    }
+
+    private <E> EntityCursor<E> openTableCursor(Class<E> entityType, String order) {
+        final EntityHandler<E> entityHandler = entityHandlerContext.getHandler(entityType);
+        final ResultOrderMetadata ordering;
+        if (order != null) {
+            ordering = new OrderExpressionParser(session.getTableMetadataRegistry().getTableMetadata(entityHandler.getEntityType())).map(order);
+        } else {
+            ordering = null;
+        }
+        eventHandler.beforeFindAll(entityType);
+        return openCursor(entityHandler.getEntityType(), STATEMENTS.get(Statements.Manipulation.FIND_ALL), Collections.<String, Object>emptyMap(), ordering);
+    }
+
+    @Override
+    public <E> EntityCursor<E> iterateQuery(Class<E> entityType, String queryName, Map<String, Object> values) {
+        eventHandler.beforeExecuteQuery(entityType, queryName, values);
+        return openCursor(entityType, queryName, MapTools.prefixKeys(values, "value."), null);
+    }
+
+    @Override
+    public <E> void forEach(E sample, Processor<? super E> processor) {
+        process(iterate(sample), processor);
+    }
+
+    @Override
+    public <E> void forEachAll(Class<E> entityType, Processor<? super E> processor) {
+        process(iterateAll(entityType), processor);
+    }
+
+    @Override
+    public <E> void forEach(Class<E> entityType, String queryName, Map<String, Object> values, Processor<? super E> processor) {
+        process(iterateQuery(entityType, queryName, values), processor);
+    }
+
+    /**
+     * Sets the number of rows cursors will ask the driver to fetch at a time, overriding the
+     * {@link com.mmnaseri.dragonfly.dialect.DatabaseDialect#getStreamingFetchSize() streaming fetch size} of the dialect. Note that some
+     * drivers need special values (e.g. {@link Integer#MIN_VALUE} for MySQL) or a transaction to actually
+     * stream the results.
+     * @param fetchSize    the fetch size hint; zero leaves the decision to the driver
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 0 && fetchSize != Integer.MIN_VALUE) {
+            throw new IllegalArgumentException("Invalid fetch size: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * @return the fetch size used by cursors, which unless set explicitly is the streaming fetch size of the dialect
+     */
+    public int getFetchSize() {
+        return fetchSize != null ? fetchSize : session.getDatabaseDialect().getStreamingFetchSize();
+    }
+
     @Override
     public <E> List<?> call(Class<E> entityType, final String procedureName, Object... parameters) {
         if (isInBatchMode()) {
@@ -1309,8 +2672,9 @@ public class DefaultDataAccess implements PartialDataAccess, EventHandlerContext
                     //noinspection unchecked
                     entityHandler = (EntityHandler<Object>) entityHandlerContext.getHandler(procedureMetadata.getResultType());
                 }
+                final String[] columnNames = rowHandler.getColumnNames(resultSet);
                 while (resultSet.next()) {
-                    final Map<String, Object> map = rowHandler.handleRow(resultSet);
+                    final Map<String, Object> map = rowHandler.handleRow(resultSet, columnNames);
                     if (procedureMetadata.isPartial()) {
                         try {
                             result.add(entityHandlerContext.fromMap(beanInitializer.initialize(procedureMetadata.getResultType(), new Class[0]), getPartialEntityMetadata(procedureMetadata.getResultType()), map));
@@ -24,30 +24,42 @@
 package com.mmnaseri.dragonfly.data.impl;
 
 import com.mmnaseri.couteau.basics.api.Processor;
+import com.mmnaseri.couteau.context.error.RegistryException;
+import com.mmnaseri.dragonfly.data.BatchCommitListener;
 import com.mmnaseri.dragonfly.data.DataAccessSession;
 import com.mmnaseri.dragonfly.data.DataStructureHandler;
 import com.mmnaseri.dragonfly.dialect.DatabaseDialect;
 import com.mmnaseri.dragonfly.error.DataAccessSessionAlreadyInitializedError;
 import com.mmnaseri.dragonfly.error.DataAccessSessionInitializationError;
-import com.mmnaseri.dragonfly.error.DatabaseConnectionError;
 import com.mmnaseri.dragonfly.error.DatabaseDriverNotFoundError;
 import com.mmnaseri.dragonfly.metadata.TableMetadataRegistry;
+import com.mmnaseri.dragonfly.statement.Statement;
 import com.mmnaseri.dragonfly.statement.StatementRegistry;
+import com.mmnaseri.dragonfly.statement.impl.DefaultStatementRegistry;
 import com.mmnaseri.dragonfly.statement.impl.LocalStatementRegistry;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.SQLException;
 import java.util.Collection;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * This class encapsulates a session of interaction with the database. It is usually sufficient
  * to initialize a single session per application, unless it is necessary to have more than one
  * secured, closed domain of data access object interaction.
  *
+ * <p>Connections are obtained through a {@link ConnectionPool} which is created the first time a
+ * connection is requested. Pool settings changed after that point are applied to the live pool.</p>
+ *
+ * <p>The statements registered for each entity are kept in precomputed {@link EntityStatementTable tables},
+ * which are built once from the statement registry and only rebuilt when the registry is modified.</p>
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/9/7, 14:26)
  */
@@ -68,11 +80,18 @@ public class DefaultDataAccessSession implements DataAccessSession {
     private final StatementRegistry statementRegistry;
     private final TableMetadataRegistry tableMetadataRegistry;
     private final DataStructureHandler dataStructureHandler;
+    private final SecondLevelCache secondLevelCache = new SecondLevelCache();
+    private final QueryResultCache queryResultCache = new QueryResultCache();
+    private final SampleStatementCache sampleStatementCache = new SampleStatementCache(SampleStatementCache.DEFAULT_CAPACITY);
+    private final List<BatchCommitListener> batchCommitListeners = new CopyOnWriteArrayList<BatchCommitListener>();
     private boolean initialized = false;
-    private final AtomicLong connections = new AtomicLong(0L);
     private long maxConnections = DEFAULT_CONNECTION_THRESHOLD;
     private long waitLeniency = DEFAULT_WAIT_LENIENCY;
-    private final ThreadLocal<DelegatingConnection> localConnection;
+    private long maxIdleTime = ConnectionPool.DEFAULT_MAX_IDLE_TIME;
+    private long leakDetectionThreshold = 0L;
+    private final ThreadLocal<ConnectionLease> localConnection;
+    private volatile ConnectionPool connectionPool;
+    private volatile StatementTables statementTables = new StatementTables(-1L, Collections.<Class<?>, EntityStatementTable>emptyMap());
 
     private static String getConnectionString(DatabaseDialect databaseDialect, String hostName, Integer port, String databaseName) {
         return JDBC_PREFIX + databaseDialect.getName() + PROTOCOL_SPECIFIER + (hostName == null ? DEFAULT_HOST : hostName) + PORT_SEPARATOR + (port == null ? databaseDialect.getDefaultPort() : port) + DB_SEPARATOR + (databaseName == null ? "" : databaseName);
@@ -115,7 +134,7 @@ public class DefaultDataAccessSession implements DataAccessSession {
         this.username = username;
         this.password = password;
         this.dataStructureHandler = new DefaultDataStructureHandler(this, tableMetadataRegistry);
-        this.localConnection = new ThreadLocal<DelegatingConnection>();
+        this.localConnection = new ThreadLocal<ConnectionLease>();
     }
 
     private void loadDriver(DatabaseDialect databaseDialect) {
@@ -128,52 +147,55 @@ public class DefaultDataAccessSession implements DataAccessSession {
     }
 
     /**
-     * Returns a connection from the underlying data source, using authentication credentials
-     * if necessary
+     * Returns a connection from the underlying connection pool. Nested requests made by the same thread
+     * will piggy-back on the connection already held by that thread.
      * @return the connection instance
      */
     @Override
-    public synchronized Connection getConnection() {
-        if (localConnection.get() != null) {
-            final DelegatingConnection connection = localConnection.get();
-            connection.open();
-            return connection;
-        }
-        connections.incrementAndGet();
-        log.info("[" + connections.get() + "] Connection requested ...");
-        long wait = 0;
-        while (connections.get() >= maxConnections && wait < waitLeniency) {
-            try {
-                wait += 100;
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                throw new IllegalStateException("Failed to initialize connection", e);
-            }
-        }
-        if (connections.get() >= maxConnections) {
-            log.warn("Threshold exceeded but operations are stacked up, so we will proceed anyway.");
+    public Connection getConnection() {
+        final ConnectionLease local = localConnection.get();
+        if (local != null && local.connection.reopen(local.lease)) {
+            return local.connection;
         }
-        final Connection connection;
-        try {
-            if (username != null && password != null && !username.isEmpty()) {
-                connection = dataSource.getConnection(username, password);
-            } else {
-                connection = dataSource.getConnection();
+        final DelegatingConnection connection = getConnectionPool().borrow();
+        connection.open();
+        localConnection.set(new ConnectionLease(connection, connection.getLease()));
+        return connection;
+    }
+
+    /**
+     * Borrows a connection from the underlying connection pool which is not shared with the nested requests
+     * of the current thread, and which is returned to the pool once it is closed. This is intended for work
+     * that keeps a connection busy while other operations are carried out, e.g. streaming a result set.
+     * @return the connection instance
+     */
+    public Connection getDedicatedConnection() {
+        final DelegatingConnection connection = getConnectionPool().borrow();
+        connection.open();
+        return connection;
+    }
+
+    private ConnectionPool getConnectionPool() {
+        if (connectionPool == null) {
+            synchronized (this) {
+                if (connectionPool == null) {
+                    final ConnectionPool pool = new ConnectionPool(dataSource, username, password, (int) maxConnections, waitLeniency, new Processor<Connection>() {
+                        @Override
+                        public void process(Connection input) {
+                            //the connection may be closed by a thread other than the one holding it
+                            final ConnectionLease local = localConnection.get();
+                            if (local != null && local.connection == input) {
+                                localConnection.remove();
+                            }
+                        }
+                    });
+                    pool.setMaxIdleTime(maxIdleTime);
+                    pool.setLeakDetectionThreshold(leakDetectionThreshold);
+                    connectionPool = pool;
+                }
             }
-        } catch (SQLException e) {
-            throw new DatabaseConnectionError(e);
         }
-        final DelegatingConnection delegatingConnection = new DelegatingConnection(connection, new Processor<Connection>() {
-            @Override
-            public void process(Connection input) {
-                log.info("[" + connections.get() + "] Closing connection ...");
-                connections.decrementAndGet();
-                localConnection.remove();
-            }
-        });
-        delegatingConnection.open();
-        localConnection.set(delegatingConnection);
-        return delegatingConnection;
+        return connectionPool;
     }
 
     /**
@@ -199,6 +221,67 @@ public class DefaultDataAccessSession implements DataAccessSession {
         return getStatementRegistry(entityType.getCanonicalName());
     }
 
+    /**
+     * Returns the table of statements registered for the given entity. The tables for all entities are built
+     * together the first time they are needed, and are rebuilt whenever the statement registry is modified. Since
+     * only the {@link DefaultStatementRegistry} reports its modifications, tables for any other registry are built
+     * on every call.
+     * @param entityType    the type of the entity
+     * @return the statement table
+     */
+    public EntityStatementTable getStatementTable(Class<?> entityType) {
+        if (!(statementRegistry instanceof DefaultStatementRegistry)) {
+            return buildStatementTables(Collections.<Class<?>>singleton(entityType)).get(entityType);
+        }
+        final long version = ((DefaultStatementRegistry) statementRegistry).getModificationCount();
+        StatementTables current = statementTables;
+        if (current.version != version) {
+            current = new StatementTables(version, buildStatementTables(tableMetadataRegistry.getEntityTypes()));
+            statementTables = current;
+        }
+        final EntityStatementTable table = current.tables.get(entityType);
+        if (table != null) {
+            return table;
+        }
+        //the entity is not known to the metadata registry, so its table is built by itself and added to the current set
+        final Map<Class<?>, EntityStatementTable> tables = new HashMap<Class<?>, EntityStatementTable>(current.tables);
+        tables.putAll(buildStatementTables(Collections.<Class<?>>singleton(entityType)));
+        statementTables = new StatementTables(version, tables);
+        return tables.get(entityType);
+    }
+
+    /**
+     * Builds the statement tables for the given entities through a single pass over the statement registry
+     */
+    private Map<Class<?>, EntityStatementTable> buildStatementTables(Collection<Class<?>> entityTypes) {
+        final Map<String, Class<?>> prefixes = new HashMap<String, Class<?>>();
+        final Map<Class<?>, Map<String, Statement>> statements = new HashMap<Class<?>, Map<String, Statement>>();
+        for (Class<?> entityType : entityTypes) {
+            prefixes.put(entityType.getCanonicalName(), entityType);
+            statements.put(entityType, new HashMap<String, Statement>());
+        }
+        for (String name : statementRegistry.getBeanNames()) {
+            //entity names may contain dots themselves, and one entity may be nested in another, so every dot is a candidate
+            int index = name.indexOf('.');
+            while (index > 0) {
+                final Class<?> entityType = prefixes.get(name.substring(0, index));
+                if (entityType != null) {
+                    try {
+                        statements.get(entityType).put(name.substring(index + 1), statementRegistry.get(name));
+                    } catch (RegistryException ignored) {
+                        //the statement was removed while we were building; the change will cause the tables to be rebuilt
+                    }
+                }
+                index = name.indexOf('.', index + 1);
+            }
+        }
+        final Map<Class<?>, EntityStatementTable> tables = new HashMap<Class<?>, EntityStatementTable>();
+        for (Map.Entry<Class<?>, Map<String, Statement>> entry : statements.entrySet()) {
+            tables.put(entry.getKey(), new EntityStatementTable(entry.getKey(), entry.getValue()));
+        }
+        return tables;
+    }
+
     /**
      * @return the metadata registry associated with the session
      */
@@ -247,14 +330,139 @@ public class DefaultDataAccessSession implements DataAccessSession {
 
     public void setMaxConnections(long maxConnections) {
         this.maxConnections = maxConnections;
+        if (connectionPool != null) {
+            connectionPool.setMaxConnections((int) maxConnections);
+        }
     }
 
+    /**
+     * @param waitLeniency    the time (in milliseconds) to wait for a pooled connection before giving up
+     */
     public void setWaitLeniency(long waitLeniency) {
         this.waitLeniency = waitLeniency;
+        if (connectionPool != null) {
+            connectionPool.setBorrowTimeout(waitLeniency);
+        }
+    }
+
+    /**
+     * @param maxIdleTime    the time (in milliseconds) after which an idle connection is closed
+     */
+    public void setMaxIdleTime(long maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+        if (connectionPool != null) {
+            connectionPool.setMaxIdleTime(maxIdleTime);
+        }
+    }
+
+    /**
+     * @param leakDetectionThreshold    the time (in milliseconds) after which a connection that has not
+     *                                  been returned is reported along with the stack trace of its borrower.
+     *                                  Zero disables leak detection.
+     */
+    public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+        this.leakDetectionThreshold = leakDetectionThreshold;
+        if (connectionPool != null) {
+            connectionPool.setLeakDetectionThreshold(leakDetectionThreshold);
+        }
+    }
+
+    /**
+     * @return the number of connections currently in use
+     */
+    public int getActiveConnections() {
+        return connectionPool == null ? 0 : connectionPool.getActiveCount();
+    }
+
+    /**
+     * @return the number of open connections that are not in use
+     */
+    public int getIdleConnections() {
+        return connectionPool == null ? 0 : connectionPool.getIdleCount();
+    }
+
+    /**
+     * @return the number of threads waiting for a connection to become available
+     */
+    public int getWaitingThreads() {
+        return connectionPool == null ? 0 : connectionPool.getWaitingCount();
+    }
+
+    /**
+     * Closes all pooled connections
+     */
+    public synchronized void close() {
+        if (connectionPool != null) {
+            connectionPool.close();
+        }
     }
 
     public DataStructureHandler getDataStructureHandler() {
         return dataStructureHandler;
     }
 
+    /**
+     * @return the second-level entity cache shared by all data access instances of this session
+     */
+    public SecondLevelCache getSecondLevelCache() {
+        return secondLevelCache;
+    }
+
+    /**
+     * @return the query result cache shared by all data access instances of this session
+     */
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+
+    /**
+     * @return the cache of rendered query-by-example statements shared by all data access instances of this session
+     */
+    public SampleStatementCache getSampleStatementCache() {
+        return sampleStatementCache;
+    }
+
+    /**
+     * Registers a listener to be told whenever a batch of operations started through any data access of
+     * this session has been committed
+     * @param listener    the listener
+     */
+    public void addBatchCommitListener(BatchCommitListener listener) {
+        batchCommitListeners.add(listener);
+    }
+
+    /**
+     * @return the listeners to be told about committed batches
+     */
+    public List<BatchCommitListener> getBatchCommitListeners() {
+        return batchCommitListeners;
+    }
+
+    /**
+     * The connection held by a thread, along with the lease under which the thread obtained it
+     */
+    private static class ConnectionLease {
+
+        private final DelegatingConnection connection;
+        private final long lease;
+
+        private ConnectionLease(DelegatingConnection connection, long lease) {
+            this.connection = connection;
+            this.lease = lease;
+        }
+
+    }
+
+    private static class StatementTables {
+
+        private final long version;
+        private final Map<Class<?>, EntityStatementTable> tables;
+
+        private StatementTables(long version, Map<Class<?>, EntityStatementTable> tables) {
+            this.version = version;
+            this.tables = tables;
+        }
+
+    }
+
 }
@@ -40,25 +40,42 @@ import java.util.concurrent.Executor;
  * connection to the data source. This class adds nested connection opening and closing
  * to the functionalities of the connection.
  *
+ * <p>Unless disabled by passing a statement cache size of zero, prepared statements are
+ * cached per connection, keyed by their SQL and preparation flags. Closing a statement
+ * prepared through this connection returns it to the cache, and the cached statements
+ * are closed along with the connection.</p>
+ *
+ * <p>A pooled connection is not closed when it is released; instead, its close callback
+ * is expected to hand it back to the pool, which will {@link #discard() discard} it once
+ * it is no longer needed.</p>
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/10/2, 21:24)
  */
 public class DelegatingConnection implements Connection {
 
     private static final Log log = LogFactory.getLog(Connection.class);
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
     private final Connection connection;
     private final Processor<Connection> closeCallback;
-    private final ThreadLocal<Long> opened;
+    private int opened = 0;
+    private long lease = 0L;
+    private final PreparedStatementCache statementCache;
+    private final boolean pooled;
 
     public DelegatingConnection(Connection connection, Processor<Connection> closeCallback) {
+        this(connection, closeCallback, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    public DelegatingConnection(Connection connection, Processor<Connection> closeCallback, int statementCacheSize) {
+        this(connection, closeCallback, statementCacheSize, false);
+    }
+
+    public DelegatingConnection(Connection connection, Processor<Connection> closeCallback, int statementCacheSize, boolean pooled) {
         this.closeCallback = closeCallback;
+        this.pooled = pooled;
         this.connection = connection;
-        this.opened = new ThreadLocal<Long>(){
-            @Override
-            protected Long initialValue() {
-                return 0L;
-            }
-        };
+        this.statementCache = statementCacheSize > 0 ? new PreparedStatementCache(statementCacheSize) : null;
         log.info("Connection requested");
     }
 
@@ -71,7 +88,58 @@ public class DelegatingConnection implements Connection {
     @Override
     public PreparedStatement prepareStatement(String sql) throws SQLException {
         log.info("Preparing statement " + sql);
-        return new DelegatingPreparedStatement(connection.prepareStatement(sql), this);
+        if (statementCache == null) {
+            return new DelegatingPreparedStatement(connection.prepareStatement(sql), this);
+        }
+        return prepareCached(new PreparedStatementCache.Key(sql, Statement.NO_GENERATED_KEYS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY));
+    }
+
+    private PreparedStatement prepareCached(PreparedStatementCache.Key key) throws SQLException {
+        PreparedStatement statement = statementCache.checkOut(key);
+        if (statement == null) {
+            if (key.getAutoGeneratedKeys() != Statement.NO_GENERATED_KEYS) {
+                statement = connection.prepareStatement(key.getSql(), key.getAutoGeneratedKeys());
+            } else {
+                statement = connection.prepareStatement(key.getSql(), key.getResultSetType(), key.getResultSetConcurrency());
+            }
+            try {
+                statementCache.register(statement);
+            } catch (SQLException e) {
+                statement.close();
+                throw e;
+            }
+        }
+        return new CachedPreparedStatement(statement, this, key);
+    }
+
+    /**
+     * Returns a statement that was handed out through this connection to the statement cache
+     * @param key          the key to the statement
+     * @param statement    the underlying statement
+     */
+    void release(PreparedStatementCache.Key key, PreparedStatement statement) {
+        statementCache.checkIn(key, statement);
+    }
+
+    /**
+     * @return the number of times a prepared statement was served from the cache of this connection
+     */
+    public long getStatementCacheHits() {
+        return statementCache == null ? 0 : statementCache.getHits();
+    }
+
+    /**
+     * @return the number of times a statement had to be prepared through the underlying connection
+     */
+    public long getStatementCacheMisses() {
+        return statementCache == null ? 0 : statementCache.getMisses();
+    }
+
+    /**
+     * @return the number of cached statements that have been closed to make room for others
+     */
+    public long getStatementCacheEvictions() {
+        return statementCache == null ? 0 : statementCache.getEvictions();
     }
 
     @Override
@@ -113,21 +181,59 @@ public class DelegatingConnection implements Connection {
         }
     }
 
-    public void open() {
-        opened.set(opened.get() + 1);
+    public synchronized void open() {
+        opened ++;
+    }
+
+    /**
+     * Opens the connection once more, but only if it is still held under the given lease, i.e. it has
+     * not been fully closed since the lease was taken. This protects nested users from piggy-backing on
+     * a connection that has meanwhile been closed by another thread and handed to someone else.
+     * @param lease    the lease under which the caller obtained the connection
+     * @return {@code true} if the connection was reopened
+     */
+    public synchronized boolean reopen(long lease) {
+        if (this.lease != lease || opened == 0) {
+            return false;
+        }
+        opened ++;
+        return true;
+    }
+
+    /**
+     * @return the current lease of this connection, which changes every time the connection is fully closed
+     */
+    public synchronized long getLease() {
+        return lease;
     }
 
     @Override
     public void close() throws SQLException {
-        opened.set(opened.get() - 1);
-        if (opened.get() < 0) {
-            throw new IllegalStateException();
-        }
-        log.info("Closing the connection");
-        if (opened.get() > 0) {
-            return;
+        synchronized (this) {
+            if (opened == 0) {
+                throw new IllegalStateException();
+            }
+            opened --;
+            log.info("Closing the connection");
+            if (opened > 0) {
+                return;
+            }
+            lease ++;
         }
         closeCallback.process(this);
+        if (!pooled) {
+            discard();
+        }
+    }
+
+    /**
+     * Closes all cached statements as well as the underlying connection
+     * @throws SQLException if the underlying connection cannot be closed
+     */
+    void discard() throws SQLException {
+        if (statementCache != null) {
+            statementCache.close();
+        }
         connection.close();
     }
 
@@ -188,7 +294,10 @@ public class DelegatingConnection implements Connection {
 
     @Override
     public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
-        return connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+        if (statementCache == null) {
+            return connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+        }
+        return prepareCached(new PreparedStatementCache.Key(sql, Statement.NO_GENERATED_KEYS, resultSetType, resultSetConcurrency));
     }
 
     @Override
@@ -253,7 +362,10 @@ public class DelegatingConnection implements Connection {
 
     @Override
     public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
-        return connection.prepareStatement(sql, autoGeneratedKeys);
+        if (statementCache == null) {
+            return connection.prepareStatement(sql, autoGeneratedKeys);
+        }
+        return prepareCached(new PreparedStatementCache.Key(sql, autoGeneratedKeys, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY));
     }
 
     @Override
@@ -26,8 +26,6 @@ package com.mmnaseri.dragonfly.data.impl;
 import com.mmnaseri.dragonfly.events.DataAccessEventHandler;
 import com.mmnaseri.dragonfly.events.EventHandlerContext;
 import com.mmnaseri.dragonfly.fluent.SelectQueryInitiator;
-import com.mmnaseri.couteau.basics.api.impl.MirrorFilter;
-import com.mmnaseri.couteau.basics.collections.CollectionWrapper;
 import com.mmnaseri.couteau.context.impl.OrderedBeanComparator;
 import com.mmnaseri.dragonfly.data.*;
 import com.mmnaseri.dragonfly.data.impl.op.*;
@@ -35,6 +33,8 @@ import com.mmnaseri.dragonfly.data.impl.op.*;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
@@ -48,6 +48,10 @@ import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
  * to add around advises for many different purposes, ranging from enabling data operations on
  * unconventional entities, to logging the duration of data access operations.</p>
  *
+ * <p>The callbacks that apply to each kind of operation are compiled into a {@link CallbackChain}
+ * the first time such an operation is carried out, and the chain is reused until another callback
+ * is added.</p>
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/9/26, 2:24)
  */
@@ -56,50 +60,8 @@ public class DelegatingDataAccess implements PartialDataAccess, EventHandlerCont
 
     public static final NoOpCallback DEFAULT_CALLBACK = new NoOpCallback();
 
-    private static class NestedCallback implements DataCallback<DataOperation> {
-
-        private final List<DataCallback<DataOperation>> callbacks;
-        private final DataCallback<DataOperation> originalCallback;
-
-        private NestedCallback(List<DataCallback<DataOperation>> callbacks, DataCallback<DataOperation> originalCallback) {
-            this.callbacks = callbacks;
-            this.originalCallback = originalCallback;
-        }
-
-        @Override
-        public Object execute(DataOperation operation) {
-            final CollectionWrapper<DataCallback<DataOperation>> wrapper = with(callbacks);
-            if (wrapper.isEmpty()) {
-                ((AbstractDataOperation) operation).setCallback(originalCallback);
-                return operation.proceed();
-            }
-            ((AbstractDataOperation) operation).setCallback(new NestedCallback(wrapper.rest().list(), originalCallback));
-            return wrapper.first().execute(operation);
-        }
-
-        @Override
-        public boolean accepts(DataOperation dataOperation) {
-            return true;
-        }
-    }
-
-    private static class Executable<E extends DataOperation> {
-
-        private final E dataOperation;
-        private final DataCallback<DataOperation> callback;
-
-        private Executable(E dataOperation, List<DataCallback<DataOperation>> callbacks) {
-            this.dataOperation = dataOperation;
-            this.callback = new NestedCallback(callbacks, ((AbstractDataOperation) dataOperation).getCallback());
-        }
-
-        private Object execute() {
-            return callback.execute(dataOperation);
-        }
-
-    }
-
-    private List<DataCallback<DataOperation>> callbacks = new CopyOnWriteArrayList<DataCallback<DataOperation>>();
+    private volatile List<SmartDataCallback<DataOperation>> callbacks = new CopyOnWriteArrayList<SmartDataCallback<DataOperation>>();
+    private volatile ConcurrentMap<Class<?>, ConcurrentMap<OperationType, ConcurrentMap<Class<?>, CallbackChain>>> chains = new ConcurrentHashMap<Class<?>, ConcurrentMap<OperationType, ConcurrentMap<Class<?>, CallbackChain>>>();
     private final DataAccess dataAccess;
 
     public DelegatingDataAccess(DataAccess dataAccess) {
@@ -108,6 +70,7 @@ public class DelegatingDataAccess implements PartialDataAccess, EventHandlerCont
 
     public synchronized void addCallback(DataCallback<?> callback) {
         callbacks = with(callbacks).add(new SmartDataCallback<DataOperation>((DataCallback<DataOperation>) callback)).sort(new OrderedBeanComparator()).concurrentList();
+        chains = new ConcurrentHashMap<Class<?>, ConcurrentMap<OperationType, ConcurrentMap<Class<?>, CallbackChain>>>();
     }
 
     @Override
@@ -119,262 +82,298 @@ public class DelegatingDataAccess implements PartialDataAccess, EventHandlerCont
         }
     }
 
-    private <E extends DataOperation> Executable<E> given(E operation) {
-        final List<DataCallback<DataOperation>> callbacks = with(this.callbacks).keep(new MirrorFilter<DataOperation>(operation)).sort(new OrderedBeanComparator()).list();
-        if (callbacks.isEmpty()) {
-            callbacks.add(DEFAULT_CALLBACK);
+    private Object execute(AbstractDataOperation operation) {
+        final Class<?> entityType;
+        if (operation instanceof TypedDataOperation) {
+            entityType = ((TypedDataOperation) operation).getEntityType();
+        } else if (operation instanceof SampledDataOperation && ((SampledDataOperation) operation).getSample() != null) {
+            entityType = ((SampledDataOperation) operation).getSample().getClass();
+        } else {
+            entityType = null;
+        }
+        return operation.execute(getChain(operation.getClass(), operation.getOperationType(), entityType));
+    }
+
+    /**
+     * Returns the chain of callbacks for the given kind of operation, compiling it if this is the first time
+     * such an operation is being carried out since the last callback was added
+     * @param operationClass    the class of the operation
+     * @param operationType     the type of the operation
+     * @param entityType        the entity type, or {@code null} if it is not known
+     * @return the chain of callbacks
+     */
+    private CallbackChain getChain(Class<? extends DataOperation> operationClass, OperationType operationType, Class<?> entityType) {
+        //the chains must be read before the callbacks, so that a chain compiled from an outdated list of callbacks
+        //is never stored alongside those compiled after a callback was added
+        final ConcurrentMap<Class<?>, ConcurrentMap<OperationType, ConcurrentMap<Class<?>, CallbackChain>>> chains = this.chains;
+        final List<SmartDataCallback<DataOperation>> callbacks = this.callbacks;
+        ConcurrentMap<OperationType, ConcurrentMap<Class<?>, CallbackChain>> byOperationType = chains.get(operationClass);
+        if (byOperationType == null) {
+            chains.putIfAbsent(operationClass, new ConcurrentHashMap<OperationType, ConcurrentMap<Class<?>, CallbackChain>>());
+            byOperationType = chains.get(operationClass);
+        }
+        ConcurrentMap<Class<?>, CallbackChain> byEntityType = byOperationType.get(operationType);
+        if (byEntityType == null) {
+            byOperationType.putIfAbsent(operationType, new ConcurrentHashMap<Class<?>, CallbackChain>());
+            byEntityType = byOperationType.get(operationType);
+        }
+        final Class<?> key = entityType == null ? Void.class : entityType;
+        final CallbackChain chain = byEntityType.get(key);
+        if (chain != null) {
+            return chain;
         }
-        return new Executable<E>(operation, callbacks);
+        byEntityType.putIfAbsent(key, CallbackChain.compile(callbacks, operationClass, entityType));
+        return byEntityType.get(key);
     }
 
     @Override
     public <E> E save(E entity) {
-        return (E) given(new SampledDataOperation(dataAccess, OperationType.SAVE, entity, new AbstractDefaultDataCallback<SampledDataOperation>() {
+        return (E) execute(new SampledDataOperation(dataAccess, OperationType.SAVE, entity, new AbstractDefaultDataCallback<SampledDataOperation>() {
             @Override
             public Object execute(SampledDataOperation operation) {
                 return dataAccess.save(operation.getSample());
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> E insert(E entity) {
-        return (E) given(new SampledDataOperation(dataAccess, OperationType.INSERT, entity, new AbstractDefaultDataCallback<SampledDataOperation>() {
+        return (E) execute(new SampledDataOperation(dataAccess, OperationType.INSERT, entity, new AbstractDefaultDataCallback<SampledDataOperation>() {
             @Override
             public Object execute(SampledDataOperation operation) {
                 return dataAccess.insert(operation.getSample());
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> E update(E entity) {
-        return (E) given(new SampledDataOperation(dataAccess, OperationType.UPDATE, entity, new AbstractDefaultDataCallback<SampledDataOperation>() {
+        return (E) execute(new SampledDataOperation(dataAccess, OperationType.UPDATE, entity, new AbstractDefaultDataCallback<SampledDataOperation>() {
             @Override
             public Object execute(SampledDataOperation operation) {
                 return dataAccess.update(operation.getSample());
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> void delete(E entity) {
-        given(new SampledDataOperation(dataAccess, OperationType.DELETE, entity, new AbstractProceduralDataCallback<SampledDataOperation>() {
+        execute(new SampledDataOperation(dataAccess, OperationType.DELETE, entity, new AbstractProceduralDataCallback<SampledDataOperation>() {
             @Override
             protected void executeWithoutResults(SampledDataOperation operation) {
                 dataAccess.delete(operation.getSample());
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E, K extends Serializable> void delete(Class<E> entityType, K key) {
-        given(new IdentifiableDataOperation(dataAccess, OperationType.DELETE, entityType, key, new AbstractProceduralDataCallback<IdentifiableDataOperation>() {
+        execute(new IdentifiableDataOperation(dataAccess, OperationType.DELETE, entityType, key, new AbstractProceduralDataCallback<IdentifiableDataOperation>() {
             @Override
             protected void executeWithoutResults(IdentifiableDataOperation operation) {
                 dataAccess.delete(operation.getEntityType(), operation.getKey());
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> void deleteAll(Class<E> entityType) {
-        given(new TypedDataOperation(dataAccess, OperationType.DELETE, entityType, new AbstractProceduralDataCallback<TypedDataOperation>() {
+        execute(new TypedDataOperation(dataAccess, OperationType.DELETE, entityType, new AbstractProceduralDataCallback<TypedDataOperation>() {
             @Override
             protected void executeWithoutResults(TypedDataOperation operation) {
                 dataAccess.deleteAll(operation.getEntityType());
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> void truncate(Class<E> entityType) {
-        given(new TypedDataOperation(dataAccess, OperationType.TRUNCATE, entityType, new AbstractProceduralDataCallback<TypedDataOperation>() {
+        execute(new TypedDataOperation(dataAccess, OperationType.TRUNCATE, entityType, new AbstractProceduralDataCallback<TypedDataOperation>() {
             @Override
             protected void executeWithoutResults(TypedDataOperation operation) {
                 dataAccess.truncate(operation.getEntityType());
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> List<E> find(E sample) {
-        return (List<E>) given(new SampledDataOperation(dataAccess, OperationType.FIND, sample, new AbstractDefaultDataCallback<SampledDataOperation>() {
+        return (List<E>) execute(new SampledDataOperation(dataAccess, OperationType.FIND, sample, new AbstractDefaultDataCallback<SampledDataOperation>() {
             @Override
             public Object execute(SampledDataOperation operation) {
                 return dataAccess.find(operation.getSample());
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> List<E> find(E sample, final String order) {
-        return (List<E>) given(new SampledDataOperation(dataAccess, OperationType.FIND, sample, new AbstractDefaultDataCallback<SampledDataOperation>() {
+        return (List<E>) execute(new SampledDataOperation(dataAccess, OperationType.FIND, sample, new AbstractDefaultDataCallback<SampledDataOperation>() {
             @Override
             public Object execute(SampledDataOperation operation) {
                 return dataAccess.find(operation.getSample(), order);
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> List<E> find(E sample, final int pageSize, final int pageNumber) {
-        return (List<E>) given(new SampledDataOperation(dataAccess, OperationType.FIND, sample, new AbstractDefaultDataCallback<SampledDataOperation>() {
+        return (List<E>) execute(new SampledDataOperation(dataAccess, OperationType.FIND, sample, new AbstractDefaultDataCallback<SampledDataOperation>() {
             @Override
             public Object execute(SampledDataOperation operation) {
                 return dataAccess.find(operation.getSample(), pageSize, pageNumber);
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> List<E> find(E sample, final String order, final int pageSize, final int pageNumber) {
-        return (List<E>) given(new SampledDataOperation(dataAccess, OperationType.FIND, sample, new AbstractDefaultDataCallback<SampledDataOperation>() {
+        return (List<E>) execute(new SampledDataOperation(dataAccess, OperationType.FIND, sample, new AbstractDefaultDataCallback<SampledDataOperation>() {
             @Override
             public Object execute(SampledDataOperation operation) {
                 return dataAccess.find(operation.getSample(), order, pageSize, pageNumber);
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E, K extends Serializable> E find(Class<E> entityType, K key) {
-        return (E) given(new IdentifiableDataOperation(dataAccess, OperationType.FIND, entityType, key, new AbstractDefaultDataCallback<IdentifiableDataOperation>() {
+        return (E) execute(new IdentifiableDataOperation(dataAccess, OperationType.FIND, entityType, key, new AbstractDefaultDataCallback<IdentifiableDataOperation>() {
             @Override
             public Object execute(IdentifiableDataOperation operation) {
                 return dataAccess.find(operation.getEntityType(), operation.getKey());
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> List<E> findAll(Class<E> entityType) {
-        return (List<E>) given(new TypedDataOperation(dataAccess, OperationType.FIND, entityType, new AbstractDefaultDataCallback<TypedDataOperation>() {
+        return (List<E>) execute(new TypedDataOperation(dataAccess, OperationType.FIND, entityType, new AbstractDefaultDataCallback<TypedDataOperation>() {
             @Override
             public Object execute(TypedDataOperation operation) {
                 return dataAccess.findAll(operation.getEntityType());
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> List<E> findAll(Class<E> entityType, final String order) {
-        return (List<E>) given(new TypedDataOperation(dataAccess, OperationType.FIND, entityType, new AbstractDefaultDataCallback<TypedDataOperation>() {
+        return (List<E>) execute(new TypedDataOperation(dataAccess, OperationType.FIND, entityType, new AbstractDefaultDataCallback<TypedDataOperation>() {
             @Override
             public Object execute(TypedDataOperation operation) {
                 return dataAccess.findAll(operation.getEntityType(), order);
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> List<E> findAll(Class<E> entityType, final String order, final int pageSize, final int pageNumber) {
-        return (List<E>) given(new TypedDataOperation(dataAccess, OperationType.FIND, entityType, new AbstractDefaultDataCallback<TypedDataOperation>() {
+        return (List<E>) execute(new TypedDataOperation(dataAccess, OperationType.FIND, entityType, new AbstractDefaultDataCallback<TypedDataOperation>() {
             @Override
             public Object execute(TypedDataOperation operation) {
                 return dataAccess.findAll(operation.getEntityType(), order, pageSize, pageNumber);
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> List<E> findAll(Class<E> entityType, final int pageSize, final int pageNumber) {
-        return (List<E>) given(new TypedDataOperation(dataAccess, OperationType.FIND, entityType, new AbstractDefaultDataCallback<TypedDataOperation>() {
+        return (List<E>) execute(new TypedDataOperation(dataAccess, OperationType.FIND, entityType, new AbstractDefaultDataCallback<TypedDataOperation>() {
             @Override
             public Object execute(TypedDataOperation operation) {
                 return dataAccess.findAll(operation.getEntityType(), pageSize, pageNumber);
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> int executeUpdate(Class<E> entityType, String queryName, Map<String, Object> values) {
-        return (Integer) given(new TypedQueryDataOperation(dataAccess, OperationType.NAMED_UPDATE, entityType, queryName, values, new AbstractDefaultDataCallback<TypedQueryDataOperation>() {
+        return (Integer) execute(new TypedQueryDataOperation(dataAccess, OperationType.NAMED_UPDATE, entityType, queryName, values, new AbstractDefaultDataCallback<TypedQueryDataOperation>() {
             @Override
             public Object execute(TypedQueryDataOperation operation) {
                 return dataAccess.executeUpdate(operation.getEntityType(), operation.getQueryName(), operation.getMap());
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> int executeUpdate(E sample, String queryName) {
-        return (Integer) given(new SampledQueryDataOperation(dataAccess, OperationType.NAMED_UPDATE, sample, queryName, new AbstractDefaultDataCallback<SampledQueryDataOperation>() {
+        return (Integer) execute(new SampledQueryDataOperation(dataAccess, OperationType.NAMED_UPDATE, sample, queryName, new AbstractDefaultDataCallback<SampledQueryDataOperation>() {
             @Override
             public Object execute(SampledQueryDataOperation operation) {
                 return dataAccess.executeUpdate(operation.getSample(), operation.getQueryName());
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> List<E> executeQuery(Class<E> entityType, String queryName, Map<String, Object> values) {
-        return (List<E>) given(new TypedQueryDataOperation(dataAccess, OperationType.NAMED_QUERY, entityType, queryName, values, new AbstractDefaultDataCallback<TypedQueryDataOperation>() {
+        return (List<E>) execute(new TypedQueryDataOperation(dataAccess, OperationType.NAMED_QUERY, entityType, queryName, values, new AbstractDefaultDataCallback<TypedQueryDataOperation>() {
             @Override
             public Object execute(TypedQueryDataOperation operation) {
                 return dataAccess.executeQuery(operation.getEntityType(), operation.getQueryName(), operation.getMap());
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> List<E> executeQuery(E sample, String queryName) {
-        return (List<E>) given(new SampledQueryDataOperation(dataAccess, OperationType.NAMED_QUERY, sample, queryName, new AbstractDefaultDataCallback<SampledQueryDataOperation>() {
+        return (List<E>) execute(new SampledQueryDataOperation(dataAccess, OperationType.NAMED_QUERY, sample, queryName, new AbstractDefaultDataCallback<SampledQueryDataOperation>() {
             @Override
             public Object execute(SampledQueryDataOperation operation) {
                 return dataAccess.executeQuery(operation.getSample(), operation.getQueryName());
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> List<?> call(Class<E> entityType, String procedureName, Object... parameters) {
-        return (List<?>) given(new ProcedureCallDataOperation(dataAccess, OperationType.PROCEDURE, entityType, procedureName, parameters, new AbstractDefaultDataCallback<ProcedureCallDataOperation>() {
+        return (List<?>) execute(new ProcedureCallDataOperation(dataAccess, OperationType.PROCEDURE, entityType, procedureName, parameters, new AbstractDefaultDataCallback<ProcedureCallDataOperation>() {
             @Override
             public Object execute(ProcedureCallDataOperation operation) {
                 return dataAccess.call(operation.getEntityType(), operation.getProcedureName(), operation.getParameters());
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> long countAll(Class<E> entityType) {
-        return (Long) given(new TypedDataOperation(dataAccess, OperationType.COUNT, entityType, new AbstractDefaultDataCallback<TypedDataOperation>() {
+        return (Long) execute(new TypedDataOperation(dataAccess, OperationType.COUNT, entityType, new AbstractDefaultDataCallback<TypedDataOperation>() {
             @Override
             public Object execute(TypedDataOperation operation) {
                 return dataAccess.countAll(operation.getEntityType());
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> long count(E sample) {
-        return (Long) given(new SampledDataOperation(dataAccess, OperationType.COUNT, sample, new AbstractDefaultDataCallback<SampledDataOperation>() {
+        return (Long) execute(new SampledDataOperation(dataAccess, OperationType.COUNT, sample, new AbstractDefaultDataCallback<SampledDataOperation>() {
             @Override
             public Object execute(SampledDataOperation operation) {
                 return dataAccess.count(operation.getSample());
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E> boolean exists(E sample) {
-        return (Boolean) given(new SampledDataOperation(dataAccess, OperationType.EXISTS, sample, new AbstractDefaultDataCallback<SampledDataOperation>() {
+        return (Boolean) execute(new SampledDataOperation(dataAccess, OperationType.EXISTS, sample, new AbstractDefaultDataCallback<SampledDataOperation>() {
             @Override
             public Object execute(SampledDataOperation operation) {
                 return dataAccess.exists(operation.getSample());
             }
-        })).execute();
+        }));
     }
 
     @Override
     public <E, K extends Serializable> boolean exists(Class<E> entityType, K key) {
-        return (Boolean) given(new IdentifiableDataOperation(dataAccess, OperationType.EXISTS, entityType, key, new AbstractDefaultDataCallback<IdentifiableDataOperation>() {
+        return (Boolean) execute(new IdentifiableDataOperation(dataAccess, OperationType.EXISTS, entityType, key, new AbstractDefaultDataCallback<IdentifiableDataOperation>() {
             @Override
             public Object execute(IdentifiableDataOperation operation) {
                 return dataAccess.exists(operation.getEntityType(), operation.getKey());
             }
-        })).execute();
+        }));
     }
 
     @Override
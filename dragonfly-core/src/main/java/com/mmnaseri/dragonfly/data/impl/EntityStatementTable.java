@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.statement.Statement;
+import com.mmnaseri.dragonfly.statement.Statements;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * This class holds an immutable snapshot of the statements registered for a single entity. Statements
+ * for the standard manipulations are kept in an array indexed by the manipulation, while named queries
+ * and procedure calls are looked up by their name.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:15)
+ */
+public class EntityStatementTable {
+
+    private final Class<?> entityType;
+    private final Statement[] manipulations;
+    private final Map<String, Statement> statements;
+
+    EntityStatementTable(Class<?> entityType, Map<String, Statement> statements) {
+        this.entityType = entityType;
+        this.statements = Collections.unmodifiableMap(statements);
+        this.manipulations = new Statement[Statements.Manipulation.values().length];
+        for (Map.Entry<Statements.Manipulation, String> entry : DefaultDataAccess.STATEMENTS.entrySet()) {
+            manipulations[entry.getKey().ordinal()] = statements.get(entry.getValue());
+        }
+    }
+
+    /**
+     * @return the entity to which the statements belong
+     */
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * @param manipulation    the manipulation
+     * @return the statement registered for the manipulation, or {@code null} if none is registered
+     */
+    public Statement get(Statements.Manipulation manipulation) {
+        return manipulations[manipulation.ordinal()];
+    }
+
+    /**
+     * @param name    the name of the statement, relative to the entity
+     * @return the statement, or {@code null} if no statement has been registered with the given name
+     */
+    public Statement get(String name) {
+        return statements.get(name);
+    }
+
+}
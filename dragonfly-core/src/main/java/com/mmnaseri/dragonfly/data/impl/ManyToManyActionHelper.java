@@ -29,8 +29,8 @@ import com.mmnaseri.couteau.basics.api.Transformer;
 import com.mmnaseri.couteau.basics.api.impl.NegatingFilter;
 import com.mmnaseri.couteau.context.error.RegistryException;
 import com.mmnaseri.dragonfly.data.EntityPreparationCallback;
-import com.mmnaseri.dragonfly.entity.impl.DefaultEntityMapCreator;
-import com.mmnaseri.dragonfly.entity.impl.DefaultMapEntityCreator;
+import com.mmnaseri.dragonfly.entity.impl.AccessorEntityMapCreator;
+import com.mmnaseri.dragonfly.entity.impl.AccessorMapEntityCreator;
 import com.mmnaseri.dragonfly.entity.impl.DefaultRowHandler;
 import com.mmnaseri.dragonfly.error.UnsuccessfulOperationError;
 import com.mmnaseri.dragonfly.metadata.ColumnMetadata;
@@ -88,10 +88,10 @@ public class ManyToManyActionHelper {
         this.insertStatement = statementBuilderContext.getManipulationStatementBuilder(Statements.Manipulation.INSERT).getStatement(tableMetadata);
         this.deleteStatement = statementBuilderContext.getManipulationStatementBuilder(Statements.Manipulation.DELETE_LIKE).getStatement(tableMetadata);
         this.selectStatement = relationMetadata == null ? statementBuilderContext.getManipulationStatementBuilder(Statements.Manipulation.FIND_LIKE).getStatement(tableMetadata) : statementBuilderContext.getManipulationStatementBuilder(Statements.Manipulation.LOAD_MANY_TO_MANY).getStatement(tableMetadata, relationMetadata);
-        this.mapCreator = new DefaultEntityMapCreator();
+        this.mapCreator = new AccessorEntityMapCreator();
         this.rowHandler = new DefaultRowHandler();
         try {
-            this.entityCreator = new DefaultMapEntityCreator();
+            this.entityCreator = new AccessorMapEntityCreator();
         } catch (RegistryException e) {
             throw new RuntimeException(e);
         }
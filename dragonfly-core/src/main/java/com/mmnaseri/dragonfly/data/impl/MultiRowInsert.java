@@ -0,0 +1,152 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.dialect.DatabaseDialect;
+import com.mmnaseri.dragonfly.statement.impl.ParameterBindingPlan;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>This class sends the rows of a batched insert to the database as multi-row statements.</p>
+ *
+ * <p>Rows are sent in chunks of a fixed size, so that each insert only ever needs two statements: one
+ * carrying a full chunk of rows, and the original single-row statement, which takes whatever rows are
+ * left over. This keeps the statement cache of the connection from filling up with one statement per
+ * chunk length.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:54)
+ */
+public class MultiRowInsert {
+
+    /**
+     * The number of rows sent with each multi-row statement
+     */
+    public static final int CHUNK_SIZE = 100;
+
+    private final ParameterBindingPlan plan;
+    private final DatabaseDialect dialect;
+    private final int chunkSize;
+    private final String chunkSql;
+
+    public MultiRowInsert(ParameterBindingPlan plan, DatabaseDialect dialect) {
+        this.plan = plan;
+        this.dialect = dialect;
+        this.chunkSize = Math.min(CHUNK_SIZE, plan.getMaxRowsPerStatement());
+        this.chunkSql = chunkSize > 1 ? plan.getSql(chunkSize) : null;
+    }
+
+    /**
+     * Inserts the given rows
+     * @param connection    the connection
+     * @param rows          the values of the rows, in the order they were added to the batch
+     * @param results       the list to which the result of each row is added, in the order of the rows. This is
+     *                      {@code 1} for rows known to have been inserted, and {@link Statement#SUCCESS_NO_INFO}
+     *                      if the driver did not say.
+     * @param keys          the list to which the key generated for each row is added, in the order of the rows,
+     *                      or {@code null} if generated keys are not needed
+     * @throws SQLException if the rows cannot be inserted, or their keys cannot be matched with them
+     */
+    public void execute(Connection connection, List<Map<String, Object>> rows, List<Integer> results, List<Serializable> keys) throws SQLException {
+        int offset = 0;
+        if (chunkSql != null && rows.size() >= chunkSize) {
+            final PreparedStatement statement = prepare(connection, chunkSql, keys != null);
+            try {
+                for (; offset + chunkSize <= rows.size(); offset += chunkSize) {
+                    for (int i = 0; i < chunkSize; i ++) {
+                        plan.bind(statement, rows.get(offset + i), i * plan.getParameterCount());
+                    }
+                    //the driver reports the total for the statement, which only speaks for each row if it covers all of them
+                    final int result = statement.executeUpdate() == chunkSize ? 1 : Statement.SUCCESS_NO_INFO;
+                    for (int i = 0; i < chunkSize; i ++) {
+                        results.add(result);
+                    }
+                    if (keys != null) {
+                        readKeys(statement, chunkSize, keys);
+                    }
+                }
+            } finally {
+                statement.close();
+            }
+        }
+        if (offset == rows.size()) {
+            return;
+        }
+        final PreparedStatement statement = prepare(connection, plan.getSql(), keys != null);
+        try {
+            if (keys != null) {
+                //not every driver hands back the keys of a whole batch, so rows waiting on their keys go one by one
+                for (; offset < rows.size(); offset ++) {
+                    plan.bind(statement, rows.get(offset));
+                    results.add(statement.executeUpdate());
+                    readKeys(statement, 1, keys);
+                }
+            } else {
+                for (int i = offset; i < rows.size(); i ++) {
+                    plan.bind(statement, rows.get(i));
+                    statement.addBatch();
+                }
+                for (int result : statement.executeBatch()) {
+                    results.add(result);
+                }
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, boolean generatedKeys) throws SQLException {
+        if (generatedKeys) {
+            return connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+        }
+        return connection.prepareStatement(sql);
+    }
+
+    private void readKeys(PreparedStatement statement, int rows, List<Serializable> keys) throws SQLException {
+        final ResultSet generatedKeys = statement.getGeneratedKeys();
+        try {
+            for (int i = 0; i < rows; i ++) {
+                if (!generatedKeys.next()) {
+                    throw new SQLException("Expected " + rows + " generated key(s) but only received " + i);
+                }
+                keys.add(dialect.retrieveKey(generatedKeys));
+            }
+        } finally {
+            generatedKeys.close();
+        }
+    }
+
+}
@@ -0,0 +1,254 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class keeps the prepared statements of a single connection that are currently not in use, so
+ * that they can be handed out again when the same SQL is prepared with the same flags. Statements are
+ * checked out of the cache while in use, which means that the same statement is never shared between
+ * two open operations. The least recently used statements are closed once the capacity is exceeded.
+ *
+ * <p>Statements are reset as they are checked in, so that nothing set by one borrower carries over to the
+ * next. Besides their parameters and batches, this puts back the fetch size, maximum row count and query
+ * timeout they had when they were first prepared.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 10:39)
+ */
+class PreparedStatementCache {
+
+    private static final Log log = LogFactory.getLog(PreparedStatementCache.class);
+    private final Map<Key, PreparedStatement> idle;
+    private final Map<PreparedStatement, Defaults> defaults = new IdentityHashMap<PreparedStatement, Defaults>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    PreparedStatementCache(final int capacity) {
+        this.idle = new LinkedHashMap<Key, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, PreparedStatement> eldest) {
+                if (size() > capacity) {
+                    evictions.incrementAndGet();
+                    discard(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private void discard(PreparedStatement statement) {
+        defaults.remove(statement);
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            log.warn("Failed to close cached statement", e);
+        }
+    }
+
+    /**
+     * Records the settings a newly prepared statement has been given by the driver, so that they can be
+     * restored whenever the statement is checked in
+     * @param statement    the statement
+     * @throws SQLException if the settings cannot be read
+     */
+    synchronized void register(PreparedStatement statement) throws SQLException {
+        defaults.put(statement, new Defaults(statement.getFetchSize(), statement.getMaxRows(), statement.getQueryTimeout()));
+    }
+
+    /**
+     * Takes an idle statement out of the cache
+     * @param key    the statement key
+     * @return the statement or {@code null} if no idle statement is available for the key
+     */
+    synchronized PreparedStatement checkOut(Key key) {
+        final PreparedStatement statement = idle.remove(key);
+        if (statement == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return statement;
+    }
+
+    /**
+     * Returns a statement that is no longer in use to the cache. If the statement cannot be reset, or if
+     * another statement with the same key is already idle, the statement is closed instead. Statements
+     * that were never {@link #register(PreparedStatement) registered} are reset to the JDBC defaults.
+     * @param key          the statement key
+     * @param statement    the actual statement
+     */
+    synchronized void checkIn(Key key, PreparedStatement statement) {
+        if (idle.containsKey(key)) {
+            discard(statement);
+            return;
+        }
+        final Defaults defaults = this.defaults.containsKey(statement) ? this.defaults.get(statement) : Defaults.JDBC;
+        try {
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.clearWarnings();
+            statement.setFetchSize(defaults.getFetchSize());
+            statement.setMaxRows(defaults.getMaxRows());
+            statement.setQueryTimeout(defaults.getQueryTimeout());
+        } catch (SQLException e) {
+            discard(statement);
+            return;
+        }
+        idle.put(key, statement);
+    }
+
+    /**
+     * Closes all idle statements
+     */
+    synchronized void close() {
+        final List<PreparedStatement> statements = new ArrayList<PreparedStatement>(idle.values());
+        idle.clear();
+        for (PreparedStatement statement : statements) {
+            discard(statement);
+        }
+        //statements still checked out are closed along with the connection
+        defaults.clear();
+    }
+
+    synchronized int size() {
+        return idle.size();
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * The settings of a statement that are reset whenever it is checked in
+     */
+    private static class Defaults {
+
+        private static final Defaults JDBC = new Defaults(0, 0, 0);
+        private final int fetchSize;
+        private final int maxRows;
+        private final int queryTimeout;
+
+        private Defaults(int fetchSize, int maxRows, int queryTimeout) {
+            this.fetchSize = fetchSize;
+            this.maxRows = maxRows;
+            this.queryTimeout = queryTimeout;
+        }
+
+        private int getFetchSize() {
+            return fetchSize;
+        }
+
+        private int getMaxRows() {
+            return maxRows;
+        }
+
+        private int getQueryTimeout() {
+            return queryTimeout;
+        }
+
+    }
+
+    /**
+     * The key to a cached statement, which consists of the final SQL and all the flags with which the
+     * statement was prepared
+     */
+    static class Key {
+
+        private final String sql;
+        private final int autoGeneratedKeys;
+        private final int resultSetType;
+        private final int resultSetConcurrency;
+        private final int hashCode;
+
+        Key(String sql, int autoGeneratedKeys, int resultSetType, int resultSetConcurrency) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+            this.resultSetType = resultSetType;
+            this.resultSetConcurrency = resultSetConcurrency;
+            int hash = sql.hashCode();
+            hash = 31 * hash + autoGeneratedKeys;
+            hash = 31 * hash + resultSetType;
+            hash = 31 * hash + resultSetConcurrency;
+            this.hashCode = hash;
+        }
+
+        String getSql() {
+            return sql;
+        }
+
+        int getAutoGeneratedKeys() {
+            return autoGeneratedKeys;
+        }
+
+        int getResultSetType() {
+            return resultSetType;
+        }
+
+        int getResultSetConcurrency() {
+            return resultSetConcurrency;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key that = (Key) o;
+            return autoGeneratedKeys == that.autoGeneratedKeys && resultSetType == that.resultSetType
+                    && resultSetConcurrency == that.resultSetConcurrency && sql.equals(that.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+    }
+
+}
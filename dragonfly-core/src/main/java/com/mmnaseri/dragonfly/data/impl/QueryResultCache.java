@@ -0,0 +1,214 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.metadata.CacheMetadata;
+import com.mmnaseri.dragonfly.metadata.ColumnMetadata;
+import com.mmnaseri.dragonfly.metadata.TableMetadata;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.regex.Pattern;
+
+/**
+ * This is the cache for the results of queries, shared by all data access instances working with the
+ * same session. Each query whose results are cached gets its own {@link CacheRegion region}, holding
+ * the results of each distinct {@link QueryResultKey execution} of the query. Entity results are kept
+ * as the list of the primary keys of the entities, while untyped results are kept as the rows read.
+ *
+ * <p>Since a query might match any row of its table, all the cached results for an entity type are
+ * dropped whenever any entity of that type is modified. Queries reaching into the tables of other entities
+ * are found by looking for the names of the known tables in their SQL, and their results are dropped
+ * whenever any of those entities are modified as well.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:08)
+ */
+public class QueryResultCache {
+
+    private final ConcurrentMap<Class<?>, ConcurrentMap<String, CacheRegion<QueryResultKey, List<Object>>>> regions = new ConcurrentHashMap<Class<?>, ConcurrentMap<String, CacheRegion<QueryResultKey, List<Object>>>>();
+    private final ConcurrentMap<Class<?>, Set<CacheRegion<QueryResultKey, List<Object>>>> dependents = new ConcurrentHashMap<Class<?>, Set<CacheRegion<QueryResultKey, List<Object>>>>();
+
+    /**
+     * Returns the region holding the results of the given query
+     * @param entityType       the entity type for which the query is defined
+     * @param queryName        the name of the query
+     * @param cacheMetadata    the cache settings for the query
+     * @return the region
+     */
+    public CacheRegion<QueryResultKey, List<Object>> getRegion(Class<?> entityType, String queryName, CacheMetadata cacheMetadata) {
+        return getRegion(entityType, queryName, cacheMetadata, null, Collections.<TableMetadata<?>>emptyList());
+    }
+
+    /**
+     * Returns the region holding the results of the given query, making sure that it is invalidated whenever
+     * the entities stored in any of the tables read by the query are modified
+     * @param entityType       the entity type for which the query is defined
+     * @param queryName        the name of the query
+     * @param cacheMetadata    the cache settings for the query
+     * @param sql              the SQL of the query
+     * @param tables           all known tables
+     * @return the region
+     */
+    public CacheRegion<QueryResultKey, List<Object>> getRegion(Class<?> entityType, String queryName, CacheMetadata cacheMetadata, String sql, Collection<TableMetadata<?>> tables) {
+        ConcurrentMap<String, CacheRegion<QueryResultKey, List<Object>>> queries = regions.get(entityType);
+        if (queries == null) {
+            regions.putIfAbsent(entityType, new ConcurrentHashMap<String, CacheRegion<QueryResultKey, List<Object>>>());
+            queries = regions.get(entityType);
+        }
+        final CacheRegion<QueryResultKey, List<Object>> region = queries.get(queryName);
+        if (region != null) {
+            return region;
+        }
+        final CacheRegion<QueryResultKey, List<Object>> created = new CacheRegion<QueryResultKey, List<Object>>(entityType.getCanonicalName() + "." + queryName, cacheMetadata);
+        final CacheRegion<QueryResultKey, List<Object>> existing = queries.putIfAbsent(queryName, created);
+        if (existing != null) {
+            return existing;
+        }
+        for (Class<?> touchedType : getTouchedEntityTypes(sql, tables)) {
+            if (touchedType.equals(entityType)) {
+                continue;
+            }
+            Set<CacheRegion<QueryResultKey, List<Object>>> touchingRegions = dependents.get(touchedType);
+            if (touchingRegions == null) {
+                dependents.putIfAbsent(touchedType, new CopyOnWriteArraySet<CacheRegion<QueryResultKey, List<Object>>>());
+                touchingRegions = dependents.get(touchedType);
+            }
+            touchingRegions.add(created);
+        }
+        return created;
+    }
+
+    /**
+     * Finds the entity types whose tables are mentioned in the given SQL. Mentions of the middle tables of
+     * many-to-many relations stand for the entity types on both sides of the relation.
+     * @param sql       the SQL
+     * @param tables    all known tables
+     * @return the entity types
+     */
+    static Set<Class<?>> getTouchedEntityTypes(String sql, Collection<TableMetadata<?>> tables) {
+        final Set<Class<?>> types = new HashSet<Class<?>>();
+        if (sql == null) {
+            return types;
+        }
+        for (TableMetadata<?> table : tables) {
+            if (!Pattern.compile("(^|[^\\w$])" + Pattern.quote(table.getName()) + "($|[^\\w$])", Pattern.CASE_INSENSITIVE).matcher(sql).find()) {
+                continue;
+            }
+            if (ManyToManyMiddleEntity.class.equals(table.getEntityType())) {
+                for (ColumnMetadata column : table.getColumns()) {
+                    if (column.getForeignReference() != null) {
+                        types.add(column.getForeignReference().getTable().getEntityType());
+                    }
+                }
+            } else {
+                types.add(table.getEntityType());
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Drops the cached results of all queries defined for the given entity type, and of all queries reading
+     * from its table
+     * @param entityType    the entity type
+     */
+    public void invalidate(Class<?> entityType) {
+        final Set<CacheRegion<QueryResultKey, List<Object>>> touchingRegions = dependents.get(entityType);
+        if (touchingRegions != null) {
+            for (CacheRegion<QueryResultKey, List<Object>> region : touchingRegions) {
+                region.invalidate();
+            }
+        }
+        final ConcurrentMap<String, CacheRegion<QueryResultKey, List<Object>>> queries = regions.get(entityType);
+        if (queries == null) {
+            return;
+        }
+        for (CacheRegion<QueryResultKey, List<Object>> region : queries.values()) {
+            region.invalidate();
+        }
+    }
+
+    /**
+     * Drops all cached results
+     */
+    public void invalidate() {
+        for (Class<?> entityType : regions.keySet()) {
+            invalidate(entityType);
+        }
+    }
+
+    /**
+     * @return all regions created so far
+     */
+    public Collection<CacheRegion<QueryResultKey, List<Object>>> getRegions() {
+        final List<CacheRegion<QueryResultKey, List<Object>>> result = new ArrayList<CacheRegion<QueryResultKey, List<Object>>>();
+        for (ConcurrentMap<String, CacheRegion<QueryResultKey, List<Object>>> queries : regions.values()) {
+            result.addAll(queries.values());
+        }
+        return Collections.unmodifiableCollection(result);
+    }
+
+    /**
+     * @return the total number of query executions answered by the cache
+     */
+    public long getHits() {
+        long hits = 0;
+        for (CacheRegion<QueryResultKey, List<Object>> region : getRegions()) {
+            hits += region.getHits();
+        }
+        return hits;
+    }
+
+    /**
+     * @return the total number of query executions that had to go to the database
+     */
+    public long getMisses() {
+        long misses = 0;
+        for (CacheRegion<QueryResultKey, List<Object>> region : getRegions()) {
+            misses += region.getMisses();
+        }
+        return misses;
+    }
+
+    /**
+     * @return the total number of results evicted to make room for others
+     */
+    public long getEvictions() {
+        long evictions = 0;
+        for (CacheRegion<QueryResultKey, List<Object>> region : getRegions()) {
+            evictions += region.getEvictions();
+        }
+        return evictions;
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.metadata.PagedResultOrderMetadata;
+import com.mmnaseri.dragonfly.metadata.ResultOrderMetadata;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class identifies one execution of a query for the purpose of caching its results: the values
+ * bound to the query, along with the ordering and paging applied to it, and whether the results are
+ * entities or raw rows.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:08)
+ */
+public class QueryResultKey {
+
+    private final Map<String, Object> values;
+    private final String ordering;
+    private final boolean typed;
+    private final int hashCode;
+
+    public QueryResultKey(Map<String, Object> values, ResultOrderMetadata ordering, boolean typed) {
+        this.values = new HashMap<String, Object>(values);
+        if (ordering == null) {
+            this.ordering = "";
+        } else if (ordering instanceof PagedResultOrderMetadata) {
+            final PagedResultOrderMetadata paged = (PagedResultOrderMetadata) ordering;
+            this.ordering = ordering + "#" + paged.getPageSize() + ":" + paged.getPageNumber();
+        } else {
+            this.ordering = ordering.toString();
+        }
+        this.typed = typed;
+        this.hashCode = 31 * (31 * this.values.hashCode() + this.ordering.hashCode()) + (typed ? 1 : 0);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof QueryResultKey)) {
+            return false;
+        }
+        final QueryResultKey that = (QueryResultKey) o;
+        return typed == that.typed && ordering.equals(that.ordering) && values.equals(that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return values + (ordering.isEmpty() ? "" : " ORDER BY " + ordering);
+    }
+
+}
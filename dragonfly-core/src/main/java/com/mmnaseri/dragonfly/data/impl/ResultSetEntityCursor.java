@@ -0,0 +1,152 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.couteau.basics.api.Transformer;
+import com.mmnaseri.dragonfly.data.EntityCursor;
+import com.mmnaseri.dragonfly.error.UnsuccessfulOperationError;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+
+/**
+ * This cursor reads entities off of an open result set, one row at a time. It owns the result set,
+ * the statement that produced it and the connection the statement was prepared through, and releases
+ * all three as soon as the last row has been read or it is closed explicitly.
+ *
+ * <p>A cursor is meant to be read by a single thread, but it may be closed from any thread, e.g. to
+ * cancel a long-running export; the reading thread will then see the cursor as exhausted.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 10:46)
+ */
+class ResultSetEntityCursor<E> implements EntityCursor<E> {
+
+    private static final Log log = LogFactory.getLog(EntityCursor.class);
+    private final Connection connection;
+    private final PreparedStatement preparedStatement;
+    private final ResultSet resultSet;
+    private final Transformer<ResultSet, E> rowReader;
+    private boolean advanced;
+    private boolean hasNext;
+    private volatile boolean closed;
+
+    ResultSetEntityCursor(Connection connection, PreparedStatement preparedStatement, ResultSet resultSet, Transformer<ResultSet, E> rowReader) {
+        this.connection = connection;
+        this.preparedStatement = preparedStatement;
+        this.resultSet = resultSet;
+        this.rowReader = rowReader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (!advanced) {
+            try {
+                hasNext = resultSet.next();
+            } catch (SQLException e) {
+                if (closed) {
+                    //the cursor was closed by another thread while we were reading
+                    return false;
+                }
+                close();
+                throw new UnsuccessfulOperationError("Failed to read the next row from the database", e);
+            }
+            advanced = true;
+            if (!hasNext) {
+                close();
+            }
+        }
+        return hasNext;
+    }
+
+    @Override
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        advanced = false;
+        try {
+            return rowReader.map(resultSet);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Cursors are read-only");
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            resultSet.close();
+        } catch (SQLException e) {
+            log.warn("Failed to close the result set", e);
+        }
+        try {
+            closeStatement(preparedStatement);
+        } catch (SQLException e) {
+            log.warn("Failed to close the statement", e);
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new UnsuccessfulOperationError("Failed to release the connection held by the cursor", e);
+        }
+    }
+
+    /**
+     * Closes a statement that was opened for streaming, reverting it to the driver's default fetch size first,
+     * since statements may be reused for other queries
+     * @param preparedStatement    the statement
+     * @throws SQLException if the statement cannot be closed
+     */
+    static void closeStatement(PreparedStatement preparedStatement) throws SQLException {
+        try {
+            preparedStatement.setFetchSize(0);
+        } finally {
+            preparedStatement.close();
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+}
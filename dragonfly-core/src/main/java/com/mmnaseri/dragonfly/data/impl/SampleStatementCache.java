@@ -0,0 +1,181 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.dialect.DatabaseDialect;
+import com.mmnaseri.dragonfly.metadata.ColumnMetadata;
+import com.mmnaseri.dragonfly.metadata.TableMetadata;
+import com.mmnaseri.dragonfly.statement.Statement;
+import com.mmnaseri.dragonfly.statement.impl.FreemarkerSecondPassStatementBuilder;
+import com.mmnaseri.dragonfly.tools.BoundedCache;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This cache holds the rendered forms of the query-by-example statements (find, count and delete by sample).
+ * The second pass of these statements only depends on which of the entity's columns have been given a value
+ * in the sample, so each statement is rendered once per distinct set of populated columns, and the result is
+ * reused for every sample that populates the same columns.
+ *
+ * <p>Entries are keyed by the unrendered statement, which already stands for the entity type, the manipulation
+ * and the ordering of the results, along with a bit mask of the populated columns. Since the number of possible
+ * combinations grows exponentially with the number of columns, the cache is bounded and evicts the least
+ * recently used shapes.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:20)
+ */
+public class SampleStatementCache {
+
+    /**
+     * The number of rendered statements held by default
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+    private final BoundedCache<StatementShape, Statement> statements;
+    private final ConcurrentMap<Class<?>, String[]> keys = new ConcurrentHashMap<Class<?>, String[]>();
+
+    public SampleStatementCache(int capacity) {
+        this.statements = new BoundedCache<StatementShape, Statement>(capacity);
+    }
+
+    /**
+     * Returns the rendered form of the given statement for the columns populated in the values
+     * @param statement    the query-by-example statement
+     * @param dialect      the database dialect
+     * @param values       the values, with the properties of the sample prefixed by {@code value.}
+     * @return the rendered statement, or the statement itself if it does not need a second pass
+     */
+    public Statement getStatement(Statement statement, DatabaseDialect dialect, Map<String, Object> values) {
+        final TableMetadata<?> tableMetadata = statement.getTableMetadata();
+        if (!statement.isDynamic() || tableMetadata == null || values == null) {
+            return statement;
+        }
+        final StatementShape shape = new StatementShape(statement, getMask(tableMetadata, values));
+        final Statement cached = statements.get(shape);
+        if (cached != null) {
+            return cached;
+        }
+        final Statement rendered = new FreemarkerSecondPassStatementBuilder(statement, dialect, values).getStatement(tableMetadata);
+        if (rendered == null) {
+            return statement;
+        }
+        return statements.putIfAbsent(shape, rendered);
+    }
+
+    /**
+     * Sets one bit for each column of the table, in the order in which the columns are listed, which is
+     * on whenever the value for that column has been provided; this mirrors the {@code isSet} function
+     * available to the statement templates.
+     */
+    private long[] getMask(TableMetadata<?> tableMetadata, Map<String, Object> values) {
+        final String[] keys = getKeys(tableMetadata);
+        final long[] mask = new long[(keys.length + 63) / 64];
+        for (int i = 0; i < keys.length; i++) {
+            if (values.containsKey(keys[i])) {
+                mask[i / 64] |= 1L << (i % 64);
+            }
+        }
+        return mask;
+    }
+
+    private String[] getKeys(TableMetadata<?> tableMetadata) {
+        final String[] cached = keys.get(tableMetadata.getEntityType());
+        if (cached != null) {
+            return cached;
+        }
+        final Collection<ColumnMetadata> columns = tableMetadata.getColumns();
+        final String[] result = new String[columns.size()];
+        int index = 0;
+        for (ColumnMetadata column : columns) {
+            result[index ++] = "value." + column.getPropertyName();
+        }
+        keys.putIfAbsent(tableMetadata.getEntityType(), result);
+        return result;
+    }
+
+    /**
+     * @return the number of rendered statements currently held in the cache
+     */
+    public int size() {
+        return statements.size();
+    }
+
+    /**
+     * @return the number of times a rendered statement was found in the cache
+     */
+    public long getHits() {
+        return statements.getHits();
+    }
+
+    /**
+     * @return the number of times a statement had to be rendered
+     */
+    public long getMisses() {
+        return statements.getMisses();
+    }
+
+    /**
+     * @return the number of rendered statements evicted to make room for others
+     */
+    public long getEvictions() {
+        return statements.getEvictions();
+    }
+
+    private static class StatementShape {
+
+        private final Statement statement;
+        private final long[] mask;
+        private final int hashCode;
+
+        private StatementShape(Statement statement, long[] mask) {
+            this.statement = statement;
+            this.mask = mask;
+            this.hashCode = 31 * System.identityHashCode(statement) + Arrays.hashCode(mask);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof StatementShape)) {
+                return false;
+            }
+            final StatementShape that = (StatementShape) o;
+            return statement == that.statement && Arrays.equals(mask, that.mask);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.metadata.TableMetadata;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This is the second-level entity cache shared by all data access instances working with the same
+ * session. It is opt-in per entity, through {@link TableMetadata#getCacheMetadata()}, and keeps a
+ * separate {@link CacheRegion region} for each cached entity type, holding the column values read
+ * for each entity keyed by its primary key.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:05)
+ */
+public class SecondLevelCache {
+
+    private final ConcurrentMap<Class<?>, CacheRegion<Object, Map<String, Object>>> regions = new ConcurrentHashMap<Class<?>, CacheRegion<Object, Map<String, Object>>>();
+
+    /**
+     * Returns the region holding the entities described by the given table metadata
+     * @param tableMetadata    the table metadata
+     * @return the region, or {@code null} if the entity is not cached
+     */
+    public CacheRegion<Object, Map<String, Object>> getRegion(TableMetadata<?> tableMetadata) {
+        final CacheRegion<Object, Map<String, Object>> region = regions.get(tableMetadata.getEntityType());
+        if (region != null) {
+            return region;
+        }
+        if (tableMetadata.getCacheMetadata() == null || !tableMetadata.hasPrimaryKey()) {
+            return null;
+        }
+        final CacheRegion<Object, Map<String, Object>> created = new CacheRegion<Object, Map<String, Object>>(tableMetadata.getEntityType().getCanonicalName(), tableMetadata.getCacheMetadata());
+        final CacheRegion<Object, Map<String, Object>> existing = regions.putIfAbsent(tableMetadata.getEntityType(), created);
+        return existing == null ? created : existing;
+    }
+
+    /**
+     * Removes the cached values of a single entity
+     * @param entityType    the type of the entity
+     * @param key           the primary key of the entity
+     */
+    public void invalidate(Class<?> entityType, Object key) {
+        final CacheRegion<Object, Map<String, Object>> region = regions.get(entityType);
+        if (region != null) {
+            region.invalidate(key);
+        }
+    }
+
+    /**
+     * Removes the cached values of all entities of the given type
+     * @param entityType    the type of the entities
+     */
+    public void invalidate(Class<?> entityType) {
+        final CacheRegion<Object, Map<String, Object>> region = regions.get(entityType);
+        if (region != null) {
+            region.invalidate();
+        }
+    }
+
+    /**
+     * Empties all regions of the cache
+     */
+    public void invalidate() {
+        for (CacheRegion<Object, Map<String, Object>> region : regions.values()) {
+            region.invalidate();
+        }
+    }
+
+    /**
+     * @return all regions created so far
+     */
+    public Collection<CacheRegion<Object, Map<String, Object>>> getRegions() {
+        return Collections.unmodifiableCollection(new ArrayList<CacheRegion<Object, Map<String, Object>>>(regions.values()));
+    }
+
+    /**
+     * @return the total number of lookups answered by the cache
+     */
+    public long getHits() {
+        long hits = 0;
+        for (CacheRegion<Object, Map<String, Object>> region : regions.values()) {
+            hits += region.getHits();
+        }
+        return hits;
+    }
+
+    /**
+     * @return the total number of lookups that had to go to the database
+     */
+    public long getMisses() {
+        long misses = 0;
+        for (CacheRegion<Object, Map<String, Object>> region : regions.values()) {
+            misses += region.getMisses();
+        }
+        return misses;
+    }
+
+    /**
+     * @return the total number of entities evicted to make room for others
+     */
+    public long getEvictions() {
+        long evictions = 0;
+        for (CacheRegion<Object, Map<String, Object>> region : regions.values()) {
+            evictions += region.getEvictions();
+        }
+        return evictions;
+    }
+
+}
@@ -27,6 +27,9 @@ import com.mmnaseri.couteau.enhancer.api.MethodDescriptor;
 import com.mmnaseri.couteau.enhancer.impl.ImmutableMethodDescriptor;
 import com.mmnaseri.dragonfly.data.DataAccess;
 import com.mmnaseri.dragonfly.data.DataAccessSession;
+import com.mmnaseri.dragonfly.data.EntityCursor;
+import com.mmnaseri.dragonfly.data.Page;
+import com.mmnaseri.dragonfly.data.PageToken;
 import com.mmnaseri.dragonfly.data.PartialDataAccess;
 import com.mmnaseri.dragonfly.entity.EntityContext;
 import com.mmnaseri.dragonfly.entity.EntityHandlerContext;
@@ -94,6 +97,13 @@ public class SecuredDataAccess extends DefaultDataAccess implements PartialDataA
         methodDescriptors.put(36, new ImmutableMethodDescriptor(DefaultDataAccess.class, Object.class, "update", new Class[]{Object.class}, NO_ANNOTATIONS));
         methodDescriptors.put(37, new ImmutableMethodDescriptor(DefaultDataAccess.class, List.class, "findAll", new Class[]{Class.class, String.class, int.class, int.class}, NO_ANNOTATIONS));
         methodDescriptors.put(38, new ImmutableMethodDescriptor(DefaultDataAccess.class, List.class, "findAll", new Class[]{Class.class, int.class, int.class}, NO_ANNOTATIONS));
+        methodDescriptors.put(39, new ImmutableMethodDescriptor(DefaultDataAccess.class, EntityCursor.class, "iterate", new Class[]{Object.class}, NO_ANNOTATIONS));
+        methodDescriptors.put(40, new ImmutableMethodDescriptor(DefaultDataAccess.class, EntityCursor.class, "iterate", new Class[]{Object.class, String.class}, NO_ANNOTATIONS));
+        methodDescriptors.put(41, new ImmutableMethodDescriptor(DefaultDataAccess.class, EntityCursor.class, "iterateAll", new Class[]{Class.class}, NO_ANNOTATIONS));
+        methodDescriptors.put(42, new ImmutableMethodDescriptor(DefaultDataAccess.class, EntityCursor.class, "iterateAll", new Class[]{Class.class, String.class}, NO_ANNOTATIONS));
+        methodDescriptors.put(43, new ImmutableMethodDescriptor(DefaultDataAccess.class, EntityCursor.class, "iterateQuery", new Class[]{Class.class, String.class, Map.class}, NO_ANNOTATIONS));
+        methodDescriptors.put(44, new ImmutableMethodDescriptor(DefaultDataAccess.class, Page.class, "findPage", new Class[]{Object.class, String.class, int.class, PageToken.class}, NO_ANNOTATIONS));
+        methodDescriptors.put(45, new ImmutableMethodDescriptor(DefaultDataAccess.class, Page.class, "findAllPage", new Class[]{Class.class, String.class, int.class, PageToken.class}, NO_ANNOTATIONS));
     }
 
     private final DataSecurityManager securityManager;
@@ -328,4 +338,47 @@ public class SecuredDataAccess extends DefaultDataAccess implements PartialDataA
         securityManager.checkAccess(new MethodSubject(methodDescriptors.get(38)));
         return super.findAll(entityType, pageSize, pageNumber);
     }
-}
\ No newline at end of file
+
+    @Override
+    public <E> EntityCursor<E> iterate(E sample) {
+        securityManager.checkAccess(new MethodSubject(methodDescriptors.get(39)));
+        return super.iterate(sample);
+    }
+
+    @Override
+    public <E> EntityCursor<E> iterate(E sample, String order) {
+        securityManager.checkAccess(new MethodSubject(methodDescriptors.get(40)));
+        return super.iterate(sample, order);
+    }
+
+    @Override
+    public <E> EntityCursor<E> iterateAll(Class<E> entityType) {
+        securityManager.checkAccess(new MethodSubject(methodDescriptors.get(41)));
+        return super.iterateAll(entityType);
+    }
+
+    @Override
+    public <E> EntityCursor<E> iterateAll(Class<E> entityType, String order) {
+        securityManager.checkAccess(new MethodSubject(methodDescriptors.get(42)));
+        return super.iterateAll(entityType, order);
+    }
+
+    @Override
+    public <E> EntityCursor<E> iterateQuery(Class<E> entityType, String queryName, Map<String, Object> values) {
+        securityManager.checkAccess(new MethodSubject(methodDescriptors.get(43)));
+        return super.iterateQuery(entityType, queryName, values);
+    }
+
+    @Override
+    public <E> Page<E> findPage(E sample, String order, int pageSize, PageToken pageToken) {
+        securityManager.checkAccess(new MethodSubject(methodDescriptors.get(44)));
+        return super.findPage(sample, order, pageSize, pageToken);
+    }
+
+    @Override
+    public <E> Page<E> findAllPage(Class<E> entityType, String order, int pageSize, PageToken pageToken) {
+        securityManager.checkAccess(new MethodSubject(methodDescriptors.get(45)));
+        return super.findAllPage(entityType, order, pageSize, pageToken);
+    }
+
+}
@@ -50,6 +50,18 @@ public class SmartDataCallback<E extends DataOperation> implements DataCallback<
         return callback.execute(operation);
     }
 
+    /**
+     * @param operationType    the type of the operation
+     * @return {@code true} if the callback can be applied to operations of the given type at all
+     */
+    public boolean supports(Class<?> operationType) {
+        return this.operationType.isAssignableFrom(operationType);
+    }
+
+    public DataCallback<E> getCallback() {
+        return callback;
+    }
+
     @Override
     public boolean accepts(E dataOperation) {
         return operationType.isAssignableFrom(dataOperation.getClass()) && callback.accepts(dataOperation);
@@ -42,6 +42,10 @@ public abstract class TypedDataCallback<O extends DataOperation> implements Data
         this.entityType = entityType;
     }
 
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
     @Override
     public boolean accepts(O item) {
         return item instanceof TypedDataOperation && entityType.isAssignableFrom(((TypedDataOperation) item).getEntityType())
@@ -27,6 +27,7 @@ import com.mmnaseri.dragonfly.data.DataAccess;
 import com.mmnaseri.dragonfly.data.DataCallback;
 import com.mmnaseri.dragonfly.data.DataOperation;
 import com.mmnaseri.dragonfly.data.OperationType;
+import com.mmnaseri.dragonfly.data.impl.CallbackChain;
 import com.mmnaseri.dragonfly.error.UnsuccessfulOperationError;
 
 /**
@@ -41,6 +42,8 @@ public abstract class AbstractDataOperation implements DataOperation {
     private final OperationType operationType;
     private final DataAccess dataAccess;
     private DataCallback callback;
+    private CallbackChain chain;
+    private int position;
 
     public AbstractDataOperation(DataAccess dataAccess, OperationType operationType, DataCallback callback) {
         this.dataAccess = dataAccess;
@@ -58,8 +61,28 @@ public abstract class AbstractDataOperation implements DataOperation {
         throw new UnsuccessfulOperationError("The operation was interrupted");
     }
 
+    /**
+     * Carries out the operation, first passing it through each callback in the chain that accepts it
+     * @param chain    the chain of callbacks
+     * @return the result of the operation
+     */
+    public Object execute(CallbackChain chain) {
+        this.chain = chain;
+        this.position = 0;
+        return proceed();
+    }
+
     @Override
     public Object proceed() {
+        if (chain != null) {
+            while (position < chain.size()) {
+                final int index = position ++;
+                if (chain.accepts(index, this)) {
+                    //noinspection unchecked
+                    return chain.get(index).execute(this);
+                }
+            }
+        }
         //noinspection unchecked
         return callback.execute(this);
     }
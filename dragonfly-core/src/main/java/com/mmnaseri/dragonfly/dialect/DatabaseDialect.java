@@ -138,4 +138,16 @@ public interface DatabaseDialect extends Filter<DatabaseMetaData> {
 
     boolean isGenerationTypeSupported(ValueGenerationType generationType);
 
+    /**
+     * @return {@code true} if the database accepts {@code INSERT} statements with more than one
+     * row of values, and reports the keys generated for all of those rows, in order
+     */
+    boolean isMultiRowInsertSupported();
+
+    /**
+     * @return the fetch size which makes the driver stream the rows of a forward-only, read-only result
+     * set instead of reading all of them into memory. Zero leaves the decision to the driver.
+     */
+    int getStreamingFetchSize();
+
 }
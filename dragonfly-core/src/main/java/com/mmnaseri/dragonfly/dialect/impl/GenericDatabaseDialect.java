@@ -47,6 +47,7 @@ import java.util.Map;
  */
 public abstract class GenericDatabaseDialect implements DatabaseDialect {
 
+    public static final int DEFAULT_STREAMING_FETCH_SIZE = 100;
     private final DefaultStatementBuilderContext statementBuilderContext;
 
     public GenericDatabaseDialect() {
@@ -65,7 +66,9 @@ public abstract class GenericDatabaseDialect implements DatabaseDialect {
         statementBuilderContext.register(Statements.Manipulation.DELETE_LIKE, new FreemarkerStatementBuilder(configuration, "deleteBySample.sql.ftl", this));
         statementBuilderContext.register(Statements.Manipulation.DELETE_DEPENDENCIES, new FreemarkerStatementBuilder(configuration, "deleteDependencies.sql.ftl", this));
         statementBuilderContext.register(Statements.Manipulation.DELETE_DEPENDENTS, new FreemarkerStatementBuilder(configuration, "deleteDependents.sql.ftl", this));
+        statementBuilderContext.register(Statements.Manipulation.DELETE_CASCADE, new FreemarkerStatementBuilder(configuration, "deleteCascade.sql.ftl", this));
         statementBuilderContext.register(Statements.Manipulation.FIND_ONE, new FreemarkerStatementBuilder(configuration, "findByKey.sql.ftl", this));
+        statementBuilderContext.register(Statements.Manipulation.FIND_IN, new FreemarkerStatementBuilder(configuration, "findIn.sql.ftl", this));
         statementBuilderContext.register(Statements.Manipulation.COUNT_ALL, new FreemarkerStatementBuilder(configuration, "countAll.sql.ftl", this));
         statementBuilderContext.register(Statements.Manipulation.COUNT_ONE, new FreemarkerStatementBuilder(configuration, "countByKey.sql.ftl", this));
         statementBuilderContext.register(Statements.Manipulation.COUNT_LIKE, new FreemarkerStatementBuilder(configuration, "countBySample.sql.ftl", this));
@@ -155,4 +158,14 @@ public abstract class GenericDatabaseDialect implements DatabaseDialect {
         return Collections.emptyMap();
     }
 
+    @Override
+    public boolean isMultiRowInsertSupported() {
+        return false;
+    }
+
+    @Override
+    public int getStreamingFetchSize() {
+        return DEFAULT_STREAMING_FETCH_SIZE;
+    }
+
 }
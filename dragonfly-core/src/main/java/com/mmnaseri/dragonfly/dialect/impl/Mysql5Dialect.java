@@ -75,6 +75,7 @@ public class Mysql5Dialect extends GenericDatabaseDialect {
         ((DefaultStatementBuilderContext) statementBuilderContext).register(Statements.Definition.CREATE_TABLE, new FreemarkerStatementBuilder(configuration, "createTable.sql.ftl", this));
         ((DefaultStatementBuilderContext) statementBuilderContext).register(Statements.Manipulation.FIND_LIKE, new FreemarkerStatementBuilder(configuration, "findBySample.sql.ftl", this));
         ((DefaultStatementBuilderContext) statementBuilderContext).register(Statements.Manipulation.FIND_ALL, new FreemarkerStatementBuilder(configuration, "findAll.sql.ftl", this));
+        ((DefaultStatementBuilderContext) statementBuilderContext).register(Statements.Manipulation.FIND_PAGE, new FreemarkerStatementBuilder(configuration, "findPage.sql.ftl", this));
         this.rowHandler = new DefaultRowHandler();
         log.info("Initializing database dialect " + getClass().getSimpleName() + " for " + getName());
         pagingDecorator = new QueryPagingDecorator() {
@@ -194,6 +195,21 @@ public class Mysql5Dialect extends GenericDatabaseDialect {
         return "com.mysql.jdbc.Driver";
     }
 
+    @Override
+    public boolean isMultiRowInsertSupported() {
+        return true;
+    }
+
+    /**
+     * Connector/J only streams a forward-only, read-only result set one row at a time if the fetch size
+     * is {@link Integer#MIN_VALUE}; any other value makes it read the whole result set into memory, unless
+     * {@code useCursorFetch} has been enabled on the connection.
+     */
+    @Override
+    public int getStreamingFetchSize() {
+        return Integer.MIN_VALUE;
+    }
+
     private synchronized void initializeGenerator(DataAccessSession session, TableMetadata<?> generatorTableMetadata, String valueGenerator) {
         final Connection connection = session.getConnection();
         try {
@@ -31,6 +31,7 @@ import com.mmnaseri.dragonfly.metadata.RelationMetadata;
 import com.mmnaseri.dragonfly.metadata.TableMetadata;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
@@ -120,6 +121,15 @@ public interface EntityHandler<E> {
      */
     void loadEagerRelations(E entity, Map<String, Object> values, EntityInitializationContext initializationContext);
 
+    /**
+     * Loads all eager relations into the entity, except for the given ones
+     * @param entity                   the entity to be loaded
+     * @param values                   the values of the actual data retrieval
+     * @param initializationContext    the initialization context for the entity
+     * @param excluded                 the relations that will be loaded by other means and must be skipped
+     */
+    void loadEagerRelations(E entity, Map<String, Object> values, EntityInitializationContext initializationContext, Collection<RelationMetadata<E, ?>> excluded);
+
     /**
      * Loads the given lazy relation into the entity
      * @param entity               the entity
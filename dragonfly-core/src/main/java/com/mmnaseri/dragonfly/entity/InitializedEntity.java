@@ -24,6 +24,7 @@
 package com.mmnaseri.dragonfly.entity;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This interface allows for the initialization of all data access objects with the given
@@ -54,12 +55,26 @@ public interface InitializedEntity<E> {
      */
     void setOriginalCopy(E originalCopy);
 
+    /**
+     * Sets the original copy of the entity, optionally recording the column properties changed
+     * through the entity's setters from here on
+     * @param originalCopy    the original copy. This will be the reference for future updates.
+     * @param trackChanges    whether changes to the entity should be recorded
+     */
+    void setOriginalCopy(E originalCopy, boolean trackChanges);
+
     /**
      * @return the original copy of the entity, prior to being tampered with throughout the
      * application
      */
     E getOriginalCopy();
 
+    /**
+     * @return the names of the column properties changed through the entity's setters since its
+     * original copy was last set, or {@code null} if changes to the entity are not being tracked
+     */
+    Set<String> getDirtyProperties();
+
     /**
      * Freezes the entity's state. This will prevent auto-loading of lazy-load properties,
      * dirty checking, etc.
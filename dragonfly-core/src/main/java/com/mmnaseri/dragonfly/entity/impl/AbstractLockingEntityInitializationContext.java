@@ -23,6 +23,7 @@
 
 package com.mmnaseri.dragonfly.entity.impl;
 
+import com.mmnaseri.couteau.basics.api.Cache;
 import com.mmnaseri.couteau.basics.api.Filter;
 import com.mmnaseri.couteau.basics.api.impl.CachingDataDispenser;
 import com.mmnaseri.dragonfly.data.DataAccess;
@@ -30,16 +31,24 @@ import com.mmnaseri.dragonfly.entity.EntityInitializationContext;
 import com.mmnaseri.dragonfly.error.ContextLockFailureError;
 
 import java.io.Serializable;
-import java.util.Map;
+import java.util.Collections;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This is an entity initialization context that provides the basics of an entity initialization
  * context with the ability to be locked and unlocked in a nested fashion. It also uses a cache
  * to hold entity instances, using type-key duos as the cache keys.
  *
+ * <p>Associations between cached entities are kept in concurrent sets that are updated in place,
+ * so that entity graphs can be loaded from many threads without contending on a single monitor.</p>
+ *
+ * <p>Lookups of entities that are already in the cache go through a descriptor owned by the calling
+ * thread, which is repointed at the requested type and key, so that the hot path allocates nothing.
+ * Descriptors that end up as keys in the cache are never modified.</p>
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/9/22, 13:04)
  */
@@ -50,12 +59,22 @@ public abstract class AbstractLockingEntityInitializationContext extends Caching
      */
     public static class EntityInstanceDescriptor {
 
-        private final Class<?> entityType;
-        private final Serializable key;
+        private Class<?> entityType;
+        private Serializable key;
+        private int hashCode;
 
         public EntityInstanceDescriptor(Class<?> entityType, Serializable key) {
+            point(entityType, key);
+        }
+
+        private EntityInstanceDescriptor() {
+        }
+
+        private EntityInstanceDescriptor point(Class<?> entityType, Serializable key) {
             this.entityType = entityType;
             this.key = key;
+            this.hashCode = entityType == null ? 0 : 31 * entityType.hashCode() + key.hashCode();
+            return this;
         }
 
         public Class<?> getEntityType() {
@@ -77,23 +96,61 @@ public abstract class AbstractLockingEntityInitializationContext extends Caching
 
         @Override
         public int hashCode() {
-            int result = entityType.hashCode();
-            result = 31 * result + key.hashCode();
-            return result;
+            return hashCode;
         }
     }
 
     private final DataAccess dataAccess;
     private final EntityInitializationContext parent;
-    private final Object lock = new Object();
-    private final Map<EntityInstanceDescriptor, Set<EntityInstanceDescriptor>> associations = new ConcurrentHashMap<EntityInstanceDescriptor, Set<EntityInstanceDescriptor>>();
-    private Integer lockIndex = 0;
+    private final AtomicInteger lockIndex = new AtomicInteger();
+    private final ConcurrentMap<EntityInstanceDescriptor, Set<EntityInstanceDescriptor>> associations = new ConcurrentHashMap<EntityInstanceDescriptor, Set<EntityInstanceDescriptor>>();
+    private final ThreadLocal<EntityInstanceDescriptor> probe = new ThreadLocal<EntityInstanceDescriptor>() {
+        @Override
+        protected EntityInstanceDescriptor initialValue() {
+            return new EntityInstanceDescriptor();
+        }
+    };
 
     public AbstractLockingEntityInitializationContext(DataAccess dataAccess, EntityInitializationContext parent) {
         this.dataAccess = dataAccess;
         this.parent = parent;
     }
 
+    /**
+     * Returns the counter used to keep track of nested locks on this context. Subclasses whose
+     * contents are confined to a single thread should keep one counter per thread, so that loading
+     * entities in one thread does not keep others from invalidating their own contents.
+     * @return the lock counter
+     */
+    protected AtomicInteger getLockIndex() {
+        return lockIndex;
+    }
+
+    /**
+     * Looks the entity up in the cache without producing it if it is missing
+     * @param entityType    the type of the entity
+     * @param key           the key to the entity
+     * @return the cached entity or {@code null}
+     */
+    private Object peek(Class<?> entityType, Serializable key) {
+        final EntityInstanceDescriptor descriptor = probe.get().point(entityType, key);
+        try {
+            final Cache<EntityInstanceDescriptor, Object> cache = getCache();
+            return cache.contains(descriptor) ? cache.read(descriptor) : null;
+        } finally {
+            descriptor.point(null, null);
+        }
+    }
+
+    private boolean isCached(Class<?> entityType, Serializable key) {
+        final EntityInstanceDescriptor descriptor = probe.get().point(entityType, key);
+        try {
+            return contains(descriptor);
+        } finally {
+            descriptor.point(null, null);
+        }
+    }
+
     @Override
     protected Object produce(EntityInstanceDescriptor key) {
         if (parent != null) {
@@ -104,23 +161,21 @@ public abstract class AbstractLockingEntityInitializationContext extends Caching
 
     @Override
     public <E> void delete(Class<E> entityType, Serializable key) {
-        synchronized (lock) {
-            //no one is allowed to steal from the context while it is locked ;-)
-            //this is to protect the context from being invalidated by accident
-            //while it is being populated through the data access interface
-            if (lockIndex > 0) {
-                return;
-            }
+        //no one is allowed to steal from the context while it is locked ;-)
+        //this is to protect the context from being invalidated by accident
+        //while it is being populated through the data access interface
+        if (getLockIndex().get() > 0) {
+            return;
         }
         final EntityInstanceDescriptor descriptor = new EntityInstanceDescriptor(entityType, key);
         if (parent != null && !contains(descriptor)) {
             parent.delete(entityType, key);
             return;
         }
-        if (associations.containsKey(descriptor)) {
-            final Set<EntityInstanceDescriptor> associatedItems = associations.get(descriptor);
+        final Set<EntityInstanceDescriptor> associatedItems = associations.get(descriptor);
+        if (associatedItems != null) {
             for (EntityInstanceDescriptor associatedItem : associatedItems) {
-                disassociate(entityType, key, associatedItem.getEntityType(), associatedItem.getKey());
+                disassociate(descriptor, associatedItem);
                 delete(associatedItem.getEntityType(), associatedItem.getKey());
             }
         }
@@ -152,81 +207,97 @@ public abstract class AbstractLockingEntityInitializationContext extends Caching
 
     @Override
     public <E> E get(Class<E> entityType, Serializable key) {
-        final Object value = read(new EntityInstanceDescriptor(entityType, key));
+        Object value = peek(entityType, key);
+        if (value == null) {
+            value = read(new EntityInstanceDescriptor(entityType, key));
+        }
         return value == null ? null : entityType.cast(value);
     }
 
     @Override
     public <E> E get(Class<E> entityType, Serializable key, Class<?> requestingEntityType, Serializable requesterKey) {
-        if (requestingEntityType != null && requesterKey != null && contains(requestingEntityType, requesterKey)) {
-            associate(entityType, key, requestingEntityType, requesterKey);
+        if (requestingEntityType != null && requesterKey != null
+                && (isCached(requestingEntityType, requesterKey) || (parent != null && parent.contains(requestingEntityType, requesterKey)))) {
+            associate(new EntityInstanceDescriptor(entityType, key), new EntityInstanceDescriptor(requestingEntityType, requesterKey));
+        }
+        Object value = peek(entityType, key);
+        if (value == null) {
+            value = read(new EntityInstanceDescriptor(entityType, key));
         }
-        final Object value = read(new EntityInstanceDescriptor(entityType, key));
         return value == null ? null : entityType.cast(value);
     }
 
-    protected synchronized void associate(Class<?> firstEntity, Serializable firstKey, Class<?> secondEntity, Serializable secondKey) {
+    protected void associate(Class<?> firstEntity, Serializable firstKey, Class<?> secondEntity, Serializable secondKey) {
+        associate(new EntityInstanceDescriptor(firstEntity, firstKey), new EntityInstanceDescriptor(secondEntity, secondKey));
+    }
+
+    protected void disassociate(Class<?> firstEntity, Serializable firstKey, Class<?> secondEntity, Serializable secondKey) {
+        disassociate(new EntityInstanceDescriptor(firstEntity, firstKey), new EntityInstanceDescriptor(secondEntity, secondKey));
+    }
+
+    private void associate(EntityInstanceDescriptor first, EntityInstanceDescriptor second) {
         if (parent != null && parent instanceof AbstractLockingEntityInitializationContext) {
-            ((AbstractLockingEntityInitializationContext) parent).associate(firstEntity, firstKey, secondEntity, secondKey);
+            ((AbstractLockingEntityInitializationContext) parent).associate(first, second);
             return;
         }
-        final EntityInstanceDescriptor firstDescriptor = new EntityInstanceDescriptor(firstEntity, firstKey);
-        final EntityInstanceDescriptor secondDescriptor = new EntityInstanceDescriptor(secondEntity, secondKey);
-        if (firstDescriptor.equals(secondDescriptor)) {
+        if (first.equals(second)) {
             return;
         }
-        final Set<EntityInstanceDescriptor> firstAssociations = associations.containsKey(firstDescriptor) ? associations.get(firstDescriptor) : new CopyOnWriteArraySet<EntityInstanceDescriptor>();
-        final Set<EntityInstanceDescriptor> secondAssociations = associations.containsKey(secondDescriptor) ? associations.get(secondDescriptor) : new CopyOnWriteArraySet<EntityInstanceDescriptor>();
-        firstAssociations.add(secondDescriptor);
-        secondAssociations.add(firstDescriptor);
-        associations.put(firstDescriptor, firstAssociations);
-        associations.put(secondDescriptor, secondAssociations);
+        getAssociations(first).add(second);
+        getAssociations(second).add(first);
     }
 
-    protected synchronized void disassociate(Class<?> firstEntity, Serializable firstKey, Class<?> secondEntity, Serializable secondKey) {
+    private void disassociate(EntityInstanceDescriptor first, EntityInstanceDescriptor second) {
         if (parent != null && parent instanceof AbstractLockingEntityInitializationContext) {
-            ((AbstractLockingEntityInitializationContext) parent).disassociate(firstEntity, firstKey, secondEntity, secondKey);
+            ((AbstractLockingEntityInitializationContext) parent).disassociate(first, second);
             return;
         }
-        final EntityInstanceDescriptor firstDescriptor = new EntityInstanceDescriptor(firstEntity, firstKey);
-        final EntityInstanceDescriptor secondDescriptor = new EntityInstanceDescriptor(secondEntity, secondKey);
-        if (firstDescriptor.equals(secondDescriptor)) {
+        if (first.equals(second)) {
             return;
         }
-        final Set<EntityInstanceDescriptor> firstAssociations = associations.containsKey(firstDescriptor) ? associations.get(firstDescriptor) : new CopyOnWriteArraySet<EntityInstanceDescriptor>();
-        final Set<EntityInstanceDescriptor> secondAssociations = associations.containsKey(secondDescriptor) ? associations.get(secondDescriptor) : new CopyOnWriteArraySet<EntityInstanceDescriptor>();
-        firstAssociations.remove(secondDescriptor);
-        secondAssociations.remove(firstDescriptor);
-        associations.put(firstDescriptor, firstAssociations);
-        associations.put(secondDescriptor, secondAssociations);
-        if (firstAssociations.isEmpty()) {
-            associations.remove(firstDescriptor);
+        removeAssociation(first, second);
+        removeAssociation(second, first);
+    }
+
+    private Set<EntityInstanceDescriptor> getAssociations(EntityInstanceDescriptor descriptor) {
+        final Set<EntityInstanceDescriptor> existing = associations.get(descriptor);
+        if (existing != null) {
+            return existing;
         }
-        if (secondAssociations.isEmpty()) {
-            associations.remove(secondDescriptor);
+        final Set<EntityInstanceDescriptor> created = Collections.newSetFromMap(new ConcurrentHashMap<EntityInstanceDescriptor, Boolean>());
+        final Set<EntityInstanceDescriptor> raced = associations.putIfAbsent(descriptor, created);
+        return raced == null ? created : raced;
+    }
+
+    private void removeAssociation(EntityInstanceDescriptor owner, EntityInstanceDescriptor associated) {
+        final Set<EntityInstanceDescriptor> set = associations.get(owner);
+        if (set == null) {
+            return;
+        }
+        set.remove(associated);
+        if (set.isEmpty() && associations.remove(owner, set) && !set.isEmpty()) {
+            //another thread associated an item with the owner while we were dropping the set,
+            //so we put what it added back in place
+            getAssociations(owner).addAll(set);
         }
     }
 
     @Override
     public void lock() {
-        synchronized (lock) {
-            lockIndex++;
-        }
+        getLockIndex().incrementAndGet();
     }
 
     @Override
     public void unlock() {
-        synchronized (lock) {
-            lockIndex--;
-            if (lockIndex < 0) {
-                throw new ContextLockFailureError();
-            }
+        if (getLockIndex().decrementAndGet() < 0) {
+            getLockIndex().incrementAndGet();
+            throw new ContextLockFailureError();
         }
     }
 
     @Override
     public <E> boolean contains(Class<E> entityType, Serializable key) {
-        return contains(new EntityInstanceDescriptor(entityType, key)) || (parent != null && parent.contains(entityType, key));
+        return isCached(entityType, key) || (parent != null && parent.contains(entityType, key));
     }
 
     @Override
@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.mmnaseri.dragonfly.entity.impl;
+
+import com.mmnaseri.couteau.reflection.beans.BeanAccessor;
+import com.mmnaseri.couteau.reflection.beans.impl.MethodBeanAccessor;
+import com.mmnaseri.couteau.reflection.error.NoSuchPropertyException;
+import com.mmnaseri.couteau.reflection.error.PropertyAccessException;
+import com.mmnaseri.dragonfly.cg.PropertyAccessor;
+import com.mmnaseri.dragonfly.cg.PropertyAccessorGenerator;
+import com.mmnaseri.dragonfly.metadata.ColumnMetadata;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This map creator reads property values through the {@link PropertyAccessor} generated for the entity type,
+ * looking each column's property up by its index in the accessor instead of scanning the columns for each
+ * property of the entity. Properties the accessor does not know of, as well as entities for which no accessor
+ * could be generated, are read reflectively as done by {@link DefaultEntityMapCreator}.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:24)
+ */
+public class AccessorEntityMapCreator extends DefaultEntityMapCreator {
+
+    @Override
+    public <E> Map<String, Object> toMap(Collection<ColumnMetadata> columns, E entity) {
+        final PropertyAccessor accessor = PropertyAccessorGenerator.getAccessor(entity.getClass());
+        if (accessor == null) {
+            return super.toMap(columns, entity);
+        }
+        final HashMap<String, Object> map = new HashMap<String, Object>();
+        final boolean[] visited = new boolean[accessor.getPropertyCount()];
+        BeanAccessor<E> fallback = null;
+        Set<String> fallbackVisited = null;
+        for (ColumnMetadata column : columns) {
+            final String propertyName = column.getPropertyName();
+            final int index = accessor.getIndex(propertyName);
+            Object value;
+            if (index >= 0) {
+                //only the first column for each property counts
+                if (visited[index] || !accessor.isReadable(index)) {
+                    continue;
+                }
+                visited[index] = true;
+                value = accessor.get(entity, index);
+            } else {
+                if (fallback == null) {
+                    fallback = new MethodBeanAccessor<E>(entity);
+                    fallbackVisited = new HashSet<String>();
+                }
+                if (!fallbackVisited.add(propertyName)) {
+                    continue;
+                }
+                try {
+                    value = fallback.getPropertyValue(propertyName);
+                } catch (NoSuchPropertyException ignored) {
+                    continue;
+                } catch (PropertyAccessException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            if (value == null) {
+                continue;
+            }
+            value = toColumnValue(column, value, entity);
+            if (value == UNMAPPED) {
+                continue;
+            }
+            map.put(propertyName, value);
+        }
+        return map;
+    }
+
+    @Override
+    protected Object getPropertyValue(Object target, String propertyName) {
+        final PropertyAccessor accessor = PropertyAccessorGenerator.getAccessor(target.getClass());
+        final int index = accessor == null ? -1 : accessor.getIndex(propertyName);
+        if (index < 0 || !accessor.isReadable(index)) {
+            return super.getPropertyValue(target, propertyName);
+        }
+        return accessor.get(target, index);
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.mmnaseri.dragonfly.entity.impl;
+
+import com.mmnaseri.couteau.context.error.RegistryException;
+import com.mmnaseri.couteau.context.value.ValueReaderContext;
+import com.mmnaseri.couteau.reflection.beans.BeanWrapper;
+import com.mmnaseri.couteau.reflection.beans.impl.MethodBeanWrapper;
+import com.mmnaseri.dragonfly.cg.PropertyAccessor;
+import com.mmnaseri.dragonfly.cg.PropertyAccessorGenerator;
+import com.mmnaseri.dragonfly.error.EntityInitializationError;
+import com.mmnaseri.dragonfly.metadata.ColumnMetadata;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This entity creator writes property values through the {@link PropertyAccessor} generated for the entity
+ * type. The columns are indexed by name once per call, so that each value in the map is matched with its
+ * column and property in constant time. Properties the accessor cannot write, as well as entities for which
+ * no accessor could be generated, are written reflectively as done by {@link DefaultMapEntityCreator}.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:24)
+ */
+public class AccessorMapEntityCreator extends DefaultMapEntityCreator {
+
+    public AccessorMapEntityCreator() throws RegistryException {
+        super();
+    }
+
+    public AccessorMapEntityCreator(ValueReaderContext readerContext) {
+        super(readerContext);
+    }
+
+    @Override
+    public <E> E fromMap(E entity, Collection<ColumnMetadata> columns, Map<String, Object> values) {
+        final PropertyAccessor accessor = PropertyAccessorGenerator.getAccessor(entity.getClass());
+        if (accessor == null) {
+            return super.fromMap(entity, columns, values);
+        }
+        final Map<String, ColumnMetadata> columnsByName = new HashMap<String, ColumnMetadata>();
+        for (ColumnMetadata column : columns) {
+            final String key = column.getName().toLowerCase();
+            if (!columnsByName.containsKey(key)) {
+                columnsByName.put(key, column);
+            }
+        }
+        BeanWrapper<E> wrapper = null;
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            if (value.getValue() == null) {
+                continue;
+            }
+            final ColumnMetadata columnMetadata = columnsByName.get(value.getKey().toLowerCase());
+            if (columnMetadata == null) {
+                continue;
+            }
+            final int index = accessor.getIndex(columnMetadata.getPropertyName());
+            if (index < 0 || !accessor.isWritable(index)) {
+                if (wrapper == null) {
+                    wrapper = new MethodBeanWrapper<E>(entity);
+                }
+                setPropertyValue(wrapper, entity, columnMetadata, value.getValue());
+                continue;
+            }
+            try {
+                accessor.set(entity, index, convert(columnMetadata, value.getValue(), columnMetadata.isCollection() ? accessor.getGenericType(index) : null));
+            } catch (Exception e) {
+                throw new EntityInitializationError(entity.getClass(), e);
+            }
+        }
+        return entity;
+    }
+
+}
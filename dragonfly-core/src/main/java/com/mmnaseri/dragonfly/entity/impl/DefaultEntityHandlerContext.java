@@ -36,8 +36,11 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * This is the entity handler context used throughout the application
+ * This is the entity handler context used throughout the application. Entities are converted to and from
+ * maps through the property accessors generated for them.
  *
+ * @see AccessorEntityMapCreator
+ * @see AccessorMapEntityCreator
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/9/14, 5:38)
  */
@@ -46,8 +49,8 @@ public class DefaultEntityHandlerContext implements EntityHandlerContext {
     private static final Log log = LogFactory.getLog(EntityHandlerContext.class);
     private final Map<Class<?>, EntityMapCreator> mapCreators;
     private final Map<Class<?>, MapEntityCreator> entityCreators;
-    private final EntityMapCreator defaultMapCreator;
-    private final MapEntityCreator defaultEntityCreator;
+    private final DefaultEntityMapCreator defaultMapCreator;
+    private final DefaultMapEntityCreator defaultEntityCreator;
     private final EntityContext entityContext;
     private final Map<Class<?>, EntityHandler<?>> entityHandlers;
     private final TableMetadataRegistry tableMetadataRegistry;
@@ -60,11 +63,11 @@ public class DefaultEntityHandlerContext implements EntityHandlerContext {
             context.setHandlerContext(this);
         }
         try {
-            defaultEntityCreator = new DefaultMapEntityCreator();
+            defaultEntityCreator = new AccessorMapEntityCreator();
         } catch (RegistryException e) {
             throw new RuntimeException(e);
         }
-        defaultMapCreator = new DefaultEntityMapCreator();
+        defaultMapCreator = new AccessorEntityMapCreator();
         entityCreators = new ConcurrentHashMap<Class<?>, MapEntityCreator>();
         mapCreators = new ConcurrentHashMap<Class<?>, EntityMapCreator>();
         entityHandlers = new ConcurrentHashMap<Class<?>, EntityHandler<?>>();
@@ -121,7 +124,7 @@ public class DefaultEntityHandlerContext implements EntityHandlerContext {
                 return (EntityHandler<E>) entityHandlers.get(registeredType);
             }
         }
-        final GenericEntityHandler<E> entityHandler = new GenericEntityHandler<E>(entityType, entityContext, tableMetadataRegistry.getTableMetadata(entityType));
+        final GenericEntityHandler<E> entityHandler = new GenericEntityHandler<E>(entityType, entityContext, tableMetadataRegistry.getTableMetadata(entityType), defaultMapCreator, defaultEntityCreator);
         entityHandlers.put(entityType, entityHandler);
         return entityHandler;
     }
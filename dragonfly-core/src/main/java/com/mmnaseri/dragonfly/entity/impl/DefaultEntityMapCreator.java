@@ -58,6 +58,11 @@ import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
  */
 public class DefaultEntityMapCreator implements EntityMapCreator {
 
+    /**
+     * The value returned by {@link #toColumnValue(ColumnMetadata, Object, Object)} for properties that must
+     * not be put in the map
+     */
+    protected static final Object UNMAPPED = new Object();
     private final ObjectMapper mapper = new ObjectMapper();
 
     public DefaultEntityMapCreator() {
@@ -90,81 +95,106 @@ public class DefaultEntityMapCreator implements EntityMapCreator {
             if (value == null) {
                 continue;
             }
-            if (column.getForeignReference() != null) {
-                final ColumnMetadata target;
-                if (column.getForeignReference().getName() == null || column.getForeignReference().getName().isEmpty()) {
-                    final ConstraintMetadata primaryKey = column.getForeignReference().getTable().getPrimaryKey();
-                    if (primaryKey == null) {
-                        throw new RuntimeException("Entity " + entity.getClass().getCanonicalName() + " references a non-existent primary key in " + column.getName());
-                    }
-                    target = primaryKey.getColumns().iterator().next();
-                } else {
-                    target = with(column.getForeignReference().getTable().getColumns()).keep(new ColumnNameFilter(column.getForeignReference().getName())).first();
-                    if (target == null) {
-                        throw new RuntimeException("Entity " + entity.getClass().getCanonicalName() + " references a non-existent column in " + column.getName());
-                    }
-                }
-                if (!target.getDeclaringClass().isInstance(value)) {
-                    continue;
-                }
-                final BeanAccessor<?> targetAccessor = new MethodBeanAccessor<Object>(value);
-                try {
-                    value = targetAccessor.getPropertyValue(target.getPropertyName());
-                } catch (NoSuchPropertyException e) {
-                    throw new RuntimeException("Property not found", e);
-                } catch (PropertyAccessException e) {
-                    throw new RuntimeException("Error accessing property", e);
-                }
-                column = column.getForeignReference();
+            value = toColumnValue(column, value, entity);
+            if (value == UNMAPPED) {
+                continue;
             }
-            if (value instanceof Date) {
-                if (column.getType() == Types.DATE) {
-                    value = new java.sql.Date(((Date) value).getTime());
-                } else if (column.getType() == Types.TIME) {
-                    value = new Time(((Date) value).getTime());
-                } else {
-                    //we will assume that it is Types.TIMESTAMP
-                    value = new Timestamp(((Date) value).getTime());
+            map.put(propertyName, value);
+        }
+        return map;
+    }
+
+    /**
+     * Converts the value of a property into the value that is to be handed over to the database for its column
+     * @param column    the column
+     * @param value     the value of the property; must not be {@code null}
+     * @param entity    the entity holding the property
+     * @return the value for the column, or {@link #UNMAPPED} if the property should be left out of the map
+     */
+    protected Object toColumnValue(ColumnMetadata column, Object value, Object entity) {
+        if (column.getForeignReference() != null) {
+            final ColumnMetadata target;
+            if (column.getForeignReference().getName() == null || column.getForeignReference().getName().isEmpty()) {
+                final ConstraintMetadata primaryKey = column.getForeignReference().getTable().getPrimaryKey();
+                if (primaryKey == null) {
+                    throw new RuntimeException("Entity " + entity.getClass().getCanonicalName() + " references a non-existent primary key in " + column.getName());
                 }
-            } else if (value instanceof Class<?>) {
-                value = ((Class<?>) value).getCanonicalName();
-            } else if (column.isCollection()) {
-                final StringBuilder builder = new StringBuilder();
-                builder.append('[');
-                if (!(value instanceof Collection<?>)) {
-                    throw new EntityDefinitionError("Expected a collection but found " + value);
+                target = primaryKey.getColumns().iterator().next();
+            } else {
+                target = with(column.getForeignReference().getTable().getColumns()).keep(new ColumnNameFilter(column.getForeignReference().getName())).first();
+                if (target == null) {
+                    throw new RuntimeException("Entity " + entity.getClass().getCanonicalName() + " references a non-existent column in " + column.getName());
                 }
-                Collection<?> collection = (Collection<?>) value;
-                boolean first = true;
-                for (Object item : collection) {
-                    if (!first) {
-                        builder.append(",");
-                    }
-                    first = false;
-                    if (item instanceof Date) {
-                        builder.append(new SimpleDateFormat("yyyy/MM/dd HH:mm:ss").format((Date) item));
-                    } else if (item instanceof Enum) {
-                        builder.append(((Enum) item).name());
-                    } else if (item instanceof Class<?>) {
-                        builder.append(((Class<?>) item).getCanonicalName());
-                    } else if (item instanceof File) {
-                        builder.append(((File) item).getAbsolutePath());
-                    } else {
-                        builder.append(item.toString());
-                    }
+            }
+            if (!target.getDeclaringClass().isInstance(value)) {
+                return UNMAPPED;
+            }
+            value = getPropertyValue(value, target.getPropertyName());
+            column = column.getForeignReference();
+        }
+        if (value instanceof Date) {
+            if (column.getType() == Types.DATE) {
+                value = new java.sql.Date(((Date) value).getTime());
+            } else if (column.getType() == Types.TIME) {
+                value = new Time(((Date) value).getTime());
+            } else {
+                //we will assume that it is Types.TIMESTAMP
+                value = new Timestamp(((Date) value).getTime());
+            }
+        } else if (value instanceof Class<?>) {
+            value = ((Class<?>) value).getCanonicalName();
+        } else if (column.isCollection()) {
+            final StringBuilder builder = new StringBuilder();
+            builder.append('[');
+            if (!(value instanceof Collection<?>)) {
+                throw new EntityDefinitionError("Expected a collection but found " + value);
+            }
+            Collection<?> collection = (Collection<?>) value;
+            boolean first = true;
+            for (Object item : collection) {
+                if (!first) {
+                    builder.append(",");
                 }
-                builder.append(']');
-                value = builder.toString();
-            } else if (column.isComplex()) {
-                try {
-                    value = value.getClass().getCanonicalName() + ";" + mapper.writeValueAsString(value);
-                } catch (JsonProcessingException e) {
-                    throw new EntityDefinitionError("Failed to convert data value to JSON", e);
+                first = false;
+                if (item instanceof Date) {
+                    builder.append(new SimpleDateFormat("yyyy/MM/dd HH:mm:ss").format((Date) item));
+                } else if (item instanceof Enum) {
+                    builder.append(((Enum) item).name());
+                } else if (item instanceof Class<?>) {
+                    builder.append(((Class<?>) item).getCanonicalName());
+                } else if (item instanceof File) {
+                    builder.append(((File) item).getAbsolutePath());
+                } else {
+                    builder.append(item.toString());
                 }
             }
-            map.put(propertyName, value);
+            builder.append(']');
+            value = builder.toString();
+        } else if (column.isComplex()) {
+            try {
+                value = value.getClass().getCanonicalName() + ";" + mapper.writeValueAsString(value);
+            } catch (JsonProcessingException e) {
+                throw new EntityDefinitionError("Failed to convert data value to JSON", e);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Reads the value of the property from the referenced entity
+     * @param target          the referenced entity
+     * @param propertyName    the property
+     * @return the value of the property
+     */
+    protected Object getPropertyValue(Object target, String propertyName) {
+        final BeanAccessor<?> targetAccessor = new MethodBeanAccessor<Object>(target);
+        try {
+            return targetAccessor.getPropertyValue(propertyName);
+        } catch (NoSuchPropertyException e) {
+            throw new RuntimeException("Property not found", e);
+        } catch (PropertyAccessException e) {
+            throw new RuntimeException("Error accessing property", e);
         }
-        return map;
     }
 
 }
@@ -91,43 +91,67 @@ public class DefaultMapEntityCreator implements MapEntityCreator {
                 //the map and the entity
                 continue;
             }
-            try {
-                Object inferredValue = value.getValue();
-                if (inferredValue == null) {
-                    continue;
-                }
-                if (columnMetadata.isComplex() && inferredValue instanceof String) {
-                    final String[] split = ((String) inferredValue).split(";", 2);
-                    final Class targetType = ClassUtils.forName(split[0], getClass().getClassLoader());
-                    inferredValue = mapper.readValue(split[1], targetType);
-                }
-                final Class propertyType = columnMetadata.getPropertyType();
-                if (Enum.class.isAssignableFrom(propertyType)) {
-                    if (!(inferredValue instanceof String)) {
-                        throw new IllegalArgumentException("Expected retrieved value for an enum to be a string");
-                    }
-                    inferredValue = Enum.valueOf(propertyType, (String) inferredValue);
-                } else if (Character.class.isAssignableFrom(propertyType) && inferredValue instanceof String && ((String) inferredValue).length() == 1) {
-                    inferredValue = ((String) inferredValue).charAt(0);
-                } else if (Class.class.isAssignableFrom(propertyType) && inferredValue instanceof String && !((String) inferredValue).isEmpty()) {
-                    inferredValue = ClassUtils.forName((String) inferredValue, getClass().getClassLoader());
-                } else if (columnMetadata.isCollection()) {
-                    if (!Collection.class.isAssignableFrom(propertyType)) {
-                        throw new EntityDefinitionError("Expected property `" + columnMetadata.getPropertyName() + "` to be a collection but it was " + propertyType.getCanonicalName());
-                    }
-                    if (!(inferredValue instanceof String)) {
-                        throw new EntityDefinitionError("Invalid property value for basic collection " + columnMetadata.getPropertyName());
-                    }
-                    final Type type = wrapper.getGenericPropertyType(columnMetadata.getPropertyName());
-                    inferredValue = readerContext.read((String) inferredValue, type);
-                }
-                wrapper.setPropertyValue(columnMetadata.getPropertyName(), inferredValue);
-            } catch (NoSuchPropertyException e) {
-                //ditto here
-            } catch (Exception e) {
-                throw new EntityInitializationError(entity.getClass(), e);
-            }
+            setPropertyValue(wrapper, entity, columnMetadata, value.getValue());
         }
         return entity;
     }
+
+    /**
+     * Converts the value and sets it on the property of the column through the given wrapper. Properties
+     * that cannot be found on the entity are silently ignored.
+     * @param wrapper           the wrapper for the entity
+     * @param entity            the entity
+     * @param columnMetadata    the column
+     * @param value             the value read for the column; must not be {@code null}
+     */
+    protected <E> void setPropertyValue(BeanWrapper<E> wrapper, E entity, ColumnMetadata columnMetadata, Object value) {
+        try {
+            final Type genericType = columnMetadata.isCollection() ? wrapper.getGenericPropertyType(columnMetadata.getPropertyName()) : null;
+            final Object inferredValue = convert(columnMetadata, value, genericType);
+            wrapper.setPropertyValue(columnMetadata.getPropertyName(), inferredValue);
+        } catch (NoSuchPropertyException e) {
+            //ditto here
+        } catch (Exception e) {
+            throw new EntityInitializationError(entity.getClass(), e);
+        }
+    }
+
+    /**
+     * Converts the value read from the database for the given column into a value that can be assigned
+     * to the property the column represents
+     * @param columnMetadata    the column
+     * @param value             the value read from the database; must not be {@code null}
+     * @param genericType       the generic type of the property, which is only needed for basic collections
+     * @return the converted value
+     * @throws Exception if the conversion fails
+     */
+    public Object convert(ColumnMetadata columnMetadata, Object value, Type genericType) throws Exception {
+        Object inferredValue = value;
+        if (columnMetadata.isComplex() && inferredValue instanceof String) {
+            final String[] split = ((String) inferredValue).split(";", 2);
+            final Class targetType = ClassUtils.forName(split[0], getClass().getClassLoader());
+            inferredValue = mapper.readValue(split[1], targetType);
+        }
+        final Class propertyType = columnMetadata.getPropertyType();
+        if (Enum.class.isAssignableFrom(propertyType)) {
+            if (!(inferredValue instanceof String)) {
+                throw new IllegalArgumentException("Expected retrieved value for an enum to be a string");
+            }
+            //noinspection unchecked
+            inferredValue = Enum.valueOf(propertyType, (String) inferredValue);
+        } else if (Character.class.isAssignableFrom(propertyType) && inferredValue instanceof String && ((String) inferredValue).length() == 1) {
+            inferredValue = ((String) inferredValue).charAt(0);
+        } else if (Class.class.isAssignableFrom(propertyType) && inferredValue instanceof String && !((String) inferredValue).isEmpty()) {
+            inferredValue = ClassUtils.forName((String) inferredValue, getClass().getClassLoader());
+        } else if (columnMetadata.isCollection()) {
+            if (!Collection.class.isAssignableFrom(propertyType)) {
+                throw new EntityDefinitionError("Expected property `" + columnMetadata.getPropertyName() + "` to be a collection but it was " + propertyType.getCanonicalName());
+            }
+            if (!(inferredValue instanceof String)) {
+                throw new EntityDefinitionError("Invalid property value for basic collection " + columnMetadata.getPropertyName());
+            }
+            inferredValue = readerContext.read((String) inferredValue, genericType);
+        }
+        return inferredValue;
+    }
 }
@@ -53,17 +53,44 @@ public class DefaultRowHandler implements RowHandler {
 
     @Override
     public Map<String, Object> handleRow(ResultSet resultSet) {
-        final HashMap<String, Object> map = new HashMap<String, Object>();
-        final ResultSetMetaData metaData;
+        return handleRow(resultSet, getColumnNames(resultSet));
+    }
+
+    /**
+     * Reads the names of the columns of the given result set, as they will appear as keys in the maps
+     * returned by this handler. Reading the names once and then handing them to
+     * {@link #handleRow(ResultSet, String[])} avoids going through the result set metadata for every row.
+     * @param resultSet    the result set
+     * @return the column names, in the order of the columns in the result set
+     */
+    public String[] getColumnNames(ResultSet resultSet) {
         try {
-            metaData = resultSet.getMetaData();
-            final int columnCount = metaData.getColumnCount();
-            for (int i = 1; i <= columnCount; i ++) {
-                String key = metaData.getColumnName(i);
+            final ResultSetMetaData metaData = resultSet.getMetaData();
+            final String[] names = new String[metaData.getColumnCount()];
+            for (int i = 0; i < names.length; i ++) {
+                String key = metaData.getColumnName(i + 1);
                 if (prefixNames) {
-                    key = metaData.getTableName(i) + "." + key;
+                    key = metaData.getTableName(i + 1) + "." + key;
                 }
-                map.put(key, resultSet.getObject(i));
+                names[i] = key;
+            }
+            return names;
+        } catch (SQLException e) {
+            throw new ResultSetMetadataAccessError(e);
+        }
+    }
+
+    /**
+     * Turns the current row of the result set into a map
+     * @param resultSet    the result set
+     * @param names        the column names, as obtained through {@link #getColumnNames(ResultSet)}
+     * @return the map of column names to values
+     */
+    public Map<String, Object> handleRow(ResultSet resultSet, String[] names) {
+        final HashMap<String, Object> map = new HashMap<String, Object>(names.length * 4 / 3 + 1);
+        try {
+            for (int i = 0; i < names.length; i ++) {
+                map.put(names[i], resultSet.getObject(i + 1));
             }
         } catch (SQLException e) {
             throw new ResultSetMetadataAccessError(e);
@@ -76,6 +76,7 @@ public class EntityProxy<E> extends SecuredInterfaceInterceptor implements DataA
     private volatile int freezeLock = 0;
     private final Set<String> lazyLoadedProperties;
     private Map<String, Object> map;
+    private Set<String> dirtyProperties;
 
     public EntityProxy(DataSecurityManager securityManager, TableMetadata<E> tableMetadata, EntityHandler<E> entityHandler, DataAccess dataAccess, DataAccessSession session, EntityContext entityContext) {
         super(securityManager);
@@ -159,11 +160,12 @@ public class EntityProxy<E> extends SecuredInterfaceInterceptor implements DataA
     @Override
     protected Object call(MethodDescriptor methodDescriptor, Object target, Object[] arguments, MethodProxy methodProxy) throws Throwable {
         if (!isFrozen()) {
-            if (initializationContext != null && setterMethodFilter.accepts(methodDescriptor)) {
+            if ((initializationContext != null || dirtyProperties != null) && setterMethodFilter.accepts(methodDescriptor)) {
                 final String propertyName = ReflectionUtils.getPropertyName(methodDescriptor.getName());
                 final ColumnMetadata columnMetadata = with(tableMetadata.getColumns()).find(new ColumnPropertyFilter(propertyName));
                 if (columnMetadata != null) {
                     invalidateCachedVersion();
+                    markDirty(propertyName);
                 }
             }
             if (getterMethodFilter.accepts(methodDescriptor)) {
@@ -205,9 +207,21 @@ public class EntityProxy<E> extends SecuredInterfaceInterceptor implements DataA
         return token;
     }
 
+    private synchronized void markDirty(String propertyName) {
+        if (dirtyProperties != null) {
+            dirtyProperties.add(propertyName);
+        }
+    }
+
     @Override
-    public synchronized void setOriginalCopy(E originalCopy) {
+    public void setOriginalCopy(E originalCopy) {
+        setOriginalCopy(originalCopy, false);
+    }
+
+    @Override
+    public synchronized void setOriginalCopy(E originalCopy, boolean trackChanges) {
         this.originalCopy = originalCopy;
+        this.dirtyProperties = originalCopy != null && trackChanges ? new HashSet<String>() : null;
     }
 
     @Override
@@ -215,6 +229,11 @@ public class EntityProxy<E> extends SecuredInterfaceInterceptor implements DataA
         return originalCopy;
     }
 
+    @Override
+    public synchronized Set<String> getDirtyProperties() {
+        return dirtyProperties == null ? null : new HashSet<String>(dirtyProperties);
+    }
+
     @Override
     public void freeze() {
         freezeLock ++;
@@ -46,11 +46,13 @@ import com.mmnaseri.dragonfly.error.*;
 import com.mmnaseri.dragonfly.metadata.*;
 import com.mmnaseri.dragonfly.metadata.impl.PrimaryKeyConstraintMetadata;
 import com.mmnaseri.dragonfly.statement.impl.DefaultStatementPreparator;
+import com.mmnaseri.dragonfly.tools.BoundedCache;
 import com.mmnaseri.dragonfly.tools.ColumnNameFilter;
 import com.mmnaseri.dragonfly.tools.ColumnPropertyFilter;
 
 import java.io.Serializable;
 import java.sql.Connection;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
@@ -69,6 +71,8 @@ import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
  */
 public class GenericEntityHandler<E> implements EntityHandler<E> {
 
+    private static final int ROW_PLAN_CACHE_SIZE = 64;
+
     private final Class<E> entityType;
     private final DefaultEntityMapCreator mapCreator;
     private final DefaultMapEntityCreator entityCreator;
@@ -77,17 +81,18 @@ public class GenericEntityHandler<E> implements EntityHandler<E> {
     private boolean keyAutoGenerated;
     private boolean hasPrimaryKey;
     private String keyProperty;
+    private final BoundedCache<String, RowMaterializationPlan<E>> rowPlans = new BoundedCache<String, RowMaterializationPlan<E>>(ROW_PLAN_CACHE_SIZE);
 
     public GenericEntityHandler(Class<E> entityType, EntityContext entityContext, TableMetadata<E> tableMetadata) {
+        this(entityType, entityContext, tableMetadata, new DefaultEntityMapCreator(), getDefaultEntityCreator());
+    }
+
+    public GenericEntityHandler(Class<E> entityType, EntityContext entityContext, TableMetadata<E> tableMetadata, DefaultEntityMapCreator mapCreator, DefaultMapEntityCreator entityCreator) {
         this.entityType = entityType;
         this.entityContext = entityContext;
         this.tableMetadata = tableMetadata;
-        mapCreator = new DefaultEntityMapCreator();
-        try {
-            entityCreator = new DefaultMapEntityCreator();
-        } catch (RegistryException e) {
-            throw new RuntimeException(e);
-        }
+        this.mapCreator = mapCreator;
+        this.entityCreator = entityCreator;
         hasPrimaryKey = this.tableMetadata.hasPrimaryKey();
         if (hasPrimaryKey) {
             final PrimaryKeyConstraintMetadata primaryKey = this.tableMetadata.getPrimaryKey();
@@ -101,6 +106,14 @@ public class GenericEntityHandler<E> implements EntityHandler<E> {
         }
     }
 
+    private static DefaultMapEntityCreator getDefaultEntityCreator() {
+        try {
+            return new DefaultMapEntityCreator();
+        } catch (RegistryException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public Class<E> getEntityType() {
         return entityType;
@@ -116,6 +129,22 @@ public class GenericEntityHandler<E> implements EntityHandler<E> {
         return entityCreator.fromMap(entity, tableMetadata.getColumns(), map);
     }
 
+    /**
+     * Returns the plan for reading entities of this type straight from a result set produced by the given
+     * query. Plans are cached per query and rebuilt if the columns of the result set change.
+     * @param sql         the query that produced the result set
+     * @param metaData    the metadata of the result set
+     * @return the row materialization plan
+     */
+    public RowMaterializationPlan<E> getRowMaterializationPlan(String sql, ResultSetMetaData metaData) {
+        RowMaterializationPlan<E> plan = rowPlans.get(sql);
+        if (plan == null || !plan.matches(metaData)) {
+            plan = new RowMaterializationPlan<E>(tableMetadata, entityCreator, metaData);
+            rowPlans.put(sql, plan);
+        }
+        return plan;
+    }
+
     @Override
     public Serializable getKey(E entity) {
         if (!hasKey()) {
@@ -195,14 +224,19 @@ public class GenericEntityHandler<E> implements EntityHandler<E> {
     }
 
     @Override
-    public void loadEagerRelations(final E entity, final Map<String, Object> values, final EntityInitializationContext initializationContext) {
+    public void loadEagerRelations(E entity, Map<String, Object> values, EntityInitializationContext initializationContext) {
+        loadEagerRelations(entity, values, initializationContext, Collections.<RelationMetadata<E, ?>>emptySet());
+    }
+
+    @Override
+    public void loadEagerRelations(final E entity, final Map<String, Object> values, final EntityInitializationContext initializationContext, final Collection<RelationMetadata<E, ?>> excluded) {
         final MethodBeanWrapper<E> wrapper = new MethodBeanWrapper<E>(entity);
         //noinspection unchecked
         with(tableMetadata.getForeignReferences())
                 .drop(new Filter<RelationMetadata<E, ?>>() {
                     @Override
                     public boolean accepts(RelationMetadata<E, ?> item) {
-                        return item.isLazy();
+                        return item.isLazy() || excluded.contains(item);
                     }
                 })
                 .forThose(new Filter<RelationMetadata<E, ?>>() {
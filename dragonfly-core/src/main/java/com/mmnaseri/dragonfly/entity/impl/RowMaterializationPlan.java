@@ -0,0 +1,246 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.entity.impl;
+
+import com.mmnaseri.dragonfly.cg.PropertyAccessor;
+import com.mmnaseri.dragonfly.cg.PropertyAccessorGenerator;
+import com.mmnaseri.dragonfly.error.EntityInitializationError;
+import com.mmnaseri.dragonfly.error.ResultSetMetadataAccessError;
+import com.mmnaseri.dragonfly.metadata.ColumnMetadata;
+import com.mmnaseri.dragonfly.metadata.RelationMetadata;
+import com.mmnaseri.dragonfly.metadata.TableMetadata;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * This class holds a precomputed mapping from the columns of a result set to the properties of an entity.
+ * The plan is built once from the {@link ResultSetMetaData} of a query and can then be used to fill entities
+ * straight from the result set, without first copying each row into an intermediate map and looking up
+ * the column for each of its entries.
+ *
+ * <p>Columns backing relations are not set directly; their values are collected into a small map which is
+ * both handed over to the regular map-based entity creator and returned so that it can be used later on
+ * to load the relations themselves.</p>
+ *
+ * <p>Properties are set through the {@link PropertyAccessor} generated for the entity, falling back to
+ * reflective calls to the setters for properties the accessor cannot write.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 10:44)
+ */
+public class RowMaterializationPlan<E> {
+
+    private final Class<E> entityType;
+    private final Collection<ColumnMetadata> tableColumns;
+    private final DefaultMapEntityCreator entityCreator;
+    private final String[] names;
+    private final ColumnMetadata[] columns;
+    private final PropertyAccessor accessor;
+    private final int[] indices;
+    private final Method[] setters;
+    private final Type[] genericTypes;
+    private final boolean[] retained;
+    private final boolean hasRetainedColumns;
+    private final boolean complete;
+
+    public RowMaterializationPlan(TableMetadata<E> tableMetadata, DefaultMapEntityCreator entityCreator, ResultSetMetaData metaData) {
+        this.entityType = tableMetadata.getEntityType();
+        this.tableColumns = tableMetadata.getColumns();
+        this.entityCreator = entityCreator;
+        final Map<String, ColumnMetadata> columnsByName = new HashMap<String, ColumnMetadata>();
+        for (ColumnMetadata column : tableColumns) {
+            final String key = column.getName().toLowerCase();
+            if (!columnsByName.containsKey(key)) {
+                columnsByName.put(key, column);
+            }
+        }
+        final Set<String> relationProperties = new HashSet<String>();
+        for (RelationMetadata<E, ?> relation : tableMetadata.getForeignReferences()) {
+            relationProperties.add(relation.getPropertyName());
+        }
+        this.accessor = PropertyAccessorGenerator.getAccessor(entityType);
+        try {
+            final int columnCount = metaData.getColumnCount();
+            names = new String[columnCount];
+            columns = new ColumnMetadata[columnCount];
+            indices = new int[columnCount];
+            Arrays.fill(indices, -1);
+            setters = new Method[columnCount];
+            genericTypes = new Type[columnCount];
+            retained = new boolean[columnCount];
+            boolean hasRetainedColumns = false;
+            final Set<ColumnMetadata> mapped = new HashSet<ColumnMetadata>();
+            for (int i = 0; i < columnCount; i++) {
+                names[i] = metaData.getColumnName(i + 1);
+                final ColumnMetadata column = columnsByName.get(names[i].toLowerCase());
+                if (column == null) {
+                    //columns that are not mapped to the entity are ignored, just as they are by the map-based creator
+                    continue;
+                }
+                columns[i] = column;
+                mapped.add(column);
+                if (column.getForeignReference() != null || relationProperties.contains(column.getPropertyName())) {
+                    retained[i] = true;
+                    hasRetainedColumns = true;
+                    continue;
+                }
+                final int index = accessor == null ? -1 : accessor.getIndex(column.getPropertyName());
+                if (index >= 0 && accessor.isWritable(index)) {
+                    indices[i] = index;
+                    genericTypes[i] = accessor.getGenericType(index);
+                    continue;
+                }
+                setters[i] = findSetter(entityType, column);
+                if (setters[i] != null) {
+                    genericTypes[i] = setters[i].getGenericParameterTypes()[0];
+                }
+            }
+            this.hasRetainedColumns = hasRetainedColumns;
+            this.complete = mapped.size() == columnsByName.size();
+        } catch (SQLException e) {
+            throw new ResultSetMetadataAccessError(e);
+        }
+    }
+
+    /**
+     * Determines whether or not this plan can be used to read rows described by the given metadata
+     * @param metaData    the metadata
+     * @return {@code true} if the result set has the exact same columns this plan was built for
+     */
+    public boolean matches(ResultSetMetaData metaData) {
+        try {
+            if (metaData.getColumnCount() != names.length) {
+                return false;
+            }
+            for (int i = 0; i < names.length; i++) {
+                if (!names[i].equals(metaData.getColumnName(i + 1))) {
+                    return false;
+                }
+            }
+        } catch (SQLException e) {
+            throw new ResultSetMetadataAccessError(e);
+        }
+        return true;
+    }
+
+    /**
+     * Fills the given entity with the values of the current row of the result set
+     * @param resultSet    the result set, which must be positioned on a row
+     * @param entity       the entity to fill
+     * @return the values of the columns backing relations of the entity, keyed by column name. This is an
+     * empty map if the entity has no such columns.
+     */
+    public Map<String, Object> materialize(ResultSet resultSet, E entity) {
+        return materialize(resultSet, entity, null);
+    }
+
+    /**
+     * Fills the given entity with the values of the current row of the result set, while also
+     * collecting the raw values of all the mapped columns
+     * @param resultSet       the result set, which must be positioned on a row
+     * @param entity          the entity to fill
+     * @param columnValues    if not {@code null}, the values of all the columns mapped to the entity
+     *                        will be put in this map, keyed by column name
+     * @return the values of the columns backing relations of the entity
+     * @see #materialize(ResultSet, Object)
+     */
+    public Map<String, Object> materialize(ResultSet resultSet, E entity, Map<String, Object> columnValues) {
+        final Map<String, Object> retainedValues = hasRetainedColumns ? new HashMap<String, Object>() : Collections.<String, Object>emptyMap();
+        for (int i = 0; i < names.length; i++) {
+            if (columns[i] == null || (!retained[i] && indices[i] < 0 && setters[i] == null)) {
+                continue;
+            }
+            final Object value;
+            try {
+                value = resultSet.getObject(i + 1);
+            } catch (SQLException e) {
+                throw new ResultSetMetadataAccessError(e);
+            }
+            if (columnValues != null) {
+                columnValues.put(names[i], value);
+            }
+            if (retained[i]) {
+                retainedValues.put(names[i], value);
+                continue;
+            }
+            if (value == null) {
+                continue;
+            }
+            try {
+                final Object converted = entityCreator.convert(columns[i], value, genericTypes[i]);
+                if (indices[i] >= 0) {
+                    accessor.set(entity, indices[i], converted);
+                } else {
+                    setters[i].invoke(entity, converted);
+                }
+            } catch (InvocationTargetException e) {
+                throw new EntityInitializationError(entity.getClass(), e.getCause());
+            } catch (Exception e) {
+                throw new EntityInitializationError(entity.getClass(), e);
+            }
+        }
+        if (hasRetainedColumns) {
+            entityCreator.fromMap(entity, tableColumns, retainedValues);
+        }
+        return retainedValues;
+    }
+
+    /**
+     * @return {@code true} if the result set this plan was built for has a value for every column of the
+     * table, so that the entity can be fully restored from the values of each row
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public Class<E> getEntityType() {
+        return entityType;
+    }
+
+    private static Method findSetter(Class<?> entityType, ColumnMetadata column) {
+        final String propertyName = column.getPropertyName();
+        final String setterName = "set" + Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+        Method candidate = null;
+        for (Method method : entityType.getMethods()) {
+            if (!method.getName().equals(setterName) || method.getParameterTypes().length != 1 || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            if (method.getParameterTypes()[0].equals(column.getPropertyType())) {
+                return method;
+            }
+            if (candidate == null) {
+                candidate = method;
+            }
+        }
+        return candidate;
+    }
+
+}
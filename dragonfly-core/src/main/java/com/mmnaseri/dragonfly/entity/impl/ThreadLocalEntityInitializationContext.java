@@ -28,6 +28,8 @@ import com.mmnaseri.couteau.basics.api.impl.AbstractCache;
 import com.mmnaseri.couteau.basics.api.impl.SimpleCache;
 import com.mmnaseri.dragonfly.data.DataAccess;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * This entity initialization instance is an instance that can not be nested inside another
  * context, and as such will always be the parent in its context tree. It is also thread-local
@@ -45,12 +47,24 @@ public class ThreadLocalEntityInitializationContext extends AbstractLockingEntit
         }
     };
 
+    private final ThreadLocal<AtomicInteger> threadLocalLockIndex = new ThreadLocal<AtomicInteger>() {
+        @Override
+        protected AtomicInteger initialValue() {
+            return new AtomicInteger();
+        }
+    };
+
     public ThreadLocalEntityInitializationContext(DataAccess dataAccess) {
         super(dataAccess, null);
     }
 
     @Override
-    protected synchronized Cache<EntityInstanceDescriptor, Object> getCache() {
+    protected Cache<EntityInstanceDescriptor, Object> getCache() {
         return threadLocalCache.get();
     }
+
+    @Override
+    protected AtomicInteger getLockIndex() {
+        return threadLocalLockIndex.get();
+    }
 }
@@ -33,11 +33,26 @@ import java.util.Map;
  * This class allows for singular implementation of only the required methods of the
  * event handler
  *
+ * <p>When registered with a {@link CompositeDataAccessEventHandler}, handlers extending this class only
+ * receive the events whose methods they override, and only for the entity types they
+ * {@link #supports(Class) support}.</p>
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/9/9, 1:31)
  */
 public abstract class AbstractDataAccessEventHandler implements DataAccessEventHandler {
 
+    /**
+     * Determines whether this handler is interested in events raised for the given entity type.
+     * For events carrying a list of entities, all entities are expected to be of the type the event
+     * is raised for.
+     * @param entityType    the type of the entity
+     * @return {@code true} if the handler should receive events for the entity type
+     */
+    public boolean supports(Class<?> entityType) {
+        return true;
+    }
+
     @Override
     public <E> void beforeSave(E entity) {
     }
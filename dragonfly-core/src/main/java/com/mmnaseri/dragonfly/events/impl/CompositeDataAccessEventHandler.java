@@ -28,8 +28,13 @@ import com.mmnaseri.dragonfly.events.DataAccessEventHandler;
 import com.mmnaseri.dragonfly.events.EventHandlerContext;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
@@ -39,136 +44,262 @@ import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
  * one by one, in a chained fashion. The handlers are sorted, if the implement the
  * {@link com.mmnaseri.couteau.context.contract.OrderedBean} interface
  *
+ * <p>Rather than calling every handler for every event, the handlers interested in each kind of event
+ * for each entity type are looked up once and kept in a dispatch table until another handler is added.
+ * A handler extending {@link AbstractDataAccessEventHandler} is only interested in the events for which
+ * it overrides the default (empty) implementation, and only for the entity types it
+ * {@link AbstractDataAccessEventHandler#supports(Class) supports}. Events no handler is interested in
+ * are not dispatched at all.</p>
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/9/9, 1:32)
  */
 public class CompositeDataAccessEventHandler implements DataAccessEventHandler, EventHandlerContext {
 
-    private List<DataAccessEventHandler> handlers = new CopyOnWriteArrayList<DataAccessEventHandler>();
+    private static final DataAccessEventHandler[] NO_HANDLERS = new DataAccessEventHandler[0];
+
+    private static enum EventKind {
+
+        BEFORE_SAVE("beforeSave", Object.class),
+        AFTER_SAVE("afterSave", Object.class),
+        BEFORE_INSERT("beforeInsert", Object.class),
+        AFTER_INSERT("afterInsert", Object.class),
+        BEFORE_UPDATE("beforeUpdate", Object.class),
+        AFTER_UPDATE("afterUpdate", Object.class, boolean.class),
+        BEFORE_DELETE("beforeDelete", Object.class),
+        AFTER_DELETE("afterDelete", Object.class),
+        BEFORE_DELETE_BY_KEY("beforeDelete", Class.class, Serializable.class),
+        AFTER_DELETE_BY_KEY("afterDelete", Class.class, Serializable.class),
+        BEFORE_DELETE_ALL("beforeDeleteAll", Class.class),
+        AFTER_DELETE_ALL("afterDeleteAll", Class.class),
+        BEFORE_TRUNCATE("beforeTruncate", Class.class),
+        AFTER_TRUNCATE("afterTruncate", Class.class),
+        BEFORE_FIND("beforeFind", Object.class),
+        AFTER_FIND("afterFind", Object.class, List.class),
+        BEFORE_FIND_BY_KEY("beforeFind", Class.class, Serializable.class),
+        AFTER_FIND_BY_KEY("afterFind", Class.class, Serializable.class, Object.class),
+        BEFORE_FIND_ALL("beforeFindAll", Class.class),
+        AFTER_FIND_ALL("afterFindAll", Class.class, List.class),
+        BEFORE_EXECUTE_UPDATE("beforeExecuteUpdate", Class.class, String.class, Map.class),
+        AFTER_EXECUTE_UPDATE("afterExecuteUpdate", Class.class, String.class, Map.class, int.class),
+        BEFORE_EXECUTE_SAMPLE_UPDATE("beforeExecuteUpdate", Object.class, String.class),
+        AFTER_EXECUTE_SAMPLE_UPDATE("afterExecuteUpdate", Object.class, String.class, int.class),
+        BEFORE_EXECUTE_QUERY("beforeExecuteQuery", Class.class, String.class, Map.class),
+        AFTER_EXECUTE_QUERY("afterExecuteQuery", Class.class, String.class, Map.class, List.class),
+        BEFORE_EXECUTE_SAMPLE_QUERY("beforeExecuteQuery", Object.class, String.class),
+        AFTER_EXECUTE_SAMPLE_QUERY("afterExecuteQuery", Object.class, String.class, List.class);
+
+        private final String methodName;
+        private final Class<?>[] parameterTypes;
+
+        private EventKind(String methodName, Class<?>... parameterTypes) {
+            this.methodName = methodName;
+            this.parameterTypes = parameterTypes;
+        }
+
+        /**
+         * @param handler    the handler
+         * @return {@code true} if the handler does anything at all upon this kind of event
+         */
+        private boolean isHandledBy(DataAccessEventHandler handler) {
+            if (!(handler instanceof AbstractDataAccessEventHandler)) {
+                return true;
+            }
+            try {
+                return !handler.getClass().getMethod(methodName, parameterTypes).getDeclaringClass().equals(AbstractDataAccessEventHandler.class);
+            } catch (NoSuchMethodException e) {
+                return true;
+            }
+        }
+
+    }
+
+    private volatile List<DataAccessEventHandler> handlers = new CopyOnWriteArrayList<DataAccessEventHandler>();
+    private volatile Map<EventKind, ConcurrentMap<Class<?>, DataAccessEventHandler[]>> dispatchTable = createDispatchTable();
 
     @Override
-    public void addHandler(DataAccessEventHandler eventHandler) {
-        handlers.add(eventHandler);
-        synchronized (this) {
-            handlers = with(handlers).sort(new OrderedBeanComparator()).concurrentList();
+    public synchronized void addHandler(DataAccessEventHandler eventHandler) {
+        handlers = with(handlers).add(eventHandler).sort(new OrderedBeanComparator()).concurrentList();
+        dispatchTable = createDispatchTable();
+    }
+
+    /**
+     * Determines whether any handler, other than the ones given, needs to hear about individual entities
+     * of the given type being deleted
+     * @param entityType    the type of the entity
+     * @param ignored       the handlers that should not be counted
+     * @return {@code true} if there is such a handler
+     */
+    public boolean isDeletionObserved(Class<?> entityType, DataAccessEventHandler... ignored) {
+        final List<DataAccessEventHandler> excluded = Arrays.asList(ignored);
+        for (EventKind kind : new EventKind[]{EventKind.BEFORE_DELETE, EventKind.AFTER_DELETE}) {
+            for (DataAccessEventHandler handler : getHandlers(kind, entityType)) {
+                if (!excluded.contains(handler)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Map<EventKind, ConcurrentMap<Class<?>, DataAccessEventHandler[]>> createDispatchTable() {
+        final Map<EventKind, ConcurrentMap<Class<?>, DataAccessEventHandler[]>> table = new EnumMap<EventKind, ConcurrentMap<Class<?>, DataAccessEventHandler[]>>(EventKind.class);
+        for (EventKind kind : EventKind.values()) {
+            table.put(kind, new ConcurrentHashMap<Class<?>, DataAccessEventHandler[]>());
         }
+        return table;
+    }
+
+    private static Class<?> typeOf(Object entity) {
+        return entity == null ? null : entity.getClass();
+    }
+
+    /**
+     * Looks up the handlers interested in the given kind of event for the given entity type
+     * @param kind          the kind of the event
+     * @param entityType    the type of the entity, or {@code null} if it is not known, in which case all
+     *                      handlers for the event are considered interested
+     * @return the handlers, in order
+     */
+    private DataAccessEventHandler[] getHandlers(EventKind kind, Class<?> entityType) {
+        //the table must be read before the handlers, so that handlers resolved from an outdated list
+        //are never stored in the table put in place after a handler was added
+        final ConcurrentMap<Class<?>, DataAccessEventHandler[]> table = dispatchTable.get(kind);
+        final List<DataAccessEventHandler> handlers = this.handlers;
+        final Class<?> key = entityType == null ? Void.class : entityType;
+        final DataAccessEventHandler[] cached = table.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final List<DataAccessEventHandler> interested = new ArrayList<DataAccessEventHandler>();
+        for (DataAccessEventHandler handler : handlers) {
+            if (!kind.isHandledBy(handler)) {
+                continue;
+            }
+            if (entityType != null && handler instanceof AbstractDataAccessEventHandler && !((AbstractDataAccessEventHandler) handler).supports(entityType)) {
+                continue;
+            }
+            interested.add(handler);
+        }
+        table.putIfAbsent(key, interested.isEmpty() ? NO_HANDLERS : interested.toArray(new DataAccessEventHandler[interested.size()]));
+        return table.get(key);
     }
 
     @Override
     public <E> void beforeSave(E entity) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.BEFORE_SAVE, typeOf(entity))) {
             handler.beforeSave(entity);
         }
     }
 
     @Override
     public <E> void afterSave(E entity) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.AFTER_SAVE, typeOf(entity))) {
             handler.afterSave(entity);
         }
     }
 
     @Override
     public <E> void beforeInsert(E entity) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.BEFORE_INSERT, typeOf(entity))) {
             handler.beforeInsert(entity);
         }
     }
 
     @Override
     public <E> void afterInsert(E entity) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.AFTER_INSERT, typeOf(entity))) {
             handler.afterInsert(entity);
         }
     }
 
     @Override
     public <E> void beforeUpdate(E entity) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.BEFORE_UPDATE, typeOf(entity))) {
             handler.beforeUpdate(entity);
         }
     }
 
     @Override
     public <E> void afterUpdate(E entity, boolean updated) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.AFTER_UPDATE, typeOf(entity))) {
             handler.afterUpdate(entity, updated);
         }
     }
 
     @Override
     public <E> void beforeDelete(E entity) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.BEFORE_DELETE, typeOf(entity))) {
             handler.beforeDelete(entity);
         }
     }
 
     @Override
     public <E> void afterDelete(E entity) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.AFTER_DELETE, typeOf(entity))) {
             handler.afterDelete(entity);
         }
     }
 
     @Override
     public <E, K extends Serializable> void beforeDelete(Class<E> entityType, K key) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.BEFORE_DELETE_BY_KEY, entityType)) {
             handler.beforeDelete(entityType, key);
         }
     }
 
     @Override
     public <E, K extends Serializable> void afterDelete(Class<E> entityType, K key) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.AFTER_DELETE_BY_KEY, entityType)) {
             handler.afterDelete(entityType, key);
         }
     }
 
     @Override
     public <E> void beforeDeleteAll(Class<E> entityType) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.BEFORE_DELETE_ALL, entityType)) {
             handler.beforeDeleteAll(entityType);
         }
     }
 
     @Override
     public <E> void afterDeleteAll(Class<E> entityType) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.AFTER_DELETE_ALL, entityType)) {
             handler.afterDeleteAll(entityType);
         }
     }
 
     @Override
     public <E> void beforeTruncate(Class<E> entityType) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.BEFORE_TRUNCATE, entityType)) {
             handler.beforeTruncate(entityType);
         }
     }
 
     @Override
     public <E> void afterTruncate(Class<E> entityType) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.AFTER_TRUNCATE, entityType)) {
             handler.afterTruncate(entityType);
         }
     }
 
     @Override
     public <E> void beforeFind(E sample) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.BEFORE_FIND, typeOf(sample))) {
             handler.beforeFind(sample);
         }
     }
 
     @Override
     public <E> void afterFind(E sample, List<E> entities) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.AFTER_FIND, typeOf(sample))) {
             handler.afterFind(sample, entities);
         }
     }
 
     @Override
     public <E, K extends Serializable> void beforeFind(Class<E> entityType, K key) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.BEFORE_FIND_BY_KEY, entityType)) {
             handler.beforeFind(entityType, key);
         }
     }
@@ -176,7 +307,7 @@ public class CompositeDataAccessEventHandler implements DataAccessEventHandler,
     @Override
     public <E, K extends Serializable> E afterFind(Class<E> entityType, K key, E entity) {
         E found = entity;
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.AFTER_FIND_BY_KEY, entityType)) {
             found = handler.afterFind(entityType, key, found);
         }
         return found;
@@ -184,70 +315,70 @@ public class CompositeDataAccessEventHandler implements DataAccessEventHandler,
 
     @Override
     public <E> void beforeFindAll(Class<E> entityType) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.BEFORE_FIND_ALL, entityType)) {
             handler.beforeFindAll(entityType);
         }
     }
 
     @Override
     public <E> void afterFindAll(Class<E> entityType, List<E> entities) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.AFTER_FIND_ALL, entityType)) {
             handler.afterFindAll(entityType, entities);
         }
     }
 
     @Override
     public <E> void beforeExecuteUpdate(Class<E> entityType, String queryName, Map<String, Object> values) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.BEFORE_EXECUTE_UPDATE, entityType)) {
             handler.beforeExecuteUpdate(entityType, queryName, values);
         }
     }
 
     @Override
     public <E> void afterExecuteUpdate(Class<E> entityType, String queryName, Map<String, Object> values, int affectedRows) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.AFTER_EXECUTE_UPDATE, entityType)) {
             handler.afterExecuteUpdate(entityType, queryName, values, affectedRows);
         }
     }
 
     @Override
     public <E> void beforeExecuteUpdate(E sample, String queryName) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.BEFORE_EXECUTE_SAMPLE_UPDATE, typeOf(sample))) {
             handler.beforeExecuteUpdate(sample, queryName);
         }
     }
 
     @Override
     public <E> void afterExecuteUpdate(E sample, String queryName, int affectedRows) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.AFTER_EXECUTE_SAMPLE_UPDATE, typeOf(sample))) {
             handler.afterExecuteUpdate(sample, queryName, affectedRows);
         }
     }
 
     @Override
     public <E> void beforeExecuteQuery(Class<E> entityType, String queryName, Map<String, Object> values) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.BEFORE_EXECUTE_QUERY, entityType)) {
             handler.beforeExecuteQuery(entityType, queryName, values);
         }
     }
 
     @Override
     public <E> void afterExecuteQuery(Class<E> entityType, String queryName, Map<String, Object> values, List<E> entities) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.AFTER_EXECUTE_QUERY, entityType)) {
             handler.afterExecuteQuery(entityType, queryName, values, entities);
         }
     }
 
     @Override
     public <E> void beforeExecuteQuery(E sample, String queryName) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.BEFORE_EXECUTE_SAMPLE_QUERY, typeOf(sample))) {
             handler.beforeExecuteQuery(sample, queryName);
         }
     }
 
     @Override
     public <E> void afterExecuteQuery(E sample, String queryName, List<E> entities) {
-        for (DataAccessEventHandler handler : handlers) {
+        for (DataAccessEventHandler handler : getHandlers(EventKind.AFTER_EXECUTE_SAMPLE_QUERY, typeOf(sample))) {
             handler.afterExecuteQuery(sample, queryName, entities);
         }
     }
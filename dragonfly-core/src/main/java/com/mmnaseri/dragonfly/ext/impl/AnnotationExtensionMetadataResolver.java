@@ -88,10 +88,10 @@ public class AnnotationExtensionMetadataResolver implements ExtensionMetadataRes
                             @Override
                             public RelationMetadata<E, ?> map(RelationMetadata<Object, ?> input) {
                                 //noinspection unchecked
-                                return new DefaultRelationMetadata<E, Object>(input.getDeclaringClass(), input.getPropertyName(), input.isOwner(), tableMetadata, (TableMetadata<Object>) input.getForeignTable(), input.getForeignColumn(), input.getType(), input.getCascadeMetadata(), input.isLazy(), input.getOrdering());
+                                return new DefaultRelationMetadata<E, Object>(input.getDeclaringClass(), input.getPropertyName(), input.isOwner(), tableMetadata, (TableMetadata<Object>) input.getForeignTable(), input.getForeignColumn(), input.getType(), input.getCascadeMetadata(), input.isLazy(), input.getOrdering(), input.getBatchSize());
                             }
                         }).list()).list(), tableMetadata.getVersionColumn(),
-                        with(tableMetadata.getOrdering()).add(metadata.getOrdering()).list());
+                        with(tableMetadata.getOrdering()).add(metadata.getOrdering()).list(), tableMetadata.getCacheMetadata());
             }
         }, new EntityDefinitionInterceptor() {
             @Override
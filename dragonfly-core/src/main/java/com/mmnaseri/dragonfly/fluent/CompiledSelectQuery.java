@@ -0,0 +1,65 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.fluent;
+
+import java.util.List;
+
+/**
+ * This interface represents a SELECT query whose SQL has been generated once and can be executed any
+ * number of times, each time with a fresh set of values for its parameters. Compiled queries are
+ * immutable and can be shared freely across threads.
+ *
+ * <p>The parameters of the query are positional, and appear in the same order as the values given to
+ * the query while it was being defined, including the values of any sub-queries it refers to.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:16)
+ */
+public interface CompiledSelectQuery<E, H> {
+
+    /**
+     * @return the SQL statement for the query
+     */
+    String getSql();
+
+    /**
+     * @return the number of parameters expected by the query
+     */
+    int getParameterCount();
+
+    /**
+     * Executes the query with the values given to it while it was being defined
+     * @return the result of the query
+     */
+    List<? extends H> select();
+
+    /**
+     * Executes the query with the given parameter values
+     * @param parameters    the values of the parameters, in order. There must be exactly as many values
+     *                      as {@link #getParameterCount()}.
+     * @return the result of the query
+     */
+    List<? extends H> select(Object... parameters);
+
+}
@@ -85,5 +85,34 @@ public interface SelectQueryFinalizer<E> {
      */
     SelectQueryExecution<E, E> distinctSelection();
 
+    /**
+     * Generates the query once, so that it can be executed any number of times with different parameter values
+     * @param binding    the binding object. Can be a function invocation, a list, a map, or an object.
+     *                   If it is {@code null} then the main source will be chosen as the binding
+     * @param <H>        the type of the binding
+     * @return the compiled query
+     */
+    <H> CompiledSelectQuery<E, H> compile(H binding);
+
+    /**
+     * Same as {@link #compile(Object) compile(null)}
+     * @return the compiled query
+     */
+    CompiledSelectQuery<E, E> compile();
+
+    /**
+     * Same as {@link #compile(Object)} only it is a DISTINCT selection
+     * @param binding    the binding object
+     * @param <H>        the type of the binding
+     * @return the compiled query
+     */
+    <H> CompiledSelectQuery<E, H> compileDistinct(H binding);
+
+    /**
+     * Same as {@link #compile(Object)} only it is a DISTINCT selection with a {@code null} binding
+     * @return the compiled query
+     */
+    CompiledSelectQuery<E, E> compileDistinct();
+
 
 }
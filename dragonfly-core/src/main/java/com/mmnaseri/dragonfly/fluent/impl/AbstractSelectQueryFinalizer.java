@@ -23,33 +23,17 @@
 
 package com.mmnaseri.dragonfly.fluent.impl;
 
-import com.mmnaseri.couteau.basics.api.Filter;
 import com.mmnaseri.dragonfly.data.DataAccessSession;
-import com.mmnaseri.dragonfly.entity.MapEntityCreator;
-import com.mmnaseri.dragonfly.entity.impl.DefaultMapEntityCreator;
+import com.mmnaseri.dragonfly.fluent.CompiledSelectQuery;
 import com.mmnaseri.dragonfly.fluent.SelectQueryExecution;
 import com.mmnaseri.dragonfly.fluent.SelectQueryFinalizer;
-import com.mmnaseri.dragonfly.fluent.error.DatabaseNegotiationException;
-import com.mmnaseri.dragonfly.fluent.error.StatementPreparationException;
 import com.mmnaseri.dragonfly.fluent.generation.*;
-import com.mmnaseri.dragonfly.fluent.generation.impl.ImmutableMapping;
 import com.mmnaseri.dragonfly.fluent.generation.impl.ImmutableSelectionSource;
-import com.mmnaseri.dragonfly.fluent.generation.impl.ResolvableFunctionInvocation;
 import com.mmnaseri.dragonfly.fluent.generation.impl.SelectQueryExecutionBuilder;
-import com.mmnaseri.dragonfly.fluent.tools.QueryBuilderTools;
-import com.mmnaseri.dragonfly.fluent.tools.QueryResultBinder;
 import com.mmnaseri.dragonfly.metadata.ColumnMetadata;
 import com.mmnaseri.dragonfly.metadata.TableMetadata;
-import com.mmnaseri.dragonfly.statement.Statement;
-import org.apache.commons.logging.LogFactory;
 
-import java.sql.*;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-
-import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
 
 /**
  * @author Milad Naseri (mmnaseri@programmer.net)
@@ -76,89 +60,20 @@ public abstract class AbstractSelectQueryFinalizer<E> implements SelectQueryFina
         return session.getTableMetadataRegistry().getTableMetadata(entityType);
     }
 
-    private <H> SelectQueryExecution<E, H> selection(H binding, boolean distinct) {
+    /**
+     * Generates the query for the current state of the finalizer. This is the only step that needs to be
+     * guarded, since the execution builder is shared by all the selections made through this finalizer.
+     */
+    private synchronized <H> SelectQueryExecution<E, H> selection(H binding, boolean distinct) {
         return executionBuilder.build(session, binding, distinct);
     }
 
-    private <H> List<Map<Mapping, Object>> execute(SelectQueryExecution<E, H> selection) {
-        final Connection connection = session.getConnection();
-        final PreparedStatement preparedStatement;
-        try {
-            final String sql = selection.getSql() + ";";
-            LogFactory.getLog(Statement.class).info("Preparing statement: " + sql);
-            preparedStatement = connection.prepareStatement(sql);
-        } catch (SQLException e) {
-            throw new DatabaseNegotiationException("Failed to get a prepared statement from the database", e);
-        }
-        for (ParameterDescriptor descriptor : selection.getParameters()) {
-            try {
-                if (descriptor.getValue() == null) {
-                    preparedStatement.setNull(descriptor.getIndex(), descriptor.getSqlType());
-                } else {
-                    preparedStatement.setObject(descriptor.getIndex(), descriptor.getValue());
-                }
-            } catch (SQLException e) {
-                throw new StatementPreparationException("Failed to prepare statement for parameter " + descriptor.getIndex(), e);
-            }
-        }
-        final ResultSet resultSet;
-        final ResultSetMetaData metaData;
-        try {
-            resultSet = preparedStatement.executeQuery();
-        } catch (SQLException e) {
-            throw new DatabaseNegotiationException("Failed to retrieve the results from the data source", e);
-        }
-        try {
-            metaData = resultSet.getMetaData();
-        } catch (SQLException e) {
-            throw new DatabaseNegotiationException("Failed to get result set metadata for query", e);
-        }
-        final ArrayList<Map<Mapping, Object>> result = new ArrayList<Map<Mapping, Object>>();
-        while (true) {
-            try {
-                if (!resultSet.next()) {
-                    break;
-                }
-                final HashMap<Mapping, Object> map = new HashMap<Mapping, Object>();
-                for (int i = 1; i <= metaData.getColumnCount(); i ++) {
-                    map.put(new ImmutableMapping(metaData.getTableName(i), metaData.getColumnName(i), metaData.getColumnLabel(i)), resultSet.getObject(i));
-                }
-                result.add(map);
-            } catch (SQLException e) {
-                throw new DatabaseNegotiationException("Failed to get the next row", e);
-            }
-
-        }
-        return result;
-    }
-
-    private synchronized <H> List<? extends H> select(final H binding, boolean distinct) {
-        final SelectQueryExecution<E, H> selection = selection(binding, distinct);
-        final List<Map<Mapping, Object>> maps = execute(selection);
-        final ArrayList<H> result = new ArrayList<H>();
-        if (binding instanceof FunctionInvocation<?>) {
-            for (Map<Mapping, Object> map : maps) {
-                final ResolvableFunctionInvocation<Object> invocation = new ResolvableFunctionInvocation<Object>();
-                //noinspection unchecked
-                invocation.setInvocation((FunctionInvocation) binding);
-                invocation.setResult(with(map.entrySet()).find(new Filter<Map.Entry<Mapping, Object>>() {
-                    @Override
-                    public boolean accepts(Map.Entry<Mapping, Object> item) {
-                        return item.getKey().getLabel().equalsIgnoreCase(((FunctionInvocation) binding).getAlias());
-                    }
-                }).getValue());
-                //noinspection unchecked
-                result.add((H) invocation);
-            }
-            return result;
-        }
-        final MapEntityCreator entityCreator = new DefaultMapEntityCreator(QueryBuilderTools.getValueReaderContext());
-        final QueryResultBinder<E, H> binder = new QueryResultBinder<E, H>(selection, entityCreator);
-        for (Map<Mapping, Object> map : maps) {
-            final H instance = QueryBuilderTools.newObject(selection.getBindingType());
-            result.add(binder.bind(map, instance));
-        }
-        return result;
+    private <H> CompiledSelectQuery<E, H> compile(H binding, boolean distinct) {
+        return new DefaultCompiledSelectQuery<E, H>(session, selection(binding, distinct));
+    }
+
+    private <H> List<? extends H> select(H binding, boolean distinct) {
+        return compile(binding, distinct).select();
     }
 
     @Override
@@ -201,6 +116,26 @@ public abstract class AbstractSelectQueryFinalizer<E> implements SelectQueryFina
         return distinctSelection(null);
     }
 
+    @Override
+    public <H> CompiledSelectQuery<E, H> compile(H binding) {
+        return compile(binding, false);
+    }
+
+    @Override
+    public CompiledSelectQuery<E, E> compile() {
+        return compile(null);
+    }
+
+    @Override
+    public <H> CompiledSelectQuery<E, H> compileDistinct(H binding) {
+        return compile(binding, true);
+    }
+
+    @Override
+    public CompiledSelectQuery<E, E> compileDistinct() {
+        return compileDistinct(null);
+    }
+
     public void addGroupByColumn(Object property) {
         executionBuilder.addGroupByColumn(property);
     }
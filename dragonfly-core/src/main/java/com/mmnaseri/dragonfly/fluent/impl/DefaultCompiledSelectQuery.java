@@ -0,0 +1,216 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.fluent.impl;
+
+import com.mmnaseri.dragonfly.data.DataAccessSession;
+import com.mmnaseri.dragonfly.entity.MapEntityCreator;
+import com.mmnaseri.dragonfly.entity.impl.AccessorMapEntityCreator;
+import com.mmnaseri.dragonfly.fluent.CompiledSelectQuery;
+import com.mmnaseri.dragonfly.fluent.SelectQueryExecution;
+import com.mmnaseri.dragonfly.fluent.error.DatabaseNegotiationException;
+import com.mmnaseri.dragonfly.fluent.error.ParameterCountMismatchException;
+import com.mmnaseri.dragonfly.fluent.error.StatementPreparationException;
+import com.mmnaseri.dragonfly.fluent.generation.FunctionInvocation;
+import com.mmnaseri.dragonfly.fluent.generation.Mapping;
+import com.mmnaseri.dragonfly.fluent.generation.ParameterDescriptor;
+import com.mmnaseri.dragonfly.fluent.generation.impl.ImmutableMapping;
+import com.mmnaseri.dragonfly.fluent.generation.impl.ResolvableFunctionInvocation;
+import com.mmnaseri.dragonfly.fluent.tools.QueryBuilderTools;
+import com.mmnaseri.dragonfly.fluent.tools.QueryResultBinder;
+import com.mmnaseri.dragonfly.statement.Statement;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This is the default implementation of a compiled query, which holds on to the SQL and the parameter
+ * descriptors generated for the query and only rebinds the parameter values on each execution.
+ *
+ * <p>Since the SQL of the query never changes, connections that cache their prepared statements will
+ * reuse the same statement for every execution. For the same reason, the layout of the result set is
+ * only read off of its metadata on the first execution, and the binding plan computed for it is used to
+ * bind the rows of all later executions.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:16)
+ */
+public class DefaultCompiledSelectQuery<E, H> implements CompiledSelectQuery<E, H> {
+
+    private static final Log log = LogFactory.getLog(Statement.class);
+    private final DataAccessSession session;
+    private final SelectQueryExecution<E, H> selection;
+    private final String sql;
+    private final ParameterDescriptor[] parameters;
+    private volatile Mapping[] mappings;
+    private volatile QueryResultBinder<E, H> binder;
+
+    public DefaultCompiledSelectQuery(DataAccessSession session, SelectQueryExecution<E, H> selection) {
+        this.session = session;
+        this.selection = selection;
+        this.sql = selection.getSql() + ";";
+        this.parameters = selection.getParameters().toArray(new ParameterDescriptor[selection.getParameters().size()]);
+    }
+
+    @Override
+    public String getSql() {
+        return selection.getSql();
+    }
+
+    @Override
+    public int getParameterCount() {
+        return parameters.length;
+    }
+
+    @Override
+    public List<? extends H> select() {
+        final Object[] values = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            values[i] = parameters[i].getValue();
+        }
+        return execute(values);
+    }
+
+    @Override
+    public List<? extends H> select(Object... parameters) {
+        if (parameters.length != this.parameters.length) {
+            throw new ParameterCountMismatchException(this.parameters.length, parameters.length);
+        }
+        return execute(parameters);
+    }
+
+    private List<? extends H> execute(Object[] values) {
+        final List<Object[]> rows = read(values);
+        final ArrayList<H> result = new ArrayList<H>(rows.size());
+        final H binding = selection.getBinding();
+        if (binding instanceof FunctionInvocation<?>) {
+            final FunctionInvocation<?> function = (FunctionInvocation<?>) binding;
+            int index = -1;
+            for (int i = 0; i < mappings.length; i++) {
+                if (mappings[i].getLabel().equalsIgnoreCase(function.getAlias())) {
+                    index = i;
+                    break;
+                }
+            }
+            for (Object[] row : rows) {
+                final ResolvableFunctionInvocation<Object> invocation = new ResolvableFunctionInvocation<Object>();
+                //noinspection unchecked
+                invocation.setInvocation((FunctionInvocation) function);
+                invocation.setResult(index < 0 ? null : row[index]);
+                //noinspection unchecked
+                result.add((H) invocation);
+            }
+            return result;
+        }
+        final QueryResultBinder<E, H> binder = getBinder();
+        for (Object[] row : rows) {
+            final H instance = QueryBuilderTools.newObject(selection.getBindingType());
+            result.add(binder.bind(row, instance));
+        }
+        return result;
+    }
+
+    private QueryResultBinder<E, H> getBinder() {
+        QueryResultBinder<E, H> binder = this.binder;
+        if (binder == null) {
+            final MapEntityCreator entityCreator = new AccessorMapEntityCreator(QueryBuilderTools.getValueReaderContext());
+            binder = new QueryResultBinder<E, H>(selection, entityCreator, mappings);
+            this.binder = binder;
+        }
+        return binder;
+    }
+
+    private List<Object[]> read(Object[] values) {
+        final Connection connection = session.getConnection();
+        PreparedStatement preparedStatement = null;
+        try {
+            try {
+                log.info("Preparing statement: " + sql);
+                preparedStatement = connection.prepareStatement(sql);
+            } catch (SQLException e) {
+                throw new DatabaseNegotiationException("Failed to get a prepared statement from the database", e);
+            }
+            for (int i = 0; i < parameters.length; i++) {
+                final ParameterDescriptor descriptor = parameters[i];
+                try {
+                    if (values[i] == null) {
+                        preparedStatement.setNull(descriptor.getIndex(), descriptor.getSqlType() == null ? Types.NULL : descriptor.getSqlType());
+                    } else {
+                        preparedStatement.setObject(descriptor.getIndex(), values[i]);
+                    }
+                } catch (SQLException e) {
+                    throw new StatementPreparationException("Failed to prepare statement for parameter " + descriptor.getIndex(), e);
+                }
+            }
+            final ResultSet resultSet;
+            try {
+                resultSet = preparedStatement.executeQuery();
+            } catch (SQLException e) {
+                throw new DatabaseNegotiationException("Failed to retrieve the results from the data source", e);
+            }
+            final int columnCount;
+            try {
+                final ResultSetMetaData metaData = resultSet.getMetaData();
+                columnCount = metaData.getColumnCount();
+                if (mappings == null) {
+                    final Mapping[] mappings = new Mapping[columnCount];
+                    for (int i = 0; i < mappings.length; i++) {
+                        mappings[i] = new ImmutableMapping(metaData.getTableName(i + 1), metaData.getColumnName(i + 1), metaData.getColumnLabel(i + 1));
+                    }
+                    this.mappings = mappings;
+                }
+            } catch (SQLException e) {
+                throw new DatabaseNegotiationException("Failed to get result set metadata for query", e);
+            }
+            final ArrayList<Object[]> result = new ArrayList<Object[]>();
+            while (true) {
+                try {
+                    if (!resultSet.next()) {
+                        break;
+                    }
+                    final Object[] row = new Object[columnCount];
+                    for (int i = 0; i < columnCount; i++) {
+                        row[i] = resultSet.getObject(i + 1);
+                    }
+                    result.add(row);
+                } catch (SQLException e) {
+                    throw new DatabaseNegotiationException("Failed to get the next row", e);
+                }
+            }
+            return result;
+        } finally {
+            try {
+                if (preparedStatement != null) {
+                    preparedStatement.close();
+                }
+                connection.close();
+            } catch (SQLException e) {
+                log.error("Failed to release the connection after the query", e);
+            }
+        }
+    }
+
+}
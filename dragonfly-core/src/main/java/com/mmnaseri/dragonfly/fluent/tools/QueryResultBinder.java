@@ -23,11 +23,11 @@
 
 package com.mmnaseri.dragonfly.fluent.tools;
 
-import com.mmnaseri.couteau.basics.api.Filter;
 import com.mmnaseri.couteau.context.value.ValueReaderContext;
 import com.mmnaseri.couteau.reflection.util.ClassUtils;
 import com.mmnaseri.dragonfly.entity.MapEntityCreator;
 import com.mmnaseri.dragonfly.error.EntityDefinitionError;
+import com.mmnaseri.dragonfly.error.EntityPreparationError;
 import com.mmnaseri.dragonfly.fluent.SelectQueryExecution;
 import com.mmnaseri.dragonfly.fluent.generation.FunctionInvocation;
 import com.mmnaseri.dragonfly.fluent.generation.Mapping;
@@ -36,43 +36,65 @@ import com.mmnaseri.dragonfly.metadata.ColumnMetadata;
 import com.mmnaseri.dragonfly.metadata.TableMetadata;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
-
 /**
+ * This class binds the rows read for a select query to instances of the query's binding type.
+ *
+ * <p>All the lookups needed to decide where each column of the result set goes (function aliases,
+ * table and column aliases, and the metadata for the bound columns and entities) are resolved once,
+ * when the binder is created for a given result set layout. Binding a row then only reads the row's
+ * cells by their index.</p>
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (14/8/10 AD, 12:15)
  */
 public class QueryResultBinder<E, H> {
 
-
     private final SelectQueryExecution<E, H> selection;
     private final MapEntityCreator entityCreator;
     private final ObjectMapper mapper = new ObjectMapper();
     private final ValueReaderContext readerContext;
+    private final Target target;
+    private final String[] properties;
+    private final Target[] targets;
 
-    public QueryResultBinder(SelectQueryExecution<E, H> selection, MapEntityCreator entityCreator) {
+    /**
+     * Creates a binder for the given selection and result set layout
+     * @param selection        the selection being executed
+     * @param entityCreator    the creator used for entities bound to the result
+     * @param mappings         the mappings for the columns of the result set, in order
+     */
+    public QueryResultBinder(SelectQueryExecution<E, H> selection, MapEntityCreator entityCreator, Mapping[] mappings) {
         this.selection = selection;
         this.entityCreator = entityCreator;
         this.mapper.enableDefaultTyping();
         this.readerContext = QueryBuilderTools.getValueReaderContext();
+        this.target = getTarget(mappings);
+        if (target != null) {
+            properties = null;
+            targets = null;
+            return;
+        }
+        final Map<String, Object> binding = QueryBuilderTools.unwrap(selection.getBinding());
+        properties = new String[binding.size()];
+        targets = new Target[binding.size()];
+        int index = 0;
+        for (Map.Entry<String, Object> entry : binding.entrySet()) {
+            properties[index] = entry.getKey();
+            targets[index] = getTarget(mappings, entry.getValue());
+            index ++;
+        }
     }
 
-    public H bind(Map<Mapping, Object> values, H instance) {
-        for (SelectionSource<?> source : selection.getSources()) {
-            if (selection.getBinding() == source.getBookKeeper().getEntity()) {
-                //noinspection unchecked
-                return (H) bindEntity(values, source.getBookKeeper().getEntity(), getTable(selection.getBinding()));
-            }
-            final ColumnMetadata column = source.getBookKeeper().getColumn(selection.getBinding());
-            if (column != null) {
-                //noinspection unchecked
-                return (H) bindColumn(values, selection.getBinding(), getColumn(selection.getBinding()));
-            }
+    public H bind(Object[] row, H instance) {
+        if (target != null) {
+            //noinspection unchecked
+            return (H) target.read(row);
         }
         final Map<String, Object> map = QueryBuilderTools.unwrap(instance, selection.getBinding());
         for (String key : map.keySet()) {
@@ -85,63 +107,95 @@ public class QueryResultBinder<E, H> {
                 list.add(null);
             }
         }
-        final Map<String, Object> binding = QueryBuilderTools.unwrap(selection.getBinding());
-        for (final Map.Entry<String, Object> entry : binding.entrySet()) {
-            Object value = null;
-            final Object entryValue = entry.getValue();
-            if (entryValue instanceof FunctionInvocation) {
-                value = with(values.entrySet()).find(new AliasFilter(((FunctionInvocation) entryValue).getAlias())).getValue();
-            } else {
-                final String table = getTable(entryValue);
-                if (table != null) {
-                    value = bindEntity(values, entryValue, table);
-                }
-                final String column = getColumn(entryValue);
-                if (column != null) {
-                    value = bindColumn(values, entryValue, column);
-                }
-            }
-            QueryBuilderTools.setValue(instance, entry.getKey(), value);
+        for (int i = 0; i < properties.length; i++) {
+            QueryBuilderTools.setValue(instance, properties[i], targets[i] == null ? null : targets[i].read(row));
         }
         return instance;
     }
 
-    private Object bindColumn(Map<Mapping, Object> values, final Object entryValue, String column) {
-        Object value;
-        value = with(values.entrySet()).find(new AliasFilter(column)).getValue();
-        final ColumnMetadata columnMetadata = with(selection.getColumns().entrySet()).find(new Filter<Map.Entry<Object, ColumnMetadata>>() {
-            @Override
-            public boolean accepts(Map.Entry<Object, ColumnMetadata> item) {
-                return item.getKey() == entryValue;
+    /**
+     * @param mappings    the result set layout
+     * @return the target for the binding as a whole, if the binding is itself an entity or a column,
+     * or {@code null} if the binding is a composite of several targets
+     */
+    private Target getTarget(Mapping[] mappings) {
+        final H binding = selection.getBinding();
+        for (SelectionSource<?> source : selection.getSources()) {
+            if (binding == source.getBookKeeper().getEntity()) {
+                return getEntityTarget(mappings, binding, getTable(binding));
             }
-        }).getValue();
-        postProcess(value, columnMetadata);
-        return value;
+            if (source.getBookKeeper().getColumn(binding) != null) {
+                return getColumnTarget(mappings, binding, getColumn(binding));
+            }
+        }
+        return null;
     }
 
-    private Object bindEntity(Map<Mapping, Object> values, final Object entryValue, String table) {
-        Object value;
-        final List<Map.Entry<Mapping, Object>> list = with(values.entrySet()).keep(new TableFilter(table)).list();
-        final HashMap<String, Object> fetched = new HashMap<String, Object>();
-        for (Map.Entry<Mapping, Object> mapping : list) {
-            fetched.put(mapping.getKey().getColumnName(), mapping.getValue());
-        }
-        final TableMetadata<?> tableMetadata = with(selection.getSources()).find(new Filter<SelectionSource<?>>() {
-            @Override
-            public boolean accepts(SelectionSource<?> item) {
-                return item.getBookKeeper().getEntity() == entryValue;
+    private Target getTarget(Mapping[] mappings, Object entryValue) {
+        if (entryValue instanceof FunctionInvocation) {
+            return new FunctionTarget(getIndex(mappings, ((FunctionInvocation) entryValue).getAlias()));
+        }
+        final String column = getColumn(entryValue);
+        if (column != null) {
+            return getColumnTarget(mappings, entryValue, column);
+        }
+        final String table = getTable(entryValue);
+        if (table != null) {
+            return getEntityTarget(mappings, entryValue, table);
+        }
+        return null;
+    }
+
+    private Target getColumnTarget(Mapping[] mappings, Object entryValue, String column) {
+        ColumnMetadata columnMetadata = null;
+        for (Map.Entry<Object, ColumnMetadata> entry : selection.getColumns().entrySet()) {
+            if (entry.getKey() == entryValue) {
+                columnMetadata = entry.getValue();
+                break;
             }
-        }).getBookKeeper().getTable();
-        value = entityCreator.fromMap(QueryBuilderTools.newObject(tableMetadata.getEntityType()), tableMetadata.getColumns(), fetched);
-        return value;
+        }
+        return new ColumnTarget(getIndex(mappings, column), columnMetadata);
+    }
+
+    private Target getEntityTarget(Mapping[] mappings, Object entryValue, String table) {
+        TableMetadata<?> tableMetadata = null;
+        for (SelectionSource<?> source : selection.getSources()) {
+            if (source.getBookKeeper().getEntity() == entryValue) {
+                tableMetadata = source.getBookKeeper().getTable();
+                break;
+            }
+        }
+        final String prefix = table.toLowerCase() + "_";
+        final List<Integer> indices = new ArrayList<Integer>();
+        for (int i = 0; i < mappings.length; i++) {
+            if (mappings[i].getLabel().toLowerCase().startsWith(prefix)) {
+                indices.add(i);
+            }
+        }
+        final int[] columnIndices = new int[indices.size()];
+        final String[] columnNames = new String[indices.size()];
+        for (int i = 0; i < columnIndices.length; i++) {
+            columnIndices[i] = indices.get(i);
+            columnNames[i] = mappings[columnIndices[i]].getColumnName();
+        }
+        return new EntityTarget(tableMetadata, columnIndices, columnNames);
+    }
+
+    private static int getIndex(Mapping[] mappings, String alias) {
+        for (int i = 0; i < mappings.length; i++) {
+            if (mappings[i].getLabel().equalsIgnoreCase(alias)) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     private Object postProcess(Object inferredValue, ColumnMetadata columnMetadata) {
+        if (inferredValue == null) {
+            return null;
+        }
+        final Class<?> propertyType = columnMetadata.getPropertyType();
         try {
-            if (inferredValue == null) {
-                return null;
-            }
-            final Class<?> propertyType = columnMetadata.getPropertyType();
             if (columnMetadata.isComplex() && inferredValue instanceof String) {
                 final String[] split = ((String) inferredValue).split(";", 2);
                 final Class targetType = ClassUtils.forName(split[0], getClass().getClassLoader());
@@ -166,8 +220,11 @@ public class QueryResultBinder<E, H> {
                 inferredValue = readerContext.read((String) inferredValue, propertyType);
             }
             return inferredValue;
-        } catch (Exception ignored) {}
-        return null;
+        } catch (EntityDefinitionError e) {
+            throw e;
+        } catch (Exception e) {
+            throw new EntityPreparationError("Failed to convert the value of column `" + columnMetadata.getName() + "` to " + propertyType.getCanonicalName(), e);
+        }
     }
 
     private String getTable(Object value) {
@@ -188,32 +245,69 @@ public class QueryResultBinder<E, H> {
         return null;
     }
 
-    private static class AliasFilter implements Filter<Map.Entry<Mapping, Object>> {
+    /**
+     * A target describes how a single bound value is read off of a row
+     */
+    private static abstract class Target {
+
+        abstract Object read(Object[] row);
 
-        private final String alias;
+    }
 
-        private AliasFilter(String alias) {
-            this.alias = alias;
+    private static class FunctionTarget extends Target {
+
+        private final int index;
+
+        private FunctionTarget(int index) {
+            this.index = index;
+        }
+
+        @Override
+        Object read(Object[] row) {
+            return index < 0 ? null : row[index];
+        }
+
+    }
+
+    private class ColumnTarget extends Target {
+
+        private final int index;
+        private final ColumnMetadata columnMetadata;
+
+        private ColumnTarget(int index, ColumnMetadata columnMetadata) {
+            this.index = index;
+            this.columnMetadata = columnMetadata;
         }
 
         @Override
-        public boolean accepts(Map.Entry<Mapping, Object> item) {
-            return item.getKey().getLabel().equalsIgnoreCase(alias);
+        Object read(Object[] row) {
+            final Object value = index < 0 ? null : row[index];
+            return columnMetadata == null ? value : postProcess(value, columnMetadata);
         }
+
     }
 
-    private static class TableFilter implements Filter<Map.Entry<Mapping, Object>> {
+    private class EntityTarget extends Target {
 
-        private final String table;
+        private final TableMetadata<?> tableMetadata;
+        private final int[] indices;
+        private final String[] columnNames;
 
-        private TableFilter(String table) {
-            this.table = table;
+        private EntityTarget(TableMetadata<?> tableMetadata, int[] indices, String[] columnNames) {
+            this.tableMetadata = tableMetadata;
+            this.indices = indices;
+            this.columnNames = columnNames;
         }
 
         @Override
-        public boolean accepts(Map.Entry<Mapping, Object> item) {
-            return item.getKey().getLabel().toLowerCase().startsWith(table.toLowerCase() + "_");
+        Object read(Object[] row) {
+            final HashMap<String, Object> fetched = new HashMap<String, Object>();
+            for (int i = 0; i < indices.length; i++) {
+                fetched.put(columnNames[i], row[indices[i]]);
+            }
+            return entityCreator.fromMap(QueryBuilderTools.newObject(tableMetadata.getEntityType()), tableMetadata.getColumns(), fetched);
         }
+
     }
 
 }
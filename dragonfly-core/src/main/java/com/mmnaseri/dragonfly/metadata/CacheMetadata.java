@@ -0,0 +1,60 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.mmnaseri.dragonfly.metadata;
+
+/**
+ * This interface describes how instances of an entity are kept in the second-level cache
+ * shared by all data access instances of a session, or how the results of a query are kept in the
+ * query result cache
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:05)
+ */
+public interface CacheMetadata extends Metadata {
+
+    /**
+     * @return the maximum number of entities kept in the cache
+     */
+    int getCapacity();
+
+    /**
+     * @return the number of milliseconds an entity is kept in the cache after it was read from the
+     * database, or {@code 0} if entities do not expire
+     */
+    long getTimeToLive();
+
+    /**
+     * @return the policy used to pick the entity to be evicted once the cache is full
+     */
+    CacheEvictionPolicy getEvictionPolicy();
+
+    /**
+     * @return {@code true} if, besides the entities themselves, the results of looking entities up
+     * through {@code findAll} and {@code find(sample)} are to be cached as well. This is only meaningful
+     * for the cache settings of an entity.
+     */
+    boolean isQueryCacheEnabled();
+
+}
@@ -0,0 +1,57 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.metadata;
+
+import java.util.List;
+
+/**
+ * This interface describes a single page of a keyset (seek) paginated lookup. Instead of skipping a
+ * number of rows, the page starts right after the last row of the previous page, as identified by the
+ * values of the ordering columns on that row.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:12)
+ */
+public interface KeysetMetadata extends Metadata {
+
+    /**
+     * @return the complete ordering of the results. This ordering must identify each row uniquely, which
+     * is why the primary key columns are always part of it.
+     */
+    List<OrderMetadata> getOrdering();
+
+    /**
+     * @return {@code true} if the page continues from a previous page, in which case the values of the
+     * ordering columns on the last row of that page are expected as {@code keyset0}, {@code keyset1}, and so on.
+     */
+    boolean isSeeking();
+
+    /**
+     * @return for each of the ordering columns, whether its value on the last row of the previous page was
+     * {@code null}. Such columns are compared through {@code IS NULL} checks instead of their values, and do
+     * not expect a value to be passed in. Empty, unless the page is {@link #isSeeking() seeking}.
+     */
+    List<Boolean> getNullValues();
+
+}
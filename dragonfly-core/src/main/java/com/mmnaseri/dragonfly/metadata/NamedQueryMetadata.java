@@ -55,4 +55,10 @@ public interface NamedQueryMetadata extends Metadata {
      */
     QueryType getQueryType();
 
+    /**
+     * @return the settings for caching the results of the query, or {@code null} if the query
+     * always has to be run against the database
+     */
+    CacheMetadata getCacheMetadata();
+
 }
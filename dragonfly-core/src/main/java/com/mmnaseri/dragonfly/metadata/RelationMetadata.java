@@ -87,4 +87,10 @@ public interface RelationMetadata<S, D> extends Metadata {
      */
     List<OrderMetadata> getOrdering();
 
+    /**
+     * @return the number of related entities to be loaded together when this relation is resolved for
+     * several entities at once, or {@code 0} if the default of the data access should be used
+     */
+    int getBatchSize();
+
 }
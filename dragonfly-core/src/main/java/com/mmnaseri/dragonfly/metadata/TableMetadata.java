@@ -116,4 +116,10 @@ public interface TableMetadata<E> extends Metadata {
      */
     List<OrderMetadata> getOrdering();
 
+    /**
+     * @return the second-level cache settings for the entity, or {@code null} if instances
+     * of the entity are not to be cached
+     */
+    CacheMetadata getCacheMetadata();
+
 }
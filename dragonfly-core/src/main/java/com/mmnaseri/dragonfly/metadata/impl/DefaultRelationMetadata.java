@@ -46,8 +46,13 @@ public class DefaultRelationMetadata<S, D> implements RelationMetadata<S, D> {
     private final RelationType relationType;
     private final boolean lazy;
     private final CascadeMetadata cascadeMetadata;
+    private final int batchSize;
 
     public DefaultRelationMetadata(Class<?> declaringClass, String propertyName, boolean owner, TableMetadata<S> localTable, TableMetadata<D> foreignTable, ColumnMetadata foreignColumn, RelationType relationType, CascadeMetadata cascadeMetadata, boolean lazy, List<OrderMetadata> ordering) {
+        this(declaringClass, propertyName, owner, localTable, foreignTable, foreignColumn, relationType, cascadeMetadata, lazy, ordering, 0);
+    }
+
+    public DefaultRelationMetadata(Class<?> declaringClass, String propertyName, boolean owner, TableMetadata<S> localTable, TableMetadata<D> foreignTable, ColumnMetadata foreignColumn, RelationType relationType, CascadeMetadata cascadeMetadata, boolean lazy, List<OrderMetadata> ordering, int batchSize) {
         this.localTable = localTable;
         this.foreignTable = foreignTable;
         this.relationType = relationType;
@@ -58,6 +63,7 @@ public class DefaultRelationMetadata<S, D> implements RelationMetadata<S, D> {
         this.owner = owner;
         this.declaringClass = declaringClass;
         this.ordering = new DefaultResultOrderMetadata(ordering == null ? Collections.<OrderMetadata>emptyList() : ordering);
+        this.batchSize = batchSize;
     }
 
     @Override
@@ -110,6 +116,11 @@ public class DefaultRelationMetadata<S, D> implements RelationMetadata<S, D> {
         return ordering;
     }
 
+    @Override
+    public int getBatchSize() {
+        return batchSize;
+    }
+
     public void setLocalTable(TableMetadata<S> localTable) {
         this.localTable = localTable;
     }
@@ -0,0 +1,79 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.mmnaseri.dragonfly.metadata.impl;
+
+import com.mmnaseri.dragonfly.metadata.CacheEvictionPolicy;
+import com.mmnaseri.dragonfly.metadata.CacheMetadata;
+
+/**
+ * This class holds immutable cache metadata
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:05)
+ */
+public class ImmutableCacheMetadata implements CacheMetadata {
+
+    private final int capacity;
+    private final long timeToLive;
+    private final CacheEvictionPolicy evictionPolicy;
+    private final boolean queryCacheEnabled;
+
+    public ImmutableCacheMetadata(int capacity, long timeToLive, CacheEvictionPolicy evictionPolicy) {
+        this(capacity, timeToLive, evictionPolicy, false);
+    }
+
+    public ImmutableCacheMetadata(int capacity, long timeToLive, CacheEvictionPolicy evictionPolicy, boolean queryCacheEnabled) {
+        this.capacity = capacity;
+        this.timeToLive = timeToLive;
+        this.evictionPolicy = evictionPolicy;
+        this.queryCacheEnabled = queryCacheEnabled;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    @Override
+    public CacheEvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    @Override
+    public boolean isQueryCacheEnabled() {
+        return queryCacheEnabled;
+    }
+
+    @Override
+    public String toString() {
+        return evictionPolicy + "(" + capacity + (timeToLive > 0 ? ", " + timeToLive + "ms" : "") + ")";
+    }
+
+}
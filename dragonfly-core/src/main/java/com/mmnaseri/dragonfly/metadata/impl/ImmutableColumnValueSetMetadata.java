@@ -0,0 +1,67 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.mmnaseri.dragonfly.metadata.impl;
+
+import com.mmnaseri.dragonfly.metadata.ColumnMetadata;
+import com.mmnaseri.dragonfly.metadata.ColumnValueSetMetadata;
+import com.mmnaseri.dragonfly.metadata.OrderMetadata;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class holds immutable metadata for a column value set lookup
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:01)
+ */
+public class ImmutableColumnValueSetMetadata implements ColumnValueSetMetadata {
+
+    private final ColumnMetadata column;
+    private final int size;
+    private final List<OrderMetadata> ordering;
+
+    public ImmutableColumnValueSetMetadata(ColumnMetadata column, int size, List<OrderMetadata> ordering) {
+        this.column = column;
+        this.size = size;
+        this.ordering = ordering == null ? Collections.<OrderMetadata>emptyList() : ordering;
+    }
+
+    @Override
+    public ColumnMetadata getColumn() {
+        return column;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public List<OrderMetadata> getOrdering() {
+        return ordering;
+    }
+
+}
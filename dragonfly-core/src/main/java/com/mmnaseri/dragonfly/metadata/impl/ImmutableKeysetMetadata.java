@@ -0,0 +1,72 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.metadata.impl;
+
+import com.mmnaseri.dragonfly.metadata.KeysetMetadata;
+import com.mmnaseri.dragonfly.metadata.OrderMetadata;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class holds immutable metadata for a keyset paginated lookup
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:12)
+ */
+public class ImmutableKeysetMetadata implements KeysetMetadata {
+
+    private final List<OrderMetadata> ordering;
+    private final boolean seeking;
+    private final List<Boolean> nullValues;
+
+    public ImmutableKeysetMetadata(List<OrderMetadata> ordering) {
+        this(ordering, false, Collections.<Boolean>emptyList());
+    }
+
+    public ImmutableKeysetMetadata(List<OrderMetadata> ordering, boolean seeking, List<Boolean> nullValues) {
+        if (seeking && nullValues.size() != ordering.size()) {
+            throw new IllegalArgumentException("Expected " + ordering.size() + " keyset values, got " + nullValues.size());
+        }
+        this.ordering = ordering;
+        this.seeking = seeking;
+        this.nullValues = Collections.unmodifiableList(nullValues);
+    }
+
+    @Override
+    public List<OrderMetadata> getOrdering() {
+        return ordering;
+    }
+
+    @Override
+    public boolean isSeeking() {
+        return seeking;
+    }
+
+    @Override
+    public List<Boolean> getNullValues() {
+        return nullValues;
+    }
+
+}
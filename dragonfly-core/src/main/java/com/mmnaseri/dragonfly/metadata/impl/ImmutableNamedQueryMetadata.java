@@ -23,6 +23,7 @@
 
 package com.mmnaseri.dragonfly.metadata.impl;
 
+import com.mmnaseri.dragonfly.metadata.CacheMetadata;
 import com.mmnaseri.dragonfly.metadata.NamedQueryMetadata;
 import com.mmnaseri.dragonfly.metadata.QueryType;
 import com.mmnaseri.dragonfly.metadata.TableMetadata;
@@ -39,12 +40,18 @@ public class ImmutableNamedQueryMetadata implements NamedQueryMetadata {
     private final String query;
     private final TableMetadata<?> tableMetadata;
     private final QueryType queryType;
+    private final CacheMetadata cacheMetadata;
 
     public ImmutableNamedQueryMetadata(String name, String query, TableMetadata<?> tableMetadata, QueryType queryType) {
+        this(name, query, tableMetadata, queryType, null);
+    }
+
+    public ImmutableNamedQueryMetadata(String name, String query, TableMetadata<?> tableMetadata, QueryType queryType, CacheMetadata cacheMetadata) {
         this.name = name;
         this.query = query;
         this.tableMetadata = tableMetadata;
         this.queryType = queryType;
+        this.cacheMetadata = cacheMetadata;
     }
 
     @Override
@@ -66,4 +73,9 @@ public class ImmutableNamedQueryMetadata implements NamedQueryMetadata {
     public QueryType getQueryType() {
         return queryType;
     }
+
+    @Override
+    public CacheMetadata getCacheMetadata() {
+        return cacheMetadata;
+    }
 }
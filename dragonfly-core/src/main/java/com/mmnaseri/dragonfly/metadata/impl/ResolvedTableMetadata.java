@@ -51,11 +51,16 @@ public class ResolvedTableMetadata<E> extends AbstractTableMetadata<E> {
     private final Collection<StoredProcedureMetadata> procedures;
     private final ColumnMetadata versionColumn;
     private final List<OrderMetadata> ordering;
+    private final CacheMetadata cacheMetadata;
     private PrimaryKeyConstraintMetadata primaryKey = null;
     private final Collection<NamedQueryMetadata> namedQueries;
     private final Collection<RelationMetadata<E, ?>> foreignReferences;
 
     public ResolvedTableMetadata(Class<E> entityType, String schema, String name, Collection<ConstraintMetadata> constraints, Collection<ColumnMetadata> columns, Collection<NamedQueryMetadata> namedQueries, Collection<SequenceMetadata> sequences, Collection<StoredProcedureMetadata> storedProcedures, Collection<RelationMetadata<E, ?>> foreignReferences, ColumnMetadata versionColumn, List<OrderMetadata> ordering) {
+        this(entityType, schema, name, constraints, columns, namedQueries, sequences, storedProcedures, foreignReferences, versionColumn, ordering, null);
+    }
+
+    public ResolvedTableMetadata(Class<E> entityType, String schema, String name, Collection<ConstraintMetadata> constraints, Collection<ColumnMetadata> columns, Collection<NamedQueryMetadata> namedQueries, Collection<SequenceMetadata> sequences, Collection<StoredProcedureMetadata> storedProcedures, Collection<RelationMetadata<E, ?>> foreignReferences, ColumnMetadata versionColumn, List<OrderMetadata> ordering, CacheMetadata cacheMetadata) {
         super(entityType);
         this.schema = schema;
         this.name = name;
@@ -67,6 +72,7 @@ public class ResolvedTableMetadata<E> extends AbstractTableMetadata<E> {
         this.foreignReferences = foreignReferences;
         this.versionColumn = versionColumn;
         this.ordering = new DefaultResultOrderMetadata(ordering == null ? Collections.<OrderMetadata>emptyList() : ordering);
+        this.cacheMetadata = cacheMetadata;
         for (ColumnMetadata column : columns) {
             if (column instanceof ResolvedColumnMetadata) {
                 ResolvedColumnMetadata metadata = (ResolvedColumnMetadata) column;
@@ -136,6 +142,11 @@ public class ResolvedTableMetadata<E> extends AbstractTableMetadata<E> {
         return ordering;
     }
 
+    @Override
+    public CacheMetadata getCacheMetadata() {
+        return cacheMetadata;
+    }
+
     @Override
     public PrimaryKeyConstraintMetadata getPrimaryKey() {
         if (!hasPrimaryKey()) {
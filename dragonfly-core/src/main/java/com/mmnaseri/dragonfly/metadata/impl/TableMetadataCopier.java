@@ -74,7 +74,7 @@ public class TableMetadataCopier<E> {
                 return new ImmutableOrderMetadata(with(columns).find(new ColumnNameFilter(input.getColumn().getName())), input.getOrder());
             }
         }).list();
-        final ResolvedTableMetadata<E> metadata = new ResolvedTableMetadata<E>(tableMetadata.getEntityType(), tableMetadata.getSchema(), tableMetadata.getName(), constraints, columns, namedQueries, sequences, storedProcedures, foreignReferences, versionColumn, ordering);
+        final ResolvedTableMetadata<E> metadata = new ResolvedTableMetadata<E>(tableMetadata.getEntityType(), tableMetadata.getSchema(), tableMetadata.getName(), constraints, columns, namedQueries, sequences, storedProcedures, foreignReferences, versionColumn, ordering, tableMetadata.getCacheMetadata());
         final Transformer<ColumnMetadata, ColumnMetadata> columnTransformer = new Transformer<ColumnMetadata, ColumnMetadata>() {
             @Override
             public ColumnMetadata map(ColumnMetadata input) {
@@ -94,7 +94,7 @@ public class TableMetadataCopier<E> {
             }
         }
         for (NamedQueryMetadata queryMetadata : tableMetadata.getNamedQueries()) {
-            namedQueries.add(new ImmutableNamedQueryMetadata(queryMetadata.getName(), queryMetadata.getQuery(), metadata, queryMetadata.getQueryType()));
+            namedQueries.add(new ImmutableNamedQueryMetadata(queryMetadata.getName(), queryMetadata.getQuery(), metadata, queryMetadata.getQueryType(), queryMetadata.getCacheMetadata()));
         }
         for (SequenceMetadata sequence : tableMetadata.getSequences()) {
             sequences.add(new ImmutableSequenceMetadata(sequence.getName(), sequence.getInitialValue(), sequence.getPrefetchSize()));
@@ -104,7 +104,7 @@ public class TableMetadataCopier<E> {
         }
         for (RelationMetadata<E, ?> foreignReference : tableMetadata.getForeignReferences()) {
             //noinspection unchecked
-            foreignReferences.add(new DefaultRelationMetadata<E, Object>(foreignReference.getDeclaringClass(), foreignReference.getPropertyName(), foreignReference.isOwner(), metadata, (TableMetadata<Object>) foreignReference.getForeignTable(), foreignReference.getForeignColumn(), foreignReference.getType(), foreignReference.getCascadeMetadata(), foreignReference.isLazy(), foreignReference.getOrdering()));
+            foreignReferences.add(new DefaultRelationMetadata<E, Object>(foreignReference.getDeclaringClass(), foreignReference.getPropertyName(), foreignReference.isOwner(), metadata, (TableMetadata<Object>) foreignReference.getForeignTable(), foreignReference.getForeignColumn(), foreignReference.getType(), foreignReference.getCascadeMetadata(), foreignReference.isLazy(), foreignReference.getOrdering(), foreignReference.getBatchSize()));
         }
         return metadata;
     }
@@ -93,6 +93,11 @@ public class UnresolvedTableMetadata<E> extends AbstractTableMetadata<E> {
         throw new MetadataCollectionError("Metadata is not available", new UnresolvedTableMetadataError(getEntityType()));
     }
 
+    @Override
+    public CacheMetadata getCacheMetadata() {
+        throw new MetadataCollectionError("Metadata is not available", new UnresolvedTableMetadataError(getEntityType()));
+    }
+
     @Override
     public PrimaryKeyConstraintMetadata getPrimaryKey() {
         throw new MetadataCollectionError("Metadata is not available", new UnresolvedTableMetadataError(getEntityType()));
@@ -27,12 +27,12 @@ import com.mmnaseri.couteau.basics.api.Filter;
 import com.mmnaseri.couteau.reflection.util.ClassUtils;
 import com.mmnaseri.dragonfly.cg.EnhancementUtils;
 import com.mmnaseri.dragonfly.security.*;
+import com.mmnaseri.dragonfly.tools.BoundedCache;
 
-import java.util.HashSet;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-
-import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
 
 /**
  * <p>This is the default implementation of the {@link DataSecurityManager}
@@ -54,13 +54,19 @@ import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
  * check will fail on general principle, with the name of the failing policy set to the canonical name of
  * this class.</p>
  *
+ * <p>Checks read an immutable snapshot of the policies without locking. The policies applying to each
+ * method subject, and the decisions taken for each of its call sites, are cached against the snapshot,
+ * which is replaced whenever a policy is added. Where the actor is known in advance, it is used as is
+ * and the call stack is not inspected at all.</p>
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/9/9, 16:55)
  */
 public class DefaultDataSecurityManager implements DataSecurityManager {
 
+    private static final int DECISION_CACHE_SIZE = 1024;
     private final AccessDeniedHandler accessDeniedHandler;
-    private final Set<DataSecurityPolicy> policies = new HashSet<DataSecurityPolicy>();
+    private volatile PolicySnapshot snapshot = new PolicySnapshot(Collections.<PolicyEntry>emptyList());
 
     public DefaultDataSecurityManager(AccessDeniedHandler accessDeniedHandler) {
         this.accessDeniedHandler = accessDeniedHandler;
@@ -68,52 +74,156 @@ public class DefaultDataSecurityManager implements DataSecurityManager {
 
     @Override
     public synchronized void addPolicy(DataSecurityPolicy policy) {
-        policies.add(policy);
+        final List<PolicyEntry> entries = new ArrayList<PolicyEntry>(snapshot.entries);
+        for (PolicyEntry entry : entries) {
+            if (entry.policy.equals(policy)) {
+                return;
+            }
+        }
+        entries.add(new PolicyEntry(policy));
+        //replacing the snapshot also discards all the decisions cached against the previous set of policies
+        snapshot = new PolicySnapshot(Collections.unmodifiableList(entries));
     }
 
     @Override
-    public void checkAccess(final Subject subject) {
-        synchronized (policies) {
-            //noinspection unchecked
-            final List<DataSecurityPolicy> applyingPolicies = with(policies)
-                    .keep(new Filter<DataSecurityPolicy>() {
-                        @Override
-                        public boolean accepts(DataSecurityPolicy item) {
-                            final Class<?> subjectType = ClassUtils.resolveTypeArgument(item.getSubjectFilter().getClass(), Filter.class);
-                            return subjectType != null && subjectType.isInstance(subject);
-                        }
-                    })
-                    .keep(new Filter<DataSecurityPolicy>() {
-                        @Override
-                        public boolean accepts(DataSecurityPolicy item) {
-                            //noinspection unchecked
-                            return item.getSubjectFilter().accepts(subject);
-                        }
-                    }).list();
-            if (applyingPolicies.isEmpty()) {
-                return;
-            }
-            final ImmutableActor actor = new ImmutableActor(EnhancementUtils.getCallerMethod());
-            //noinspection unchecked
-            final List<DataSecurityPolicy> declaringPolicies = with(applyingPolicies).keep(new Filter<DataSecurityPolicy>() {
-                @Override
-                public boolean accepts(DataSecurityPolicy item) {
-                    return item.getActorFilter().accepts(actor);
-                }
-            }).list();
-            boolean allowed = declaringPolicies.isEmpty();
-            for (DataSecurityPolicy declaringPolicy : declaringPolicies) {
-                final PolicyDecisionType policyDecisionType = declaringPolicy.getDecisionType();
-                if (PolicyDecisionType.ALLOW.equals(policyDecisionType)) {
-                    allowed = true;
-                } else if (PolicyDecisionType.DENY.equals(policyDecisionType)) {
-                    accessDeniedHandler.handle(declaringPolicy.getName(), actor, subject);
+    public void checkAccess(Subject subject) {
+        check(subject, EnhancementUtils.getDeclaredActor());
+    }
+
+    /**
+     * Controls access to the given subject by the given actor. This allows callers that already
+     * know on whose behalf the access is taking place to skip the resolution of the actor.
+     * @param subject    the subject being accessed
+     * @param actor      the actor accessing the subject
+     */
+    public void checkAccess(Subject subject, Actor actor) {
+        check(subject, actor == null ? null : actor.getMethod());
+    }
+
+    private void check(final Subject subject, Method actorMethod) {
+        final PolicySnapshot snapshot = this.snapshot;
+        if (snapshot.entries.isEmpty()) {
+            return;
+        }
+        //decisions are only cached for subjects that are fully described by the method being accessed;
+        //other subjects (e.g. stored procedure calls) might be judged on their arguments
+        final boolean cacheable = subject instanceof MethodSubject;
+        List<PolicyEntry> applyingPolicies = cacheable ? snapshot.applyingPolicies.get(subject) : null;
+        if (applyingPolicies == null) {
+            applyingPolicies = new ArrayList<PolicyEntry>();
+            for (PolicyEntry entry : snapshot.entries) {
+                //noinspection unchecked
+                if (entry.subjectType != null && entry.subjectType.isInstance(subject) && entry.policy.getSubjectFilter().accepts(subject)) {
+                    applyingPolicies.add(entry);
                 }
             }
-            if (!allowed) {
-                accessDeniedHandler.handle(getClass().getCanonicalName(), actor, subject);
+            if (cacheable) {
+                snapshot.applyingPolicies.put(subject, applyingPolicies);
             }
         }
+        if (applyingPolicies.isEmpty()) {
+            return;
+        }
+        //when the actor is not known in advance, the call site identifies it
+        final StackTraceElement caller = actorMethod == null ? EnhancementUtils.getCaller() : null;
+        final DecisionKey key = cacheable ? new DecisionKey(subject, actorMethod == null ? caller : actorMethod) : null;
+        Decision decision = cacheable ? snapshot.decisions.get(key) : null;
+        if (decision == null) {
+            decision = new Decision(new ImmutableActor(actorMethod == null ? EnhancementUtils.getMethod(caller) : actorMethod), applyingPolicies);
+            if (cacheable) {
+                snapshot.decisions.put(key, decision);
+            }
+        }
+        boolean allowed = decision.declaringPolicies.isEmpty();
+        for (DataSecurityPolicy declaringPolicy : decision.declaringPolicies) {
+            final PolicyDecisionType policyDecisionType = declaringPolicy.getDecisionType();
+            if (PolicyDecisionType.ALLOW.equals(policyDecisionType)) {
+                allowed = true;
+            } else if (PolicyDecisionType.DENY.equals(policyDecisionType)) {
+                accessDeniedHandler.handle(declaringPolicy.getName(), decision.actor, subject);
+            }
+        }
+        if (!allowed) {
+            accessDeniedHandler.handle(getClass().getCanonicalName(), decision.actor, subject);
+        }
+    }
+
+    /**
+     * A policy along with the subject type its filter applies to, resolved once when the policy
+     * is added
+     */
+    private static class PolicyEntry {
+
+        private final DataSecurityPolicy policy;
+        private final Class<?> subjectType;
+
+        private PolicyEntry(DataSecurityPolicy policy) {
+            this.policy = policy;
+            this.subjectType = ClassUtils.resolveTypeArgument(policy.getSubjectFilter().getClass(), Filter.class);
+        }
+
+    }
+
+    /**
+     * An immutable view of the policies known to the manager, along with the decisions taken based
+     * on them
+     */
+    private static class PolicySnapshot {
+
+        private final List<PolicyEntry> entries;
+        private final BoundedCache<Subject, List<PolicyEntry>> applyingPolicies = new BoundedCache<Subject, List<PolicyEntry>>(DECISION_CACHE_SIZE);
+        private final BoundedCache<DecisionKey, Decision> decisions = new BoundedCache<DecisionKey, Decision>(DECISION_CACHE_SIZE);
+
+        private PolicySnapshot(List<PolicyEntry> entries) {
+            this.entries = entries;
+        }
+
+    }
+
+    /**
+     * The policies that have something to say about a given actor accessing a given subject
+     */
+    private static class Decision {
+
+        private final Actor actor;
+        private final List<DataSecurityPolicy> declaringPolicies;
+
+        private Decision(Actor actor, List<PolicyEntry> applyingPolicies) {
+            this.actor = actor;
+            final List<DataSecurityPolicy> declaringPolicies = new ArrayList<DataSecurityPolicy>();
+            for (PolicyEntry entry : applyingPolicies) {
+                if (entry.policy.getActorFilter().accepts(actor)) {
+                    declaringPolicies.add(entry.policy);
+                }
+            }
+            this.declaringPolicies = declaringPolicies;
+        }
+
+    }
+
+    private static class DecisionKey {
+
+        private final Subject subject;
+        private final Object caller;
+
+        private DecisionKey(Subject subject, Object caller) {
+            this.subject = subject;
+            this.caller = caller;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            DecisionKey that = (DecisionKey) o;
+            return subject.equals(that.subject) && (caller == null ? that.caller == null : caller.equals(that.caller));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * subject.hashCode() + (caller == null ? 0 : caller.hashCode());
+        }
+
     }
 
 }
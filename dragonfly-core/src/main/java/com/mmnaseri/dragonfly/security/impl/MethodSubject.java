@@ -26,6 +26,8 @@ package com.mmnaseri.dragonfly.security.impl;
 import com.mmnaseri.couteau.enhancer.api.MethodDescriptor;
 import com.mmnaseri.dragonfly.security.Subject;
 
+import java.util.Arrays;
+
 /**
  * This is a subject that will describe method calls.
  *
@@ -44,4 +46,28 @@ public class MethodSubject implements Subject {
         return method;
     }
 
+    /**
+     * Two method subjects are considered equal if they describe methods declared by the same class with
+     * the same signature and annotations, which is all that method subject filters can take into account
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MethodSubject that = (MethodSubject) o;
+        return method == that.method || (method.getDeclaringClass().equals(that.method.getDeclaringClass())
+                && method.getName().equals(that.method.getName())
+                && method.getReturnType().equals(that.method.getReturnType())
+                && Arrays.equals(method.getParameterTypes(), that.method.getParameterTypes())
+                && Arrays.equals(method.getAnnotations(), that.method.getAnnotations()));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = method.getDeclaringClass().hashCode();
+        result = 31 * result + method.getName().hashCode();
+        result = 31 * result + Arrays.hashCode(method.getParameterTypes());
+        return result;
+    }
+
 }
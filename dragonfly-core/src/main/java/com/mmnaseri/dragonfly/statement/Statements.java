@@ -118,6 +118,10 @@ public class Statements {
          * Delete all cascaded dependent items when deleting all items of a given type
          */
         DELETE_DEPENDENTS,
+        /**
+         * Deletes the items reached from a single item through a chain of cascading relations
+         */
+        DELETE_CASCADE,
         /**
          * Finds all items of a given type
          */
@@ -130,6 +134,14 @@ public class Statements {
          * Finds all items matching the sample
          */
         FIND_LIKE,
+        /**
+         * Finds all items whose given column matches any one of a set of values
+         */
+        FIND_IN,
+        /**
+         * Finds a page of the items matching the sample, starting right after a given row
+         */
+        FIND_PAGE,
         /**
          * Counts all items of a given type
          */
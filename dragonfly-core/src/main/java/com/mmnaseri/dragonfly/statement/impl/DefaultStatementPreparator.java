@@ -23,10 +23,12 @@
 
 package com.mmnaseri.dragonfly.statement.impl;
 
+import com.mmnaseri.dragonfly.error.StatementPreparationError;
 import com.mmnaseri.dragonfly.metadata.ColumnMetadata;
 import com.mmnaseri.dragonfly.metadata.TableMetadata;
 import com.mmnaseri.dragonfly.statement.StatementPreparator;
 import com.mmnaseri.dragonfly.statement.impl.model.ParameterPlaceholderNamespace;
+import com.mmnaseri.dragonfly.tools.BoundedCache;
 import com.mmnaseri.dragonfly.tools.ColumnPropertyFilter;
 import freemarker.cache.StringTemplateLoader;
 import freemarker.template.Configuration;
@@ -48,107 +50,149 @@ import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
  * the given map, and finally returning a {@link PreparedStatement} instance through the
  * designated connection.
  *
+ * <p>The parameter placeholders in each SQL statement are only discovered once; the result is
+ * compiled into a {@link ParameterBindingPlan} which is kept in a bounded cache shared by all
+ * preparators and reused for every subsequent preparation of the same statement.</p>
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/9/3, 17:02)
  */
 public class DefaultStatementPreparator implements StatementPreparator {
 
+    private static final int PLAN_CACHE_CAPACITY = 2048;
+    private static final BoundedCache<PlanKey, ParameterBindingPlan> plans = new BoundedCache<PlanKey, ParameterBindingPlan>(PLAN_CACHE_CAPACITY);
     private final boolean preparesCalls;
 
     public DefaultStatementPreparator(boolean preparesCalls) {
         this.preparesCalls = preparesCalls;
     }
 
-    private PreparedStatement getPreparedStatement(Connection connection, StringWriter writer) {
+    private PreparedStatement getPreparedStatement(Connection connection, String sql) {
         PreparedStatement preparedStatement = null;
         try {
             if (!preparesCalls) {
-                preparedStatement = connection.prepareStatement(writer.toString(), Statement.RETURN_GENERATED_KEYS);
+                preparedStatement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             } else {
-                preparedStatement = connection.prepareCall(writer.toString());
+                preparedStatement = connection.prepareCall(sql);
             }
         } catch (SQLException ignored) {
         }
         return preparedStatement;
     }
 
-    @Override
-    public PreparedStatement prepare(Connection connection, TableMetadata<?> tableMetadata, Map<String, Object> value, String sql) {
+    /**
+     * Returns the binding plan for the given statement, compiling it if it has not been seen before
+     * @param tableMetadata    the table metadata for the statement
+     * @param sql              the SQL statement
+     * @return the binding plan
+     */
+    public ParameterBindingPlan getBindingPlan(TableMetadata<?> tableMetadata, String sql) {
+        final PlanKey key = new PlanKey(tableMetadata, sql);
+        final ParameterBindingPlan plan = plans.get(key);
+        if (plan != null) {
+            return plan;
+        }
+        return plans.putIfAbsent(key, compile(tableMetadata, sql));
+    }
+
+    /**
+     * Compiles the statement into a binding plan, bypassing the plan cache
+     * @param tableMetadata    the table metadata for the statement
+     * @param sql              the SQL statement
+     * @return the freshly compiled plan
+     */
+    static ParameterBindingPlan compile(TableMetadata<?> tableMetadata, String sql) {
         final Configuration configuration = new Configuration();
         final StringTemplateLoader loader = new StringTemplateLoader();
         final ParameterPlaceholderNamespace namespace = new ParameterPlaceholderNamespace();
         loader.putTemplate("sql", sql);
         configuration.setTemplateLoader(loader);
-        Template template = null;
+        final Template template;
         try {
             template = configuration.getTemplate("sql");
-        } catch (IOException ignored) {
+        } catch (IOException e) {
+            throw new StatementPreparationError("Failed to parse statement: " + sql, e);
         }
-        assert template != null;
         final StringWriter writer = new StringWriter();
         try {
             template.process(namespace, writer);
-        } catch (Exception ignored) {
+        } catch (Exception e) {
+            throw new StatementPreparationError("Failed to discover parameters for statement: " + sql, e);
         }
-        final PreparedStatement preparedStatement = getPreparedStatement(connection, writer);
         final List<String> parameters = namespace.getParameters();
+        final ColumnMetadata[] columns = new ColumnMetadata[parameters.size()];
         for (int i = 0; i < parameters.size(); i++) {
             final String parameter = parameters.get(i);
-            try {
-                if (value.containsKey(parameter)) {
-                    Object inferredValue = value.get(parameter);
-                    if (inferredValue instanceof Enum) {
-                        inferredValue = ((Enum) inferredValue).name();
-                    }
-                    preparedStatement.setObject(i + 1, inferredValue);
-                } else {
-                    final String property = parameter.substring(parameter.lastIndexOf('.') + 1);
-                    final ColumnMetadata metadata = with(tableMetadata.getColumns()).keep(new ColumnPropertyFilter(property)).first();
-                    preparedStatement.setNull(i + 1, metadata.getType());
-                }
-            } catch (SQLException ignored) {
-            }
+            final String property = parameter.substring(parameter.lastIndexOf('.') + 1);
+            columns[i] = tableMetadata == null ? null : with(tableMetadata.getColumns()).keep(new ColumnPropertyFilter(property)).first();
         }
+        return new ParameterBindingPlan(writer.toString(), parameters.toArray(new String[parameters.size()]), columns);
+    }
+
+    /**
+     * @return the number of binding plans currently held in the shared cache
+     */
+    public static int getCachedPlanCount() {
+        return plans.size();
+    }
+
+    /**
+     * @return the number of times a binding plan was found in the shared cache
+     */
+    public static long getPlanCacheHits() {
+        return plans.getHits();
+    }
+
+    /**
+     * @return the number of times a binding plan had to be compiled
+     */
+    public static long getPlanCacheMisses() {
+        return plans.getMisses();
+    }
+
+    @Override
+    public PreparedStatement prepare(Connection connection, TableMetadata<?> tableMetadata, Map<String, Object> value, String sql) {
+        final ParameterBindingPlan plan = getBindingPlan(tableMetadata, sql);
+        final PreparedStatement preparedStatement = getPreparedStatement(connection, plan.getSql());
+        plan.bind(preparedStatement, value);
         return preparedStatement;
     }
 
     @Override
     public PreparedStatement prepare(PreparedStatement preparedStatement, TableMetadata<?> tableMetadata, Map<String, Object> value, String sql) {
-        final Configuration configuration = new Configuration();
-        final StringTemplateLoader loader = new StringTemplateLoader();
-        final ParameterPlaceholderNamespace namespace = new ParameterPlaceholderNamespace();
-        loader.putTemplate("sql", sql);
-        configuration.setTemplateLoader(loader);
-        Template template = null;
-        try {
-            template = configuration.getTemplate("sql");
-        } catch (IOException ignored) {
-        }
-        assert template != null;
-        final StringWriter writer = new StringWriter();
-        try {
-            template.process(namespace, writer);
-        } catch (Exception ignored) {
+        getBindingPlan(tableMetadata, sql).bind(preparedStatement, value);
+        return preparedStatement;
+    }
+
+    private static class PlanKey {
+
+        private final TableMetadata<?> tableMetadata;
+        private final String sql;
+        private final int hashCode;
+
+        private PlanKey(TableMetadata<?> tableMetadata, String sql) {
+            this.tableMetadata = tableMetadata;
+            this.sql = sql;
+            this.hashCode = 31 * System.identityHashCode(tableMetadata) + sql.hashCode();
         }
-        final List<String> parameters = namespace.getParameters();
-        for (int i = 0; i < parameters.size(); i++) {
-            final String parameter = parameters.get(i);
-            try {
-                if (value.containsKey(parameter)) {
-                    Object inferredValue = value.get(parameter);
-                    if (inferredValue instanceof Enum) {
-                        inferredValue = ((Enum) inferredValue).name();
-                    }
-                    preparedStatement.setObject(i + 1, inferredValue);
-                } else {
-                    final String property = parameter.contains(".") ? parameter.substring(parameter.lastIndexOf('.') + 1) : parameter;
-                    final ColumnMetadata metadata = with(tableMetadata.getColumns()).keep(new ColumnPropertyFilter(property)).first();
-                    preparedStatement.setNull(i + 1, metadata.getType());
-                }
-            } catch (SQLException ignored) {
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
             }
+            if (!(o instanceof PlanKey)) {
+                return false;
+            }
+            final PlanKey that = (PlanKey) o;
+            return tableMetadata == that.tableMetadata && sql.equals(that.sql);
         }
-        return preparedStatement;
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
     }
 
 }
@@ -23,16 +23,50 @@
 
 package com.mmnaseri.dragonfly.statement.impl;
 
+import com.mmnaseri.couteau.context.error.RegistryException;
 import com.mmnaseri.couteau.context.impl.ConcurrentRegistry;
 import com.mmnaseri.dragonfly.statement.Statement;
 import com.mmnaseri.dragonfly.statement.StatementRegistry;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * This is the default statement registry implementation, which is actually an extension to the
  * concurrent extension registry provided through couteau.
  *
+ * <p>The registry counts the modifications made to it, so that views derived from its contents can
+ * tell whether or not they need to be rebuilt.</p>
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/9/21, 13:50)
  */
 public class DefaultStatementRegistry extends ConcurrentRegistry<Statement> implements StatementRegistry {
+
+    private final AtomicLong modifications = new AtomicLong();
+
+    @Override
+    public void register(String name, Statement item) throws RegistryException {
+        super.register(name, item);
+        modifications.incrementAndGet();
+    }
+
+    @Override
+    public void unregister(String name) throws RegistryException {
+        super.unregister(name);
+        modifications.incrementAndGet();
+    }
+
+    @Override
+    public void replace(String name, Statement item) throws RegistryException {
+        super.replace(name, item);
+        modifications.incrementAndGet();
+    }
+
+    /**
+     * @return the number of modifications made to this registry so far
+     */
+    public long getModificationCount() {
+        return modifications.get();
+    }
+
 }
@@ -24,60 +24,78 @@
 package com.mmnaseri.dragonfly.statement.impl;
 
 import com.mmnaseri.dragonfly.dialect.DatabaseDialect;
+import com.mmnaseri.dragonfly.error.StatementPreparationError;
 import com.mmnaseri.dragonfly.metadata.Metadata;
 import com.mmnaseri.dragonfly.metadata.TableMetadata;
 import com.mmnaseri.dragonfly.statement.Statement;
 import com.mmnaseri.dragonfly.statement.StatementBuilder;
 import com.mmnaseri.dragonfly.statement.StatementType;
 import com.mmnaseri.dragonfly.statement.impl.model.FreemarkerStatementModel;
-import freemarker.cache.StringTemplateLoader;
+import com.mmnaseri.dragonfly.tools.BoundedCache;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateModelException;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.regex.Pattern;
 
 /**
  * This class is a statement builder that will take in a pre-created statement that is in need of
  * a second processing (meaning that it is a dynamic statement) and based on the given properties
  * and parameters process it to be ready for transfer.
  *
+ * <p>The template compiled for each statement is cached per statement and dialect, and is shared
+ * across all threads, so that preparing a dynamic statement only costs the rendering itself.</p>
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/9/4, 17:53)
  */
 public class FreemarkerSecondPassStatementBuilder implements StatementBuilder {
 
+    private static final int TEMPLATE_CACHE_CAPACITY = 1024;
+    private static final Pattern DIRECTIVE_START = Pattern.compile("<%(.*?)>");
+    private static final Pattern DIRECTIVE_END = Pattern.compile("</%(.*?)>");
+    private static final Pattern INTERPOLATION = Pattern.compile("%\\{(.*?)\\}");
+    private static final Configuration configuration = new Configuration();
+    private static final BoundedCache<TemplateKey, Template> templates = new BoundedCache<TemplateKey, Template>(TEMPLATE_CACHE_CAPACITY);
     private final Statement statement;
     private final DatabaseDialect dialect;
     private final Object value;
-    private Template template;
 
     public FreemarkerSecondPassStatementBuilder(Statement statement, DatabaseDialect dialect, Object value) {
         this.statement = statement;
         this.dialect = dialect;
         this.value = value;
-        final StringTemplateLoader loader = new StringTemplateLoader();
+    }
+
+    private static Template getTemplate(Statement statement, DatabaseDialect dialect) {
+        final TemplateKey key = new TemplateKey(statement, dialect);
+        final Template template = templates.get(key);
+        if (template != null) {
+            return template;
+        }
         String sql = statement.getSql();
-        sql = sql.replaceAll("<%(.*?)>", "<#$1>");
-        sql = sql.replaceAll("</%(.*?)>", "</#$1>");
-        sql = sql.replaceAll("%\\{(.*?)\\}", "\\${$1}");
-        loader.putTemplate("sql", sql);
-        final Configuration configuration = new Configuration();
-        configuration.setTemplateLoader(loader);
+        sql = DIRECTIVE_START.matcher(sql).replaceAll("<#$1>");
+        sql = DIRECTIVE_END.matcher(sql).replaceAll("</#$1>");
+        sql = INTERPOLATION.matcher(sql).replaceAll("\\${$1}");
         try {
-            template = configuration.getTemplate("sql");
-        } catch (IOException ignored) {
+            return templates.putIfAbsent(key, new Template("sql", new StringReader(sql), configuration));
+        } catch (IOException e) {
+            throw new StatementPreparationError("Failed to compile dynamic statement: " + statement.getSql(), e);
         }
     }
 
-    @Override
-    public Statement getStatement(TableMetadata<?> tableMetadata, Metadata metadata) {
-        throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public Statement getStatement(TableMetadata<?> tableMetadata) {
+    /**
+     * Renders the second pass of the given dynamic statement using the cached template for the statement
+     * @param statement        the dynamic statement
+     * @param dialect          the database dialect
+     * @param tableMetadata    the table metadata against which the statement is rendered
+     * @param value            the values available to the statement
+     * @return the rendered SQL or {@code null} if the model could not be created
+     */
+    public static String render(Statement statement, DatabaseDialect dialect, TableMetadata<?> tableMetadata, Object value) {
         final FreemarkerStatementModel model;
         try {
             model = new FreemarkerStatementModel(tableMetadata, dialect, value);
@@ -86,11 +104,57 @@ public class FreemarkerSecondPassStatementBuilder implements StatementBuilder {
         }
         final StringWriter writer = new StringWriter();
         try {
-            template.process(model, writer);
+            getTemplate(statement, dialect).process(model, writer);
+        } catch (StatementPreparationError e) {
+            throw e;
         } catch (Exception ignored) {
         }
-        final String sql = writer.toString();
+        return writer.toString();
+    }
+
+    @Override
+    public Statement getStatement(TableMetadata<?> tableMetadata, Metadata metadata) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Statement getStatement(TableMetadata<?> tableMetadata) {
+        final String sql = render(statement, dialect, tableMetadata, value);
+        if (sql == null) {
+            return null;
+        }
         return new ImmutableStatement(tableMetadata, dialect, sql, false, statement.hasParameters(), StatementType.getStatementType(sql));
     }
 
+    private static class TemplateKey {
+
+        private final Statement statement;
+        private final DatabaseDialect dialect;
+        private final int hashCode;
+
+        private TemplateKey(Statement statement, DatabaseDialect dialect) {
+            this.statement = statement;
+            this.dialect = dialect;
+            this.hashCode = 31 * System.identityHashCode(statement) + System.identityHashCode(dialect);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TemplateKey)) {
+                return false;
+            }
+            final TemplateKey that = (TemplateKey) o;
+            return statement == that.statement && dialect == that.dialect;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+    }
+
 }
@@ -0,0 +1,193 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.statement.impl;
+
+import com.mmnaseri.dragonfly.metadata.ColumnMetadata;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Map;
+
+/**
+ * This is the compiled form of a parametrized statement. It holds the final SQL as it will be handed
+ * over to the JDBC driver, along with the ordered list of parameters it expects and the SQL type that
+ * should be used when a parameter has no value. Binding plans are immutable and can be shared freely
+ * across threads.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 10:37)
+ */
+public class ParameterBindingPlan {
+
+    /**
+     * The number of parameters a single multi-row statement may carry. Most drivers and databases cap the
+     * number of parameters per statement somewhere above this (e.g. 65,535 for MySQL's protocol)
+     */
+    public static final int MAX_MULTI_ROW_PARAMETERS = 30000;
+
+    private final String sql;
+    private final String[] parameters;
+    private final ColumnMetadata[] columns;
+    private final int[] types;
+
+    public ParameterBindingPlan(String sql, String[] parameters, ColumnMetadata[] columns) {
+        this.sql = sql;
+        this.parameters = parameters;
+        this.columns = columns;
+        this.types = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            types[i] = columns[i] == null ? Types.NULL : columns[i].getType();
+        }
+    }
+
+    /**
+     * @return the SQL with all parameter placeholders replaced by JDBC's {@code ?}
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Rewrites the statement, if it is a single-row insert, so that it carries the given number of rows
+     * @param rows    the number of rows
+     * @return the multi-row statement, or {@code null} if the statement cannot be rewritten. For the statement
+     * to be rewritten, it must have a single parenthesized {@code VALUES} tuple holding all of its parameters.
+     */
+    public String getSql(int rows) {
+        final int parameters = this.parameters.length;
+        final int values = sql.toUpperCase().lastIndexOf("VALUES");
+        if (values < 0) {
+            return null;
+        }
+        final int start = sql.indexOf('(', values);
+        if (start < 0) {
+            return null;
+        }
+        int depth = 0;
+        int end = -1;
+        int placeholders = 0;
+        for (int i = start; i < sql.length() && end < 0; i ++) {
+            final char character = sql.charAt(i);
+            if (character == '(') {
+                depth ++;
+            } else if (character == ')') {
+                depth --;
+                if (depth == 0) {
+                    end = i + 1;
+                }
+            } else if (character == '?') {
+                placeholders ++;
+            } else if (character == '\'' || character == '"') {
+                //literals inside the tuple make it unsafe to tell placeholders apart
+                return null;
+            }
+        }
+        if (end < 0 || placeholders != parameters) {
+            return null;
+        }
+        final String tuple = sql.substring(start, end);
+        final StringBuilder builder = new StringBuilder(sql.length() + (tuple.length() + 1) * (rows - 1));
+        builder.append(sql, 0, end);
+        for (int i = 1; i < rows; i ++) {
+            builder.append(',').append(tuple);
+        }
+        builder.append(sql, end, sql.length());
+        return builder.toString();
+    }
+
+    /**
+     * @return the largest number of rows a multi-row form of this statement may carry without going over
+     * {@link #MAX_MULTI_ROW_PARAMETERS}
+     */
+    public int getMaxRowsPerStatement() {
+        return Math.max(1, MAX_MULTI_ROW_PARAMETERS / Math.max(1, parameters.length));
+    }
+
+    /**
+     * @return the number of parameters expected by the statement
+     */
+    public int getParameterCount() {
+        return parameters.length;
+    }
+
+    /**
+     * @param index    the zero-based index of the parameter
+     * @return the fully qualified name of the parameter, e.g. {@code value.id}
+     */
+    public String getParameter(int index) {
+        return parameters[index];
+    }
+
+    /**
+     * @param index    the zero-based index of the parameter
+     * @return the column this parameter was resolved to, or {@code null} if it could not be resolved
+     */
+    public ColumnMetadata getColumn(int index) {
+        return columns[index];
+    }
+
+    /**
+     * @param index    the zero-based index of the parameter
+     * @return the JDBC type of the parameter
+     */
+    public int getType(int index) {
+        return types[index];
+    }
+
+    /**
+     * Binds the given values to the prepared statement in the order dictated by this plan
+     * @param preparedStatement    the statement
+     * @param values               the values to be bound
+     */
+    public void bind(PreparedStatement preparedStatement, Map<String, Object> values) {
+        bind(preparedStatement, values, 0);
+    }
+
+    /**
+     * Binds the given values to the prepared statement, starting after the given number of parameters.
+     * This allows one plan to bind several rows of values to a single multi-row statement.
+     * @param preparedStatement    the statement
+     * @param values               the values to be bound
+     * @param offset               the number of statement parameters preceding the ones described by this plan
+     */
+    public void bind(PreparedStatement preparedStatement, Map<String, Object> values, int offset) {
+        for (int i = 0; i < parameters.length; i++) {
+            final String parameter = parameters[i];
+            try {
+                if (values.containsKey(parameter)) {
+                    Object value = values.get(parameter);
+                    if (value instanceof Enum) {
+                        value = ((Enum) value).name();
+                    }
+                    preparedStatement.setObject(offset + i + 1, value);
+                } else {
+                    preparedStatement.setNull(offset + i + 1, types[i]);
+                }
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.tools;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is a thread-safe, size-bounded cache which will evict the least recently used entries once
+ * its capacity has been reached. It also keeps count of hits, misses and evictions so that the
+ * effectiveness of the cache can be inspected at runtime.
+ *
+ * <p>The cache is striped: keys are spread over a number of independently locked segments, each
+ * of which keeps its own share of the capacity and its own access order. Threads looking up keys
+ * that fall into different segments never contend with one another, at the cost of eviction being
+ * least-recently-used per segment rather than across the whole cache.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 10:37)
+ */
+public class BoundedCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+    private final int capacity;
+    private final Segment<K, V>[] segments;
+    private final int mask;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public BoundedCache(int capacity) {
+        this(capacity, MAX_SEGMENTS);
+    }
+
+    /**
+     * Creates a cache with the given capacity spread over (at most) the given number of segments.
+     * The number of segments is rounded down to a power of two, and never exceeds the capacity
+     * itself, so that a very small cache behaves as a single least-recently-used map.
+     * @param capacity            the total number of entries this cache will hold
+     * @param concurrencyLevel    the number of segments to use
+     */
+    @SuppressWarnings("unchecked")
+    public BoundedCache(int capacity, int concurrencyLevel) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be a positive number: " + capacity);
+        }
+        if (concurrencyLevel < 1) {
+            throw new IllegalArgumentException("Concurrency level must be a positive number: " + concurrencyLevel);
+        }
+        this.capacity = capacity;
+        final int count = Integer.highestOneBit(Math.min(capacity, concurrencyLevel));
+        this.mask = count - 1;
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            //the remainder of the capacity goes to the first few segments, so that the total is exact
+            segments[i] = new Segment<K, V>(capacity / count + (i < capacity % count ? 1 : 0), evictions);
+        }
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int hash = key == null ? 0 : key.hashCode();
+        hash ^= (hash >>> 16);
+        hash ^= (hash >>> 7);
+        return segments[hash & mask];
+    }
+
+    /**
+     * Looks up the value associated with the given key
+     * @param key    the key
+     * @return the cached value or {@code null} if nothing is cached for the key
+     */
+    public V get(K key) {
+        final V value = segmentFor(key).get(key);
+        if (value == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return value;
+    }
+
+    /**
+     * Caches the given value, unless a value has already been cached for the key, in which case
+     * the previous value is retained and returned
+     * @param key      the key
+     * @param value    the value
+     * @return the value that is cached for the key after this call
+     */
+    public V putIfAbsent(K key, V value) {
+        return segmentFor(key).putIfAbsent(key, value);
+    }
+
+    public void put(K key, V value) {
+        segmentFor(key).put(key, value);
+    }
+
+    public V remove(K key) {
+        return segmentFor(key).remove(key);
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * A single stripe of the cache, guarding its own access-ordered map
+     */
+    private static class Segment<K, V> {
+
+        private final Map<K, V> entries;
+
+        private Segment(final int capacity, final AtomicLong evictions) {
+            this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    if (size() > capacity) {
+                        evictions.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private synchronized V get(K key) {
+            return entries.get(key);
+        }
+
+        private synchronized V putIfAbsent(K key, V value) {
+            final V existing = entries.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            entries.put(key, value);
+            return value;
+        }
+
+        private synchronized void put(K key, V value) {
+            entries.put(key, value);
+        }
+
+        private synchronized V remove(K key) {
+            return entries.remove(key);
+        }
+
+        private synchronized void clear() {
+            entries.clear();
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+
+    }
+
+}
@@ -1 +1 @@
-<#-- @ftlvariable name="qualify" type="com.mmnaseri.dragonfly.statement.impl.model.functions.DatabaseIdentifierQualifierMethod" --><#-- @ftlvariable name="table" type="com.mmnaseri.dragonfly.metadata.TableMetadata" --><#-- @ftlvariable name="metadata" type="com.mmnaseri.dragonfly.metadata.PagedResultOrderMetadata" -->SELECT * FROM ${qualify(table)}<#if metadata?size &gt; 0> ORDER BY <#list metadata as ordering>${qualify(ordering.column)} <#if ordering.order?string?lower_case == "asc">ASC<#else>DESC</#if><#if ordering_has_next>, </#if></#list></#if><#if metadata.pageNumber?? && metadata.pageSize?? && metadata.pageNumber &gt; 0 && metadata.pageSize &gt; 0> LIMIT ${(metadata.pageNumber - 1) * metadata.pageSize}, ${metadata.pageSize}</#if>;
\ No newline at end of file
+<#-- @ftlvariable name="qualify" type="com.mmnaseri.dragonfly.statement.impl.model.functions.DatabaseIdentifierQualifierMethod" --><#-- @ftlvariable name="table" type="com.mmnaseri.dragonfly.metadata.TableMetadata" --><#-- @ftlvariable name="metadata" type="com.mmnaseri.dragonfly.metadata.PagedResultOrderMetadata" -->SELECT * FROM ${qualify(table)}<#if metadata?size &gt; 0> ORDER BY <#list metadata as ordering>${qualify(ordering.column)} <#if ordering.order?string?lower_case == "asc">ASC<#else>DESC</#if><#if ordering_has_next>, </#if></#list></#if><#if metadata.pageNumber?? && metadata.pageSize?? && metadata.pageNumber &gt; 0 && metadata.pageSize &gt; 0> LIMIT ${value["pageOffset"]}, ${value["pageLimit"]}</#if>;
\ No newline at end of file
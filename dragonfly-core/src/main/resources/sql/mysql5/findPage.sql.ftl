@@ -0,0 +1 @@
+<#-- @ftlvariable name="qualify" type="com.mmnaseri.dragonfly.statement.impl.model.functions.DatabaseIdentifierQualifierMethod" --><#-- @ftlvariable name="table" type="com.mmnaseri.dragonfly.metadata.TableMetadata" --><#-- @ftlvariable name="metadata" type="com.mmnaseri.dragonfly.metadata.KeysetMetadata" -->SELECT * FROM ${qualify(table)}<%assign columns=isSet(table.columns)/><%if columns?size &gt; 0> WHERE <%list columns as column>%{qualify(column)} = %{value[column.propertyName]}<%if column_has_next> AND </%if></%list></%if><#if metadata.seeking><%if columns?size &gt; 0> AND <%else> WHERE </%if>(<#list metadata.ordering as ordering>(<#list 0..ordering_index as index><#assign current=metadata.ordering[index]/><#assign ascending=current.order?string?lower_case == "asc"/><#if index != ordering_index><#if metadata.nullValues[index]>${qualify(current.column)} IS NULL<#else>${qualify(current.column)} = ${value["keyset" + index]}</#if><#elseif metadata.nullValues[index]><#if ascending>${qualify(current.column)} IS NOT NULL<#else>1 = 0</#if><#elseif ascending>${qualify(current.column)} > ${value["keyset" + index]}<#else>(${qualify(current.column)} < ${value["keyset" + index]} OR ${qualify(current.column)} IS NULL)</#if><#if index_has_next> AND </#if></#list>)<#if ordering_has_next> OR </#if></#list>)</#if> ORDER BY <#list metadata.ordering as ordering>${qualify(ordering.column)} <#if ordering.order?string?lower_case == "asc">ASC<#else>DESC</#if><#if ordering_has_next>, </#if></#list> LIMIT ${value["keysetLimit"]};
\ No newline at end of file
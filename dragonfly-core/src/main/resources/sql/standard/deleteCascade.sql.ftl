@@ -0,0 +1,2 @@
+<#macro selector index><#local relation=metadata.relations[index]/>SELECT ${qualify(relation.foreignTable.primaryKey.columns?first)} FROM ${qualify(relation.foreignTable)} WHERE ${qualify(relation.foreignColumn)} <#if index == 0>= ${value[relation.localTable.primaryKey.columns?first.propertyName]}<#else>IN (<@selector index=index - 1/>)</#if></#macro><#--
+--><#assign last=metadata.relations?size - 1/><#assign relation=metadata.relations[last]/>DELETE FROM ${qualify(relation.foreignTable)} WHERE ${qualify(relation.foreignColumn)} <#if last == 0>= ${value[relation.localTable.primaryKey.columns?first.propertyName]}<#else>IN (<@selector index=last - 1/>)</#if>;
\ No newline at end of file
@@ -0,0 +1 @@
+<#-- @ftlvariable name="qualify" type="com.mmnaseri.dragonfly.statement.impl.model.functions.DatabaseIdentifierQualifierMethod" --><#-- @ftlvariable name="table" type="com.mmnaseri.dragonfly.metadata.TableMetadata" --><#-- @ftlvariable name="metadata" type="com.mmnaseri.dragonfly.metadata.ColumnValueSetMetadata" -->SELECT * FROM ${qualify(table)} WHERE ${qualify(metadata.column)} IN (<#list 0..(metadata.size - 1) as index>${value["key" + index]}<#if index_has_next>, </#if></#list>)<#if metadata.ordering?size &gt; 0> ORDER BY <#list metadata.ordering as ordering>${qualify(ordering.column)} <#if ordering.order?string?lower_case == "asc">ASC<#else>DESC</#if><#if ordering_has_next>, </#if></#list></#if>;
\ No newline at end of file
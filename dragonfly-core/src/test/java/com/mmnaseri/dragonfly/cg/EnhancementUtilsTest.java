@@ -0,0 +1,70 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.cg;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:51)
+ */
+public class EnhancementUtilsTest {
+
+    private static StackTraceElement here() {
+        return new Throwable().getStackTrace()[1];
+    }
+
+    @Test
+    public void testCallSiteIsResolvedToItsMethod() throws Exception {
+        final StackTraceElement site = here();
+        final Method method = EnhancementUtils.getMethod(site);
+        assertEquals(getClass().getMethod("testCallSiteIsResolvedToItsMethod"), method);
+        //resolving the same call site again is served from the cache
+        assertSame(method, EnhancementUtils.getMethod(site));
+    }
+
+    @Test
+    public void testDeclaredActorShortCircuitsTheStackWalk() throws Exception {
+        final Method actor = getClass().getMethod("testDeclaredActorShortCircuitsTheStackWalk");
+        assertNull(EnhancementUtils.getDeclaredActor());
+        EnhancementUtils.pushActor(actor);
+        try {
+            assertSame(actor, EnhancementUtils.getCallerMethod());
+        } finally {
+            EnhancementUtils.popActor();
+        }
+        assertNull(EnhancementUtils.getDeclaredActor());
+    }
+
+    @Test
+    public void testEnhancedClassNames() throws Exception {
+        assertTrue(EnhancementUtils.isEnhanced("com.example.Repository$$$ENHANCED$$$1"));
+        assertFalse(EnhancementUtils.isEnhanced("com.example.Repository"));
+    }
+
+}
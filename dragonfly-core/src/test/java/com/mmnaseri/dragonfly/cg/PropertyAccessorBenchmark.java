@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.cg;
+
+import com.mmnaseri.couteau.reflection.beans.BeanWrapper;
+import com.mmnaseri.couteau.reflection.beans.impl.MethodBeanWrapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares copying the properties of an entity through a generated {@link PropertyAccessor} with copying
+ * them through reflective calls to the getters and setters, and through the bean wrapper the entity map
+ * creators used before accessors were introduced.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:14)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PropertyAccessorBenchmark {
+
+    private static final String[] PROPERTIES = {"id", "age", "name", "active", "tags"};
+
+    private PropertyAccessorGeneratorTest.Bean source;
+    private PropertyAccessorGeneratorTest.Bean target;
+    private PropertyAccessor accessor;
+    private int[] indices;
+    private Method[] getters;
+    private Method[] setters;
+
+    @Setup
+    public void setUp() throws Exception {
+        source = new PropertyAccessorGeneratorTest.Bean();
+        source.setId(12L);
+        source.setAge(30);
+        source.setName("name");
+        source.setActive(true);
+        target = new PropertyAccessorGeneratorTest.Bean();
+        accessor = PropertyAccessorGenerator.getAccessor(PropertyAccessorGeneratorTest.Bean.class);
+        indices = new int[PROPERTIES.length];
+        getters = new Method[PROPERTIES.length];
+        setters = new Method[PROPERTIES.length];
+        for (int i = 0; i < PROPERTIES.length; i++) {
+            indices[i] = accessor.getIndex(PROPERTIES[i]);
+            final String suffix = Character.toUpperCase(PROPERTIES[i].charAt(0)) + PROPERTIES[i].substring(1);
+            getters[i] = PropertyAccessorGeneratorTest.Bean.class.getMethod((PROPERTIES[i].equals("active") ? "is" : "get") + suffix);
+            setters[i] = PropertyAccessorGeneratorTest.Bean.class.getMethod("set" + suffix, getters[i].getReturnType());
+        }
+    }
+
+    @Benchmark
+    public Object generatedAccessor() {
+        for (int index : indices) {
+            accessor.set(target, index, accessor.get(source, index));
+        }
+        return target;
+    }
+
+    @Benchmark
+    public Object reflection() throws Exception {
+        for (int i = 0; i < getters.length; i++) {
+            setters[i].invoke(target, getters[i].invoke(source));
+        }
+        return target;
+    }
+
+    @Benchmark
+    public Object beanWrapper() throws Exception {
+        final BeanWrapper<PropertyAccessorGeneratorTest.Bean> reader = new MethodBeanWrapper<PropertyAccessorGeneratorTest.Bean>(source);
+        final BeanWrapper<PropertyAccessorGeneratorTest.Bean> writer = new MethodBeanWrapper<PropertyAccessorGeneratorTest.Bean>(target);
+        for (String property : PROPERTIES) {
+            writer.setPropertyValue(property, reader.getPropertyValue(property));
+        }
+        return target;
+    }
+
+}
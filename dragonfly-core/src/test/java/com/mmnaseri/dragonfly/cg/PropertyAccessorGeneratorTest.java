@@ -0,0 +1,235 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.cg;
+
+import org.junit.Test;
+
+import java.lang.reflect.ParameterizedType;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:13)
+ */
+public class PropertyAccessorGeneratorTest {
+
+    public static class Bean {
+
+        private long id;
+        private int age;
+        private String name;
+        private boolean active;
+        private List<String> tags;
+        private String secret;
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public void setAge(String age) {
+            this.age = -1;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Bean setName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public void setActive(boolean active) {
+            this.active = active;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+
+        public String getDisplayName() {
+            return name + " (" + age + ")";
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+
+        public String secret() {
+            return secret;
+        }
+
+    }
+
+    private static class Hidden {
+
+        public String getName() {
+            return null;
+        }
+
+    }
+
+    private static PropertyAccessor accessor() {
+        final PropertyAccessor accessor = PropertyAccessorGenerator.getAccessor(Bean.class);
+        assertNotNull(accessor);
+        return accessor;
+    }
+
+    @Test
+    public void testAccessorIsGeneratedOnce() throws Exception {
+        final PropertyAccessor accessor = accessor();
+        assertSame(accessor, PropertyAccessorGenerator.getAccessor(Bean.class));
+        assertEquals(Bean.class, accessor.getEntityType());
+        assertEquals(7, accessor.getPropertyCount());
+    }
+
+    @Test
+    public void testPropertiesAreReadThroughTheirGetters() throws Exception {
+        final PropertyAccessor accessor = accessor();
+        final Bean bean = new Bean();
+        bean.setId(12L);
+        bean.setAge(30);
+        bean.setName("x");
+        bean.setActive(true);
+        bean.setTags(Arrays.asList("a", "b"));
+        assertEquals(12L, accessor.get(bean, accessor.getIndex("id")));
+        assertEquals(30, accessor.get(bean, accessor.getIndex("age")));
+        assertEquals("x", accessor.get(bean, accessor.getIndex("name")));
+        assertEquals(true, accessor.get(bean, accessor.getIndex("active")));
+        assertEquals(Arrays.asList("a", "b"), accessor.get(bean, accessor.getIndex("tags")));
+        assertEquals("x (30)", accessor.get(bean, accessor.getIndex("displayName")));
+    }
+
+    @Test
+    public void testPropertiesAreWrittenThroughTheirSetters() throws Exception {
+        final PropertyAccessor accessor = accessor();
+        final Bean bean = new Bean();
+        accessor.set(bean, accessor.getIndex("id"), 12L);
+        accessor.set(bean, accessor.getIndex("age"), 30);
+        accessor.set(bean, accessor.getIndex("name"), "x");
+        accessor.set(bean, accessor.getIndex("active"), true);
+        accessor.set(bean, accessor.getIndex("secret"), "s");
+        assertEquals(12L, bean.getId());
+        assertEquals(30, bean.getAge());
+        assertEquals("x", bean.getName());
+        assertTrue(bean.isActive());
+        assertEquals("s", bean.secret());
+    }
+
+    @Test
+    public void testPrimitiveValuesAreWidened() throws Exception {
+        final PropertyAccessor accessor = accessor();
+        final Bean bean = new Bean();
+        accessor.set(bean, accessor.getIndex("id"), 12);
+        accessor.set(bean, accessor.getIndex("age"), (short) 30);
+        assertEquals(12L, bean.getId());
+        assertEquals(30, bean.getAge());
+    }
+
+    @Test
+    public void testPrimitiveValuesAreNotNarrowed() throws Exception {
+        final PropertyAccessor accessor = accessor();
+        final Bean bean = new Bean();
+        bean.setAge(5);
+        try {
+            accessor.set(bean, accessor.getIndex("age"), 1L + Integer.MAX_VALUE);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+        try {
+            accessor.set(bean, accessor.getIndex("age"), 30.5);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+        assertEquals(5, bean.getAge());
+    }
+
+    @Test
+    public void testReadOnlyAndWriteOnlyProperties() throws Exception {
+        final PropertyAccessor accessor = accessor();
+        final int displayName = accessor.getIndex("displayName");
+        final int secret = accessor.getIndex("secret");
+        assertTrue(accessor.isReadable(displayName));
+        assertFalse(accessor.isWritable(displayName));
+        assertNull(accessor.getGenericType(displayName));
+        assertFalse(accessor.isReadable(secret));
+        assertTrue(accessor.isWritable(secret));
+        final Bean bean = new Bean();
+        bean.setSecret("s");
+        assertNull(accessor.get(bean, secret));
+        accessor.set(bean, displayName, "ignored");
+        assertEquals(-1, accessor.getIndex("class"));
+        assertEquals(-1, accessor.getIndex("missing"));
+    }
+
+    @Test
+    public void testSetterMatchingTheGetterIsPreferred() throws Exception {
+        final PropertyAccessor accessor = accessor();
+        final Bean bean = new Bean();
+        accessor.set(bean, accessor.getIndex("age"), 5);
+        assertEquals(5, bean.getAge());
+        assertEquals(int.class, accessor.getGenericType(accessor.getIndex("age")));
+    }
+
+    @Test
+    public void testGenericTypesAreKept() throws Exception {
+        final PropertyAccessor accessor = accessor();
+        final java.lang.reflect.Type type = accessor.getGenericType(accessor.getIndex("tags"));
+        assertTrue(type instanceof ParameterizedType);
+        assertEquals(List.class, ((ParameterizedType) type).getRawType());
+        assertEquals(String.class, ((ParameterizedType) type).getActualTypeArguments()[0]);
+    }
+
+    @Test
+    public void testUnsupportedTypesHaveNoAccessor() throws Exception {
+        assertNull(PropertyAccessorGenerator.getAccessor(Hidden.class));
+        assertNull(PropertyAccessorGenerator.getAccessor(Runnable.class));
+        assertNull(PropertyAccessorGenerator.getAccessor(int[].class));
+        assertNull(PropertyAccessorGenerator.getAccessor(String.class));
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.fixtures.Department;
+import com.mmnaseri.dragonfly.fixtures.Employee;
+import com.mmnaseri.dragonfly.fixtures.TableFixtures;
+import com.mmnaseri.dragonfly.metadata.RelationMetadata;
+import com.mmnaseri.dragonfly.metadata.TableMetadata;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:04)
+ */
+public class BatchFetchTest {
+
+    private static <E> RelationMetadata<E, ?> getRelation(TableMetadata<E> tableMetadata, String propertyName) {
+        for (RelationMetadata<E, ?> relation : tableMetadata.getForeignReferences()) {
+            if (relation.getPropertyName().equals(propertyName)) {
+                return relation;
+            }
+        }
+        throw new AssertionError("No relation named " + propertyName);
+    }
+
+    @Test
+    public void testCollectionMembersAreHandedTheirOwner() throws Exception {
+        final TableMetadata<Department> departments = TableFixtures.departments(false);
+        final RelationMetadata<Department, ?> employees = getRelation(departments, "employees");
+        final RelationMetadata<?, ?> backReference = DefaultDataAccess.getBackReference(employees);
+        assertNotNull(backReference);
+        assertEquals(Employee.class, backReference.getLocalTable().getEntityType());
+        assertEquals("department", backReference.getPropertyName());
+    }
+
+    @Test
+    public void testManyToManyColumnsAreToldApart() throws Exception {
+        //noinspection unchecked
+        final TableMetadata<Employee> employees = (TableMetadata<Employee>) getRelation(TableFixtures.departments(false), "employees").getForeignTable();
+        final RelationMetadata<Employee, ?> projects = getRelation(employees, "projects");
+        assertEquals("employees", DefaultDataAccess.getManyToManyLocalColumn(employees, projects).getName());
+        assertEquals("projects", DefaultDataAccess.getManyToManyForeignColumn(employees, projects).getName());
+    }
+
+    @Test
+    public void testPlaceholdersAreRoundedUpToPowersOfTwo() throws Exception {
+        assertEquals(1, DefaultDataAccess.getFetchInSize(1, 16));
+        assertEquals(4, DefaultDataAccess.getFetchInSize(3, 16));
+        assertEquals(16, DefaultDataAccess.getFetchInSize(9, 16));
+        assertEquals(10, DefaultDataAccess.getFetchInSize(10, 10));
+    }
+
+    @Test
+    public void testExtraPlaceholdersRepeatTheLastValue() throws Exception {
+        final Map<String, Object> parameters = DefaultDataAccess.getFetchInParameters(Arrays.<Object>asList(1, 2, 3, 4, 5), 3, 2, 4);
+        assertEquals(4, parameters.size());
+        assertEquals(4, parameters.get("value.key0"));
+        assertEquals(5, parameters.get("value.key1"));
+        assertEquals(5, parameters.get("value.key2"));
+        assertEquals(5, parameters.get("value.key3"));
+    }
+
+    @Test
+    public void testForeignKeysAreConvertedToTheKeyType() throws Exception {
+        assertEquals(5L, DefaultDataAccess.toEntityKey(5, Long.class));
+        assertEquals(5, DefaultDataAccess.toEntityKey(5L, Integer.class));
+        assertEquals(5, DefaultDataAccess.toEntityKey(5L, int.class));
+        assertEquals("5", DefaultDataAccess.toEntityKey("5", Long.class));
+        assertEquals(DefaultDataAccess.normalizeKey(5), DefaultDataAccess.normalizeKey(5L));
+    }
+
+}
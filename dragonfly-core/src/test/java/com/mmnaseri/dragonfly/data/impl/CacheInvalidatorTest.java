@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.fixtures.Person;
+import com.mmnaseri.dragonfly.fixtures.TableFixtures;
+import com.mmnaseri.dragonfly.metadata.CacheEvictionPolicy;
+import com.mmnaseri.dragonfly.metadata.TableMetadata;
+import com.mmnaseri.dragonfly.metadata.impl.DefaultTableMetadataRegistry;
+import com.mmnaseri.dragonfly.metadata.impl.ImmutableCacheMetadata;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:05)
+ */
+public class CacheInvalidatorTest {
+
+    private SecondLevelCache cache;
+    private CacheRegion<Object, Map<String, Object>> region;
+    private CacheInvalidator invalidator;
+
+    @Before
+    public void setUp() throws Exception {
+        final TableMetadata<Person> people = TableFixtures.people(new ImmutableCacheMetadata(10, 0, CacheEvictionPolicy.LEAST_RECENTLY_USED));
+        final DefaultTableMetadataRegistry registry = new DefaultTableMetadataRegistry();
+        registry.addTableMetadata(people);
+        cache = new SecondLevelCache();
+        region = cache.getRegion(people);
+        invalidator = new CacheInvalidator(cache, new QueryResultCache(), null, registry);
+        put(1L);
+        put(2L);
+    }
+
+    private void put(Object key) {
+        region.put(key, Collections.<String, Object>singletonMap("id", key), region.getStamp());
+    }
+
+    @Test
+    public void testDeletingByKeyDropsOnlyThatEntity() throws Exception {
+        invalidator.afterDelete(Person.class, 1L);
+        assertFalse(region.contains(1L));
+        assertTrue(region.contains(2L));
+    }
+
+    @Test
+    public void testDeletingWithoutKeyDropsTheWholeType() throws Exception {
+        invalidator.afterDelete(Person.class, null);
+        assertEquals(0, region.size());
+    }
+
+    @Test
+    public void testKeysAreInvalidatedAgainOnceTheBatchIsOver() throws Exception {
+        invalidator.startBatch();
+        invalidator.afterDelete(Person.class, 1);
+        assertFalse(region.contains(1L));
+        //another thread reads the row before the batch is committed
+        put(1L);
+        invalidator.endBatch();
+        assertFalse(region.contains(1L));
+        assertTrue(region.contains(2L));
+    }
+
+    @Test
+    public void testTypesAreInvalidatedAgainOnceTheBatchIsOver() throws Exception {
+        invalidator.startBatch();
+        invalidator.afterDeleteAll(Person.class);
+        put(1L);
+        put(3L);
+        invalidator.endBatch();
+        assertEquals(0, region.size());
+    }
+
+    @Test
+    public void testNothingIsRepeatedOutsideOfBatches() throws Exception {
+        invalidator.afterDelete(Person.class, 1L);
+        put(1L);
+        invalidator.endBatch();
+        assertTrue(region.contains(1L));
+        invalidator.startBatch();
+        invalidator.endBatch();
+        invalidator.endBatch();
+        assertTrue(region.contains(1L));
+        assertEquals(new HashMap<String, Object>(Collections.<String, Object>singletonMap("id", 1L)), region.get(1L));
+    }
+
+}
@@ -0,0 +1,203 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.data.DataCallback;
+import com.mmnaseri.dragonfly.data.DataOperation;
+import com.mmnaseri.dragonfly.data.OperationType;
+import com.mmnaseri.dragonfly.data.impl.op.SampledDataOperation;
+import com.mmnaseri.dragonfly.data.impl.op.TypedDataOperation;
+import com.mmnaseri.dragonfly.fixtures.Department;
+import com.mmnaseri.dragonfly.fixtures.Person;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:14)
+ */
+public class CallbackChainTest {
+
+    private List<String> log;
+
+    public class Everything extends AbstractDefaultDataCallback<DataOperation> {
+
+        private final String name;
+
+        public Everything(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Object execute(DataOperation operation) {
+            log.add(name);
+            return operation.proceed();
+        }
+
+    }
+
+    public class Sampled extends AbstractDefaultDataCallback<SampledDataOperation> {
+
+        @Override
+        public Object execute(SampledDataOperation operation) {
+            log.add("sampled");
+            return operation.proceed();
+        }
+
+    }
+
+    public class People extends TypedDataCallback<DataOperation> {
+
+        public People() {
+            super(Person.class);
+        }
+
+        @Override
+        public Object execute(DataOperation operation) {
+            log.add("people");
+            return operation.proceed();
+        }
+
+    }
+
+    public class Finds implements DataCallback<DataOperation> {
+
+        private int asked;
+
+        @Override
+        public boolean accepts(DataOperation item) {
+            asked ++;
+            return item.getOperationType() == OperationType.FIND;
+        }
+
+        @Override
+        public Object execute(DataOperation operation) {
+            log.add("finds");
+            return operation.proceed();
+        }
+
+    }
+
+    public class Interrupting extends AbstractDefaultDataCallback<DataOperation> {
+
+        @Override
+        public Object execute(DataOperation operation) {
+            log.add("interrupting");
+            return "interrupted";
+        }
+
+    }
+
+    private final DataCallback<DataOperation> operation = new AbstractDefaultDataCallback<DataOperation>() {
+        @Override
+        public Object execute(DataOperation operation) {
+            log.add("operation");
+            return "result";
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        log = new ArrayList<String>();
+    }
+
+    private static List<SmartDataCallback<DataOperation>> callbacks(DataCallback<?>... callbacks) {
+        final List<SmartDataCallback<DataOperation>> result = new ArrayList<SmartDataCallback<DataOperation>>();
+        for (DataCallback<?> callback : callbacks) {
+            //noinspection unchecked
+            result.add(new SmartDataCallback<DataOperation>((DataCallback<DataOperation>) callback));
+        }
+        return result;
+    }
+
+    private TypedDataOperation typed(OperationType operationType, Class<?> entityType) {
+        return new TypedDataOperation(null, operationType, entityType, operation);
+    }
+
+    @Test
+    public void testCallbacksRunInOrderBeforeTheOperation() throws Exception {
+        final CallbackChain chain = CallbackChain.compile(callbacks(new Everything("first"), new Everything("second")), TypedDataOperation.class, Person.class);
+        assertEquals(2, chain.size());
+        assertEquals("result", typed(OperationType.FIND, Person.class).execute(chain));
+        assertEquals(Arrays.asList("first", "second", "operation"), log);
+    }
+
+    @Test
+    public void testCallbacksForOtherOperationsAreLeftOut() throws Exception {
+        final CallbackChain chain = CallbackChain.compile(callbacks(new Sampled(), new Everything("all")), TypedDataOperation.class, Person.class);
+        assertEquals(1, chain.size());
+        typed(OperationType.FIND, Person.class).execute(chain);
+        assertEquals(Arrays.asList("all", "operation"), log);
+    }
+
+    @Test
+    public void testTypedCallbacksAreResolvedAgainstTheEntityType() throws Exception {
+        final List<SmartDataCallback<DataOperation>> callbacks = callbacks(new People());
+        assertEquals(1, CallbackChain.compile(callbacks, TypedDataOperation.class, Person.class).size());
+        assertEquals(0, CallbackChain.compile(callbacks, TypedDataOperation.class, Department.class).size());
+        //without a known entity type, the callback is asked for every operation
+        final CallbackChain chain = CallbackChain.compile(callbacks, TypedDataOperation.class, null);
+        assertEquals(1, chain.size());
+        typed(OperationType.FIND, Department.class).execute(chain);
+        assertEquals(Arrays.asList("operation"), log);
+        log.clear();
+        typed(OperationType.FIND, Person.class).execute(chain);
+        assertEquals(Arrays.asList("people", "operation"), log);
+    }
+
+    @Test
+    public void testOnlyConditionalCallbacksAreAsked() throws Exception {
+        final Finds finds = new Finds();
+        final CallbackChain chain = CallbackChain.compile(callbacks(new Everything("all"), finds), TypedDataOperation.class, Person.class);
+        typed(OperationType.FIND, Person.class).execute(chain);
+        typed(OperationType.COUNT, Person.class).execute(chain);
+        assertEquals(Arrays.asList("all", "finds", "operation", "all", "operation"), log);
+        assertEquals(2, finds.asked);
+    }
+
+    @Test
+    public void testCallbackCanStopTheChain() throws Exception {
+        final CallbackChain chain = CallbackChain.compile(callbacks(new Everything("first"), new Interrupting(), new Everything("last")), TypedDataOperation.class, Person.class);
+        assertEquals("interrupted", typed(OperationType.DELETE, Person.class).execute(chain));
+        assertEquals(Arrays.asList("first", "interrupting"), log);
+    }
+
+    @Test
+    public void testChainIsSharedByOperations() throws Exception {
+        final CallbackChain chain = CallbackChain.compile(callbacks(new Everything("first"), new Everything("second")), SampledDataOperation.class, null);
+        final SampledDataOperation first = new SampledDataOperation(null, OperationType.FIND, new Person(), operation);
+        final SampledDataOperation second = new SampledDataOperation(null, OperationType.FIND, new Person(), operation);
+        first.execute(chain);
+        second.execute(chain);
+        first.execute(chain);
+        assertEquals(Arrays.asList("first", "second", "operation", "first", "second", "operation", "first", "second", "operation"), log);
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.dialect.impl.Mysql5Dialect;
+import com.mmnaseri.dragonfly.entity.impl.DefaultEntityContext;
+import com.mmnaseri.dragonfly.entity.impl.DefaultEntityHandlerContext;
+import com.mmnaseri.dragonfly.events.impl.AbstractDataAccessEventHandler;
+import com.mmnaseri.dragonfly.fixtures.Department;
+import com.mmnaseri.dragonfly.fixtures.Employee;
+import com.mmnaseri.dragonfly.fixtures.TableFixtures;
+import com.mmnaseri.dragonfly.metadata.RelationMetadata;
+import com.mmnaseri.dragonfly.metadata.TableMetadata;
+import com.mmnaseri.dragonfly.metadata.impl.DefaultTableMetadataRegistry;
+import com.mmnaseri.dragonfly.security.impl.DefaultDataSecurityManager;
+import com.mmnaseri.dragonfly.security.impl.FailFirstAccessDeniedHandler;
+import com.mmnaseri.dragonfly.statement.impl.DefaultStatementRegistry;
+import com.mmnaseri.dragonfly.statement.impl.StatementRegistryPreparator;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures deleting a department with its employees, and the links of the employees to their projects,
+ * through {@link DefaultDataAccess#delete(Object)}. The employees are either removed through the statements
+ * of the department's {@link CascadeDeletePlan}, or, when an event handler observes their deletion and the
+ * plan cannot be used, through the data access itself.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:59)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CascadeDeletePlanBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:cascade-benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final long DEPARTMENT = 1L;
+
+    @Param({"10", "100", "1000"})
+    private int employees;
+
+    @Param({"true", "false"})
+    private boolean plan;
+
+    private Connection connection;
+    private DefaultDataAccess dataAccess;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(URL);
+        final java.sql.Statement statement = connection.createStatement();
+        statement.execute("CREATE SCHEMA IF NOT EXISTS test");
+        statement.execute("CREATE TABLE test.departments (id BIGINT PRIMARY KEY, name VARCHAR(255))");
+        statement.execute("CREATE TABLE test.employees (id BIGINT PRIMARY KEY, name VARCHAR(255), department BIGINT)");
+        statement.execute("CREATE TABLE test.employees_projects (employees BIGINT, projects BIGINT)");
+        statement.close();
+        final Mysql5Dialect dialect = new Mysql5Dialect() {
+            @Override
+            public String getDriverClassName() {
+                return "org.h2.Driver";
+            }
+        };
+        final TableMetadata<Department> departments = TableFixtures.departments(false);
+        final DefaultTableMetadataRegistry tableMetadataRegistry = new DefaultTableMetadataRegistry();
+        tableMetadataRegistry.addTableMetadata(departments);
+        for (RelationMetadata<Department, ?> relation : departments.getForeignReferences()) {
+            tableMetadataRegistry.addTableMetadata(relation.getForeignTable());
+        }
+        final DefaultStatementRegistry statementRegistry = new DefaultStatementRegistry();
+        new StatementRegistryPreparator(dialect, null, tableMetadataRegistry).prepare(statementRegistry);
+        final DefaultDataAccessSession session = new DefaultDataAccessSession(dialect, statementRegistry, tableMetadataRegistry, URL);
+        session.markInitialized();
+        final DefaultEntityContext entityContext = new DefaultEntityContext(new DefaultDataSecurityManager(new FailFirstAccessDeniedHandler()), tableMetadataRegistry, session);
+        dataAccess = new DefaultDataAccess(session, entityContext, new DefaultEntityHandlerContext(entityContext, tableMetadataRegistry), false);
+        if (!plan) {
+            //observing the deletion of employees keeps the data access from using the plan
+            dataAccess.addHandler(new AbstractDataAccessEventHandler() {
+                @Override
+                public boolean supports(Class<?> entityType) {
+                    return Employee.class.equals(entityType);
+                }
+
+                @Override
+                public <E> void afterDelete(E entity) {
+                }
+            });
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.createStatement().execute("DROP SCHEMA test CASCADE");
+        connection.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void populate() throws SQLException {
+        //without the plan, nothing removes the links of the employees
+        connection.createStatement().execute("DELETE FROM test.employees_projects");
+        final PreparedStatement department = connection.prepareStatement("INSERT INTO test.departments VALUES (?, ?)");
+        department.setLong(1, DEPARTMENT);
+        department.setString(2, "department");
+        department.executeUpdate();
+        department.close();
+        final PreparedStatement employee = connection.prepareStatement("INSERT INTO test.employees VALUES (?, ?, ?)");
+        final PreparedStatement link = connection.prepareStatement("INSERT INTO test.employees_projects VALUES (?, ?)");
+        for (int i = 0; i < employees; i ++) {
+            employee.setLong(1, i);
+            employee.setString(2, "employee" + i);
+            employee.setLong(3, DEPARTMENT);
+            employee.addBatch();
+            link.setLong(1, i);
+            link.setLong(2, i % 7);
+            link.addBatch();
+        }
+        employee.executeBatch();
+        link.executeBatch();
+        employee.close();
+        link.close();
+    }
+
+    @Benchmark
+    public void delete() {
+        final Department department = new Department();
+        department.setId(DEPARTMENT);
+        dataAccess.delete(department);
+    }
+
+}
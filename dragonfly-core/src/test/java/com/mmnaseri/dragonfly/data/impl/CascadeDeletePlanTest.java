@@ -0,0 +1,71 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.dialect.impl.Mysql5Dialect;
+import com.mmnaseri.dragonfly.fixtures.Employee;
+import com.mmnaseri.dragonfly.fixtures.TableFixtures;
+import com.mmnaseri.dragonfly.statement.Statement;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:59)
+ */
+public class CascadeDeletePlanTest {
+
+    @Test
+    public void testMiddleTableRowsAreRemovedBeforeDependents() throws Exception {
+        final CascadeDeletePlan plan = CascadeDeletePlan.create(TableFixtures.departments(false), new Mysql5Dialect());
+        assertTrue(plan.isSetBased());
+        final List<Statement> statements = plan.getStatements();
+        assertEquals(2, statements.size());
+        assertTrue(statements.get(0).getSql().startsWith("DELETE FROM `test`.`employees_projects`"));
+        assertTrue(statements.get(0).getSql().contains("SELECT `test`.`employees`.`id` FROM `test`.`employees`"));
+        assertTrue(statements.get(1).getSql().startsWith("DELETE FROM `test`.`employees`"));
+        //the middle table holds no entities of its own
+        assertEquals(Collections.<Class<?>>singleton(Employee.class), plan.getEntityTypes());
+    }
+
+    @Test
+    public void testDependentsCascadingElsewhereAreNotSetBased() throws Exception {
+        final CascadeDeletePlan plan = CascadeDeletePlan.create(TableFixtures.departments(true), new Mysql5Dialect());
+        assertFalse(plan.isSetBased());
+        assertTrue(plan.getStatements().isEmpty());
+    }
+
+    @Test
+    public void testTablesWithoutDependentsHaveNothingToDo() throws Exception {
+        final CascadeDeletePlan plan = CascadeDeletePlan.create(TableFixtures.people(), new Mysql5Dialect());
+        assertTrue(plan.isSetBased());
+        assertTrue(plan.getStatements().isEmpty());
+        assertTrue(plan.getEntityTypes().isEmpty());
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.error.ConnectionPoolExhaustedError;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:46)
+ */
+public class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        final JdbcDataSource dataSource = new JdbcDataSource("jdbc:h2:mem:pool;DB_CLOSE_DELAY=-1");
+        pool = new ConnectionPool(dataSource, null, null, 1, 50L, null);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        pool.close();
+    }
+
+    @Test
+    public void testReleasedConnectionIsReused() throws Exception {
+        final DelegatingConnection first = pool.borrow();
+        first.open();
+        first.close();
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount());
+        assertSame(first, pool.borrow());
+    }
+
+    @Test(expected = ConnectionPoolExhaustedError.class)
+    public void testBorrowTimesOutWhenExhausted() throws Exception {
+        pool.borrow();
+        pool.borrow();
+    }
+
+    @Test
+    public void testGrowingTheLivePool() throws Exception {
+        pool.borrow();
+        pool.setMaxConnections(2);
+        assertNotNull(pool.borrow());
+        assertEquals(2, pool.getActiveCount());
+    }
+
+    @Test
+    public void testShrinkingTheLivePool() throws Exception {
+        pool.setMaxConnections(2);
+        final DelegatingConnection first = pool.borrow();
+        pool.borrow();
+        pool.setMaxConnections(1);
+        first.open();
+        first.close();
+        try {
+            pool.borrow();
+            fail("The pool should not hand out more than one connection after shrinking");
+        } catch (ConnectionPoolExhaustedError ignored) {
+        }
+    }
+
+    @Test
+    public void testBorrowTimeoutCanBeChanged() throws Exception {
+        pool.setBorrowTimeout(1L);
+        assertEquals(1L, pool.getBorrowTimeout());
+        pool.borrow();
+        final long start = System.currentTimeMillis();
+        try {
+            pool.borrow();
+            fail();
+        } catch (ConnectionPoolExhaustedError ignored) {
+        }
+        assertTrue(System.currentTimeMillis() - start < 50L);
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.dialect.impl.Mysql5Dialect;
+import com.mmnaseri.dragonfly.entity.impl.DefaultEntityContext;
+import com.mmnaseri.dragonfly.entity.impl.DefaultEntityHandlerContext;
+import com.mmnaseri.dragonfly.error.UnsuccessfulOperationError;
+import com.mmnaseri.dragonfly.fixtures.Person;
+import com.mmnaseri.dragonfly.fixtures.TableFixtures;
+import com.mmnaseri.dragonfly.metadata.impl.DefaultTableMetadataRegistry;
+import com.mmnaseri.dragonfly.security.impl.DefaultDataSecurityManager;
+import com.mmnaseri.dragonfly.security.impl.FailFirstAccessDeniedHandler;
+import com.mmnaseri.dragonfly.statement.impl.DefaultStatementRegistry;
+import com.mmnaseri.dragonfly.statement.impl.StatementRegistryPreparator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:31)
+ */
+public class DefaultDataAccessCursorTest {
+
+    private final List<Integer> fetchSizes = new ArrayList<Integer>();
+    private final List<String> calls = new ArrayList<String>();
+    private DefaultDataAccess dataAccess;
+
+    @Before
+    public void setUp() throws Exception {
+        final Mysql5Dialect dialect = new Mysql5Dialect() {
+            @Override
+            public String getDriverClassName() {
+                return "org.h2.Driver";
+            }
+        };
+        final DefaultTableMetadataRegistry tableMetadataRegistry = new DefaultTableMetadataRegistry();
+        tableMetadataRegistry.addTableMetadata(TableFixtures.people());
+        final DefaultStatementRegistry statementRegistry = new DefaultStatementRegistry();
+        new StatementRegistryPreparator(dialect, null, tableMetadataRegistry).prepare(statementRegistry);
+        final DefaultDataAccessSession session = new DefaultDataAccessSession(dialect, statementRegistry, tableMetadataRegistry, "jdbc:h2:mem:cursor-failure") {
+            @Override
+            public Connection getDedicatedConnection() {
+                return connection();
+            }
+        };
+        session.markInitialized();
+        final DefaultEntityContext entityContext = new DefaultEntityContext(new DefaultDataSecurityManager(new FailFirstAccessDeniedHandler()), tableMetadataRegistry, session);
+        dataAccess = new DefaultDataAccess(session, entityContext, new DefaultEntityHandlerContext(entityContext, tableMetadataRegistry), false);
+        dataAccess.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    private Connection connection() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Connection.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                final String name = method.getName();
+                if (name.equals("prepareStatement")) {
+                    return statement();
+                } else if (name.equals("close")) {
+                    calls.add("connection.close");
+                    return null;
+                }
+                throw new UnsupportedOperationException(name);
+            }
+        });
+    }
+
+    private PreparedStatement statement() {
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{PreparedStatement.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                final String name = method.getName();
+                if (name.equals("setFetchSize")) {
+                    fetchSizes.add((Integer) args[0]);
+                    return null;
+                } else if (name.equals("executeQuery")) {
+                    throw new SQLException("Connection lost");
+                } else if (name.equals("close")) {
+                    calls.add("statement.close");
+                    return null;
+                }
+                throw new UnsupportedOperationException(name);
+            }
+        });
+    }
+
+    @Test
+    public void testFailedCursorRevertsTheFetchSizeBeforeReleasingTheStatement() throws Exception {
+        try {
+            dataAccess.iterateAll(Person.class);
+            fail();
+        } catch (UnsuccessfulOperationError e) {
+            assertTrue(e.getCause() instanceof SQLException);
+        }
+        assertEquals(Arrays.asList(Integer.MIN_VALUE, 0), fetchSizes);
+        assertEquals(Arrays.asList("statement.close", "connection.close"), calls);
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.couteau.basics.api.Processor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:46)
+ */
+public class DelegatingConnectionTest {
+
+    private final AtomicInteger released = new AtomicInteger();
+    private DelegatingConnection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        final JdbcDataSource dataSource = new JdbcDataSource("jdbc:h2:mem:delegating;DB_CLOSE_DELAY=-1");
+        connection = new DelegatingConnection(dataSource.getConnection(), new Processor<Connection>() {
+            @Override
+            public void process(Connection input) {
+                released.incrementAndGet();
+            }
+        }, DelegatingConnection.DEFAULT_STATEMENT_CACHE_SIZE, true);
+    }
+
+    @Test
+    public void testNestedOpensReleaseOnce() throws Exception {
+        connection.open();
+        final long lease = connection.getLease();
+        assertTrue(connection.reopen(lease));
+        connection.close();
+        assertEquals(0, released.get());
+        connection.close();
+        assertEquals(1, released.get());
+        assertFalse(connection.reopen(lease));
+    }
+
+    @Test
+    public void testCloseFromAnotherThread() throws Exception {
+        connection.open();
+        final long lease = connection.getLease();
+        final Thread closer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    connection.close();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        closer.start();
+        closer.join();
+        assertEquals(1, released.get());
+        //the owning thread must not piggy-back on a connection that has been released
+        assertFalse(connection.reopen(lease));
+        connection.open();
+        assertTrue(lease != connection.getLease());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnbalancedClose() throws Exception {
+        connection.close();
+    }
+
+}
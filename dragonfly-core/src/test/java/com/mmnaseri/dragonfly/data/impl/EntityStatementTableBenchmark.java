@@ -0,0 +1,95 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.couteau.context.error.RegistryException;
+import com.mmnaseri.dragonfly.dialect.impl.Mysql5Dialect;
+import com.mmnaseri.dragonfly.statement.Statement;
+import com.mmnaseri.dragonfly.statement.Statements;
+import com.mmnaseri.dragonfly.statement.impl.DefaultStatementRegistry;
+import com.mmnaseri.dragonfly.statement.impl.ImmutableStatement;
+import com.mmnaseri.dragonfly.statement.impl.LocalStatementRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares looking up the statement for a manipulation through an {@link EntityStatementTable} with looking
+ * it up through a {@link LocalStatementRegistry} scoped to the entity, as the data access used to do, for a
+ * registry holding the statements of 200 entities.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:10)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EntityStatementTableBenchmark {
+
+    private static final int ENTITIES = 200;
+
+    private DefaultStatementRegistry registry;
+    private String[] prefixes;
+    private EntityStatementTable[] tables;
+    private int next;
+
+    @Setup
+    public void setUp() throws RegistryException {
+        final Mysql5Dialect dialect = new Mysql5Dialect();
+        registry = new DefaultStatementRegistry();
+        prefixes = new String[ENTITIES];
+        tables = new EntityStatementTable[ENTITIES];
+        for (int i = 0; i < ENTITIES; i++) {
+            prefixes[i] = "com.example.model.Entity" + i;
+            final Map<String, Statement> statements = new HashMap<String, Statement>();
+            for (String name : DefaultDataAccess.STATEMENTS.values()) {
+                final Statement statement = new ImmutableStatement(null, dialect, "SELECT " + i + " FROM DUAL");
+                statements.put(name, statement);
+                registry.register(prefixes[i] + "." + name, statement);
+            }
+            tables[i] = new EntityStatementTable(Object.class, statements);
+        }
+    }
+
+    private int nextEntity() {
+        next = (next + 1) % ENTITIES;
+        return next;
+    }
+
+    @Benchmark
+    public Statement statementTable() {
+        return tables[nextEntity()].get(Statements.Manipulation.FIND_ONE);
+    }
+
+    @Benchmark
+    public Statement localRegistry() throws RegistryException {
+        return new LocalStatementRegistry(registry, prefixes[nextEntity()]).get(DefaultDataAccess.STATEMENTS.get(Statements.Manipulation.FIND_ONE));
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.annotations.Ordering;
+import com.mmnaseri.dragonfly.dialect.impl.Mysql5Dialect;
+import com.mmnaseri.dragonfly.fixtures.Person;
+import com.mmnaseri.dragonfly.fixtures.TableFixtures;
+import com.mmnaseri.dragonfly.metadata.ColumnMetadata;
+import com.mmnaseri.dragonfly.metadata.OrderMetadata;
+import com.mmnaseri.dragonfly.metadata.TableMetadata;
+import com.mmnaseri.dragonfly.metadata.impl.ImmutableKeysetMetadata;
+import com.mmnaseri.dragonfly.metadata.impl.ImmutableOrderMetadata;
+import com.mmnaseri.dragonfly.statement.Statement;
+import com.mmnaseri.dragonfly.statement.Statements;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Reads the people of the fixture table page by page through the keyset statements of the MySQL dialect,
+ * the way {@link DefaultDataAccess} does, on an in-memory H2 database running in MySQL mode.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:08)
+ */
+public class KeysetPaginationTest {
+
+    private static final int PAGE_SIZE = 2;
+    private final Mysql5Dialect dialect = new Mysql5Dialect();
+    private TableMetadata<Person> people;
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        people = TableFixtures.people();
+        connection = DriverManager.getConnection("jdbc:h2:mem:keyset;MODE=MySQL");
+        final java.sql.Statement statement = connection.createStatement();
+        statement.execute("CREATE SCHEMA IF NOT EXISTS test");
+        statement.execute("CREATE TABLE test.people (id BIGINT PRIMARY KEY, name VARCHAR(255), age INT)");
+        statement.execute("INSERT INTO test.people VALUES (1, 'a', NULL), (2, 'b', NULL), (3, 'c', 20), (4, 'd', 30), (5, 'e', 30)");
+        statement.close();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connection.createStatement().execute("DROP SCHEMA test CASCADE");
+        connection.close();
+    }
+
+    private ColumnMetadata column(String name) {
+        for (ColumnMetadata column : people.getColumns()) {
+            if (column.getName().equals(name)) {
+                return column;
+            }
+        }
+        throw new AssertionError("No column named " + name);
+    }
+
+    private List<OrderMetadata> orderByAge(Ordering order) {
+        final List<OrderMetadata> ordering = new ArrayList<OrderMetadata>();
+        ordering.add(new ImmutableOrderMetadata(column("age"), order));
+        ordering.add(new ImmutableOrderMetadata(column("id"), Ordering.ASCENDING));
+        return ordering;
+    }
+
+    /**
+     * Reads one page, and hands back the keyset of its last row through the given array, or {@code null} if
+     * there are no more pages
+     */
+    private List<Long> readPage(List<OrderMetadata> ordering, Object[][] keyset) throws Exception {
+        final Map<String, Object> parameters = new HashMap<String, Object>();
+        final List<Boolean> nullValues = new ArrayList<Boolean>();
+        if (keyset[0] != null) {
+            for (int i = 0; i < keyset[0].length; i++) {
+                nullValues.add(keyset[0][i] == null);
+                if (keyset[0][i] != null) {
+                    parameters.put("value.keyset" + i, keyset[0][i]);
+                }
+            }
+        }
+        parameters.put("value.keysetLimit", PAGE_SIZE + 1);
+        final Statement statement = dialect.getStatementBuilderContext().getManipulationStatementBuilder(Statements.Manipulation.FIND_PAGE).getStatement(people, new ImmutableKeysetMetadata(ordering, keyset[0] != null, nullValues));
+        final PreparedStatement preparedStatement = statement.prepare(connection, null, parameters);
+        final ResultSet resultSet = preparedStatement.executeQuery();
+        final List<Long> ids = new ArrayList<Long>();
+        final List<Object[]> keysets = new ArrayList<Object[]>();
+        while (resultSet.next()) {
+            ids.add(resultSet.getLong("id"));
+            keysets.add(new Object[]{resultSet.getObject("age"), resultSet.getObject("id")});
+        }
+        resultSet.close();
+        preparedStatement.close();
+        if (ids.size() <= PAGE_SIZE) {
+            keyset[0] = null;
+            return ids;
+        }
+        keyset[0] = keysets.get(PAGE_SIZE - 1);
+        return ids.subList(0, PAGE_SIZE);
+    }
+
+    @Test
+    public void testLimitIsTheKeysetLimit() throws Exception {
+        final Statement statement = dialect.getStatementBuilderContext().getManipulationStatementBuilder(Statements.Manipulation.FIND_PAGE).getStatement(people, new ImmutableKeysetMetadata(orderByAge(Ordering.ASCENDING)));
+        final PreparedStatement preparedStatement = statement.prepare(connection, null, Collections.<String, Object>singletonMap("value.keysetLimit", 3));
+        final ResultSet resultSet = preparedStatement.executeQuery();
+        int count = 0;
+        while (resultSet.next()) {
+            count ++;
+        }
+        preparedStatement.close();
+        assertEquals(3, count);
+    }
+
+    @Test
+    public void testPagesContinueAfterNullValues() throws Exception {
+        final List<OrderMetadata> ordering = orderByAge(Ordering.ASCENDING);
+        final Object[][] keyset = new Object[1][];
+        assertEquals(Arrays.asList(1L, 2L), readPage(ordering, keyset));
+        assertNotNull(keyset[0]);
+        assertNull(keyset[0][0]);
+        assertEquals(Arrays.asList(3L, 4L), readPage(ordering, keyset));
+        assertNotNull(keyset[0]);
+        assertEquals(Collections.singletonList(5L), readPage(ordering, keyset));
+        assertNull(keyset[0]);
+    }
+
+    @Test
+    public void testDescendingPagesEndWithNullValues() throws Exception {
+        final List<OrderMetadata> ordering = orderByAge(Ordering.DESCENDING);
+        final Object[][] keyset = new Object[1][];
+        assertEquals(Arrays.asList(4L, 5L), readPage(ordering, keyset));
+        assertEquals(Arrays.asList(3L, 1L), readPage(ordering, keyset));
+        assertNull(keyset[0][0]);
+        assertEquals(Collections.singletonList(2L), readPage(ordering, keyset));
+        assertNull(keyset[0]);
+    }
+
+}
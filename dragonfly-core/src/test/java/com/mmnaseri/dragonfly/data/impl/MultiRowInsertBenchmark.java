@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.dialect.impl.Mysql5Dialect;
+import com.mmnaseri.dragonfly.metadata.ColumnMetadata;
+import com.mmnaseri.dragonfly.statement.impl.ParameterBindingPlan;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares flushing a batch of inserts as fixed-size multi-row statements with sending it as a plain
+ * JDBC batch of single-row statements, with and without reading back the generated keys.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:55)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MultiRowInsertBenchmark {
+
+    private final ParameterBindingPlan plan = new ParameterBindingPlan("INSERT INTO people (name, age) VALUES (?, ?)", new String[]{"value.name", "value.age"}, new ColumnMetadata[]{null, null});
+
+    @Param({"50", "250", "1000"})
+    private int rowCount;
+
+    private Connection connection;
+    private MultiRowInsert insert;
+    private List<Map<String, Object>> rows;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:multirow-benchmark");
+        connection.createStatement().execute("CREATE TABLE people (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255), age INT)");
+        insert = new MultiRowInsert(plan, new Mysql5Dialect());
+        rows = new ArrayList<Map<String, Object>>();
+        for (int i = 0; i < rowCount; i ++) {
+            final Map<String, Object> row = new HashMap<String, Object>();
+            row.put("value.name", "person" + i);
+            row.put("value.age", i);
+            rows.add(row);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.createStatement().execute("DROP TABLE people");
+        connection.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() throws SQLException {
+        connection.createStatement().execute("TRUNCATE TABLE people");
+    }
+
+    @Benchmark
+    public List<Integer> multiRow() throws SQLException {
+        final List<Integer> results = new ArrayList<Integer>(rowCount);
+        insert.execute(connection, rows, results, null);
+        return results;
+    }
+
+    @Benchmark
+    public List<Serializable> multiRowWithKeys() throws SQLException {
+        final List<Serializable> keys = new ArrayList<Serializable>(rowCount);
+        insert.execute(connection, rows, new ArrayList<Integer>(rowCount), keys);
+        return keys;
+    }
+
+    @Benchmark
+    public int[] jdbcBatch() throws SQLException {
+        final PreparedStatement statement = connection.prepareStatement(plan.getSql());
+        try {
+            for (Map<String, Object> row : rows) {
+                plan.bind(statement, row);
+                statement.addBatch();
+            }
+            return statement.executeBatch();
+        } finally {
+            statement.close();
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.dialect.impl.Mysql5Dialect;
+import com.mmnaseri.dragonfly.metadata.ColumnMetadata;
+import com.mmnaseri.dragonfly.statement.impl.ParameterBindingPlan;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:55)
+ */
+public class MultiRowInsertTest {
+
+    private final ParameterBindingPlan plan = new ParameterBindingPlan("INSERT INTO people (name, age) VALUES (?, ?)", new String[]{"value.name", "value.age"}, new ColumnMetadata[]{null, null});
+    private final Set<String> prepared = new HashSet<String>();
+    private Connection target;
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        target = DriverManager.getConnection("jdbc:h2:mem:multirow");
+        target.createStatement().execute("CREATE TABLE people (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255), age INT)");
+        connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Connection.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("prepareStatement")) {
+                    prepared.add((String) args[0]);
+                }
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        target.createStatement().execute("DROP TABLE people");
+        target.close();
+    }
+
+    private static List<Map<String, Object>> rows(int count) {
+        final List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+        for (int i = 0; i < count; i ++) {
+            final Map<String, Object> row = new HashMap<String, Object>();
+            row.put("value.name", "person" + i);
+            row.put("value.age", i);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Test
+    public void testChunksAndTailShareTwoStatements() throws Exception {
+        final List<Integer> results = new ArrayList<Integer>();
+        final MultiRowInsert insert = new MultiRowInsert(plan, new Mysql5Dialect());
+        insert.execute(connection, rows(MultiRowInsert.CHUNK_SIZE * 2 + 7), results, null);
+        insert.execute(connection, rows(MultiRowInsert.CHUNK_SIZE + 3), results, null);
+        assertEquals(2, prepared.size());
+        assertTrue(prepared.contains(plan.getSql()));
+        assertTrue(prepared.contains(plan.getSql(MultiRowInsert.CHUNK_SIZE)));
+        assertEquals(MultiRowInsert.CHUNK_SIZE * 3 + 10, results.size());
+        for (Integer result : results) {
+            assertEquals(Integer.valueOf(1), result);
+        }
+        final ResultSet resultSet = target.createStatement().executeQuery("SELECT COUNT(*) FROM people");
+        assertTrue(resultSet.next());
+        assertEquals(MultiRowInsert.CHUNK_SIZE * 3 + 10, resultSet.getInt(1));
+    }
+
+    @Test
+    public void testKeysAreMatchedWithTheirRows() throws Exception {
+        final List<Integer> results = new ArrayList<Integer>();
+        final List<Serializable> keys = new ArrayList<Serializable>();
+        final int count = MultiRowInsert.CHUNK_SIZE + 5;
+        new MultiRowInsert(plan, new Mysql5Dialect()).execute(connection, rows(count), results, keys);
+        assertEquals(count, keys.size());
+        final ResultSet resultSet = target.createStatement().executeQuery("SELECT id, name FROM people");
+        final Map<Long, String> names = new HashMap<Long, String>();
+        while (resultSet.next()) {
+            names.put(resultSet.getLong(1), resultSet.getString(2));
+        }
+        for (int i = 0; i < count; i ++) {
+            assertEquals("person" + i, names.get((Long) keys.get(i)));
+        }
+    }
+
+    @Test
+    public void testChunkSizeRespectsParameterLimit() throws Exception {
+        final String[] parameters = new String[ParameterBindingPlan.MAX_MULTI_ROW_PARAMETERS / 10];
+        final ColumnMetadata[] columns = new ColumnMetadata[parameters.length];
+        final StringBuilder sql = new StringBuilder("INSERT INTO wide VALUES (");
+        for (int i = 0; i < parameters.length; i ++) {
+            parameters[i] = "value.column" + i;
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+        final MultiRowInsert insert = new MultiRowInsert(new ParameterBindingPlan(sql.toString(), parameters, columns), new Mysql5Dialect());
+        assertEquals(10, insert.getChunkSize());
+    }
+
+}
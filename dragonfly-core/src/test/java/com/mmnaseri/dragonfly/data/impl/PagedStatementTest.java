@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.annotations.Ordering;
+import com.mmnaseri.dragonfly.dialect.impl.Mysql5Dialect;
+import com.mmnaseri.dragonfly.fixtures.Person;
+import com.mmnaseri.dragonfly.fixtures.TableFixtures;
+import com.mmnaseri.dragonfly.metadata.OrderMetadata;
+import com.mmnaseri.dragonfly.metadata.TableMetadata;
+import com.mmnaseri.dragonfly.metadata.impl.DefaultPagedResultOrderMetadata;
+import com.mmnaseri.dragonfly.metadata.impl.DefaultResultOrderMetadata;
+import com.mmnaseri.dragonfly.metadata.impl.ImmutableOrderMetadata;
+import com.mmnaseri.dragonfly.statement.Statement;
+import com.mmnaseri.dragonfly.statement.Statements;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:09)
+ */
+public class PagedStatementTest {
+
+    private TableMetadata<Person> people;
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        people = TableFixtures.people();
+        connection = DriverManager.getConnection("jdbc:h2:mem:paged;MODE=MySQL");
+        final java.sql.Statement statement = connection.createStatement();
+        statement.execute("CREATE SCHEMA IF NOT EXISTS test");
+        statement.execute("CREATE TABLE test.people (id BIGINT PRIMARY KEY, name VARCHAR(255), age INT)");
+        statement.execute("INSERT INTO test.people VALUES (1, 'a', 10), (2, 'b', 20), (3, 'c', 30), (4, 'd', 40), (5, 'e', 50)");
+        statement.close();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connection.createStatement().execute("DROP SCHEMA test CASCADE");
+        connection.close();
+    }
+
+    private List<OrderMetadata> byId() {
+        return Collections.<OrderMetadata>singletonList(new ImmutableOrderMetadata(people.getPrimaryKey().getColumns().iterator().next(), Ordering.ASCENDING));
+    }
+
+    private List<Long> read(Statement statement, Map<String, Object> values) throws Exception {
+        final PreparedStatement preparedStatement = statement.prepare(connection, null, values);
+        final ResultSet resultSet = preparedStatement.executeQuery();
+        final List<Long> ids = new ArrayList<Long>();
+        while (resultSet.next()) {
+            ids.add(resultSet.getLong("id"));
+        }
+        preparedStatement.close();
+        return ids;
+    }
+
+    @Test
+    public void testPagingValuesAreDerivedFromThePage() throws Exception {
+        final Map<String, Object> values = Collections.<String, Object>singletonMap("value.name", "a");
+        final Map<String, Object> paged = DefaultDataAccess.getPagingValues(values, new DefaultPagedResultOrderMetadata(byId(), 10, 3));
+        assertEquals(20, paged.get("value.pageOffset"));
+        assertEquals(10, paged.get("value.pageLimit"));
+        assertEquals("a", paged.get("value.name"));
+        assertFalse(values.containsKey("value.pageOffset"));
+    }
+
+    @Test
+    public void testUnpagedOrderingsLeaveTheValuesAlone() throws Exception {
+        final Map<String, Object> values = Collections.emptyMap();
+        assertSame(values, DefaultDataAccess.getPagingValues(values, new DefaultResultOrderMetadata(byId())));
+        assertSame(values, DefaultDataAccess.getPagingValues(values, new DefaultPagedResultOrderMetadata(byId(), 0, 1)));
+        assertFalse(DefaultDataAccess.isPaged(null));
+        assertTrue(DefaultDataAccess.isPaged(new DefaultPagedResultOrderMetadata(byId(), 2, 1)));
+    }
+
+    @Test
+    public void testOneStatementServesAllPages() throws Exception {
+        final Statement statement = new Mysql5Dialect().getStatementBuilderContext().getManipulationStatementBuilder(Statements.Manipulation.FIND_ALL).getStatement(people, new DefaultPagedResultOrderMetadata(byId(), 2, 1));
+        final Map<String, Object> none = Collections.emptyMap();
+        assertEquals(Arrays.asList(1L, 2L), read(statement, DefaultDataAccess.getPagingValues(none, new DefaultPagedResultOrderMetadata(byId(), 2, 1))));
+        assertEquals(Arrays.asList(3L, 4L), read(statement, DefaultDataAccess.getPagingValues(none, new DefaultPagedResultOrderMetadata(byId(), 2, 2))));
+        assertEquals(Collections.singletonList(5L), read(statement, DefaultDataAccess.getPagingValues(none, new DefaultPagedResultOrderMetadata(byId(), 2, 3))));
+    }
+
+}
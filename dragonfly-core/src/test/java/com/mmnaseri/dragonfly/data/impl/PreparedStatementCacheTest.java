@@ -0,0 +1,196 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:45)
+ */
+public class PreparedStatementCacheTest {
+
+    private final Set<PreparedStatement> closed = new HashSet<PreparedStatement>();
+
+    private PreparedStatement statement() {
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{PreparedStatement.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("close")) {
+                    closed.add((PreparedStatement) proxy);
+                }
+                if (method.getName().equals("hashCode")) {
+                    return System.identityHashCode(proxy);
+                }
+                if (method.getName().equals("equals")) {
+                    return proxy == args[0];
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * @param settings    the settings of the statement, keyed by their property names, e.g. {@code FetchSize}.
+     *                    Setting {@code fail} makes every setter throw.
+     */
+    private PreparedStatement statement(final Map<String, Object> settings) {
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{PreparedStatement.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                final String name = method.getName();
+                if (name.equals("close")) {
+                    closed.add((PreparedStatement) proxy);
+                } else if (name.equals("hashCode")) {
+                    return System.identityHashCode(proxy);
+                } else if (name.equals("equals")) {
+                    return proxy == args[0];
+                } else if (name.startsWith("get")) {
+                    return settings.get(name.substring(3));
+                } else if (name.startsWith("set")) {
+                    if (settings.containsKey("fail")) {
+                        throw new SQLException();
+                    }
+                    settings.put(name.substring(3), args[0]);
+                }
+                return null;
+            }
+        });
+    }
+
+    private static Map<String, Object> settings(int fetchSize, int maxRows, int queryTimeout) {
+        final Map<String, Object> settings = new HashMap<String, Object>();
+        settings.put("FetchSize", fetchSize);
+        settings.put("MaxRows", maxRows);
+        settings.put("QueryTimeout", queryTimeout);
+        return settings;
+    }
+
+    private static PreparedStatementCache.Key key(String sql) {
+        return new PreparedStatementCache.Key(sql, Statement.RETURN_GENERATED_KEYS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    }
+
+    @Test
+    public void testCheckedInStatementIsHandedOutAgain() throws Exception {
+        final PreparedStatementCache cache = new PreparedStatementCache(4);
+        assertNull(cache.checkOut(key("SELECT 1")));
+        final PreparedStatement statement = statement();
+        cache.checkIn(key("SELECT 1"), statement);
+        assertSame(statement, cache.checkOut(key("SELECT 1")));
+        assertNull(cache.checkOut(key("SELECT 1")));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testFlagsArePartOfTheKey() throws Exception {
+        final PreparedStatementCache cache = new PreparedStatementCache(4);
+        cache.checkIn(key("SELECT 1"), statement());
+        assertNull(cache.checkOut(new PreparedStatementCache.Key("SELECT 1", Statement.NO_GENERATED_KEYS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)));
+    }
+
+    @Test
+    public void testDuplicateIdleStatementIsClosed() throws Exception {
+        final PreparedStatementCache cache = new PreparedStatementCache(4);
+        final PreparedStatement first = statement();
+        final PreparedStatement second = statement();
+        cache.checkIn(key("SELECT 1"), first);
+        cache.checkIn(key("SELECT 1"), second);
+        assertTrue(closed.contains(second));
+        assertFalse(closed.contains(first));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedStatementIsClosedOnEviction() throws Exception {
+        final PreparedStatementCache cache = new PreparedStatementCache(2);
+        final PreparedStatement first = statement();
+        cache.checkIn(key("SELECT 1"), first);
+        cache.checkIn(key("SELECT 2"), statement());
+        cache.checkIn(key("SELECT 3"), statement());
+        assertTrue(closed.contains(first));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void testCloseClosesIdleStatements() throws Exception {
+        final PreparedStatementCache cache = new PreparedStatementCache(4);
+        cache.checkIn(key("SELECT 1"), statement());
+        cache.checkIn(key("SELECT 2"), statement());
+        cache.close();
+        assertEquals(2, closed.size());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testSettingsArePutBackOnCheckIn() throws Exception {
+        final PreparedStatementCache cache = new PreparedStatementCache(4);
+        final Map<String, Object> settings = settings(10, 0, 0);
+        final PreparedStatement statement = statement(settings);
+        cache.register(statement);
+        statement.setFetchSize(Integer.MIN_VALUE);
+        statement.setMaxRows(5);
+        statement.setQueryTimeout(30);
+        cache.checkIn(key("SELECT 1"), statement);
+        assertEquals(settings(10, 0, 0), settings);
+        assertSame(statement, cache.checkOut(key("SELECT 1")));
+    }
+
+    @Test
+    public void testUnregisteredStatementsGetTheJdbcDefaults() throws Exception {
+        final PreparedStatementCache cache = new PreparedStatementCache(4);
+        final Map<String, Object> settings = settings(Integer.MIN_VALUE, 5, 30);
+        cache.checkIn(key("SELECT 1"), statement(settings));
+        assertEquals(settings(0, 0, 0), settings);
+    }
+
+    @Test
+    public void testStatementThatCannotBeResetIsClosed() throws Exception {
+        final PreparedStatementCache cache = new PreparedStatementCache(4);
+        final Map<String, Object> settings = settings(10, 0, 0);
+        final PreparedStatement statement = statement(settings);
+        cache.register(statement);
+        settings.put("fail", true);
+        cache.checkIn(key("SELECT 1"), statement);
+        assertTrue(closed.contains(statement));
+        assertEquals(0, cache.size());
+        assertNull(cache.checkOut(key("SELECT 1")));
+    }
+
+}
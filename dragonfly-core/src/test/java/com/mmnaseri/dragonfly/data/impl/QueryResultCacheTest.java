@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.fixtures.Department;
+import com.mmnaseri.dragonfly.fixtures.Employee;
+import com.mmnaseri.dragonfly.fixtures.Person;
+import com.mmnaseri.dragonfly.fixtures.TableFixtures;
+import com.mmnaseri.dragonfly.metadata.CacheEvictionPolicy;
+import com.mmnaseri.dragonfly.metadata.CacheMetadata;
+import com.mmnaseri.dragonfly.metadata.RelationMetadata;
+import com.mmnaseri.dragonfly.metadata.TableMetadata;
+import com.mmnaseri.dragonfly.metadata.impl.ImmutableCacheMetadata;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:06)
+ */
+public class QueryResultCacheTest {
+
+    private static final CacheMetadata CACHE_METADATA = new ImmutableCacheMetadata(10, 0, CacheEvictionPolicy.LEAST_RECENTLY_USED, true);
+    private List<TableMetadata<?>> tables;
+
+    @Before
+    public void setUp() throws Exception {
+        final TableMetadata<Department> departments = TableFixtures.departments(false);
+        tables = new ArrayList<TableMetadata<?>>();
+        tables.add(departments);
+        tables.add(TableFixtures.people());
+        for (RelationMetadata<Department, ?> relation : departments.getForeignReferences()) {
+            tables.add(relation.getForeignTable());
+            for (RelationMetadata<?, ?> employeeRelation : relation.getForeignTable().getForeignReferences()) {
+                if ("projects".equals(employeeRelation.getPropertyName())) {
+                    tables.add(employeeRelation.getForeignTable());
+                }
+            }
+        }
+        assertEquals(4, tables.size());
+    }
+
+    private static CacheRegion<QueryResultKey, List<Object>> fill(CacheRegion<QueryResultKey, List<Object>> region) {
+        region.put(new QueryResultKey(Collections.<String, Object>emptyMap(), null, true), Collections.<Object>singletonList(1L), region.getStamp());
+        return region;
+    }
+
+    @Test
+    public void testTablesAreFoundByName() throws Exception {
+        final Set<Class<?>> types = QueryResultCache.getTouchedEntityTypes("SELECT `test`.`departments`.* FROM `test`.`departments` JOIN `test`.`employees` ON (`test`.`employees`.`department` = `test`.`departments`.`id`)", tables);
+        assertEquals(new HashSet<Class<?>>(Arrays.<Class<?>>asList(Department.class, Employee.class)), types);
+    }
+
+    @Test
+    public void testPartialNamesAreNotMentions() throws Exception {
+        //the middle table stands for the entities it links
+        final Set<Class<?>> types = QueryResultCache.getTouchedEntityTypes("SELECT * FROM \"test\".\"employees_projects\" WHERE \"people_count\" > 0", tables);
+        assertEquals(Collections.<Class<?>>singleton(Employee.class), types);
+    }
+
+    @Test
+    public void testQueriesAreInvalidatedByTheTablesTheyRead() throws Exception {
+        final QueryResultCache cache = new QueryResultCache();
+        final CacheRegion<QueryResultKey, List<Object>> joined = fill(cache.getRegion(Department.class, "withEmployees", CACHE_METADATA, "SELECT * FROM departments JOIN employees ON (employees.department = departments.id)", tables));
+        final CacheRegion<QueryResultKey, List<Object>> single = fill(cache.getRegion(Department.class, "byName", CACHE_METADATA, "SELECT * FROM departments WHERE name = ?", tables));
+        final CacheRegion<QueryResultKey, List<Object>> other = fill(cache.getRegion(Person.class, "all", CACHE_METADATA, "SELECT * FROM people", tables));
+        cache.invalidate(Employee.class);
+        assertEquals(0, joined.size());
+        assertEquals(1, single.size());
+        assertEquals(1, other.size());
+        cache.invalidate(Department.class);
+        assertEquals(0, single.size());
+        assertEquals(1, other.size());
+    }
+
+    @Test
+    public void testRegionsAreSharedPerQuery() throws Exception {
+        final QueryResultCache cache = new QueryResultCache();
+        final CacheRegion<QueryResultKey, List<Object>> region = cache.getRegion(Department.class, "withEmployees", CACHE_METADATA, "SELECT * FROM departments JOIN employees", tables);
+        assertSame(region, cache.getRegion(Department.class, "withEmployees", CACHE_METADATA, "SELECT * FROM departments JOIN employees", tables));
+        assertEquals(1, cache.getRegions().size());
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.couteau.basics.api.Processor;
+import com.mmnaseri.couteau.basics.api.Transformer;
+import com.mmnaseri.dragonfly.dialect.impl.Mysql5Dialect;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:49)
+ */
+public class ResultSetEntityCursorTest {
+
+    private static final Transformer<ResultSet, Integer> READER = new Transformer<ResultSet, Integer>() {
+        @Override
+        public Integer map(ResultSet input) {
+            try {
+                return input.getInt(1);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+    private final AtomicInteger released = new AtomicInteger();
+    private DelegatingConnection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = new DelegatingConnection(new JdbcDataSource("jdbc:h2:mem:cursor").getConnection(), new Processor<Connection>() {
+            @Override
+            public void process(Connection input) {
+                released.incrementAndGet();
+            }
+        }, DelegatingConnection.DEFAULT_STATEMENT_CACHE_SIZE, true);
+        connection.open();
+        final Statement statement = connection.createStatement();
+        statement.execute("CREATE TABLE numbers (value INT)");
+        for (int i = 0; i < 10; i++) {
+            statement.execute("INSERT INTO numbers VALUES (" + i + ")");
+        }
+        statement.close();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connection.discard();
+    }
+
+    private ResultSetEntityCursor<Integer> open() throws SQLException {
+        connection.open();
+        final PreparedStatement statement = connection.prepareStatement("SELECT value FROM numbers ORDER BY value");
+        return new ResultSetEntityCursor<Integer>(connection, statement, statement.executeQuery(), READER);
+    }
+
+    @Test
+    public void testCursorReadsAllRowsAndReleasesTheConnection() throws Exception {
+        final ResultSetEntityCursor<Integer> cursor = open();
+        final List<Integer> values = new ArrayList<Integer>();
+        while (cursor.hasNext()) {
+            values.add(cursor.next());
+        }
+        assertEquals(10, values.size());
+        assertEquals(Integer.valueOf(9), values.get(9));
+        assertTrue(cursor.isClosed());
+        //the cursor only gives back the handle it was opened with
+        assertEquals(0, released.get());
+        connection.close();
+        assertEquals(1, released.get());
+    }
+
+    @Test
+    public void testCursorClosedFromAnotherThread() throws Exception {
+        final ResultSetEntityCursor<Integer> cursor = open();
+        assertTrue(cursor.hasNext());
+        cursor.next();
+        final Thread closer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                cursor.close();
+            }
+        });
+        closer.start();
+        closer.join();
+        assertFalse(cursor.hasNext());
+        cursor.close();
+        connection.close();
+        assertEquals(1, released.get());
+    }
+
+    @Test
+    public void testMysqlStreamsRowByRow() throws Exception {
+        assertEquals(Integer.MIN_VALUE, new Mysql5Dialect().getStreamingFetchSize());
+    }
+
+}
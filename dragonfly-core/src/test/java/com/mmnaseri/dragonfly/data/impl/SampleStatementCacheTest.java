@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.data.impl;
+
+import com.mmnaseri.dragonfly.dialect.DatabaseDialect;
+import com.mmnaseri.dragonfly.dialect.impl.Mysql5Dialect;
+import com.mmnaseri.dragonfly.fixtures.TableFixtures;
+import com.mmnaseri.dragonfly.statement.Statement;
+import com.mmnaseri.dragonfly.statement.StatementType;
+import com.mmnaseri.dragonfly.statement.impl.ImmutableStatement;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:12)
+ */
+public class SampleStatementCacheTest {
+
+    private final DatabaseDialect dialect = new Mysql5Dialect();
+    private final Statement statement = new ImmutableStatement(TableFixtures.people(), dialect, "SELECT * FROM people WHERE 1 = 1<%list isSet(table.columns) as column> AND %{column.name} = ?</%list>", true, true, StatementType.QUERY);
+
+    private static Map<String, Object> values(Object... values) {
+        final Map<String, Object> map = new HashMap<String, Object>();
+        for (int i = 0; i < values.length; i += 2) {
+            map.put("value." + values[i], values[i + 1]);
+        }
+        return map;
+    }
+
+    @Test
+    public void testSamplesWithTheSameShapeShareTheRenderedStatement() throws Exception {
+        final SampleStatementCache cache = new SampleStatementCache(SampleStatementCache.DEFAULT_CAPACITY);
+        final Statement first = cache.getStatement(statement, dialect, values("name", "a"));
+        final Statement second = cache.getStatement(statement, dialect, values("name", "b"));
+        assertSame(first, second);
+        assertFalse(first.isDynamic());
+        assertTrue(first.getSql().contains("name = ?"));
+        assertFalse(first.getSql().contains("age = ?"));
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testSamplesWithDifferentShapesAreRenderedSeparately() throws Exception {
+        final SampleStatementCache cache = new SampleStatementCache(SampleStatementCache.DEFAULT_CAPACITY);
+        final Statement name = cache.getStatement(statement, dialect, values("name", "a"));
+        final Statement both = cache.getStatement(statement, dialect, values("name", "a", "age", 10));
+        final Statement none = cache.getStatement(statement, dialect, values());
+        assertNotSame(name, both);
+        assertNotSame(name, none);
+        assertTrue(both.getSql().contains("name = ?"));
+        assertTrue(both.getSql().contains("age = ?"));
+        assertFalse(none.getSql().contains("= ?"));
+        assertEquals(3, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void testNullValuesStillShapeTheStatement() throws Exception {
+        final SampleStatementCache cache = new SampleStatementCache(SampleStatementCache.DEFAULT_CAPACITY);
+        final Statement given = cache.getStatement(statement, dialect, values("name", null));
+        assertTrue(given.getSql().contains("name = ?"));
+        assertNotSame(given, cache.getStatement(statement, dialect, values()));
+    }
+
+    @Test
+    public void testStaticStatementsAreNotCached() throws Exception {
+        final SampleStatementCache cache = new SampleStatementCache(SampleStatementCache.DEFAULT_CAPACITY);
+        final Statement fixed = new ImmutableStatement(TableFixtures.people(), dialect, "SELECT * FROM people", false, false, StatementType.QUERY);
+        assertSame(fixed, cache.getStatement(fixed, dialect, values("name", "a")));
+        assertSame(statement, cache.getStatement(statement, dialect, null));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedShapesAreEvicted() throws Exception {
+        final SampleStatementCache cache = new SampleStatementCache(1);
+        final Statement name = cache.getStatement(statement, dialect, values("name", "a"));
+        cache.getStatement(statement, dialect, values("age", 10));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNotSame(name, cache.getStatement(statement, dialect, values("name", "a")));
+        assertEquals(3, cache.getMisses());
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.entity.impl;
+
+import com.mmnaseri.dragonfly.fixtures.Person;
+import com.mmnaseri.dragonfly.fixtures.TableFixtures;
+import com.mmnaseri.dragonfly.metadata.TableMetadata;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:14)
+ */
+public class AccessorEntityCreatorTest {
+
+    private final TableMetadata<Person> people = TableFixtures.people();
+
+    @Test
+    public void testEntityMapMatchesTheReflectivePath() throws Exception {
+        final Person person = new Person("a", 10);
+        person.setId(1L);
+        final Map<String, Object> map = new AccessorEntityMapCreator().toMap(people.getColumns(), person);
+        assertEquals(new DefaultEntityMapCreator().toMap(people.getColumns(), person), map);
+        assertEquals(1L, map.get("id"));
+        assertEquals("a", map.get("name"));
+        assertEquals(10, map.get("age"));
+    }
+
+    @Test
+    public void testNullPropertiesAreLeftOutOfTheMap() throws Exception {
+        final Map<String, Object> map = new AccessorEntityMapCreator().toMap(people.getColumns(), new Person("a", null));
+        assertEquals(1, map.size());
+        assertEquals("a", map.get("name"));
+    }
+
+    @Test
+    public void testEntityIsPopulatedByColumnName() throws Exception {
+        final Map<String, Object> values = new HashMap<String, Object>();
+        values.put("ID", 1L);
+        values.put("name", "a");
+        values.put("age", null);
+        values.put("unknown", "ignored");
+        final Person person = new AccessorMapEntityCreator().fromMap(new Person(null, 5), people.getColumns(), values);
+        assertEquals(Long.valueOf(1L), person.getId());
+        assertEquals("a", person.getName());
+        assertEquals(Integer.valueOf(5), person.getAge());
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        final Person person = new Person("b", 20);
+        person.setId(2L);
+        final Person copy = new AccessorMapEntityCreator().fromMap(new Person(), people.getColumns(), new AccessorEntityMapCreator().toMap(people.getColumns(), person));
+        assertEquals(person.getId(), copy.getId());
+        assertEquals(person.getName(), copy.getName());
+        assertEquals(person.getAge(), copy.getAge());
+    }
+
+}
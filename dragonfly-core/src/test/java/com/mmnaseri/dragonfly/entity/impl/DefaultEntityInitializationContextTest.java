@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.entity.impl;
+
+import com.mmnaseri.dragonfly.fixtures.Person;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:50)
+ */
+public class DefaultEntityInitializationContextTest {
+
+    @Test
+    public void testRegisteredEntityIsFound() throws Exception {
+        final DefaultEntityInitializationContext context = new DefaultEntityInitializationContext(null, null);
+        final Person person = new Person("Milad", 30);
+        context.register(Person.class, 1L, person);
+        assertTrue(context.contains(Person.class, 1L));
+        assertFalse(context.contains(Person.class, 2L));
+        assertSame(person, context.get(Person.class, 1L));
+    }
+
+    @Test
+    public void testDeletedEntityIsGone() throws Exception {
+        final DefaultEntityInitializationContext context = new DefaultEntityInitializationContext(null, null);
+        context.register(Person.class, 1L, new Person());
+        context.delete(Person.class, 1L);
+        assertFalse(context.contains(Person.class, 1L));
+    }
+
+    @Test
+    public void testChildDefersToParent() throws Exception {
+        final DefaultEntityInitializationContext parent = new DefaultEntityInitializationContext(null, null);
+        final DefaultEntityInitializationContext child = new DefaultEntityInitializationContext(null, parent);
+        final Person person = new Person();
+        child.register(Person.class, 1L, person);
+        assertTrue(parent.contains(Person.class, 1L));
+        assertTrue(child.contains(Person.class, 1L));
+        assertSame(person, child.get(Person.class, 1L));
+    }
+
+    @Test
+    public void testConcurrentLookupsSeeTheirOwnEntities() throws Exception {
+        final DefaultEntityInitializationContext context = new DefaultEntityInitializationContext(null, null);
+        final int threads = 8;
+        final int entities = 200;
+        final Person[] people = new Person[threads * entities];
+        for (int i = 0; i < people.length; i++) {
+            people[i] = new Person();
+            context.register(Person.class, (long) i, people[i]);
+        }
+        final AtomicInteger mismatches = new AtomicInteger();
+        final List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * entities;
+            final Thread worker = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int round = 0; round < 50; round++) {
+                        for (int i = offset; i < offset + entities; i++) {
+                            if (!context.contains(Person.class, (long) i) || context.get(Person.class, (long) i) != people[i]) {
+                                mismatches.incrementAndGet();
+                            }
+                        }
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(0, mismatches.get());
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.entity.impl;
+
+import com.mmnaseri.couteau.basics.api.Cache;
+import com.mmnaseri.dragonfly.fixtures.Person;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures concurrent identity-map lookups of cached entities through the reused per-thread descriptor,
+ * against allocating a fresh descriptor for each lookup.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:50)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Threads(8)
+@Fork(1)
+public class EntityInitializationContextBenchmark {
+
+    private static final int ENTITIES = 10000;
+    private ExposedContext context;
+
+    @Setup
+    public void setUp() {
+        context = new ExposedContext();
+        for (long i = 0; i < ENTITIES; i++) {
+            context.register(Person.class, i, new Person());
+        }
+    }
+
+    @Benchmark
+    public Object getReusingDescriptor(Position position) {
+        return context.get(Person.class, position.next());
+    }
+
+    @Benchmark
+    public Object getAllocatingDescriptor(Position position) {
+        return context.getAllocating(Person.class, position.next());
+    }
+
+    @Benchmark
+    public boolean containsReusingDescriptor(Position position) {
+        return context.contains(Person.class, position.next());
+    }
+
+    @State(Scope.Thread)
+    public static class Position {
+
+        private long current;
+
+        @Setup
+        public void setUp() {
+            current = System.identityHashCode(Thread.currentThread()) % ENTITIES;
+        }
+
+        private long next() {
+            current = (current + 7919) % ENTITIES;
+            return current;
+        }
+
+    }
+
+    private static class ExposedContext extends DefaultEntityInitializationContext {
+
+        private ExposedContext() {
+            super(null, null);
+        }
+
+        private Object getAllocating(Class<?> entityType, Serializable key) {
+            final EntityInstanceDescriptor descriptor = new EntityInstanceDescriptor(entityType, key);
+            final Cache<EntityInstanceDescriptor, Object> cache = getCache();
+            return cache.contains(descriptor) ? cache.read(descriptor) : null;
+        }
+
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.entity.impl;
+
+import com.mmnaseri.couteau.enhancer.api.MethodProxy;
+import com.mmnaseri.couteau.enhancer.impl.ImmutableMethodDescriptor;
+import com.mmnaseri.dragonfly.fixtures.Person;
+import com.mmnaseri.dragonfly.fixtures.TableFixtures;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:56)
+ */
+public class EntityProxyTest {
+
+    private final MethodProxy methodProxy = (MethodProxy) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{MethodProxy.class}, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            return null;
+        }
+    });
+    private EntityProxy<Person> entityProxy;
+    private Person person;
+
+    @Before
+    public void setUp() throws Exception {
+        entityProxy = new EntityProxy<Person>(null, TableFixtures.people(), null, null, null, null);
+        person = new Person("Milad", 30);
+    }
+
+    private void set(String setter, Class<?> type, Object value) throws Throwable {
+        entityProxy.call(new ImmutableMethodDescriptor(Person.class, void.class, setter, new Class[]{type}, new Annotation[0]), person, new Object[]{value}, methodProxy);
+    }
+
+    @Test
+    public void testChangesAreNotRecordedUnlessTracked() throws Throwable {
+        entityProxy.setOriginalCopy(person);
+        set("setName", String.class, "Someone");
+        assertNull(entityProxy.getDirtyProperties());
+        entityProxy.setOriginalCopy(person, false);
+        set("setName", String.class, "Someone");
+        assertNull(entityProxy.getDirtyProperties());
+    }
+
+    @Test
+    public void testColumnSettersAreRecorded() throws Throwable {
+        entityProxy.setOriginalCopy(person, true);
+        assertEquals(Collections.<String>emptySet(), entityProxy.getDirtyProperties());
+        set("setName", String.class, "Someone");
+        set("setNickname", String.class, "mm");
+        assertEquals(Collections.singleton("name"), entityProxy.getDirtyProperties());
+    }
+
+    @Test
+    public void testChangesAreClearedWithTheOriginalCopy() throws Throwable {
+        entityProxy.setOriginalCopy(person, true);
+        set("setAge", Integer.class, 31);
+        assertEquals(Collections.singleton("age"), entityProxy.getDirtyProperties());
+        entityProxy.setOriginalCopy(person, true);
+        assertTrue(entityProxy.getDirtyProperties().isEmpty());
+    }
+
+    @Test
+    public void testChangesAreNotRecordedWhileFrozen() throws Throwable {
+        entityProxy.setOriginalCopy(person, true);
+        entityProxy.freeze();
+        set("setName", String.class, "Someone");
+        entityProxy.unfreeze();
+        assertTrue(entityProxy.getDirtyProperties().isEmpty());
+    }
+
+}
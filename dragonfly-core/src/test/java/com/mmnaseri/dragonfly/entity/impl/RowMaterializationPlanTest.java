@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.entity.impl;
+
+import com.mmnaseri.dragonfly.fixtures.Person;
+import com.mmnaseri.dragonfly.fixtures.TableFixtures;
+import com.mmnaseri.dragonfly.metadata.TableMetadata;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:47)
+ */
+public class RowMaterializationPlanTest {
+
+    private final TableMetadata<Person> tableMetadata = TableFixtures.people();
+    private Connection connection;
+    private Statement statement;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:materialization");
+        statement = connection.createStatement();
+        statement.execute("CREATE TABLE people (id BIGINT PRIMARY KEY, name VARCHAR(255), age INT, nickname VARCHAR(255))");
+        statement.execute("INSERT INTO people VALUES (1, 'Milad', 30, 'mm')");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        statement.close();
+        connection.close();
+    }
+
+    @Test
+    public void testRowIsMaterializedByIndex() throws Exception {
+        final ResultSet resultSet = statement.executeQuery("SELECT id, name, age, nickname FROM people");
+        final RowMaterializationPlan<Person> plan = new RowMaterializationPlan<Person>(tableMetadata, new DefaultMapEntityCreator(), resultSet.getMetaData());
+        assertTrue(resultSet.next());
+        final Person person = new Person();
+        final Map<String, Object> values = new HashMap<String, Object>();
+        plan.materialize(resultSet, person, values);
+        assertEquals(Long.valueOf(1), person.getId());
+        assertEquals("Milad", person.getName());
+        assertEquals(Integer.valueOf(30), person.getAge());
+        assertTrue(plan.isComplete());
+        //columns not mapped to the entity are neither set nor collected
+        assertFalse(values.containsKey("NICKNAME"));
+        assertEquals(3, values.size());
+    }
+
+    @Test
+    public void testPartialProjectionIsIncomplete() throws Exception {
+        final ResultSet resultSet = statement.executeQuery("SELECT name FROM people");
+        final RowMaterializationPlan<Person> plan = new RowMaterializationPlan<Person>(tableMetadata, new DefaultMapEntityCreator(), resultSet.getMetaData());
+        assertTrue(resultSet.next());
+        final Person person = new Person();
+        plan.materialize(resultSet, person);
+        assertEquals("Milad", person.getName());
+        assertNull(person.getId());
+        assertFalse(plan.isComplete());
+    }
+
+    @Test
+    public void testPlanMatchesOnlyTheSameColumns() throws Exception {
+        final ResultSet resultSet = statement.executeQuery("SELECT id, name FROM people");
+        final RowMaterializationPlan<Person> plan = new RowMaterializationPlan<Person>(tableMetadata, new DefaultMapEntityCreator(), resultSet.getMetaData());
+        assertTrue(plan.matches(resultSet.getMetaData()));
+        assertFalse(plan.matches(statement.executeQuery("SELECT name, id FROM people").getMetaData()));
+    }
+
+}
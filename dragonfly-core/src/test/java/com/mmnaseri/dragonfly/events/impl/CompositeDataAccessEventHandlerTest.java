@@ -0,0 +1,177 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.events.impl;
+
+import com.mmnaseri.dragonfly.events.DataAccessEventHandler;
+import com.mmnaseri.dragonfly.fixtures.Department;
+import com.mmnaseri.dragonfly.fixtures.Person;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:15)
+ */
+public class CompositeDataAccessEventHandlerTest {
+
+    private List<String> log;
+    private CompositeDataAccessEventHandler composite;
+
+    public class Inserts extends AbstractDataAccessEventHandler {
+
+        @Override
+        public <E> void afterInsert(E entity) {
+            log.add("afterInsert");
+        }
+
+    }
+
+    public class KeyedDeletes extends AbstractDataAccessEventHandler {
+
+        @Override
+        public <E, K extends Serializable> void afterDelete(Class<E> entityType, K key) {
+            log.add("afterDeleteByKey");
+        }
+
+    }
+
+    public class PeopleOnly extends AbstractDataAccessEventHandler {
+
+        @Override
+        public boolean supports(Class<?> entityType) {
+            return Person.class.isAssignableFrom(entityType);
+        }
+
+        @Override
+        public <E> void beforeDelete(E entity) {
+            log.add("people.beforeDelete");
+        }
+
+        @Override
+        public <E, K extends Serializable> E afterFind(Class<E> entityType, K key, E entity) {
+            log.add("people.afterFind");
+            //noinspection unchecked
+            return (E) new Person("replaced", null);
+        }
+
+    }
+
+    private DataAccessEventHandler everything() {
+        return (DataAccessEventHandler) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{DataAccessEventHandler.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getDeclaringClass().equals(Object.class)) {
+                    return method.invoke(this, args);
+                }
+                log.add("everything." + method.getName());
+                return method.getName().equals("afterFind") && args.length == 3 ? args[2] : null;
+            }
+        });
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        log = new ArrayList<String>();
+        composite = new CompositeDataAccessEventHandler();
+    }
+
+    @Test
+    public void testHandlersOnlyReceiveTheEventsTheyOverride() throws Exception {
+        composite.addHandler(new Inserts());
+        composite.beforeInsert(new Person());
+        composite.afterUpdate(new Person(), true);
+        composite.afterInsert(new Person());
+        assertEquals(Collections.singletonList("afterInsert"), log);
+    }
+
+    @Test
+    public void testOverloadsAreToldApart() throws Exception {
+        composite.addHandler(new KeyedDeletes());
+        composite.afterDelete(new Person());
+        composite.afterDelete(Person.class, 1L);
+        assertEquals(Collections.singletonList("afterDeleteByKey"), log);
+    }
+
+    @Test
+    public void testHandlersOnlyReceiveEventsForTheTypesTheySupport() throws Exception {
+        composite.addHandler(new PeopleOnly());
+        composite.beforeDelete(new Department());
+        composite.beforeDelete(new Person());
+        assertEquals(Collections.singletonList("people.beforeDelete"), log);
+    }
+
+    @Test
+    public void testOtherHandlersReceiveEveryEvent() throws Exception {
+        composite.addHandler(everything());
+        composite.beforeInsert(new Department());
+        composite.afterFindAll(Person.class, Collections.<Person>emptyList());
+        composite.beforeTruncate(Department.class);
+        assertEquals(Arrays.asList("everything.beforeInsert", "everything.afterFindAll", "everything.beforeTruncate"), log);
+    }
+
+    @Test
+    public void testAddedHandlersAreSeenByLaterEvents() throws Exception {
+        composite.addHandler(new Inserts());
+        composite.beforeDelete(new Person());
+        assertTrue(log.isEmpty());
+        composite.addHandler(new PeopleOnly());
+        composite.beforeDelete(new Person());
+        assertEquals(Collections.singletonList("people.beforeDelete"), log);
+    }
+
+    @Test
+    public void testFoundEntityIsPassedAlongTheHandlers() throws Exception {
+        composite.addHandler(new PeopleOnly());
+        composite.addHandler(everything());
+        final Person found = composite.afterFind(Person.class, 1L, new Person("original", null));
+        assertEquals("replaced", found.getName());
+        assertEquals(2, log.size());
+        assertTrue(log.contains("people.afterFind"));
+        assertTrue(log.contains("everything.afterFind"));
+        assertNull(composite.afterFind(Department.class, 1L, null));
+    }
+
+    @Test
+    public void testDeletionObservation() throws Exception {
+        final PeopleOnly people = new PeopleOnly();
+        composite.addHandler(new Inserts());
+        assertFalse(composite.isDeletionObserved(Person.class));
+        composite.addHandler(people);
+        assertTrue(composite.isDeletionObserved(Person.class));
+        assertFalse(composite.isDeletionObserved(Department.class));
+        assertFalse(composite.isDeletionObserved(Person.class, people));
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.fixtures;
+
+import com.mmnaseri.dragonfly.data.impl.ManyToManyMiddleEntity;
+import com.mmnaseri.dragonfly.metadata.*;
+import com.mmnaseri.dragonfly.metadata.impl.*;
+
+import java.sql.Types;
+import java.util.*;
+
+/**
+ * Hand-built table metadata for the fixture entities, so that tests in this module do not depend on
+ * an annotation-based metadata resolver
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:47)
+ */
+public abstract class TableFixtures {
+
+    private TableFixtures() {
+    }
+
+    /**
+     * @return the metadata for {@link Person}, mapped to {@code test.people}
+     */
+    public static ResolvedTableMetadata<Person> people() {
+        return people(null);
+    }
+
+    /**
+     * @param cacheMetadata    the second-level cache settings for the entity, if any
+     * @return the metadata for {@link Person}, mapped to {@code test.people}
+     */
+    public static ResolvedTableMetadata<Person> people(CacheMetadata cacheMetadata) {
+        final List<ColumnMetadata> columns = new ArrayList<ColumnMetadata>();
+        final ResolvedColumnMetadata id = new ResolvedColumnMetadata(null, Person.class, "id", Types.BIGINT, "id", Long.class, false, 0, 0, 0, ValueGenerationType.IDENTITY, null, false, false);
+        columns.add(id);
+        columns.add(new ResolvedColumnMetadata(null, Person.class, "name", Types.VARCHAR, "name", String.class, true, 255, 0, 0, false, false));
+        columns.add(new ResolvedColumnMetadata(null, Person.class, "age", Types.INTEGER, "age", Integer.class, true, 0, 0, 0, false, false));
+        final List<ConstraintMetadata> constraints = new ArrayList<ConstraintMetadata>();
+        constraints.add(new PrimaryKeyConstraintMetadata(null, Collections.<ColumnMetadata>singletonList(id)));
+        return new ResolvedTableMetadata<Person>(Person.class, "test", "people", constraints, columns,
+                Collections.<NamedQueryMetadata>emptyList(), Collections.<SequenceMetadata>emptyList(),
+                Collections.<StoredProcedureMetadata>emptyList(), Collections.<RelationMetadata<Person, ?>>emptyList(),
+                null, Collections.<OrderMetadata>emptyList(), cacheMetadata);
+    }
+
+    /**
+     * @param cascadeProjects    whether employees cascade their removal to the projects they are linked to
+     * @return the metadata for {@link Department}, mapped to {@code test.departments}. Its employees, mapped to
+     * {@code test.employees}, are removed along with it, and are linked to projects through the
+     * {@code test.employees_projects} middle table.
+     */
+    public static ResolvedTableMetadata<Department> departments(boolean cascadeProjects) {
+        final ResolvedColumnMetadata departmentId = new ResolvedColumnMetadata(null, Department.class, "id", Types.BIGINT, "id", Long.class, false, 0, 0, 0, ValueGenerationType.IDENTITY, null, false, false);
+        final List<ColumnMetadata> departmentColumns = new ArrayList<ColumnMetadata>();
+        departmentColumns.add(departmentId);
+        departmentColumns.add(new ResolvedColumnMetadata(null, Department.class, "name", Types.VARCHAR, "name", String.class, true, 255, 0, 0, false, false));
+        final Set<RelationMetadata<Department, ?>> departmentRelations = new HashSet<RelationMetadata<Department, ?>>();
+        final ResolvedTableMetadata<Department> departments = new ResolvedTableMetadata<Department>(Department.class, "test", "departments", primaryKey(departmentId), departmentColumns,
+                Collections.<NamedQueryMetadata>emptyList(), Collections.<SequenceMetadata>emptyList(),
+                Collections.<StoredProcedureMetadata>emptyList(), departmentRelations, null, Collections.<OrderMetadata>emptyList());
+        final ResolvedColumnMetadata employeeId = new ResolvedColumnMetadata(null, Employee.class, "id", Types.BIGINT, "id", Long.class, false, 0, 0, 0, ValueGenerationType.IDENTITY, null, false, false);
+        final ResolvedColumnMetadata employeeDepartment = new ResolvedColumnMetadata(null, Employee.class, "department", Types.BIGINT, "department", Department.class, true, 0, 0, 0, departmentId, false, true);
+        final List<ColumnMetadata> employeeColumns = new ArrayList<ColumnMetadata>();
+        employeeColumns.add(employeeId);
+        employeeColumns.add(new ResolvedColumnMetadata(null, Employee.class, "name", Types.VARCHAR, "name", String.class, true, 255, 0, 0, false, false));
+        employeeColumns.add(employeeDepartment);
+        final Set<RelationMetadata<Employee, ?>> employeeRelations = new HashSet<RelationMetadata<Employee, ?>>();
+        final ResolvedTableMetadata<Employee> employees = new ResolvedTableMetadata<Employee>(Employee.class, "test", "employees", primaryKey(employeeId), employeeColumns,
+                Collections.<NamedQueryMetadata>emptyList(), Collections.<SequenceMetadata>emptyList(),
+                Collections.<StoredProcedureMetadata>emptyList(), employeeRelations, null, Collections.<OrderMetadata>emptyList());
+        final ResolvedColumnMetadata middleEmployee = new ResolvedColumnMetadata(null, ManyToManyMiddleEntity.class, "employees", Types.BIGINT, "first", Object.class, false, 0, 0, 0, employeeId, false, false);
+        final List<ColumnMetadata> middleColumns = new ArrayList<ColumnMetadata>();
+        middleColumns.add(middleEmployee);
+        middleColumns.add(new ResolvedColumnMetadata(null, ManyToManyMiddleEntity.class, "projects", Types.BIGINT, "second", Object.class, false, 0, 0, 0, false, false));
+        final ResolvedTableMetadata<ManyToManyMiddleEntity> middle = new ResolvedTableMetadata<ManyToManyMiddleEntity>(ManyToManyMiddleEntity.class, "test", "employees_projects", new ArrayList<ConstraintMetadata>(), middleColumns,
+                Collections.<NamedQueryMetadata>emptyList(), Collections.<SequenceMetadata>emptyList(),
+                Collections.<StoredProcedureMetadata>emptyList(), new HashSet<RelationMetadata<ManyToManyMiddleEntity, ?>>(), null, Collections.<OrderMetadata>emptyList());
+        departmentRelations.add(new DefaultRelationMetadata<Department, Employee>(Department.class, "employees", false, departments, employees, employeeDepartment, RelationType.ONE_TO_MANY, new ImmutableCascadeMetadata(false, false, true, false), false, Collections.<OrderMetadata>emptyList()));
+        employeeRelations.add(new DefaultRelationMetadata<Employee, Department>(Employee.class, "department", true, employees, departments, departmentId, RelationType.MANY_TO_ONE, new ImmutableCascadeMetadata(false, false, false, false), false, Collections.<OrderMetadata>emptyList()));
+        employeeRelations.add(new DefaultRelationMetadata<Employee, ManyToManyMiddleEntity>(Employee.class, "projects", false, employees, middle, middleEmployee, RelationType.MANY_TO_MANY, new ImmutableCascadeMetadata(false, false, cascadeProjects, false), false, Collections.<OrderMetadata>emptyList()));
+        return departments;
+    }
+
+    private static List<ConstraintMetadata> primaryKey(ColumnMetadata column) {
+        final List<ConstraintMetadata> constraints = new ArrayList<ConstraintMetadata>();
+        constraints.add(new PrimaryKeyConstraintMetadata(null, Collections.singletonList(column)));
+        return constraints;
+    }
+
+}
@@ -0,0 +1,184 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.fluent.impl;
+
+import com.mmnaseri.dragonfly.data.DataAccessSession;
+import com.mmnaseri.dragonfly.fluent.CompiledSelectQuery;
+import com.mmnaseri.dragonfly.fluent.error.ParameterCountMismatchException;
+import com.mmnaseri.dragonfly.fluent.generation.FunctionInvocation;
+import com.mmnaseri.dragonfly.fluent.generation.JoinedSelectionSource;
+import com.mmnaseri.dragonfly.fluent.generation.ParameterDescriptor;
+import com.mmnaseri.dragonfly.fluent.generation.impl.ImmutableFunction;
+import com.mmnaseri.dragonfly.fluent.generation.impl.ImmutableFunctionInvocation;
+import com.mmnaseri.dragonfly.fluent.generation.impl.ImmutableParameterDescriptor;
+import com.mmnaseri.dragonfly.fluent.generation.impl.ImmutableSelectQueryExecution;
+import com.mmnaseri.dragonfly.metadata.ColumnMetadata;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Types;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:11)
+ */
+public class DefaultCompiledSelectQueryTest {
+
+    private static final String URL = "jdbc:h2:mem:compiled;MODE=MySQL";
+
+    private Connection keeper;
+    private List<String> prepared;
+    private int opened;
+    private int closed;
+
+    @Before
+    public void setUp() throws Exception {
+        keeper = DriverManager.getConnection(URL);
+        final java.sql.Statement statement = keeper.createStatement();
+        statement.execute("CREATE SCHEMA IF NOT EXISTS test");
+        statement.execute("CREATE TABLE test.people (id BIGINT PRIMARY KEY, name VARCHAR(255), age INT)");
+        statement.execute("INSERT INTO test.people VALUES (1, 'a', 10), (2, 'b', 20), (3, 'c', 30), (4, 'd', 40), (5, 'e', 50)");
+        statement.close();
+        prepared = new ArrayList<String>();
+        opened = 0;
+        closed = 0;
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        keeper.createStatement().execute("DROP SCHEMA test CASCADE");
+        keeper.close();
+    }
+
+    private Connection connect() throws Exception {
+        final Connection connection = DriverManager.getConnection(URL);
+        opened ++;
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Connection.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("prepareStatement")) {
+                    prepared.add((String) args[0]);
+                } else if (method.getName().equals("close")) {
+                    closed ++;
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        });
+    }
+
+    private DataAccessSession session() {
+        return (DataAccessSession) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{DataAccessSession.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("getConnection")) {
+                    return connect();
+                }
+                return null;
+            }
+        });
+    }
+
+    private CompiledSelectQuery<Object, FunctionInvocation<Long>> count(String condition, ParameterDescriptor... parameters) {
+        final FunctionInvocation<Long> invocation = new ImmutableFunctionInvocation<Long>(new ImmutableFunction<Long>(Long.class, "COUNT", 1));
+        final String sql = "SELECT COUNT(*) AS " + invocation.getAlias() + " FROM test.people WHERE " + condition;
+        //noinspection unchecked
+        final Class<FunctionInvocation<Long>> bindingType = (Class<FunctionInvocation<Long>>) (Class<?>) FunctionInvocation.class;
+        final ImmutableSelectQueryExecution<Object, FunctionInvocation<Long>> selection = new ImmutableSelectQueryExecution<Object, FunctionInvocation<Long>>(bindingType, invocation, sql,
+                Arrays.asList(parameters), null, Collections.<JoinedSelectionSource<?, ?>>emptyList(),
+                Collections.<Object, String>emptyMap(), Collections.<Object, String>emptyMap(), Collections.<Object, ColumnMetadata>emptyMap());
+        return new DefaultCompiledSelectQuery<Object, FunctionInvocation<Long>>(session(), selection);
+    }
+
+    private static long result(List<? extends FunctionInvocation<Long>> rows) {
+        assertEquals(1, rows.size());
+        return ((Number) rows.get(0).getResult()).longValue();
+    }
+
+    @Test
+    public void testSelectUsesTheDefinedValues() throws Exception {
+        final CompiledSelectQuery<Object, FunctionInvocation<Long>> query = count("age > ? AND age < ?", new ImmutableParameterDescriptor(1, 15, Types.INTEGER), new ImmutableParameterDescriptor(2, 45, Types.INTEGER));
+        assertEquals(2, query.getParameterCount());
+        assertFalse(query.getSql().endsWith(";"));
+        assertEquals(3L, result(query.select()));
+    }
+
+    @Test
+    public void testSelectRebindsTheSameStatement() throws Exception {
+        final CompiledSelectQuery<Object, FunctionInvocation<Long>> query = count("age > ?", new ImmutableParameterDescriptor(1, 0, Types.INTEGER));
+        assertEquals(5L, result(query.select()));
+        assertEquals(2L, result(query.select(30)));
+        assertEquals(0L, result(query.select(50)));
+        assertEquals(5L, result(query.select()));
+        assertEquals(4, prepared.size());
+        assertEquals(1, new HashSet<String>(prepared).size());
+        assertEquals(query.getSql() + ";", prepared.get(0));
+    }
+
+    @Test
+    public void testConnectionIsReleasedAfterEachExecution() throws Exception {
+        final CompiledSelectQuery<Object, FunctionInvocation<Long>> query = count("age > ?", new ImmutableParameterDescriptor(1, 0, Types.INTEGER));
+        query.select();
+        query.select(10);
+        assertEquals(2, opened);
+        assertEquals(2, closed);
+    }
+
+    @Test
+    public void testNullWithoutSqlTypeIsBound() throws Exception {
+        final CompiledSelectQuery<Object, FunctionInvocation<Long>> query = count("? IS NULL", new ImmutableParameterDescriptor(1, null, null));
+        assertEquals(5L, result(query.select()));
+        assertEquals(0L, result(query.select("x")));
+    }
+
+    @Test(expected = ParameterCountMismatchException.class)
+    public void testTooFewValues() throws Exception {
+        count("age > ? AND age < ?", new ImmutableParameterDescriptor(1, 15, Types.INTEGER), new ImmutableParameterDescriptor(2, 45, Types.INTEGER)).select(1);
+    }
+
+    @Test
+    public void testMismatchDoesNotTouchTheDatabase() throws Exception {
+        final CompiledSelectQuery<Object, FunctionInvocation<Long>> query = count("age > ?", new ImmutableParameterDescriptor(1, 0, Types.INTEGER));
+        try {
+            query.select(1, 2);
+            fail();
+        } catch (ParameterCountMismatchException ignored) {
+        }
+        assertEquals(0, opened);
+    }
+
+}
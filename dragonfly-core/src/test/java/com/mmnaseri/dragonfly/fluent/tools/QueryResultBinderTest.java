@@ -0,0 +1,176 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.fluent.tools;
+
+import com.mmnaseri.dragonfly.entity.MapEntityCreator;
+import com.mmnaseri.dragonfly.error.EntityPreparationError;
+import com.mmnaseri.dragonfly.fixtures.Person;
+import com.mmnaseri.dragonfly.fluent.generation.BookKeeper;
+import com.mmnaseri.dragonfly.fluent.generation.JoinedSelectionSource;
+import com.mmnaseri.dragonfly.fluent.generation.Mapping;
+import com.mmnaseri.dragonfly.fluent.generation.ParameterDescriptor;
+import com.mmnaseri.dragonfly.fluent.generation.SelectionSource;
+import com.mmnaseri.dragonfly.fluent.generation.impl.ImmutableFunction;
+import com.mmnaseri.dragonfly.fluent.generation.impl.ImmutableFunctionInvocation;
+import com.mmnaseri.dragonfly.fluent.generation.impl.ImmutableMapping;
+import com.mmnaseri.dragonfly.fluent.generation.impl.ImmutableSelectQueryExecution;
+import com.mmnaseri.dragonfly.metadata.ColumnMetadata;
+import com.mmnaseri.dragonfly.metadata.impl.ResolvedColumnMetadata;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Types;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:12)
+ */
+public class QueryResultBinderTest {
+
+    private final Object unit = new Object();
+    private final Object initial = new Object();
+    private final Object type = new Object();
+    private final Object plain = new Object();
+    private final Object missing = new Object();
+    private ImmutableFunctionInvocation<Long> count;
+    private Map<String, Object> binding;
+    private ImmutableSelectQueryExecution<Object, Map<String, Object>> selection;
+
+    @Before
+    public void setUp() throws Exception {
+        count = new ImmutableFunctionInvocation<Long>(new ImmutableFunction<Long>(Long.class, "COUNT", 1));
+        binding = new LinkedHashMap<String, Object>();
+        binding.put("unit", unit);
+        binding.put("initial", initial);
+        binding.put("type", type);
+        binding.put("plain", plain);
+        binding.put("missing", missing);
+        binding.put("count", count);
+        final Map<Object, String> columnAliases = new HashMap<Object, String>();
+        columnAliases.put(unit, "u");
+        columnAliases.put(initial, "i");
+        columnAliases.put(type, "t");
+        columnAliases.put(plain, "p");
+        columnAliases.put(missing, "m");
+        final Map<Object, ColumnMetadata> columns = new HashMap<Object, ColumnMetadata>();
+        columns.put(unit, column("unit", TimeUnit.class));
+        columns.put(initial, column("initial", Character.class));
+        columns.put(type, column("type", Class.class));
+        //noinspection unchecked
+        final Class<Map<String, Object>> bindingType = (Class<Map<String, Object>>) (Class<?>) HashMap.class;
+        selection = new ImmutableSelectQueryExecution<Object, Map<String, Object>>(bindingType, binding, "", Collections.<ParameterDescriptor>emptyList(),
+                source(), Collections.<JoinedSelectionSource<?, ?>>emptyList(), Collections.<Object, String>emptyMap(), columnAliases, columns);
+    }
+
+    private static ColumnMetadata column(String name, Class<?> propertyType) {
+        return new ResolvedColumnMetadata(null, Person.class, name, Types.VARCHAR, name, propertyType, true, 255, 0, 0, false, false);
+    }
+
+    private static SelectionSource<Object> source() {
+        final Object entity = new Object();
+        final InvocationHandler handler = new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("getBookKeeper")) {
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{BookKeeper.class}, this);
+                }
+                if (method.getName().equals("getEntity")) {
+                    return entity;
+                }
+                return null;
+            }
+        };
+        //noinspection unchecked
+        return (SelectionSource<Object>) Proxy.newProxyInstance(QueryResultBinderTest.class.getClassLoader(), new Class[]{SelectionSource.class}, handler);
+    }
+
+    private QueryResultBinder<Object, Map<String, Object>> binder(String... labels) {
+        final Mapping[] mappings = new Mapping[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            mappings[i] = new ImmutableMapping("people", labels[i], labels[i]);
+        }
+        return new QueryResultBinder<Object, Map<String, Object>>(selection, (MapEntityCreator) null, mappings);
+    }
+
+    @Test
+    public void testColumnsAreBoundToTheirPostProcessedValues() throws Exception {
+        final Map<String, Object> result = binder("u", "i", "t", "p", count.getAlias()).bind(new Object[]{"SECONDS", "x", "java.lang.String", "raw", 7L}, new HashMap<String, Object>());
+        assertEquals(TimeUnit.SECONDS, result.get("unit"));
+        assertEquals('x', result.get("initial"));
+        assertEquals(String.class, result.get("type"));
+        assertEquals("raw", result.get("plain"));
+        assertEquals(7L, result.get("count"));
+    }
+
+    @Test
+    public void testColumnsMissingFromTheResultAreBoundToNull() throws Exception {
+        final Map<String, Object> result = binder("u", "i", "t", "p", count.getAlias()).bind(new Object[]{"SECONDS", "x", "java.lang.String", "raw", 7L}, new HashMap<String, Object>());
+        assertTrue(result.containsKey("missing"));
+        assertNull(result.get("missing"));
+    }
+
+    @Test
+    public void testNullsAreNotPostProcessed() throws Exception {
+        final Map<String, Object> result = binder("u", "i", "t", "p", count.getAlias()).bind(new Object[]{null, null, null, null, null}, new HashMap<String, Object>());
+        assertNull(result.get("unit"));
+        assertNull(result.get("initial"));
+        assertNull(result.get("type"));
+        assertNull(result.get("plain"));
+        assertNull(result.get("count"));
+    }
+
+    @Test
+    public void testFailedConversionNamesTheColumnAndTheType() throws Exception {
+        try {
+            binder("u", "i", "t", "p", count.getAlias()).bind(new Object[]{"FORTNIGHTS", "x", "java.lang.String", "raw", 7L}, new HashMap<String, Object>());
+            fail();
+        } catch (EntityPreparationError e) {
+            assertTrue(e.getMessage().contains("`unit`"));
+            assertTrue(e.getMessage().contains(TimeUnit.class.getCanonicalName()));
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test
+    public void testBinderFollowsTheResultSetLayout() throws Exception {
+        final QueryResultBinder<Object, Map<String, Object>> binder = binder(count.getAlias(), "p", "t", "i", "u");
+        final Map<String, Object> first = binder.bind(new Object[]{1L, "a", "java.lang.Integer", "y", "DAYS"}, new HashMap<String, Object>());
+        final Map<String, Object> second = binder.bind(new Object[]{2L, "b", "java.lang.Long", "z", "HOURS"}, new HashMap<String, Object>());
+        assertEquals(TimeUnit.DAYS, first.get("unit"));
+        assertEquals(Integer.class, first.get("type"));
+        assertEquals('y', first.get("initial"));
+        assertEquals(TimeUnit.HOURS, second.get("unit"));
+        assertEquals(Long.class, second.get("type"));
+        assertEquals("b", second.get("plain"));
+        assertEquals(2L, second.get("count"));
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.security.impl;
+
+import com.mmnaseri.couteau.basics.api.Filter;
+import com.mmnaseri.couteau.enhancer.api.MethodDescriptor;
+import com.mmnaseri.couteau.enhancer.impl.ImmutableMethodDescriptor;
+import com.mmnaseri.dragonfly.security.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:51)
+ */
+public class DefaultDataSecurityManagerTest {
+
+    public static class FirstRepository {
+
+        public Object load(Long id) {
+            return null;
+        }
+
+    }
+
+    public static class SecondRepository {
+
+        public Object load(Long id) {
+            return null;
+        }
+
+    }
+
+    private final List<String> denials = new ArrayList<String>();
+    private DefaultDataSecurityManager securityManager;
+    private Actor actor;
+
+    private static MethodSubject subject(Class<?> declaringClass) {
+        return new MethodSubject(new ImmutableMethodDescriptor(declaringClass, Object.class, "load", new Class[]{Long.class}, new Annotation[0]));
+    }
+
+    private static DataSecurityPolicy policy(String name, final Class<?> declaringClass, PolicyDecisionType decisionType) {
+        return new ImmutableDataSecurityPolicy(name, new ActorFilter() {
+            @Override
+            public boolean accepts(Actor item) {
+                return true;
+            }
+        }, new MethodSubjectFilter(new Filter<MethodDescriptor>() {
+            @Override
+            public boolean accepts(MethodDescriptor item) {
+                return item.getDeclaringClass().equals(declaringClass);
+            }
+        }), decisionType);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        securityManager = new DefaultDataSecurityManager(new AccessDeniedHandler() {
+            @Override
+            public void handle(String policy, Actor actor, Subject subject) {
+                denials.add(policy);
+            }
+        });
+        securityManager.addPolicy(policy("allow-first", FirstRepository.class, PolicyDecisionType.ALLOW));
+        securityManager.addPolicy(policy("deny-second", SecondRepository.class, PolicyDecisionType.DENY));
+        actor = new ImmutableActor(getClass().getMethod("setUp"));
+    }
+
+    @Test
+    public void testSubjectsOfDifferentClassesAreNotEqual() throws Exception {
+        assertFalse(subject(FirstRepository.class).equals(subject(SecondRepository.class)));
+        assertEquals(subject(FirstRepository.class), subject(FirstRepository.class));
+        assertEquals(subject(FirstRepository.class).hashCode(), subject(FirstRepository.class).hashCode());
+    }
+
+    @Test
+    public void testIdenticalSignaturesKeepTheirOwnDecisions() throws Exception {
+        securityManager.checkAccess(subject(FirstRepository.class), actor);
+        assertTrue(denials.isEmpty());
+        securityManager.checkAccess(subject(SecondRepository.class), actor);
+        assertEquals(1, denials.size());
+        assertEquals("deny-second", denials.get(0));
+        //the cached decisions must not bleed into one another, in either order
+        securityManager.checkAccess(subject(FirstRepository.class), actor);
+        assertEquals(1, denials.size());
+        securityManager.checkAccess(subject(SecondRepository.class), actor);
+        assertEquals(2, denials.size());
+    }
+
+}
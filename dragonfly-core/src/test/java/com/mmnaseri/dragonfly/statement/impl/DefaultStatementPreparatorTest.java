@@ -0,0 +1,55 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.statement.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:44)
+ */
+public class DefaultStatementPreparatorTest {
+
+    @Test
+    public void testPlaceholdersAreDiscoveredInOrder() throws Exception {
+        final ParameterBindingPlan plan = DefaultStatementPreparator.compile(null, "UPDATE t SET a = ${value.a}, b = ${value.b} WHERE id = ${value.id}");
+        assertEquals("UPDATE t SET a = ?, b = ? WHERE id = ?", plan.getSql());
+        assertEquals(3, plan.getParameterCount());
+        assertEquals("value.a", plan.getParameter(0));
+        assertEquals("value.b", plan.getParameter(1));
+        assertEquals("value.id", plan.getParameter(2));
+    }
+
+    @Test
+    public void testPlanIsCompiledOnce() throws Exception {
+        final DefaultStatementPreparator preparator = new DefaultStatementPreparator(false);
+        final String sql = "SELECT * FROM t WHERE id = ${value.id} /* " + System.nanoTime() + " */";
+        final ParameterBindingPlan first = preparator.getBindingPlan(null, sql);
+        final ParameterBindingPlan second = preparator.getBindingPlan(null, sql);
+        assertSame(first, second);
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.statement.impl;
+
+import com.mmnaseri.dragonfly.dialect.DatabaseDialect;
+import com.mmnaseri.dragonfly.dialect.impl.Mysql5Dialect;
+import com.mmnaseri.dragonfly.statement.Statement;
+import com.mmnaseri.dragonfly.statement.StatementType;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:45)
+ */
+public class FreemarkerSecondPassStatementBuilderTest {
+
+    private final DatabaseDialect dialect = new Mysql5Dialect();
+
+    @Test
+    public void testInterpolationsAreRendered() throws Exception {
+        final Statement statement = new ImmutableStatement(null, dialect, "SELECT * FROM %{escape('people')}", true, false, StatementType.QUERY);
+        assertEquals("SELECT * FROM `people`", FreemarkerSecondPassStatementBuilder.render(statement, dialect, null, null));
+    }
+
+    @Test
+    public void testDirectivesAreRendered() throws Exception {
+        final Statement statement = new ImmutableStatement(null, dialect, "SELECT 1<% if 1 == 2 %> FROM nowhere</% if %>", true, false, StatementType.QUERY);
+        assertEquals("SELECT 1", FreemarkerSecondPassStatementBuilder.render(statement, dialect, null, null));
+    }
+
+    @Test
+    public void testCachedTemplateRendersTheSameOnEveryCall() throws Exception {
+        final Statement statement = new ImmutableStatement(null, dialect, "DELETE FROM %{escape('people')}", true, false, StatementType.DELETE);
+        final String first = FreemarkerSecondPassStatementBuilder.render(statement, dialect, null, null);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(first, FreemarkerSecondPassStatementBuilder.render(statement, dialect, null, null));
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.statement.impl;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares binding a statement through a freshly compiled plan, which is what every preparation
+ * used to cost, with binding it through the shared plan cache.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:44)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ParameterBindingPlanBenchmark {
+
+    private static final String INSERT = "INSERT INTO `test`.`people` (`first_name`,`last_name`,`age`,`email`) VALUES(${value.firstName},${value.lastName},${value.age},${value.email});";
+    private static final String UPDATE = "UPDATE `test`.`people` SET `first_name` = ${value.firstName}, `last_name` = ${value.lastName}, `age` = ${value.age}, `email` = ${value.email} WHERE `id` = ${value.id};";
+    private static final String FIND_BY_KEY = "SELECT `id`, `first_name`, `last_name`, `age`, `email` FROM `test`.`people` WHERE `id` = ${value.id};";
+
+    private DefaultStatementPreparator preparator;
+    private PreparedStatement statement;
+    private Map<String, Object> values;
+
+    @Setup
+    public void setUp() {
+        preparator = new DefaultStatementPreparator(false);
+        statement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{PreparedStatement.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                return null;
+            }
+        });
+        values = new HashMap<String, Object>();
+        values.put("value.id", 1L);
+        values.put("value.firstName", "Milad");
+        values.put("value.lastName", "Naseri");
+        values.put("value.age", 30);
+        values.put("value.email", "someone@example.com");
+    }
+
+    @Benchmark
+    public PreparedStatement insertCompiled() {
+        DefaultStatementPreparator.compile(null, INSERT).bind(statement, values);
+        return statement;
+    }
+
+    @Benchmark
+    public PreparedStatement insertCached() {
+        return preparator.prepare(statement, null, values, INSERT);
+    }
+
+    @Benchmark
+    public PreparedStatement updateCompiled() {
+        DefaultStatementPreparator.compile(null, UPDATE).bind(statement, values);
+        return statement;
+    }
+
+    @Benchmark
+    public PreparedStatement updateCached() {
+        return preparator.prepare(statement, null, values, UPDATE);
+    }
+
+    @Benchmark
+    public PreparedStatement findByKeyCompiled() {
+        DefaultStatementPreparator.compile(null, FIND_BY_KEY).bind(statement, values);
+        return statement;
+    }
+
+    @Benchmark
+    public PreparedStatement findByKeyCached() {
+        return preparator.prepare(statement, null, values, FIND_BY_KEY);
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.statement.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:33)
+ */
+public class ParameterBindingPlanTest {
+
+    @Test
+    public void testMultiRowExpansion() throws Exception {
+        final ParameterBindingPlan plan = DefaultStatementPreparator.compile(null, "INSERT INTO t (a, b) VALUES(${value.a}, ${value.b});");
+        assertEquals("INSERT INTO t (a, b) VALUES(?, ?),(?, ?),(?, ?);", plan.getSql(3));
+    }
+
+    @Test
+    public void testMultiRowExpansionRefusesLiterals() throws Exception {
+        final ParameterBindingPlan plan = DefaultStatementPreparator.compile(null, "INSERT INTO t (a, b) VALUES(${value.a}, 'x');");
+        assertNull(plan.getSql(2));
+    }
+
+    @Test
+    public void testSingleRowIsTheStatementItself() throws Exception {
+        final ParameterBindingPlan plan = DefaultStatementPreparator.compile(null, "INSERT INTO t (a, b) VALUES(${value.a}, ${value.b});");
+        assertEquals(plan.getSql(), plan.getSql(1));
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.tools;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:44)
+ */
+public class BoundedCacheTest {
+
+    @Test
+    public void testHitsAndMisses() throws Exception {
+        final BoundedCache<String, Integer> cache = new BoundedCache<String, Integer>(10);
+        assertNull(cache.get("a"));
+        cache.put("a", 1);
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testPutIfAbsentKeepsExistingValue() throws Exception {
+        final BoundedCache<String, Integer> cache = new BoundedCache<String, Integer>(10);
+        assertEquals(Integer.valueOf(1), cache.putIfAbsent("a", 1));
+        assertEquals(Integer.valueOf(1), cache.putIfAbsent("a", 2));
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+    }
+
+    @Test
+    public void testSingleSegmentEvictsLeastRecentlyUsed() throws Exception {
+        final BoundedCache<String, Integer> cache = new BoundedCache<String, Integer>(2, 1);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void testStripedCacheNeverExceedsCapacity() throws Exception {
+        final BoundedCache<Integer, Integer> cache = new BoundedCache<Integer, Integer>(100);
+        for (int i = 0; i < 10000; i++) {
+            cache.put(i, i);
+        }
+        assertTrue(cache.size() <= 100);
+        assertEquals(10000 - cache.size(), cache.getEvictions());
+    }
+
+    @Test
+    public void testRemoveAndClear() throws Exception {
+        final BoundedCache<Integer, Integer> cache = new BoundedCache<Integer, Integer>(100);
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, i);
+        }
+        assertEquals(Integer.valueOf(7), cache.remove(7));
+        assertEquals(49, cache.size());
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testConcurrentPutIfAbsentAgreesOnOneValue() throws Exception {
+        final BoundedCache<Integer, Object> cache = new BoundedCache<Integer, Object>(1000);
+        final int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final AtomicInteger disagreements = new AtomicInteger();
+        final List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            final Thread worker = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < 500; i++) {
+                            final Object cached = cache.putIfAbsent(i, new Object());
+                            if (cached != cache.get(i)) {
+                                disagreements.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException ignored) {
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        done.await();
+        assertEquals(0, disagreements.get());
+        assertEquals(500, cache.size());
+    }
+
+}
@@ -64,6 +64,24 @@ public class AnnotationTableMetadataResolver implements TableMetadataResolver {
     private static final Log log = LogFactory.getLog(TableMetadataResolver.class);
     private static final String NO_SCHEMA = "";
     public static final String CLASS_PROPERTY = "class";
+    /**
+     * Query hint enabling the caching of the results of a named native query, e.g.
+     * {@code @QueryHint(name = "dragonfly.cache", value = "true")}
+     */
+    public static final String CACHE_HINT = "dragonfly.cache";
+    /**
+     * Query hint setting the number of distinct parameter combinations whose results are cached
+     */
+    public static final String CACHE_CAPACITY_HINT = "dragonfly.cache.capacity";
+    /**
+     * Query hint setting the number of milliseconds cached results are kept
+     */
+    public static final String CACHE_TIME_TO_LIVE_HINT = "dragonfly.cache.timeToLive";
+    /**
+     * Query hint setting the {@link CacheEvictionPolicy} for cached results
+     */
+    public static final String CACHE_EVICTION_HINT = "dragonfly.cache.eviction";
+    private static final int DEFAULT_QUERY_CACHE_CAPACITY = 100;
     private final DatabaseDialect dialect;
 
     public AnnotationTableMetadataResolver(DatabaseDialect dialect) {
@@ -185,7 +203,7 @@ public class AnnotationTableMetadataResolver implements TableMetadataResolver {
                             final RelationType relationType = getRelationType(method);
                             final CascadeMetadata cascadeMetadata = getCascadeMetadata(method);
                             final boolean isLazy = determineLaziness(method);
-                            final DefaultRelationMetadata<E, Object> reference = new DefaultRelationMetadata<E, Object>(declaringClass, columnMetadata.getPropertyName(), true, null, null, null, relationType, cascadeMetadata, isLazy, null);
+                            final DefaultRelationMetadata<E, Object> reference = new DefaultRelationMetadata<E, Object>(declaringClass, columnMetadata.getPropertyName(), true, null, null, null, relationType, cascadeMetadata, isLazy, null, determineBatchSize(method));
                             reference.setForeignColumn(foreignColumn);
                             foreignReferences.add(reference);
                         }
@@ -245,7 +263,7 @@ public class AnnotationTableMetadataResolver implements TableMetadataResolver {
                         final List<OrderMetadata> ordering = getOrdering(foreignEntity, method.getAnnotation(OrderBy.class));
                         //noinspection unchecked
                         final UnresolvedColumnMetadata foreignColumn = new UnresolvedColumnMetadata(foreignColumnName, new UnresolvedTableMetadata<Object>((Class<Object>) foreignEntity));
-                        final DefaultRelationMetadata<E, Object> reference = new DefaultRelationMetadata<E, Object>(ReflectionUtils.getDeclaringClass(method), propertyName, false, null, null, null, getRelationType(method), getCascadeMetadata(method), determineLaziness(method), ordering);
+                        final DefaultRelationMetadata<E, Object> reference = new DefaultRelationMetadata<E, Object>(ReflectionUtils.getDeclaringClass(method), propertyName, false, null, null, null, getRelationType(method), getCascadeMetadata(method), determineLaziness(method), ordering, determineBatchSize(method));
                         reference.setForeignColumn(foreignColumn);
                         foreignReferences.add(reference);
                     }
@@ -262,7 +280,7 @@ public class AnnotationTableMetadataResolver implements TableMetadataResolver {
                         final OneToOne annotation = method.getAnnotation(OneToOne.class);
                         Class<?> foreignEntity = annotation.targetEntity().equals(void.class) ? method.getReturnType() : annotation.targetEntity();
                         final String propertyName = ReflectionUtils.getPropertyName(method.getName());
-                        final DefaultRelationMetadata<E, Object> reference = new DefaultRelationMetadata<E, Object>(ReflectionUtils.getDeclaringClass(method), propertyName, false, null, null, null, getRelationType(method), getCascadeMetadata(method), determineLaziness(method), null);
+                        final DefaultRelationMetadata<E, Object> reference = new DefaultRelationMetadata<E, Object>(ReflectionUtils.getDeclaringClass(method), propertyName, false, null, null, null, getRelationType(method), getCascadeMetadata(method), determineLaziness(method), null, determineBatchSize(method));
                         String foreignColumnName = annotation.mappedBy();
                         if (foreignColumnName.isEmpty()) {
                             //noinspection unchecked
@@ -324,7 +342,7 @@ public class AnnotationTableMetadataResolver implements TableMetadataResolver {
                         return new ImmutableOrderMetadata(columnMetadata, input.getAnnotation(Order.class).value());
                     }
                 }).list();
-        final ResolvedTableMetadata<E> tableMetadata = new ResolvedTableMetadata<E>(entityType, schema, tableName, constraints, tableColumns, namedQueries, sequences, storedProcedures, foreignReferences, versionColumn.get(), ordering);
+        final ResolvedTableMetadata<E> tableMetadata = new ResolvedTableMetadata<E>(entityType, schema, tableName, constraints, tableColumns, namedQueries, sequences, storedProcedures, foreignReferences, versionColumn.get(), ordering, determineCacheMetadata(entityType));
         if (!keyColumns.isEmpty()) {
             constraints.add(new PrimaryKeyConstraintMetadata(tableMetadata, with(keyColumns).transform(new Transformer<String, ColumnMetadata>() {
                 @Override
@@ -336,11 +354,11 @@ public class AnnotationTableMetadataResolver implements TableMetadataResolver {
         if (entityType.isAnnotationPresent(NamedNativeQueries.class)) {
             final NamedNativeQuery[] queries = entityType.getAnnotation(NamedNativeQueries.class).value();
             for (NamedNativeQuery query : queries) {
-                namedQueries.add(new ImmutableNamedQueryMetadata(query.name(), query.query(), tableMetadata, QueryType.NATIVE));
+                namedQueries.add(new ImmutableNamedQueryMetadata(query.name(), query.query(), tableMetadata, QueryType.NATIVE, determineCacheMetadata(entityType, query)));
             }
         } else if (entityType.isAnnotationPresent(NamedNativeQuery.class)) {
             final NamedNativeQuery query = entityType.getAnnotation(NamedNativeQuery.class);
-            namedQueries.add(new ImmutableNamedQueryMetadata(query.name(), query.query(), tableMetadata, QueryType.NATIVE));
+            namedQueries.add(new ImmutableNamedQueryMetadata(query.name(), query.query(), tableMetadata, QueryType.NATIVE, determineCacheMetadata(entityType, query)));
         }
         constraints.addAll(with(uniqueColumns).sort().transform(new Transformer<Set<String>, Set<ColumnMetadata>>() {
             @Override
@@ -400,7 +418,7 @@ public class AnnotationTableMetadataResolver implements TableMetadataResolver {
                                 }
                                 final List<OrderMetadata> ordering = getOrdering(foreignEntity, method.getAnnotation(OrderBy.class));
                                 //noinspection unchecked
-                                foreignReferences.add(new DefaultRelationMetadata<E, Object>(ReflectionUtils.getDeclaringClass(method), ReflectionUtils.getPropertyName(method.getName()), false, tableMetadata, null, new UnresolvedColumnMetadata(foreignProperty, new UnresolvedTableMetadata<Object>((Class<Object>) foreignEntity)), RelationType.MANY_TO_MANY, getCascadeMetadata(method), determineLaziness(method), ordering));
+                                foreignReferences.add(new DefaultRelationMetadata<E, Object>(ReflectionUtils.getDeclaringClass(method), ReflectionUtils.getPropertyName(method.getName()), false, tableMetadata, null, new UnresolvedColumnMetadata(foreignProperty, new UnresolvedTableMetadata<Object>((Class<Object>) foreignEntity)), RelationType.MANY_TO_MANY, getCascadeMetadata(method), determineLaziness(method), ordering, determineBatchSize(method)));
                             }
                         }
                 );
@@ -489,6 +507,36 @@ public class AnnotationTableMetadataResolver implements TableMetadataResolver {
                 || method.isAnnotationPresent(ManyToMany.class) && method.getAnnotation(ManyToMany.class).fetch().equals(FetchType.LAZY);
     }
 
+    private static int determineBatchSize(Method method) {
+        return method.isAnnotationPresent(BatchFetch.class) ? method.getAnnotation(BatchFetch.class).size() : 0;
+    }
+
+    private static CacheMetadata determineCacheMetadata(Class<?> entityType) {
+        if (!entityType.isAnnotationPresent(Cached.class)) {
+            return null;
+        }
+        final Cached cached = entityType.getAnnotation(Cached.class);
+        return new ImmutableCacheMetadata(cached.capacity(), cached.timeToLive(), cached.eviction(), cached.queries());
+    }
+
+    private static CacheMetadata determineCacheMetadata(Class<?> entityType, NamedNativeQuery query) {
+        final Map<String, String> hints = new HashMap<String, String>();
+        for (QueryHint hint : query.hints()) {
+            hints.put(hint.name(), hint.value());
+        }
+        if (!Boolean.parseBoolean(hints.get(CACHE_HINT))) {
+            return null;
+        }
+        try {
+            final int capacity = hints.containsKey(CACHE_CAPACITY_HINT) ? Integer.parseInt(hints.get(CACHE_CAPACITY_HINT)) : DEFAULT_QUERY_CACHE_CAPACITY;
+            final long timeToLive = hints.containsKey(CACHE_TIME_TO_LIVE_HINT) ? Long.parseLong(hints.get(CACHE_TIME_TO_LIVE_HINT)) : 0L;
+            final CacheEvictionPolicy evictionPolicy = hints.containsKey(CACHE_EVICTION_HINT) ? CacheEvictionPolicy.valueOf(hints.get(CACHE_EVICTION_HINT)) : CacheEvictionPolicy.LEAST_RECENTLY_USED;
+            return new ImmutableCacheMetadata(capacity, timeToLive, evictionPolicy);
+        } catch (IllegalArgumentException e) {
+            throw new QueryDefinitionError(entityType, query.name(), "Invalid cache hint: " + e.getMessage());
+        }
+    }
+
     private static CascadeMetadata getCascadeMetadata(Method method) {
         final List<CascadeType> cascadeTypes = new ArrayList<CascadeType>();
         if (method.isAnnotationPresent(OneToOne.class)) {
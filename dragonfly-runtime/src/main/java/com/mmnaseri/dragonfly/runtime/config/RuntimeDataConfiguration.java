@@ -38,6 +38,7 @@ import com.mmnaseri.dragonfly.metadata.TableMetadataRegistry;
 import com.mmnaseri.dragonfly.metadata.impl.DefaultTableMetadataContext;
 import com.mmnaseri.dragonfly.runtime.assets.BeanDisposer;
 import com.mmnaseri.dragonfly.runtime.assets.DataAccessPreparator;
+import com.mmnaseri.dragonfly.runtime.ext.monitoring.HistoryJournalMode;
 import com.mmnaseri.dragonfly.runtime.ext.monitoring.MonitoredEntityContext;
 import com.mmnaseri.dragonfly.runtime.ext.monitoring.impl.DefaultMonitoredEntityContext;
 import com.mmnaseri.dragonfly.runtime.ext.monitoring.impl.MonitoredEntityInterceptor;
@@ -136,8 +137,12 @@ public class RuntimeDataConfiguration implements ApplicationContextAware {
     }
 
     @Bean
-    public MonitoredEntityContext monitoredEntityContext() {
-        return new DefaultMonitoredEntityContext();
+    public MonitoredEntityContext monitoredEntityContext(Environment environment) {
+        final DefaultMonitoredEntityContext context = new DefaultMonitoredEntityContext();
+        context.setJournalMode(HistoryJournalMode.valueOf(environment.getProperty("monitoring.journal.mode", HistoryJournalMode.SYNCHRONOUS.name()).trim().toUpperCase()));
+        context.setJournalCapacity(environment.getProperty("monitoring.journal.capacity", Integer.class, DefaultMonitoredEntityContext.DEFAULT_JOURNAL_CAPACITY));
+        context.setJournalBatchSize(environment.getProperty("monitoring.journal.batchSize", Integer.class, DefaultMonitoredEntityContext.DEFAULT_JOURNAL_BATCH_SIZE));
+        return context;
     }
 
     @Bean
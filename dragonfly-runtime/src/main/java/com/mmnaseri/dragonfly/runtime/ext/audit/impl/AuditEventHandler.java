@@ -41,6 +41,11 @@ public class AuditEventHandler extends AbstractDataAccessEventHandler {
         this.userContext = userContext;
     }
 
+    @Override
+    public boolean supports(Class<?> entityType) {
+        return ConfigurableAuditable.class.isAssignableFrom(entityType);
+    }
+
     @Override
     public <E> void beforeInsert(E entity) {
         if (entity instanceof ConfigurableAuditable) {
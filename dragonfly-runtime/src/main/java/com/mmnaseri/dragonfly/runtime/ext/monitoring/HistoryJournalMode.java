@@ -0,0 +1,50 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.mmnaseri.dragonfly.runtime.ext.monitoring;
+
+/**
+ * This enumeration determines when the history of {@link Monitored} entities is written to the database.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:31)
+ */
+public enum HistoryJournalMode {
+
+    /**
+     * History is written as part of the operation that changed the entity
+     */
+    SYNCHRONOUS,
+    /**
+     * History is queued and written behind by a background writer, as soon as it can get to it
+     */
+    ASYNCHRONOUS,
+    /**
+     * History is queued and only written by the background writer once the journal is flushed through
+     * {@link MonitoredEntityContext#flush()} or by committing a batch through the session's data access, or once
+     * enough of it has been queued to fill a batch
+     */
+    FLUSH_ON_COMMIT
+
+}
@@ -91,5 +91,15 @@ public interface MonitoredEntityContext {
 
     boolean hasHistory(Object entity);
 
+    boolean isMonitored(Class<?> entityType);
+
     <E> void note(OperationType operationType, E entity);
+
+    /**
+     * Blocks until the history noted so far has been written to the database
+     *
+     * @throws com.mmnaseri.dragonfly.error.UnsuccessfulOperationError if some of the history noted since the
+     *                                                               last flush could not be written
+     */
+    void flush();
 }
@@ -27,10 +27,13 @@ import com.mmnaseri.couteau.context.contract.Registry;
 import com.mmnaseri.couteau.context.error.RegistryException;
 import com.mmnaseri.couteau.context.impl.ConcurrentRegistry;
 import com.mmnaseri.couteau.freemarker.utils.FreemarkerUtils;
+import com.mmnaseri.dragonfly.data.BatchCommitListener;
 import com.mmnaseri.dragonfly.data.DataAccess;
 import com.mmnaseri.dragonfly.data.DataAccessSession;
 import com.mmnaseri.dragonfly.data.DataStructureHandler;
 import com.mmnaseri.dragonfly.data.OperationType;
+import com.mmnaseri.dragonfly.data.impl.DefaultDataAccessSession;
+import com.mmnaseri.dragonfly.data.impl.MultiRowInsert;
 import com.mmnaseri.dragonfly.dialect.DatabaseDialect;
 import com.mmnaseri.dragonfly.entity.*;
 import com.mmnaseri.dragonfly.entity.impl.DefaultEntityMapCreator;
@@ -45,12 +48,15 @@ import com.mmnaseri.dragonfly.metadata.impl.ResolvedTableMetadata;
 import com.mmnaseri.dragonfly.metadata.impl.UnresolvedTableMetadata;
 import com.mmnaseri.dragonfly.runtime.ext.monitoring.*;
 import com.mmnaseri.dragonfly.runtime.session.impl.SessionInitializationEventHandlerAdapter;
+import com.mmnaseri.dragonfly.statement.Statement;
 import com.mmnaseri.dragonfly.statement.StatementBuilder;
 import com.mmnaseri.dragonfly.statement.StatementRegistry;
 import com.mmnaseri.dragonfly.statement.Statements;
+import com.mmnaseri.dragonfly.statement.impl.DefaultStatementPreparator;
 import com.mmnaseri.dragonfly.statement.impl.DefaultStatementRegistry;
 import com.mmnaseri.dragonfly.statement.impl.FreemarkerStatementBuilder;
 import com.mmnaseri.dragonfly.statement.impl.LocalStatementRegistry;
+import com.mmnaseri.dragonfly.statement.impl.ParameterBindingPlan;
 import com.mmnaseri.dragonfly.statement.impl.StatementRegistryPreparator;
 import com.mmnaseri.dragonfly.tools.ColumnNameFilter;
 import com.mmnaseri.dragonfly.tools.DatabaseUtils;
@@ -59,6 +65,7 @@ import com.mmnaseri.dragonfly.metadata.*;
 import freemarker.cache.StringTemplateLoader;
 import freemarker.template.Configuration;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.context.ApplicationContext;
 
@@ -66,15 +73,26 @@ import java.io.Serializable;
 import java.sql.*;
 import java.util.*;
 import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
 
 /**
+ * This is the default implementation of the context through which the history of monitored entities is kept.
+ *
+ * <p>History is written through a {@link HistoryJournal}, which, depending on the configured
+ * {@link HistoryJournalMode}, either writes it along with the operation that changed the entity, or
+ * writes it behind, in multi-row inserts per history table. The default is to write history synchronously.</p>
+ *
+ * <p>When history is written on commit, the journal is also flushed whenever a batch is committed through the
+ * data access of the session.</p>
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (14/8/28 AD, 14:48)
  */
-public class DefaultMonitoredEntityContext extends SessionInitializationEventHandlerAdapter implements MonitoredEntityContext {
+public class DefaultMonitoredEntityContext extends SessionInitializationEventHandlerAdapter implements MonitoredEntityContext, BatchCommitListener, DisposableBean {
 
     public static final String OPERATION_PROPERTY = "hist_operation";
     public static final String DATE_PROPERTY = "hist_date";
@@ -89,6 +107,8 @@ public class DefaultMonitoredEntityContext extends SessionInitializationEventHan
     public static final String SQL_FIND_BETWEEN_VERSIONS = "findBetweenVersions";
     public static final String SQL_FIND_BETWEEN_DATES = "findBetweenDates";
     public static final String HISTORY_TABLE_NAME_PREFIX = "hist_";
+    public static final int DEFAULT_JOURNAL_CAPACITY = 10000;
+    public static final int DEFAULT_JOURNAL_BATCH_SIZE = 500;
     private final Collection<Class<?>> monitoredEntities = new CopyOnWriteArrayList<Class<?>>();
     private final TableMetadataRegistry tableMetadataRegistry = new DefaultTableMetadataRegistry();
     private final StatementRegistry statementRegistry = new DefaultStatementRegistry();
@@ -98,6 +118,12 @@ public class DefaultMonitoredEntityContext extends SessionInitializationEventHan
     private EntityHandlerContext entityHandlerContext;
     private EntityContext entityContext;
     private DataAccess dataAccess;
+    private final ConcurrentMap<Class<?>, Statement> noteStatements = new ConcurrentHashMap<Class<?>, Statement>();
+    private final DefaultStatementPreparator statementPreparator = new DefaultStatementPreparator(false);
+    private HistoryJournalMode journalMode = HistoryJournalMode.SYNCHRONOUS;
+    private int journalCapacity = DEFAULT_JOURNAL_CAPACITY;
+    private int journalBatchSize = DEFAULT_JOURNAL_BATCH_SIZE;
+    private volatile HistoryJournal journal;
 
     @Override
     public void afterRegisteringEntities(EntityDefinitionContext entityDefinitionContext, Collection<Class> entityClasses) {
@@ -430,12 +456,154 @@ public class DefaultMonitoredEntityContext extends SessionInitializationEventHan
         return false;
     }
 
+    @Override
+    public boolean isMonitored(Class<?> entityType) {
+        for (Class<?> monitoredEntity : monitoredEntities) {
+            if (monitoredEntity.isAssignableFrom(entityType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public <E> void note(OperationType operationType, E entity) {
         final Map<String, Object> values = new HashMap<String, Object>(entityHandlerContext.toMap(session.getTableMetadataRegistry().getTableMetadata(entityHandlerContext.getHandler(entity).getEntityType()), entity));
         values.put(OPERATION_PROPERTY, operationType);
         values.put(DATE_PROPERTY, new Date());
-        executeUpdate(entity.getClass(), SQL_NOTE, values);
+        getHistoryJournal().note(entity.getClass(), MapTools.prefixKeys(values, "value."));
+    }
+
+    @Override
+    public void flush() {
+        if (journal != null) {
+            journal.flush();
+        }
+    }
+
+    @Override
+    public void afterBatchCommit() {
+        if (HistoryJournalMode.FLUSH_ON_COMMIT.equals(journalMode)) {
+            flush();
+        }
+    }
+
+    /**
+     * @return the journal through which history is written
+     */
+    public HistoryJournal getHistoryJournal() {
+        if (journal == null) {
+            synchronized (this) {
+                if (journal == null) {
+                    journal = new HistoryJournal(journalMode, journalCapacity, journalBatchSize) {
+                        @Override
+                        protected void write(Class<?> entityType, List<Map<String, Object>> rows) {
+                            writeHistory(entityType, rows);
+                        }
+                    };
+                }
+            }
+        }
+        return journal;
+    }
+
+    private Statement getNoteStatement(Class<?> entityType) {
+        final Statement cached = noteStatements.get(entityType);
+        if (cached != null) {
+            return cached;
+        }
+        String prefix = "";
+        for (Class<?> entity : monitoredEntities) {
+            if (entity.isAssignableFrom(entityType)) {
+                prefix = entity.getCanonicalName();
+            }
+        }
+        final Statement statement;
+        try {
+            statement = new LocalStatementRegistry(statementRegistry, prefix).get(SQL_NOTE);
+        } catch (RegistryException e) {
+            throw new UnsupportedStatementTypeError(SQL_NOTE);
+        }
+        noteStatements.putIfAbsent(entityType, statement);
+        return statement;
+    }
+
+    /**
+     * Writes the given rows of history for the entity type
+     * @param entityType    the entity type
+     * @param rows          the rows, with their keys prefixed with {@code value.}
+     */
+    private void writeHistory(Class<?> entityType, List<Map<String, Object>> rows) {
+        final Statement statement = getNoteStatement(entityType);
+        final Connection connection = session.getConnection();
+        try {
+            if (statement.isDynamic() || !statement.hasParameters()) {
+                for (Map<String, Object> row : rows) {
+                    final PreparedStatement preparedStatement = statement.prepare(connection, null, row);
+                    try {
+                        preparedStatement.executeUpdate();
+                    } finally {
+                        preparedStatement.close();
+                    }
+                }
+                return;
+            }
+            final ParameterBindingPlan plan = statementPreparator.getBindingPlan(statement.getTableMetadata(), statement.getSql());
+            insertRows(connection, plan, session.getDatabaseDialect(), rows);
+        } catch (SQLException e) {
+            throw new UnsuccessfulOperationError("Failed to write the history for " + entityType.getCanonicalName(), e);
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Inserts the given rows through the binding plan of an insert statement. Whenever the dialect supports
+     * multi-row inserts, this is left to a {@link MultiRowInsert}, so that history goes out in the same fixed
+     * chunks as any other batched insert. Otherwise, the rows are sent as a single JDBC batch.
+     * @param connection    the connection
+     * @param plan          the binding plan of the single-row insert
+     * @param dialect       the database dialect
+     * @param rows          the rows
+     * @throws SQLException if the rows cannot be inserted
+     */
+    static void insertRows(Connection connection, ParameterBindingPlan plan, DatabaseDialect dialect, List<Map<String, Object>> rows) throws SQLException {
+        if (dialect.isMultiRowInsertSupported()) {
+            new MultiRowInsert(plan, dialect).execute(connection, rows, new ArrayList<Integer>(rows.size()), null);
+            return;
+        }
+        final PreparedStatement preparedStatement = connection.prepareStatement(plan.getSql());
+        try {
+            for (Map<String, Object> row : rows) {
+                plan.bind(preparedStatement, row);
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+        } finally {
+            preparedStatement.close();
+        }
+    }
+
+    public void setJournalMode(HistoryJournalMode journalMode) {
+        this.journalMode = journalMode;
+    }
+
+    public void setJournalCapacity(int journalCapacity) {
+        this.journalCapacity = journalCapacity;
+    }
+
+    public void setJournalBatchSize(int journalBatchSize) {
+        this.journalBatchSize = journalBatchSize;
+    }
+
+    @Override
+    public void destroy() {
+        if (journal != null) {
+            journal.close();
+        }
     }
 
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
@@ -443,6 +611,9 @@ public class DefaultMonitoredEntityContext extends SessionInitializationEventHan
         entityContext = applicationContext.getBean(EntityContext.class);
         dataAccess = applicationContext.getBean(DataAccess.class);
         session = applicationContext.getBean(DataAccessSession.class);
+        if (session instanceof DefaultDataAccessSession) {
+            ((DefaultDataAccessSession) session).addBatchCommitListener(this);
+        }
         /**
          * We need to locate all beans that require access to this context and inject them with the context
          */
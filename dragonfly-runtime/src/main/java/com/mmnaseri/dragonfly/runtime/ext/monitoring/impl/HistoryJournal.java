@@ -0,0 +1,348 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.mmnaseri.dragonfly.runtime.ext.monitoring.impl;
+
+import com.mmnaseri.dragonfly.error.UnsuccessfulOperationError;
+import com.mmnaseri.dragonfly.runtime.ext.monitoring.HistoryJournalMode;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is a write-behind journal for the history of monitored entities. Unless it is working in
+ * {@link HistoryJournalMode#SYNCHRONOUS synchronous} mode, entries noted in the journal are put in a bounded
+ * queue, from which a background writer takes them in batches and hands them over, grouped by entity type,
+ * to {@link #write(Class, List)}.
+ *
+ * <p>When the queue is full, noting an entry blocks until the writer has made room for it. Once the journal
+ * has been {@link #close() closed}, entries are written as they are noted.</p>
+ *
+ * <p>Rows the writer fails to write are logged and counted, and the next {@link #flush()} reports them by
+ * failing, so that a flush only ever returns normally if all the history noted before it has been written.</p>
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 11:31)
+ */
+public abstract class HistoryJournal {
+
+    private static final Log log = LogFactory.getLog(HistoryJournal.class);
+    private static final long POLL_INTERVAL = 100;
+    private final HistoryJournalMode mode;
+    private final int batchSize;
+    private final BlockingQueue<Entry> queue;
+    private final Object monitor = new Object();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong stalls = new AtomicLong();
+    private long processed;
+    private long unreported;
+    private long flushTarget;
+    private volatile boolean running;
+    private volatile boolean closed;
+    private volatile Thread writer;
+
+    public HistoryJournal(HistoryJournalMode mode, int capacity, int batchSize) {
+        if (capacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Journal capacity and batch size must be positive");
+        }
+        this.mode = mode;
+        this.batchSize = Math.min(batchSize, capacity);
+        this.queue = new ArrayBlockingQueue<Entry>(capacity);
+    }
+
+    /**
+     * Writes the given rows of history for the given entity type
+     * @param entityType    the entity type
+     * @param rows          the rows, in the order they were noted
+     */
+    protected abstract void write(Class<?> entityType, List<Map<String, Object>> rows);
+
+    /**
+     * Notes a row of history in the journal
+     * @param entityType    the type of the entity
+     * @param values        the values of the history row
+     */
+    public void note(Class<?> entityType, Map<String, Object> values) {
+        if (HistoryJournalMode.SYNCHRONOUS.equals(mode) || closed) {
+            write(entityType, Collections.singletonList(values));
+            written.incrementAndGet();
+            return;
+        }
+        if (writer == null) {
+            start();
+        }
+        final Entry entry = new Entry(entityType, values);
+        if (!queue.offer(entry)) {
+            stalls.incrementAndGet();
+            synchronized (monitor) {
+                monitor.notifyAll();
+            }
+            try {
+                queue.put(entry);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                write(entityType, Collections.singletonList(values));
+                written.incrementAndGet();
+                return;
+            }
+        }
+        queued.incrementAndGet();
+        if (HistoryJournalMode.FLUSH_ON_COMMIT.equals(mode) && queue.size() >= batchSize) {
+            synchronized (monitor) {
+                monitor.notifyAll();
+            }
+        }
+        if (!running) {
+            //the writer might have finished before the entry was queued
+            drain();
+        }
+    }
+
+    /**
+     * Blocks until all the history noted so far has been handled by the writer
+     * @throws UnsuccessfulOperationError if any of the history handled since the last flush could not be written, or if
+     * the calling thread is interrupted before all of it has been handled
+     */
+    public void flush() {
+        if (HistoryJournalMode.SYNCHRONOUS.equals(mode)) {
+            return;
+        }
+        final long target = queued.get();
+        synchronized (monitor) {
+            if (target > flushTarget) {
+                flushTarget = target;
+            }
+            monitor.notifyAll();
+            while (running && processed < target) {
+                try {
+                    monitor.wait(POLL_INTERVAL);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    if (processed < target) {
+                        throw new UnsuccessfulOperationError("Interrupted while waiting for the history to be written");
+                    }
+                }
+            }
+            if (unreported > 0) {
+                final long failures = unreported;
+                unreported = 0;
+                throw new UnsuccessfulOperationError(failures + " row(s) of history could not be written");
+            }
+        }
+    }
+
+    /**
+     * Stops the background writer, once it has written all history queued so far
+     */
+    public void close() {
+        final Thread writer;
+        synchronized (monitor) {
+            closed = true;
+            running = false;
+            monitor.notifyAll();
+            writer = this.writer;
+        }
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+
+    /**
+     * @return the number of rows of history waiting to be written
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return the time, in milliseconds, the oldest row of history waiting to be written has been waiting
+     */
+    public long getLag() {
+        final Entry entry = queue.peek();
+        return entry == null ? 0 : (System.nanoTime() - entry.getTime()) / 1000000;
+    }
+
+    /**
+     * @return the number of rows of history written so far
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * @return the number of rows of history that could not be written by the background writer
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * @return the number of times noting history had to wait for the writer because the queue was full
+     */
+    public long getStallCount() {
+        return stalls.get();
+    }
+
+    private void start() {
+        synchronized (monitor) {
+            if (writer != null || closed) {
+                return;
+            }
+            running = true;
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    work();
+                }
+            }, "history-journal-writer");
+            thread.setDaemon(true);
+            thread.start();
+            writer = thread;
+        }
+    }
+
+    private boolean isDue() {
+        if (queue.isEmpty()) {
+            return false;
+        }
+        return HistoryJournalMode.ASYNCHRONOUS.equals(mode) || queue.size() >= batchSize || processed < flushTarget;
+    }
+
+    private void work() {
+        final List<Entry> batch = new ArrayList<Entry>(batchSize);
+        while (true) {
+            synchronized (monitor) {
+                while (running && !isDue()) {
+                    try {
+                        monitor.wait(POLL_INTERVAL);
+                    } catch (InterruptedException e) {
+                        running = false;
+                    }
+                }
+                if (!running && queue.isEmpty()) {
+                    return;
+                }
+            }
+            queue.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                continue;
+            }
+            final int failures = write(batch);
+            synchronized (monitor) {
+                processed += batch.size();
+                unreported += failures;
+                monitor.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes whatever is left in the queue on the calling thread
+     */
+    private void drain() {
+        final List<Entry> batch = new ArrayList<Entry>();
+        queue.drainTo(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+        final int failures = write(batch);
+        synchronized (monitor) {
+            processed += batch.size();
+            unreported += failures;
+            monitor.notifyAll();
+        }
+    }
+
+    /**
+     * Writes the given entries, grouped by entity type
+     * @return the number of entries that could not be written
+     */
+    private int write(List<Entry> batch) {
+        final Map<Class<?>, List<Map<String, Object>>> groups = new LinkedHashMap<Class<?>, List<Map<String, Object>>>();
+        for (Entry entry : batch) {
+            List<Map<String, Object>> rows = groups.get(entry.getEntityType());
+            if (rows == null) {
+                rows = new ArrayList<Map<String, Object>>();
+                groups.put(entry.getEntityType(), rows);
+            }
+            rows.add(entry.getValues());
+        }
+        int failures = 0;
+        for (Map.Entry<Class<?>, List<Map<String, Object>>> group : groups.entrySet()) {
+            try {
+                write(group.getKey(), group.getValue());
+                written.addAndGet(group.getValue().size());
+            } catch (RuntimeException e) {
+                failures += group.getValue().size();
+                failed.addAndGet(group.getValue().size());
+                log.error("Failed to write " + group.getValue().size() + " history row(s) for " + group.getKey().getCanonicalName(), e);
+            }
+        }
+        return failures;
+    }
+
+    private static class Entry {
+
+        private final Class<?> entityType;
+        private final Map<String, Object> values;
+        private final long time;
+
+        private Entry(Class<?> entityType, Map<String, Object> values) {
+            this.entityType = entityType;
+            this.values = values;
+            this.time = System.nanoTime();
+        }
+
+        public Class<?> getEntityType() {
+            return entityType;
+        }
+
+        public Map<String, Object> getValues() {
+            return values;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+    }
+
+}
@@ -43,6 +43,11 @@ public class MonitoredEntityEventHandler extends AbstractDataAccessEventHandler
         this.context = context;
     }
 
+    @Override
+    public boolean supports(Class<?> entityType) {
+        return MonitoredEntityContextAware.class.isAssignableFrom(entityType) || context.isMonitored(entityType);
+    }
+
     @Override
     public <E> void afterFind(E sample, List<E> entities) {
         for (E entity : entities) {
@@ -23,6 +23,7 @@
 
 package com.mmnaseri.dragonfly.runtime.repo.impl;
 
+import com.mmnaseri.dragonfly.cg.EnhancementUtils;
 import com.mmnaseri.dragonfly.data.DataAccess;
 import com.mmnaseri.dragonfly.entity.EntityHandlerContext;
 import com.mmnaseri.dragonfly.runtime.repo.CrudRepository;
@@ -128,7 +129,14 @@ public class CrudRepositoryInterceptor implements MethodInterceptor, CrudReposit
         initializeStrategies();
         for (MethodInterceptionStrategy strategy : strategies) {
             if (strategy.accepts(method)) {
-                return strategy.intercept(target, method, arguments, methodProxy);
+                //the repository method is the actor for any secured data operation it results in,
+                //so there is no need to look for it on the call stack
+                EnhancementUtils.pushActor(method);
+                try {
+                    return strategy.intercept(target, method, arguments, methodProxy);
+                } finally {
+                    EnhancementUtils.popActor();
+                }
             }
         }
         throw new UnsupportedOperationException("Operation " + method.getName() + " is not supported for " + entityType.getCanonicalName());
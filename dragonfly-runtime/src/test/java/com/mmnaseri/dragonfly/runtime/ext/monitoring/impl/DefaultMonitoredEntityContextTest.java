@@ -0,0 +1,173 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.runtime.ext.monitoring.impl;
+
+import com.mmnaseri.dragonfly.data.impl.MultiRowInsert;
+import com.mmnaseri.dragonfly.dialect.DatabaseDialect;
+import com.mmnaseri.dragonfly.dialect.impl.Mysql5Dialect;
+import com.mmnaseri.dragonfly.metadata.ColumnMetadata;
+import com.mmnaseri.dragonfly.statement.impl.ParameterBindingPlan;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:19)
+ */
+public class DefaultMonitoredEntityContextTest {
+
+    private final ParameterBindingPlan plan = new ParameterBindingPlan("INSERT INTO hist_people (a, b) VALUES (?, ?)", new String[]{"value.a", "value.b"}, new ColumnMetadata[]{null, null});
+    private final List<String> prepared = new ArrayList<String>();
+    private final List<Integer> updates = new ArrayList<Integer>();
+    private final List<Integer> batches = new ArrayList<Integer>();
+    private int closed;
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Connection.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("prepareStatement")) {
+                    prepared.add((String) args[0]);
+                    return statement();
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private PreparedStatement statement() {
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{PreparedStatement.class}, new InvocationHandler() {
+
+            private int parameters;
+            private int batched;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                final String name = method.getName();
+                if (name.equals("setObject") || name.equals("setNull")) {
+                    parameters = Math.max(parameters, (Integer) args[0]);
+                    return null;
+                } else if (name.equals("executeUpdate")) {
+                    final int rows = parameters / plan.getParameterCount();
+                    updates.add(rows);
+                    parameters = 0;
+                    return rows;
+                } else if (name.equals("addBatch")) {
+                    batched ++;
+                    parameters = 0;
+                    return null;
+                } else if (name.equals("executeBatch")) {
+                    batches.add(batched);
+                    final int[] results = new int[batched];
+                    Arrays.fill(results, 1);
+                    batched = 0;
+                    return results;
+                } else if (name.equals("close")) {
+                    closed ++;
+                    return null;
+                }
+                throw new UnsupportedOperationException(name);
+            }
+        });
+    }
+
+    private static List<Map<String, Object>> rows(int count) {
+        final List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+        for (int i = 0; i < count; i ++) {
+            final Map<String, Object> row = new HashMap<String, Object>();
+            row.put("value.a", "a" + i);
+            row.put("value.b", i);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Test
+    public void testMultiRowHistoryIsSentInFixedChunks() throws Exception {
+        DefaultMonitoredEntityContext.insertRows(connection, plan, new Mysql5Dialect(), rows(MultiRowInsert.CHUNK_SIZE * 2 + 50));
+        assertEquals(Arrays.asList(plan.getSql(MultiRowInsert.CHUNK_SIZE), plan.getSql()), prepared);
+        assertEquals(Arrays.asList(MultiRowInsert.CHUNK_SIZE, MultiRowInsert.CHUNK_SIZE), updates);
+        assertEquals(Collections.singletonList(50), batches);
+        assertEquals(2, closed);
+    }
+
+    @Test
+    public void testChunkedHistoryReusesTheSameStatements() throws Exception {
+        final DatabaseDialect dialect = new Mysql5Dialect();
+        DefaultMonitoredEntityContext.insertRows(connection, plan, dialect, rows(MultiRowInsert.CHUNK_SIZE + 1));
+        DefaultMonitoredEntityContext.insertRows(connection, plan, dialect, rows(MultiRowInsert.CHUNK_SIZE * 3 + 7));
+        assertEquals(2, new HashSet<String>(prepared).size());
+    }
+
+    @Test
+    public void testShortHistoryIsSentAsBatch() throws Exception {
+        DefaultMonitoredEntityContext.insertRows(connection, plan, new Mysql5Dialect(), rows(MultiRowInsert.CHUNK_SIZE - 1));
+        assertEquals(Collections.singletonList(plan.getSql()), prepared);
+        assertTrue(updates.isEmpty());
+        assertEquals(Collections.singletonList(MultiRowInsert.CHUNK_SIZE - 1), batches);
+    }
+
+    @Test
+    public void testHistoryIsBatchedWithoutMultiRowSupport() throws Exception {
+        final Mysql5Dialect dialect = new Mysql5Dialect() {
+            @Override
+            public boolean isMultiRowInsertSupported() {
+                return false;
+            }
+        };
+        DefaultMonitoredEntityContext.insertRows(connection, plan, dialect, rows(250));
+        assertEquals(Collections.singletonList(plan.getSql()), prepared);
+        assertTrue(updates.isEmpty());
+        assertEquals(Collections.singletonList(250), batches);
+        assertEquals(1, closed);
+    }
+
+    @Test
+    public void testWideHistoryChunksRespectTheParameterLimit() throws Exception {
+        final String[] parameters = new String[ParameterBindingPlan.MAX_MULTI_ROW_PARAMETERS / 10];
+        final StringBuilder sql = new StringBuilder("INSERT INTO hist_wide VALUES (");
+        for (int i = 0; i < parameters.length; i ++) {
+            parameters[i] = "value.column" + i;
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+        final ParameterBindingPlan wide = new ParameterBindingPlan(sql.toString(), parameters, new ColumnMetadata[parameters.length]);
+        DefaultMonitoredEntityContext.insertRows(connection, wide, new Mysql5Dialect(), rows(25));
+        assertEquals(Arrays.asList(wide.getSql(10), wide.getSql()), prepared);
+        assertEquals(2, updates.size());
+        assertEquals(Collections.singletonList(5), batches);
+    }
+
+}
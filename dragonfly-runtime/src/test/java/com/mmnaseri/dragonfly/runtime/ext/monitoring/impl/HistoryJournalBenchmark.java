@@ -0,0 +1,86 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.runtime.ext.monitoring.impl;
+
+import com.mmnaseri.dragonfly.runtime.ext.monitoring.HistoryJournalMode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures noting 1000 rows of history and flushing them through a {@link HistoryJournal} in each of its
+ * modes. Each write stands in for a round trip to the database, which is paid once per row when writing
+ * synchronously and once per batch otherwise.
+ *
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:20)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class HistoryJournalBenchmark {
+
+    private static final int ROWS = 1000;
+    private static final long ROUND_TRIP = 2000;
+    private static final long ROW_COST = 20;
+
+    @Param({"SYNCHRONOUS", "ASYNCHRONOUS", "FLUSH_ON_COMMIT"})
+    private HistoryJournalMode mode;
+
+    private HistoryJournal journal;
+    private Map<String, Object> row;
+
+    @Setup
+    public void setUp() {
+        row = Collections.<String, Object>singletonMap("value.id", 1);
+        journal = new HistoryJournal(mode, DefaultMonitoredEntityContext.DEFAULT_JOURNAL_CAPACITY, DefaultMonitoredEntityContext.DEFAULT_JOURNAL_BATCH_SIZE) {
+            @Override
+            protected void write(Class<?> entityType, List<Map<String, Object>> rows) {
+                Blackhole.consumeCPU(ROUND_TRIP + ROW_COST * rows.size());
+            }
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        journal.close();
+    }
+
+    @Benchmark
+    public long noteAndFlush() {
+        for (int i = 0; i < ROWS; i++) {
+            journal.note(Object.class, row);
+        }
+        journal.flush();
+        return journal.getWrittenCount();
+    }
+
+}
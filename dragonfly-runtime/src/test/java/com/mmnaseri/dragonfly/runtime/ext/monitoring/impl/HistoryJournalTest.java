@@ -0,0 +1,243 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.dragonfly.runtime.ext.monitoring.impl;
+
+import com.mmnaseri.dragonfly.error.UnsuccessfulOperationError;
+import com.mmnaseri.dragonfly.runtime.ext.monitoring.HistoryJournalMode;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent (agent@local)
+ * @since 1.0 (2026/10/18, 12:19)
+ */
+public class HistoryJournalTest {
+
+    private final List<Class<?>> types = Collections.synchronizedList(new ArrayList<Class<?>>());
+    private final List<Integer> sizes = Collections.synchronizedList(new ArrayList<Integer>());
+    private final List<Thread> writers = Collections.synchronizedList(new ArrayList<Thread>());
+    private HistoryJournal journal;
+
+    @After
+    public void tearDown() throws Exception {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private HistoryJournal journal(HistoryJournalMode mode, int capacity, int batchSize) {
+        journal = new HistoryJournal(mode, capacity, batchSize) {
+            @Override
+            protected void write(Class<?> entityType, List<Map<String, Object>> rows) {
+                types.add(entityType);
+                sizes.add(rows.size());
+                writers.add(Thread.currentThread());
+            }
+        };
+        return journal;
+    }
+
+    private static Map<String, Object> row(int id) {
+        return Collections.<String, Object>singletonMap("value.id", id);
+    }
+
+    private int total() {
+        int total = 0;
+        synchronized (sizes) {
+            for (Integer size : sizes) {
+                total += size;
+            }
+        }
+        return total;
+    }
+
+    @Test
+    public void testSynchronousHistoryIsWrittenRightAway() throws Exception {
+        final HistoryJournal journal = journal(HistoryJournalMode.SYNCHRONOUS, 10, 10);
+        journal.note(String.class, row(1));
+        assertEquals(1, total());
+        assertSame(Thread.currentThread(), writers.get(0));
+        assertEquals(1, journal.getWrittenCount());
+        assertEquals(0, journal.getQueueDepth());
+    }
+
+    @Test
+    public void testFlushWaitsForAsynchronousHistory() throws Exception {
+        final HistoryJournal journal = journal(HistoryJournalMode.ASYNCHRONOUS, 1000, 100);
+        for (int i = 0; i < 500; i ++) {
+            journal.note(i % 2 == 0 ? String.class : Integer.class, row(i));
+        }
+        journal.flush();
+        assertEquals(500, total());
+        assertEquals(500, journal.getWrittenCount());
+        assertEquals(0, journal.getFailedCount());
+        for (Thread writer : writers) {
+            assertNotSame(Thread.currentThread(), writer);
+        }
+    }
+
+    @Test
+    public void testHistoryIsWrittenOnCommitOnlyWhenFlushed() throws Exception {
+        final HistoryJournal journal = journal(HistoryJournalMode.FLUSH_ON_COMMIT, 1000, 100);
+        journal.note(String.class, row(1));
+        journal.note(Integer.class, row(2));
+        journal.note(String.class, row(3));
+        Thread.sleep(300);
+        assertEquals(0, total());
+        assertEquals(3, journal.getQueueDepth());
+        journal.flush();
+        assertEquals(Arrays.<Class<?>>asList(String.class, Integer.class), types);
+        assertEquals(Arrays.asList(2, 1), sizes);
+        assertEquals(0, journal.getQueueDepth());
+    }
+
+    @Test
+    public void testFullBatchIsWrittenWithoutFlushing() throws Exception {
+        final HistoryJournal journal = journal(HistoryJournalMode.FLUSH_ON_COMMIT, 1000, 10);
+        for (int i = 0; i < 10; i ++) {
+            journal.note(String.class, row(i));
+        }
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (journal.getWrittenCount() < 10 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(10, journal.getWrittenCount());
+    }
+
+    @Test
+    public void testFailedHistoryIsReportedByTheNextFlush() throws Exception {
+        journal = new HistoryJournal(HistoryJournalMode.ASYNCHRONOUS, 100, 10) {
+            @Override
+            protected void write(Class<?> entityType, List<Map<String, Object>> rows) {
+                if (Integer.class.equals(entityType)) {
+                    throw new IllegalStateException();
+                }
+                sizes.add(rows.size());
+            }
+        };
+        journal.note(String.class, row(1));
+        journal.note(Integer.class, row(2));
+        journal.note(Integer.class, row(3));
+        try {
+            journal.flush();
+            fail();
+        } catch (UnsuccessfulOperationError e) {
+            assertTrue(e.getMessage().startsWith("2 "));
+        }
+        assertEquals(1, journal.getWrittenCount());
+        assertEquals(2, journal.getFailedCount());
+        //failures are only reported once
+        journal.flush();
+        journal.note(String.class, row(4));
+        journal.flush();
+        assertEquals(2, total());
+    }
+
+    @Test
+    public void testClosingWritesWhatIsLeft() throws Exception {
+        final HistoryJournal journal = journal(HistoryJournalMode.FLUSH_ON_COMMIT, 1000, 100);
+        journal.note(String.class, row(1));
+        journal.note(String.class, row(2));
+        journal.close();
+        assertEquals(2, total());
+        journal.note(String.class, row(3));
+        assertEquals(3, total());
+        assertSame(Thread.currentThread(), writers.get(writers.size() - 1));
+    }
+
+    @Test
+    public void testInterruptedFlushFails() throws Exception {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        journal = new HistoryJournal(HistoryJournalMode.ASYNCHRONOUS, 10, 10) {
+            @Override
+            protected void write(Class<?> entityType, List<Map<String, Object>> rows) {
+                writing.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                sizes.add(rows.size());
+            }
+        };
+        journal.note(String.class, row(1));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        Thread.currentThread().interrupt();
+        try {
+            journal.flush();
+            fail();
+        } catch (UnsuccessfulOperationError e) {
+            assertTrue(Thread.interrupted());
+        }
+        release.countDown();
+        journal.flush();
+        assertEquals(1, total());
+    }
+
+    @Test
+    public void testFullQueueStallsTheCaller() throws Exception {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        journal = new HistoryJournal(HistoryJournalMode.ASYNCHRONOUS, 1, 1) {
+            @Override
+            protected void write(Class<?> entityType, List<Map<String, Object>> rows) {
+                writing.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                sizes.add(rows.size());
+            }
+        };
+        journal.note(String.class, row(1));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        journal.note(String.class, row(2));
+        assertEquals(0, journal.getStallCount());
+        final Thread noting = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                journal.note(String.class, row(3));
+            }
+        });
+        noting.start();
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (journal.getStallCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, journal.getStallCount());
+        release.countDown();
+        noting.join(5000);
+        journal.flush();
+        assertEquals(3, total());
+    }
+
+}